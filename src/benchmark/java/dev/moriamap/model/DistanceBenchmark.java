@@ -0,0 +1,138 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Measures the time taken by each distance method of GeographicPosition
+ * between pairs of positions spread over a city, against the former
+ * distanceFrom, which computed rounded Cartesian coordinates with
+ * BigDecimals twice per call. Then measures the distances from one position
+ * to all of them computed by a PositionArray, with the Vector API if it is
+ * present and one by one.
+ * <p>
+ *     Each method is run for some warm-up rounds so that the JIT compiles
+ *     it, then timed over several rounds, and the best round is reported.
+ *     Run it with "./gradlew benchmark".
+ * </p>
+ */
+public final class DistanceBenchmark {
+
+    // The number of positions, each paired with the next one
+    private static final int POSITIONS = 100_000;
+
+    // The number of rounds run before and while timing a method
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int TIMED_ROUNDS = 10;
+
+    // A distance method measured by this benchmark
+    private interface Distance {
+        double between(GeographicPosition p1, GeographicPosition p2);
+    }
+
+    private DistanceBenchmark() {}
+
+    /**
+     * Runs the benchmark and prints the time per distance of each method.
+     * @param args ignored
+     */
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        GeographicPosition[] positions = new GeographicPosition[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++)
+            positions[i] = GeographicPosition.at(
+                48.8 + random.nextDouble() * 0.1, 2.25 + random.nextDouble() * 0.15);
+        double legacy = measure("rounded Cartesian (former distanceFrom)",
+                                positions, DistanceBenchmark::roundedDistance, -1);
+        measure("distanceFrom", positions, GeographicPosition::distanceFrom, legacy);
+        measure("chordDistanceFrom", positions,
+                GeographicPosition::chordDistanceFrom, legacy);
+        measure("equirectangularDistanceFrom", positions,
+                GeographicPosition::equirectangularDistanceFrom, legacy);
+        measure("haversineDistanceFrom", positions,
+                GeographicPosition::haversineDistanceFrom, legacy);
+        PositionArray array = PositionArray.of(Arrays.asList(positions));
+        for (DistanceMetric metric : DistanceMetric.values()) {
+            double scalar = measureBatch(metric + " batch, scalar", array, metric, false, -1);
+            if (PositionArray.isVectorized())
+                measureBatch(metric + " batch, vector", array, metric, true, scalar);
+        }
+    }
+
+    // Times the distances from the first position of array to all of them,
+    // prints the best time per distance in nanoseconds and the speedup
+    // against reference if it is positive, and returns the time
+    private static double measureBatch(
+      String name,
+      PositionArray array,
+      DistanceMetric metric,
+      boolean vectorized,
+      double reference
+    ) {
+        GeographicPosition from =
+            GeographicPosition.at(array.getLatitude(0), array.getLongitude(0));
+        double[] into = new double[array.size()];
+        double sink = 0.0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + TIMED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            array.distancesFrom(from, metric, 0, array.size(), into, vectorized);
+            long time = System.nanoTime() - start;
+            sink += into[round];
+            if (round >= WARMUP_ROUNDS)
+                best = Math.min(best, time);
+        }
+        return print(name, (double) best / array.size(), reference, sink);
+    }
+
+    // Times distance between each position and the next one, prints the
+    // best time per distance in nanoseconds and the speedup against
+    // reference if it is positive, and returns the time
+    private static double measure(
+      String name,
+      GeographicPosition[] positions,
+      Distance distance,
+      double reference
+    ) {
+        double sink = 0.0;
+        for (int round = 0; round < WARMUP_ROUNDS; round++)
+            sink += run(positions, distance);
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < TIMED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            sink += run(positions, distance);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return print(name, (double) best / (positions.length - 1), reference, sink);
+    }
+
+    // Prints the time per distance of a method and its speedup against
+    // reference if it is positive, with sink so that the JIT can not remove
+    // the computations, and returns the time
+    private static double print(String name, double nanos, double reference, double sink) {
+        if (reference > 0)
+            System.out.printf("%-40s %8.1f ns  x%.1f  (%.0f)%n",
+                              name, nanos, reference / nanos, sink);
+        else
+            System.out.printf("%-40s %8.1f ns        (%.0f)%n", name, nanos, sink);
+        return nanos;
+    }
+
+    // Returns the sum of the distances between each position and the next
+    private static double run(GeographicPosition[] positions, Distance distance) {
+        double sum = 0.0;
+        for (int i = 1; i < positions.length; i++)
+            sum += distance.between(positions[i - 1], positions[i]);
+        return sum;
+    }
+
+    // The former distanceFrom, from coordinates rounded by toCartesian
+    private static double roundedDistance(GeographicPosition p1, GeographicPosition p2) {
+        double[] c1 = p1.toCartesian(GeographicPosition.EARTH_RADIUS);
+        double[] c2 = p2.toCartesian(GeographicPosition.EARTH_RADIUS);
+        double res = 0.0;
+        for (int i = 0; i < c1.length; i++)
+            res += Math.pow(c2[i] - c1[i], 2);
+        return Math.sqrt(res);
+    }
+}
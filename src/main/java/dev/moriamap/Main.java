@@ -1,8 +1,6 @@
 package dev.moriamap;
 
 import dev.moriamap.model.*;
-import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 import java.time.Duration;
 
@@ -168,6 +166,8 @@ class Main {
 
     public static void main(String[] args) {
         TransportNetwork tn = createTransportNetwork();
+        WalkingTransfers.of().addTo( tn );
+        DijkstraRouter router = DijkstraRouter.of( CompiledGraph.of( tn ), RouteMetric.TRAVEL_TIME );
         Scanner inputScanner = new Scanner(System.in);
 
         System.out.println( "At any moment waiting for an input, " +
@@ -187,9 +187,11 @@ class Main {
                 System.out.println( "One of the stops was not found, please check your inputs and repeat" );
             } else {
                 try {
-                    Map<Vertex, Edge> dfs = tn.depthFirstSearch( start );
-                    List<Edge> path = Graph.getRouteFromTraversal( dfs, start, target );
-                    PrettyPrinter.printEdgePath( path );
+                    Route route = router.route( start, target );
+                    if(route == null)
+                        System.out.println( "There is no route between these stops" );
+                    else
+                        PrettyPrinter.printRoute( route );
                 } catch(Exception e) {
                     System.out.println( "An issue occured during the path finding, please check your inputs and repeat" );
                 }
@@ -0,0 +1,190 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+
+/**
+ * Answers batches of route queries in a Timetable with the threads of a
+ * ForkJoinPool. The queries of a batch are split into ranges that the
+ * threads of the pool take and steal from each other, and each thread answers
+ * its queries with its own RaptorRouter, whose search state is reused from
+ * one query to the next.
+ * <p>
+ *     A BatchRouter is thread-safe: batches can be submitted from several
+ *     threads at once.
+ * </p>
+ */
+public final class BatchRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The number of queries below which a task answers its queries itself
+    private static final int QUERIES_PER_TASK = 64;
+
+    // The timetable in which journeys are searched
+    private final Timetable timetable;
+
+    // The pool whose threads answer the queries
+    private final ForkJoinPool pool;
+
+    // The maximum number of transfers of the journeys found
+    private final int maxTransfers;
+
+    // The router of each thread answering queries
+    private final ThreadLocal<RaptorRouter> routers;
+
+    private BatchRouter(Timetable timetable, ForkJoinPool pool, int maxTransfers) {
+        this.timetable = timetable;
+        this.pool = pool;
+        this.maxTransfers = maxTransfers;
+        this.routers = ThreadLocal.withInitial(
+            () -> RaptorRouter.of(timetable, maxTransfers));
+    }
+
+    /**
+     * {@return a new BatchRouter answering queries in the specified Timetable
+     * with the common ForkJoinPool and RaptorRouter.DEFAULT_MAX_TRANSFERS}
+     * @param timetable the Timetable in which journeys are searched
+     * @throws IllegalArgumentException if timetable is null
+     */
+    public static BatchRouter of(Timetable timetable) {
+        return of(
+            timetable, ForkJoinPool.commonPool(), RaptorRouter.DEFAULT_MAX_TRANSFERS);
+    }
+
+    /**
+     * {@return a new BatchRouter answering queries in the specified Timetable
+     * with the threads of the specified pool}
+     * @param timetable the Timetable in which journeys are searched
+     * @param pool the pool whose threads answer the queries
+     * @param maxTransfers the maximum number of transfers of a journey
+     * @throws IllegalArgumentException if timetable or pool is null, or if
+     *         maxTransfers is negative
+     */
+    public static BatchRouter of(
+      Timetable timetable,
+      ForkJoinPool pool,
+      int maxTransfers
+    ) {
+        if (timetable == null || pool == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (maxTransfers < 0)
+            throw new IllegalArgumentException(
+                "The maximum number of transfers can not be negative");
+        return new BatchRouter(timetable, pool, maxTransfers);
+    }
+
+    /**
+     * {@return the maximum number of transfers of the journeys found}
+     */
+    public int getMaxTransfers() {
+        return this.maxTransfers;
+    }
+
+    /**
+     * Answers the specified queries and returns their journeys once all are
+     * answered.
+     * @param queries the queries to answer
+     * @return an unmodifiable list of the earliest arrival Journey of each
+     *         query in the order of queries, null for the queries whose target
+     *         can not be reached
+     * @throws IllegalArgumentException if queries is or contains null
+     * @throws NoSuchElementException if a Stop of a query is not in the
+     *         timetable
+     */
+    public List<Journey> route(List<RouteQuery> queries) {
+        RouteQuery[] batch = toArray(queries);
+        Journey[] journeys = new Journey[batch.length];
+        this.pool.invoke(new QueryTask(batch, 0, batch.length, journeys, null));
+        return Collections.unmodifiableList(Arrays.asList(journeys));
+    }
+
+    /**
+     * Answers the specified queries and gives each Journey to consumer as
+     * soon as it is found, in no particular order. The consumer is called
+     * from the threads of the pool, maybe at the same time, and this method
+     * returns once it has been called for every query.
+     * @param queries the queries to answer
+     * @param consumer the consumer of each query and its earliest arrival
+     *        Journey, null if its target can not be reached
+     * @throws IllegalArgumentException if an argument is or contains null
+     * @throws NoSuchElementException if a Stop of a query is not in the
+     *         timetable
+     */
+    public void route(
+      List<RouteQuery> queries,
+      BiConsumer<RouteQuery, Journey> consumer
+    ) {
+        if (consumer == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        RouteQuery[] batch = toArray(queries);
+        this.pool.invoke(new QueryTask(batch, 0, batch.length, null, consumer));
+    }
+
+    // Copies the queries in an array, checking that none is null
+    private static RouteQuery[] toArray(List<RouteQuery> queries) {
+        if (queries == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        RouteQuery[] batch = queries.toArray(new RouteQuery[0]);
+        for (RouteQuery query : batch)
+            if (query == null)
+                throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return batch;
+    }
+
+    // Answers a range of queries, splitting it between subtasks if it is
+    // large, into journeys or to consumer
+    private final class QueryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RouteQuery[] queries;
+        private final int first;
+        private final int end;
+        private final Journey[] journeys;
+        private final BiConsumer<RouteQuery, Journey> consumer;
+
+        private QueryTask(
+          RouteQuery[] queries,
+          int first,
+          int end,
+          Journey[] journeys,
+          BiConsumer<RouteQuery, Journey> consumer
+        ) {
+            this.queries = queries;
+            this.first = first;
+            this.end = end;
+            this.journeys = journeys;
+            this.consumer = consumer;
+        }
+
+        @Override protected void compute() {
+            if (this.end - this.first > QUERIES_PER_TASK) {
+                int middle = (this.first + this.end) >>> 1;
+                invokeAll(
+                    new QueryTask(this.queries, this.first, middle,
+                                  this.journeys, this.consumer),
+                    new QueryTask(this.queries, middle, this.end,
+                                  this.journeys, this.consumer)
+                );
+                return;
+            }
+            RaptorRouter router = BatchRouter.this.routers.get();
+            CompiledGraph graph = BatchRouter.this.timetable.getGraph();
+            for (int i = this.first; i < this.end; i++) {
+                RouteQuery query = this.queries[i];
+                Journey journey = router.route(
+                    graph.idOf(query.source()), graph.idOf(query.target()),
+                    query.departure().toSecondOfDay());
+                if (this.journeys != null)
+                    this.journeys[i] = journey;
+                else
+                    this.consumer.accept(query, journey);
+            }
+        }
+    }
+}
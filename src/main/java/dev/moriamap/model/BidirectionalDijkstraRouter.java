@@ -0,0 +1,251 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds shortest routes in a CompiledGraph with a bidirectional Dijkstra
+ * search: a forward search grows from the source over outgoing edges while a
+ * backward search grows from the destination over incoming edges. The search
+ * stops when the sum of the lowest tentative costs of both sides is not lower
+ * than the cost of the best route found where they meet.
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     BidirectionalDijkstraRouter is not thread-safe: each thread must use its
+ *     own.
+ * </p>
+ */
+public final class BidirectionalDijkstraRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The graph in which routes are searched
+    private final CompiledGraph graph;
+
+    // The cost of each edge of graph for the minimized metric
+    private final double[] costs;
+
+    // The state of the search from the source over outgoing edges
+    private final Side forward;
+
+    // The state of the search from the destination over incoming edges
+    private final Side backward;
+
+    // Buffer used to rebuild routes
+    private final int[] routeBuffer;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    // The cost of the best route found by the current search
+    private double bestCost;
+
+    // The vertex where the forward and backward parts of the best route meet
+    private int meetingVertex;
+
+    // The state of the search in one direction
+    private static final class Side {
+        private final IndexedMinHeap heap;
+        private final double[] distances;
+        private final int[] parentEdges;
+        private final int[] reachedIn;
+        private final int[] settledIn;
+        private int settledCount;
+
+        private Side(int vertexCount) {
+            this.heap = IndexedMinHeap.withCapacity(vertexCount);
+            this.distances = new double[vertexCount];
+            this.parentEdges = new int[vertexCount];
+            this.reachedIn = new int[vertexCount];
+            this.settledIn = new int[vertexCount];
+        }
+
+        private double minKey() {
+            return this.heap.isEmpty()
+                ? Double.POSITIVE_INFINITY
+                : this.heap.peekKey();
+        }
+    }
+
+    private BidirectionalDijkstraRouter(CompiledGraph graph, RouteMetric metric) {
+        int vertexCount = graph.getVertexCount();
+        this.graph = graph;
+        this.costs = graph.getCosts(metric);
+        this.forward = new Side(vertexCount);
+        this.backward = new Side(vertexCount);
+        this.routeBuffer = new int[vertexCount];
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new BidirectionalDijkstraRouter minimizing the weight of the
+     * edges of the specified CompiledGraph}
+     * @param graph the CompiledGraph in which routes are searched
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static BidirectionalDijkstraRouter of(CompiledGraph graph) {
+        return of(graph, RouteMetric.WEIGHT);
+    }
+
+    /**
+     * {@return a new BidirectionalDijkstraRouter minimizing the specified
+     * metric in the specified CompiledGraph}
+     * @param graph the CompiledGraph in which routes are searched
+     * @param metric the quantity to minimize
+     * @throws IllegalArgumentException if graph or metric is null
+     */
+    public static BidirectionalDijkstraRouter of(
+      CompiledGraph graph,
+      RouteMetric metric
+    ) {
+        if (graph == null || metric == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new BidirectionalDijkstraRouter(graph, metric);
+    }
+
+    /**
+     * {@return the number of vertices settled by both sides of the last
+     * search}
+     */
+    public int getSettledCount() {
+        return this.forward.settledCount + this.backward.settledCount;
+    }
+
+    /**
+     * Finds a shortest Route from src to dst.
+     * @param src the source Vertex
+     * @param dst the destination Vertex
+     * @return a shortest Route from src to dst, or null if dst can not be
+     *         reached from src
+     * @throws IllegalArgumentException if src or dst is null
+     * @throws NoSuchElementException if src or dst is not in the graph
+     */
+    public Route route(Vertex src, Vertex dst) {
+        if (src == null || dst == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.route(this.graph.idOf(src), this.graph.idOf(dst));
+    }
+
+    /**
+     * Finds a shortest Route between the vertices whose ids are src and dst.
+     * @param src the id of the source Vertex
+     * @param dst the id of the destination Vertex
+     * @return a shortest Route from src to dst, or null if dst can not be
+     *         reached from src
+     */
+    public Route route(int src, int dst) {
+        this.search(src, dst);
+        if (this.meetingVertex < 0)
+            return null;
+        int count = 0;
+        for (int v = this.meetingVertex; v != src; ) {
+            int e = this.forward.parentEdges[v];
+            this.routeBuffer[count++] = e;
+            v = this.graph.getSource(e);
+        }
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int tmp = this.routeBuffer[i];
+            this.routeBuffer[i] = this.routeBuffer[j];
+            this.routeBuffer[j] = tmp;
+        }
+        for (int v = this.meetingVertex; v != dst; ) {
+            int e = this.backward.parentEdges[v];
+            this.routeBuffer[count++] = e;
+            v = this.graph.getTarget(e);
+        }
+        return Route.from(this.graph, this.routeBuffer, count, this.bestCost);
+    }
+
+    // Grows both searches, always on the side with the lowest tentative cost,
+    // until the best route found can not be improved
+    private void search(int src, int dst) {
+        this.nextGeneration();
+        this.forward.heap.clear();
+        this.backward.heap.clear();
+        this.forward.settledCount = 0;
+        this.backward.settledCount = 0;
+        this.bestCost = Double.POSITIVE_INFINITY;
+        this.meetingVertex = -1;
+        this.reach(this.forward, this.backward, src, 0.0, -1);
+        this.reach(this.backward, this.forward, dst, 0.0, -1);
+        while (true) {
+            double forwardMin = this.forward.minKey();
+            double backwardMin = this.backward.minKey();
+            if (forwardMin + backwardMin >= this.bestCost
+                || forwardMin == Double.POSITIVE_INFINITY
+                || backwardMin == Double.POSITIVE_INFINITY)
+                return;
+            if (forwardMin <= backwardMin)
+                this.settleForward();
+            else
+                this.settleBackward();
+        }
+    }
+
+    // Settles the closest vertex of the forward search and relaxes its
+    // outgoing edges
+    private void settleForward() {
+        Side side = this.forward;
+        int u = side.heap.poll();
+        side.settledIn[u] = this.generation;
+        side.settledCount++;
+        double du = side.distances[u];
+        int end = this.graph.endEdgeOf(u);
+        for (int e = this.graph.firstEdgeOf(u); e < end; e++) {
+            int v = this.graph.getTarget(e);
+            if (side.settledIn[v] == this.generation)
+                continue;
+            double dv = du + this.costs[e];
+            if (side.reachedIn[v] != this.generation || dv < side.distances[v])
+                this.reach(side, this.backward, v, dv, e);
+        }
+    }
+
+    // Settles the closest vertex of the backward search and relaxes its
+    // incoming edges
+    private void settleBackward() {
+        Side side = this.backward;
+        int u = side.heap.poll();
+        side.settledIn[u] = this.generation;
+        side.settledCount++;
+        double du = side.distances[u];
+        int end = this.graph.endIncomingOf(u);
+        for (int i = this.graph.firstIncomingOf(u); i < end; i++) {
+            int e = this.graph.getIncomingEdge(i);
+            int v = this.graph.getSource(e);
+            if (side.settledIn[v] == this.generation)
+                continue;
+            double dv = du + this.costs[e];
+            if (side.reachedIn[v] != this.generation || dv < side.distances[v])
+                this.reach(side, this.forward, v, dv, e);
+        }
+    }
+
+    // Records that v is reached by side with the given cost through the given
+    // edge, and updates the best route if other side has reached v too
+    private void reach(Side side, Side other, int v, double cost, int edge) {
+        side.distances[v] = cost;
+        side.parentEdges[v] = edge;
+        side.reachedIn[v] = this.generation;
+        side.heap.insertOrDecrease(v, cost);
+        if (other.reachedIn[v] == this.generation) {
+            double total = cost + other.distances[v];
+            if (total < this.bestCost) {
+                this.bestCost = total;
+                this.meetingVertex = v;
+            }
+        }
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            for (Side side : new Side[]{this.forward, this.backward}) {
+                Arrays.fill(side.reachedIn, 0);
+                Arrays.fill(side.settledIn, 0);
+            }
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
@@ -0,0 +1,309 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only snapshot of a Graph in compressed sparse row (CSR) form.
+ * <p>
+ *     Each Vertex is given a dense integer id between 0 (inclusive) and
+ *     getVertexCount() (exclusive), and each Edge a dense integer id between
+ *     0 (inclusive) and getEdgeCount() (exclusive). The outgoing edges of the
+ *     vertex v are the edges whose ids are between firstEdgeOf(v) (inclusive)
+ *     and endEdgeOf(v) (exclusive), so search algorithms can work on primitive
+ *     arrays and only map ids back to Vertex and Edge objects when a route is
+ *     returned.
+ * </p>
+ * <p>
+ *     The incoming edges are indexed the same way: the incoming edges of the
+ *     vertex v are the edges getIncomingEdge(i) for i between
+ *     firstIncomingOf(v) (inclusive) and endIncomingOf(v) (exclusive).
+ * </p>
+ * <p>
+ *     Later modifications of the source Graph are not reflected in a
+ *     CompiledGraph, it must be compiled again.
+ * </p>
+ */
+public final class CompiledGraph {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The vertices of this CompiledGraph indexed by their id
+    private final Vertex[] vertices;
+
+    // Associates each Vertex to its id
+    private final Map<Vertex, Integer> vertexIds;
+
+    // offsets[v] is the id of the first outgoing edge of v, offsets[v + 1]
+    // the id following its last outgoing edge
+    private final int[] offsets;
+
+    // incomingOffsets[v] is the index in incomingEdges of the first incoming
+    // edge of v, incomingOffsets[v + 1] the index following its last one
+    private final int[] incomingOffsets;
+
+    // The ids of the edges sorted by destination Vertex
+    private final int[] incomingEdges;
+
+    // The id of the origin Vertex of each Edge
+    private final int[] sources;
+
+    // The id of the destination Vertex of each Edge
+    private final int[] targets;
+
+    // The edges of this CompiledGraph indexed by their id
+    private final Edge[] edges;
+
+    // The value of getWeight() of each Edge
+    private final double[] weights;
+
+    // The travel duration in seconds of each Edge, 0 if it has none
+    private final int[] durations;
+
+    // The distance of each Edge, 0.0 if it has none
+    private final double[] distances;
+
+    // The travel duration in seconds of each Edge as a cost for searches
+    private final double[] travelTimes;
+
+    private CompiledGraph(
+      Vertex[] vertices,
+      Map<Vertex, Integer> vertexIds,
+      int[] offsets,
+      Edge[] edges
+    ) {
+        this.vertices = vertices;
+        this.vertexIds = vertexIds;
+        this.offsets = offsets;
+        this.edges = edges;
+        int edgeCount = edges.length;
+        this.sources = new int[edgeCount];
+        this.targets = new int[edgeCount];
+        this.weights = new double[edgeCount];
+        this.durations = new int[edgeCount];
+        this.distances = new double[edgeCount];
+        this.travelTimes = new double[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            Edge edge = edges[e];
+            this.sources[e] = vertexIds.get(edge.getFrom());
+            this.targets[e] = vertexIds.get(edge.getTo());
+            this.weights[e] = edge.getWeight();
+            if (edge instanceof TransportSegment segment) {
+                this.durations[e] = Math.toIntExact(
+                    segment.getTravelDuration().getSeconds());
+                this.distances[e] = segment.getDistance();
+            } else if (edge instanceof WalkingSegment walk) {
+                this.durations[e] = Math.toIntExact(
+                    walk.getWalkingDuration().getSeconds());
+                this.distances[e] = walk.getDistance();
+            }
+            this.travelTimes[e] = this.durations[e];
+        }
+        int vertexCount = vertices.length;
+        this.incomingOffsets = new int[vertexCount + 1];
+        for (int e = 0; e < edgeCount; e++)
+            this.incomingOffsets[this.targets[e] + 1]++;
+        for (int v = 0; v < vertexCount; v++)
+            this.incomingOffsets[v + 1] += this.incomingOffsets[v];
+        this.incomingEdges = new int[edgeCount];
+        int[] next = Arrays.copyOf(this.incomingOffsets, vertexCount);
+        for (int e = 0; e < edgeCount; e++)
+            this.incomingEdges[next[this.targets[e]]++] = e;
+    }
+
+    /**
+     * Compiles the specified Graph into a new CompiledGraph.
+     * @param graph the Graph to compile
+     * @return a CompiledGraph with the vertices and edges of graph
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static CompiledGraph of(Graph graph) {
+        if (graph == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Vertex> vertexList = graph.getVertices();
+        int vertexCount = vertexList.size();
+        Vertex[] vertices = vertexList.toArray(new Vertex[0]);
+        Map<Vertex, Integer> vertexIds = new HashMap<>();
+        for (int v = 0; v < vertexCount; v++)
+            vertexIds.put(vertices[v], v);
+        int[] offsets = new int[vertexCount + 1];
+        Edge[][] outgoing = new Edge[vertexCount][];
+        for (int v = 0; v < vertexCount; v++) {
+            outgoing[v] = graph.getOutgoingEdgesOf(vertices[v])
+                .toArray(new Edge[0]);
+            offsets[v + 1] = offsets[v] + outgoing[v].length;
+        }
+        Edge[] edges = new Edge[offsets[vertexCount]];
+        for (int v = 0; v < vertexCount; v++)
+            System.arraycopy(
+                outgoing[v], 0, edges, offsets[v], outgoing[v].length);
+        return new CompiledGraph(vertices, vertexIds, offsets, edges);
+    }
+
+    /**
+     * {@return the number of vertices of this CompiledGraph}
+     */
+    public int getVertexCount() {
+        return this.vertices.length;
+    }
+
+    /**
+     * {@return the number of edges of this CompiledGraph}
+     */
+    public int getEdgeCount() {
+        return this.edges.length;
+    }
+
+    /**
+     * {@return true if the specified Vertex is in this CompiledGraph}
+     * @param vertex some Vertex
+     * @throws IllegalArgumentException if vertex is null
+     */
+    public boolean contains(Vertex vertex) {
+        if (vertex == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.vertexIds.containsKey(vertex);
+    }
+
+    /**
+     * {@return the id of the specified Vertex}
+     * @param vertex some Vertex of this CompiledGraph
+     * @throws IllegalArgumentException if vertex is null
+     * @throws NoSuchElementException if vertex is not in this CompiledGraph
+     */
+    public int idOf(Vertex vertex) {
+        if (vertex == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        Integer id = this.vertexIds.get(vertex);
+        if (id == null)
+            throw new NoSuchElementException("No such vertex");
+        return id;
+    }
+
+    /**
+     * {@return the Vertex whose id is the specified one}
+     * @param id the id of some Vertex of this CompiledGraph
+     */
+    public Vertex getVertex(int id) {
+        return this.vertices[id];
+    }
+
+    /**
+     * {@return the id of the first outgoing Edge of the specified Vertex}
+     * @param vertex the id of some Vertex of this CompiledGraph
+     */
+    public int firstEdgeOf(int vertex) {
+        return this.offsets[vertex];
+    }
+
+    /**
+     * {@return the id following the one of the last outgoing Edge of the
+     * specified Vertex}
+     * @param vertex the id of some Vertex of this CompiledGraph
+     */
+    public int endEdgeOf(int vertex) {
+        return this.offsets[vertex + 1];
+    }
+
+    /**
+     * {@return the index of the first incoming Edge of the specified Vertex,
+     * to be given to getIncomingEdge}
+     * @param vertex the id of some Vertex of this CompiledGraph
+     */
+    public int firstIncomingOf(int vertex) {
+        return this.incomingOffsets[vertex];
+    }
+
+    /**
+     * {@return the index following the one of the last incoming Edge of the
+     * specified Vertex}
+     * @param vertex the id of some Vertex of this CompiledGraph
+     */
+    public int endIncomingOf(int vertex) {
+        return this.incomingOffsets[vertex + 1];
+    }
+
+    /**
+     * {@return the id of the incoming Edge at the specified index}
+     * @param index an index between firstIncomingOf(v) (inclusive) and
+     *              endIncomingOf(v) (exclusive) for some Vertex v
+     */
+    public int getIncomingEdge(int index) {
+        return this.incomingEdges[index];
+    }
+
+    /**
+     * {@return the Edge whose id is the specified one}
+     * @param edge the id of some Edge of this CompiledGraph
+     */
+    public Edge getEdge(int edge) {
+        return this.edges[edge];
+    }
+
+    /**
+     * {@return the id of the origin Vertex of the specified Edge}
+     * @param edge the id of some Edge of this CompiledGraph
+     */
+    public int getSource(int edge) {
+        return this.sources[edge];
+    }
+
+    /**
+     * {@return the id of the destination Vertex of the specified Edge}
+     * @param edge the id of some Edge of this CompiledGraph
+     */
+    public int getTarget(int edge) {
+        return this.targets[edge];
+    }
+
+    /**
+     * {@return the weight of the specified Edge, as given by Edge.getWeight()}
+     * @param edge the id of some Edge of this CompiledGraph
+     */
+    public double getWeight(int edge) {
+        return this.weights[edge];
+    }
+
+    /**
+     * {@return the travel duration in seconds of the specified Edge if it is a
+     * TransportSegment or a WalkingSegment, or 0 for any other Edge}
+     * @param edge the id of some Edge of this CompiledGraph
+     */
+    public int getDuration(int edge) {
+        return this.durations[edge];
+    }
+
+    /**
+     * {@return the distance of the specified Edge if it is a TransportSegment
+     * or a WalkingSegment, or 0.0 for any other Edge}
+     * @param edge the id of some Edge of this CompiledGraph
+     */
+    public double getDistance(int edge) {
+        return this.distances[edge];
+    }
+
+    /**
+     * {@return the cost of the specified Edge for the specified RouteMetric}
+     * @param edge the id of some Edge of this CompiledGraph
+     * @param metric the quantity to get
+     * @throws IllegalArgumentException if metric is null
+     */
+    public double getCost(int edge, RouteMetric metric) {
+        return this.getCosts(metric)[edge];
+    }
+
+    // Returns the array of costs of every Edge for the given metric. The
+    // returned array is not a copy and must not be modified.
+    double[] getCosts(RouteMetric metric) {
+        if (metric == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return switch (metric) {
+            case WEIGHT -> this.weights;
+            case TRAVEL_TIME -> this.travelTimes;
+            case DISTANCE -> this.distances;
+        };
+    }
+}
@@ -0,0 +1,237 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds earliest arrival journeys in a Timetable with the Connection Scan
+ * Algorithm: the connections are scanned once by increasing departure time,
+ * and a connection is taken if its trip is already boarded or if its origin
+ * is reached before it leaves. The scan stops at the first connection leaving
+ * after the earliest arrival at the destination. The footpaths of the
+ * Timetable are walked from the source, and from a stop whenever a
+ * connection reaches it earlier than the connections before: a stop keeps the
+ * arrival by a connection apart from its earliest arrival, so that reaching
+ * it earlier on foot does not prevent walking on from a later connection.
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     ConnectionScanRouter is not thread-safe: each thread must use its own.
+ *     The Timetable itself can be shared.
+ * </p>
+ */
+public final class ConnectionScanRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The timetable in which journeys are searched
+    private final Timetable timetable;
+
+    // The earliest arrival time at each stop, valid if
+    // reachedIn[s] == generation, and the footpath walked to reach it, -1 if
+    // it is reached by a connection or is the source
+    private final int[] arrivals;
+    private final int[] reachedIn;
+    private final int[] walkFootpaths;
+
+    // The earliest arrival time at each stop by a connection, valid if
+    // rodeIn[s] == generation, and the connection boarded and the connection
+    // left to reach it
+    private final int[] rideArrivals;
+    private final int[] rodeIn;
+    private final int[] enterConnections;
+    private final int[] exitConnections;
+
+    // The trips boarded by the current search
+    private final BitSet boardedTrips;
+
+    // The connection where each boarded trip was boarded
+    private final int[] tripEnterConnections;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    private ConnectionScanRouter(Timetable timetable) {
+        int stopCount = timetable.getGraph().getVertexCount();
+        this.timetable = timetable;
+        this.arrivals = new int[stopCount];
+        this.reachedIn = new int[stopCount];
+        this.walkFootpaths = new int[stopCount];
+        this.rideArrivals = new int[stopCount];
+        this.rodeIn = new int[stopCount];
+        this.enterConnections = new int[stopCount];
+        this.exitConnections = new int[stopCount];
+        this.boardedTrips = new BitSet(timetable.getTotalTripCount());
+        this.tripEnterConnections = new int[timetable.getTotalTripCount()];
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new ConnectionScanRouter searching journeys in the specified
+     * Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @throws IllegalArgumentException if timetable is null
+     */
+    public static ConnectionScanRouter of(Timetable timetable) {
+        if (timetable == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new ConnectionScanRouter(timetable);
+    }
+
+    /**
+     * Finds a Journey leaving src at departure or later that reaches dst as
+     * early as possible.
+     * @param src the source Stop
+     * @param dst the destination Stop
+     * @param departure the earliest departure time from src
+     * @return an earliest arrival Journey from src to dst, or null if dst can
+     *         not be reached from src
+     * @throws IllegalArgumentException if an argument is null
+     * @throws NoSuchElementException if src or dst is not in the timetable
+     */
+    public Journey route(Stop src, Stop dst, LocalTime departure) {
+        if (src == null || dst == null || departure == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = this.timetable.getGraph();
+        return this.route(
+            graph.idOf(src), graph.idOf(dst), departure.toSecondOfDay());
+    }
+
+    /**
+     * Finds a Journey between the stops whose ids are src and dst leaving at
+     * the specified time or later that arrives as early as possible.
+     * @param src the id of the source Stop
+     * @param dst the id of the destination Stop
+     * @param departure the earliest departure time from src, in seconds since
+     *        midnight
+     * @return an earliest arrival Journey from src to dst, or null if dst can
+     *         not be reached from src
+     */
+    public Journey route(int src, int dst, int departure) {
+        this.search(src, dst, departure);
+        if (this.reachedIn[dst] != this.generation)
+            return null;
+        CompiledGraph graph = this.timetable.getGraph();
+        List<JourneyLeg> legs = new ArrayList<>();
+        int first = departure;
+        double distance = 0.0;
+        for (int stop = dst; stop != src; ) {
+            int footpath = this.walkFootpaths[stop];
+            if (footpath >= 0) {
+                int walkStop = this.timetable.getFootpathSource(footpath);
+                first = this.rideArrivals[walkStop];
+                distance += this.timetable.getFootpathDistance(footpath);
+                legs.add(JourneyLeg.walk(
+                    (Stop) graph.getVertex(walkStop),
+                    (Stop) graph.getVertex(stop),
+                    Journey.timeOf(first),
+                    Journey.timeOf(this.arrivals[stop])
+                ));
+                stop = walkStop;
+                if (stop == src)
+                    break;
+            }
+            int enter = this.enterConnections[stop];
+            int exit = this.exitConnections[stop];
+            int boardStop = this.timetable.getConnectionSource(enter);
+            first = this.timetable.getConnectionDeparture(enter);
+            int pattern = this.timetable.getTripPattern(
+                this.timetable.getConnectionTrip(enter));
+            distance += this.timetable.getDistance(
+                    pattern, this.timetable.getConnectionPosition(exit) + 1)
+                - this.timetable.getDistance(
+                    pattern, this.timetable.getConnectionPosition(enter));
+            legs.add(new JourneyLeg(
+                this.timetable.getVariant(pattern),
+                (Stop) graph.getVertex(boardStop),
+                (Stop) graph.getVertex(stop),
+                Journey.timeOf(first),
+                Journey.timeOf(this.timetable.getConnectionArrival(exit))
+            ));
+            stop = boardStop;
+        }
+        Collections.reverse(legs);
+        return Journey.from(legs, first, this.arrivals[dst], distance);
+    }
+
+    // Scans the connections from the departure time until none can improve
+    // the arrival at dst
+    private void search(int src, int dst, int departure) {
+        this.nextGeneration();
+        this.boardedTrips.clear();
+        this.ride(src, departure);
+        int count = this.timetable.getConnectionCount();
+        for (int c = this.timetable.firstConnectionFrom(departure); c < count; c++) {
+            int time = this.timetable.getConnectionDeparture(c);
+            if (time >= this.arrivalAt(dst))
+                return;
+            int trip = this.timetable.getConnectionTrip(c);
+            if (!this.boardedTrips.get(trip)) {
+                if (this.arrivalAt(this.timetable.getConnectionSource(c)) > time)
+                    continue;
+                this.boardedTrips.set(trip);
+                this.tripEnterConnections[trip] = c;
+            }
+            int target = this.timetable.getConnectionTarget(c);
+            int arrival = this.timetable.getConnectionArrival(c);
+            if (arrival < this.rideArrivalAt(target)) {
+                this.enterConnections[target] = this.tripEnterConnections[trip];
+                this.exitConnections[target] = c;
+                this.ride(target, arrival);
+            }
+        }
+    }
+
+    // Records that stop is reached by a connection or is the source, improves
+    // its arrival if that is earlier and walks the footpaths from it
+    private void ride(int stop, int arrival) {
+        this.rideArrivals[stop] = arrival;
+        this.rodeIn[stop] = this.generation;
+        if (arrival < this.arrivalAt(stop))
+            this.improve(stop, arrival, -1);
+        int end = this.timetable.endFootpathOf(stop);
+        for (int f = this.timetable.firstFootpathOf(stop); f < end; f++) {
+            int target = this.timetable.getFootpathTarget(f);
+            int time = arrival + this.timetable.getFootpathDuration(f);
+            if (time < this.arrivalAt(target))
+                this.improve(target, time, f);
+        }
+    }
+
+    // Records that stop is reached at the given time, walking the given
+    // footpath or -1 for none
+    private void improve(int stop, int arrival, int footpath) {
+        this.arrivals[stop] = arrival;
+        this.reachedIn[stop] = this.generation;
+        this.walkFootpaths[stop] = footpath;
+    }
+
+    // Returns the earliest arrival time at stop found by the current search
+    private int arrivalAt(int stop) {
+        return this.reachedIn[stop] == this.generation
+            ? this.arrivals[stop]
+            : Integer.MAX_VALUE;
+    }
+
+    // Returns the earliest arrival time at stop by a connection found by the
+    // current search
+    private int rideArrivalAt(int stop) {
+        return this.rodeIn[stop] == this.generation
+            ? this.rideArrivals[stop]
+            : Integer.MAX_VALUE;
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.reachedIn, 0);
+            Arrays.fill(this.rodeIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
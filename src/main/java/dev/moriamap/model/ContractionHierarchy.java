@@ -0,0 +1,685 @@
+package dev.moriamap.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * The Contraction Hierarchy of a CompiledGraph for a RouteMetric. Vertices are
+ * ordered by importance and contracted one after the other: a shortcut arc is
+ * added between two neighbors of a contracted vertex when the route through it
+ * is the only shortest one. A shortest route can then be found by two searches
+ * that only follow arcs towards more important vertices, see
+ * ContractionHierarchyRouter.
+ * <p>
+ *     Every arc is either an Edge of the graph or a shortcut made of two arcs,
+ *     so the routes found can be unpacked back into edges of the graph. The
+ *     preprocessing contracts at once vertices whose neighbors are all less
+ *     important, in parallel on the common ForkJoinPool.
+ * </p>
+ * <p>
+ *     A ContractionHierarchy is immutable and can be saved to a file, see
+ *     save and load. It only stays valid as long as the edge costs of the
+ *     graph do not change.
+ * </p>
+ */
+public final class ContractionHierarchy {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // Written at the beginning of saved hierarchies
+    private static final int FILE_MAGIC = 0x4D434831;
+
+    // The suffix of saved hierarchies
+    private static final String FILE_SUFFIX = ".ch";
+
+    // The maximum number of vertices settled by a witness search, after which
+    // a shortcut is added even though a witness might exist
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    // Marks arcs that are not shortcuts
+    private static final int NO_ARC = -1;
+
+    // The graph this hierarchy was built for
+    private final CompiledGraph graph;
+
+    // The metric the arc costs are computed for
+    private final RouteMetric metric;
+
+    // The position of each vertex in the contraction order
+    private final int[] ranks;
+
+    // The origin, destination and cost of each arc
+    private final int[] arcSources;
+    private final int[] arcTargets;
+    private final double[] arcCosts;
+
+    // The graph edge of each arc, NO_ARC for shortcuts
+    private final int[] arcEdges;
+
+    // The two arcs a shortcut is made of, NO_ARC for graph edges
+    private final int[] arcFirsts;
+    private final int[] arcSeconds;
+
+    // The arcs going from each vertex to a higher ranked vertex, in CSR form
+    private final int[] upOffsets;
+    private final int[] upArcs;
+
+    // The arcs coming to each vertex from a higher ranked vertex, in CSR form
+    private final int[] downOffsets;
+    private final int[] downArcs;
+
+    private ContractionHierarchy(
+      CompiledGraph graph,
+      RouteMetric metric,
+      int[] ranks,
+      int arcCount,
+      int[] arcSources,
+      int[] arcTargets,
+      double[] arcCosts,
+      int[] arcEdges,
+      int[] arcFirsts,
+      int[] arcSeconds
+    ) {
+        this.graph = graph;
+        this.metric = metric;
+        this.ranks = ranks;
+        this.arcSources = Arrays.copyOf(arcSources, arcCount);
+        this.arcTargets = Arrays.copyOf(arcTargets, arcCount);
+        this.arcCosts = Arrays.copyOf(arcCosts, arcCount);
+        this.arcEdges = Arrays.copyOf(arcEdges, arcCount);
+        this.arcFirsts = Arrays.copyOf(arcFirsts, arcCount);
+        this.arcSeconds = Arrays.copyOf(arcSeconds, arcCount);
+        int vertexCount = graph.getVertexCount();
+        this.upOffsets = new int[vertexCount + 1];
+        this.downOffsets = new int[vertexCount + 1];
+        for (int a = 0; a < arcCount; a++) {
+            if (this.isUpward(a))
+                this.upOffsets[this.arcSources[a] + 1]++;
+            else
+                this.downOffsets[this.arcTargets[a] + 1]++;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            this.upOffsets[v + 1] += this.upOffsets[v];
+            this.downOffsets[v + 1] += this.downOffsets[v];
+        }
+        this.upArcs = new int[this.upOffsets[vertexCount]];
+        this.downArcs = new int[this.downOffsets[vertexCount]];
+        int[] nextUp = Arrays.copyOf(this.upOffsets, vertexCount);
+        int[] nextDown = Arrays.copyOf(this.downOffsets, vertexCount);
+        for (int a = 0; a < arcCount; a++) {
+            if (this.isUpward(a))
+                this.upArcs[nextUp[this.arcSources[a]]++] = a;
+            else
+                this.downArcs[nextDown[this.arcTargets[a]]++] = a;
+        }
+    }
+
+    // Returns true if the given arc goes towards a higher ranked vertex
+    private boolean isUpward(int arc) {
+        return this.ranks[this.arcSources[arc]] < this.ranks[this.arcTargets[arc]];
+    }
+
+    /**
+     * Builds the Contraction Hierarchy of the specified CompiledGraph for the
+     * specified metric.
+     * @param graph the CompiledGraph to preprocess
+     * @param metric the quantity minimized by the routes
+     * @return the Contraction Hierarchy of graph for metric
+     * @throws IllegalArgumentException if graph or metric is null
+     */
+    public static ContractionHierarchy of(CompiledGraph graph, RouteMetric metric) {
+        if (graph == null || metric == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        Contractor contractor = new Contractor(graph, graph.getCosts(metric));
+        contractor.contractAll();
+        return new ContractionHierarchy(
+            graph,
+            metric,
+            contractor.ranks,
+            contractor.arcCount,
+            contractor.arcSources,
+            contractor.arcTargets,
+            contractor.arcCosts,
+            contractor.arcEdges,
+            contractor.arcFirsts,
+            contractor.arcSeconds
+        );
+    }
+
+    /**
+     * {@return the path of the file in which the hierarchy of the network
+     * described by the specified CSV file is saved, next to it}
+     * @param networkFile the path of a network CSV file
+     * @throws IllegalArgumentException if networkFile is null
+     */
+    public static Path pathFor(Path networkFile) {
+        if (networkFile == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        String name = networkFile.getFileName().toString();
+        if (name.endsWith(".csv"))
+            name = name.substring(0, name.length() - ".csv".length());
+        return networkFile.resolveSibling(name + FILE_SUFFIX);
+    }
+
+    /**
+     * Saves this hierarchy to the specified file.
+     * @param file the file to write
+     * @throws IllegalArgumentException if file is null
+     * @throws IOException if the file can not be written
+     */
+    public void save(Path file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(this.metric.ordinal());
+            out.writeLong(fingerprint(this.graph, this.metric));
+            for (int rank : this.ranks)
+                out.writeInt(rank);
+            out.writeInt(this.arcSources.length);
+            for (int a = 0; a < this.arcSources.length; a++) {
+                out.writeInt(this.arcSources[a]);
+                out.writeInt(this.arcTargets[a]);
+                out.writeDouble(this.arcCosts[a]);
+                out.writeInt(this.arcEdges[a]);
+                out.writeInt(this.arcFirsts[a]);
+                out.writeInt(this.arcSeconds[a]);
+            }
+        }
+    }
+
+    /**
+     * Loads the hierarchy of the specified CompiledGraph saved in the
+     * specified file.
+     * @param file a file written by save
+     * @param graph the CompiledGraph the hierarchy was built for
+     * @return the loaded hierarchy
+     * @throws IllegalArgumentException if an argument is null
+     * @throws IOException if the file can not be read, or was not saved for a
+     *         graph with the same vertices, edges and costs as graph
+     */
+    public static ContractionHierarchy load(Path file, CompiledGraph graph)
+      throws IOException {
+        if (file == null || graph == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC)
+                throw new IOException("Not a contraction hierarchy file");
+            int metricOrdinal = in.readInt();
+            RouteMetric[] metrics = RouteMetric.values();
+            if (metricOrdinal < 0 || metricOrdinal >= metrics.length)
+                throw new IOException("Unknown metric");
+            RouteMetric metric = metrics[metricOrdinal];
+            if (in.readLong() != fingerprint(graph, metric))
+                throw new IOException("Contraction hierarchy of another graph");
+            int[] ranks = new int[graph.getVertexCount()];
+            for (int v = 0; v < ranks.length; v++)
+                ranks[v] = in.readInt();
+            int arcCount = in.readInt();
+            int[] sources = new int[arcCount];
+            int[] targets = new int[arcCount];
+            double[] costs = new double[arcCount];
+            int[] edges = new int[arcCount];
+            int[] firsts = new int[arcCount];
+            int[] seconds = new int[arcCount];
+            for (int a = 0; a < arcCount; a++) {
+                sources[a] = in.readInt();
+                targets[a] = in.readInt();
+                costs[a] = in.readDouble();
+                edges[a] = in.readInt();
+                firsts[a] = in.readInt();
+                seconds[a] = in.readInt();
+            }
+            return new ContractionHierarchy(
+                graph, metric, ranks, arcCount,
+                sources, targets, costs, edges, firsts, seconds);
+        }
+    }
+
+    // Returns a hash of the vertex count, the edges and their costs
+    private static long fingerprint(CompiledGraph graph, RouteMetric metric) {
+        long hash = graph.getVertexCount();
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            hash = 31 * hash + graph.getSource(e);
+            hash = 31 * hash + graph.getTarget(e);
+            hash = 31 * hash
+                + Double.doubleToLongBits(graph.getCost(e, metric));
+        }
+        return hash;
+    }
+
+    /**
+     * {@return the CompiledGraph this hierarchy was built for}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * {@return the metric the costs of this hierarchy are computed for}
+     */
+    public RouteMetric getMetric() {
+        return this.metric;
+    }
+
+    /**
+     * {@return the number of arcs of this hierarchy, edges and shortcuts}
+     */
+    public int getArcCount() {
+        return this.arcSources.length;
+    }
+
+    /**
+     * {@return the number of shortcuts added by the contraction}
+     */
+    public int getShortcutCount() {
+        return this.arcSources.length - this.graph.getEdgeCount();
+    }
+
+    /**
+     * {@return the position of the specified vertex in the contraction order}
+     * @param vertex the id of some Vertex of the graph
+     */
+    public int getRank(int vertex) {
+        return this.ranks[vertex];
+    }
+
+    // Accessors used by ContractionHierarchyRouter
+
+    int firstUpArcOf(int vertex) {
+        return this.upOffsets[vertex];
+    }
+
+    int endUpArcOf(int vertex) {
+        return this.upOffsets[vertex + 1];
+    }
+
+    int getUpArc(int index) {
+        return this.upArcs[index];
+    }
+
+    int firstDownArcOf(int vertex) {
+        return this.downOffsets[vertex];
+    }
+
+    int endDownArcOf(int vertex) {
+        return this.downOffsets[vertex + 1];
+    }
+
+    int getDownArc(int index) {
+        return this.downArcs[index];
+    }
+
+    int getArcSource(int arc) {
+        return this.arcSources[arc];
+    }
+
+    int getArcTarget(int arc) {
+        return this.arcTargets[arc];
+    }
+
+    double getArcCost(int arc) {
+        return this.arcCosts[arc];
+    }
+
+    int getArcEdge(int arc) {
+        return this.arcEdges[arc];
+    }
+
+    int getArcFirst(int arc) {
+        return this.arcFirsts[arc];
+    }
+
+    int getArcSecond(int arc) {
+        return this.arcSeconds[arc];
+    }
+
+    // The mutable state of the preprocessing
+    private static final class Contractor {
+        private final int vertexCount;
+        private int arcCount;
+        private int[] arcSources;
+        private int[] arcTargets;
+        private double[] arcCosts;
+        private int[] arcEdges;
+        private int[] arcFirsts;
+        private int[] arcSeconds;
+
+        // The ids of the arcs leaving and entering each vertex, only the
+        // first outCounts[v] and inCounts[v] entries are meaningful
+        private final int[][] outArcs;
+        private final int[] outCounts;
+        private final int[][] inArcs;
+        private final int[] inCounts;
+
+        // Written between parallel phases only
+        private final boolean[] contracted;
+        private final boolean[] inRound;
+        private final int[] contractedNeighbors;
+        private final int[] lastContractedNeighbors;
+        private final int[] priorities;
+        private final int[] ranks;
+
+        // One witness search state per thread of the pool
+        private final ThreadLocal<WitnessSearch> witnessSearches;
+
+        private Contractor(CompiledGraph graph, double[] costs) {
+            int n = graph.getVertexCount();
+            int m = graph.getEdgeCount();
+            this.vertexCount = n;
+            this.arcCount = m;
+            int capacity = Math.max(16, 2 * m);
+            this.arcSources = new int[capacity];
+            this.arcTargets = new int[capacity];
+            this.arcCosts = new double[capacity];
+            this.arcEdges = new int[capacity];
+            this.arcFirsts = new int[capacity];
+            this.arcSeconds = new int[capacity];
+            this.outArcs = new int[n][];
+            this.outCounts = new int[n];
+            this.inArcs = new int[n][];
+            this.inCounts = new int[n];
+            for (int v = 0; v < n; v++) {
+                this.outArcs[v] = new int[4];
+                this.inArcs[v] = new int[4];
+            }
+            for (int e = 0; e < m; e++) {
+                this.arcSources[e] = graph.getSource(e);
+                this.arcTargets[e] = graph.getTarget(e);
+                this.arcCosts[e] = costs[e];
+                this.arcEdges[e] = e;
+                this.arcFirsts[e] = NO_ARC;
+                this.arcSeconds[e] = NO_ARC;
+                this.link(e);
+            }
+            this.contracted = new boolean[n];
+            this.inRound = new boolean[n];
+            this.contractedNeighbors = new int[n];
+            this.lastContractedNeighbors = new int[n];
+            Arrays.fill(this.lastContractedNeighbors, NO_ARC);
+            this.priorities = new int[n];
+            this.ranks = new int[n];
+            this.witnessSearches =
+                ThreadLocal.withInitial(() -> new WitnessSearch(n));
+        }
+
+        // Contracts every vertex, by rounds of independent vertices
+        private void contractAll() {
+            int[] remaining = IntStream.range(0, this.vertexCount).toArray();
+            this.updatePriorities(remaining);
+            int nextRank = 0;
+            while (remaining.length > 0) {
+                int[] round = IntStream.of(remaining).parallel()
+                    .filter(this::isLocalMinimum)
+                    .toArray();
+                for (int v : round)
+                    this.inRound[v] = true;
+                ShortcutList[] shortcuts = IntStream.of(round).parallel()
+                    .mapToObj(v -> this.simulate(v, true).list)
+                    .toArray(ShortcutList[]::new);
+                boolean[] touched = new boolean[this.vertexCount];
+                for (int i = 0; i < round.length; i++) {
+                    int v = round[i];
+                    this.contracted[v] = true;
+                    this.inRound[v] = false;
+                    this.ranks[v] = nextRank++;
+                    this.markNeighbors(v, touched);
+                    shortcuts[i].addTo(this);
+                }
+                remaining = IntStream.of(remaining)
+                    .filter(v -> !this.contracted[v])
+                    .toArray();
+                this.updatePriorities(IntStream.of(remaining)
+                    .filter(v -> touched[v])
+                    .toArray());
+            }
+        }
+
+        // Increments the contracted neighbor count of the active neighbors
+        // of v and marks them as touched
+        private void markNeighbors(int v, boolean[] touched) {
+            for (int i = 0; i < this.outCounts[v]; i++)
+                this.markNeighbor(v, this.arcTargets[this.outArcs[v][i]], touched);
+            for (int i = 0; i < this.inCounts[v]; i++)
+                this.markNeighbor(v, this.arcSources[this.inArcs[v][i]], touched);
+        }
+
+        // Counts v once as a contracted neighbor of w, whatever the number
+        // of arcs between them
+        private void markNeighbor(int v, int w, boolean[] touched) {
+            if (this.contracted[w] || this.lastContractedNeighbors[w] == v)
+                return;
+            this.lastContractedNeighbors[w] = v;
+            this.contractedNeighbors[w]++;
+            touched[w] = true;
+        }
+
+        // Computes in parallel the priority of the given vertices
+        private void updatePriorities(int[] vertices) {
+            IntStream.of(vertices).parallel().forEach(v -> {
+                Simulation simulation = this.simulate(v, false);
+                this.priorities[v] = simulation.shortcutCount
+                    - simulation.removedArcCount
+                    + this.contractedNeighbors[v];
+            });
+        }
+
+        // Returns true if v has a lower priority than its active neighbors
+        private boolean isLocalMinimum(int v) {
+            for (int i = 0; i < this.outCounts[v]; i++) {
+                int w = this.arcTargets[this.outArcs[v][i]];
+                if (!this.contracted[w] && this.isBefore(w, v))
+                    return false;
+            }
+            for (int i = 0; i < this.inCounts[v]; i++) {
+                int u = this.arcSources[this.inArcs[v][i]];
+                if (!this.contracted[u] && this.isBefore(u, v))
+                    return false;
+            }
+            return true;
+        }
+
+        // Returns true if u must be contracted before v
+        private boolean isBefore(int u, int v) {
+            return this.priorities[u] < this.priorities[v]
+                || (this.priorities[u] == this.priorities[v] && u < v);
+        }
+
+        // Computes the shortcuts needed to contract v, collecting them if
+        // collect is true
+        private Simulation simulate(int v, boolean collect) {
+            Simulation result = new Simulation(collect);
+            WitnessSearch witness = this.witnessSearches.get();
+            for (int i = 0; i < this.inCounts[v]; i++) {
+                int inArc = this.inArcs[v][i];
+                int u = this.arcSources[inArc];
+                if (this.contracted[u])
+                    continue;
+                result.removedArcCount++;
+                if (!this.isCheapestArc(this.inArcs[v], this.inCounts[v], inArc, true))
+                    continue;
+                double maxCost = 0.0;
+                for (int j = 0; j < this.outCounts[v]; j++) {
+                    int outArc = this.outArcs[v][j];
+                    int w = this.arcTargets[outArc];
+                    if (!this.contracted[w] && w != u)
+                        maxCost = Math.max(maxCost,
+                            this.arcCosts[inArc] + this.arcCosts[outArc]);
+                }
+                witness.run(this, u, v, maxCost);
+                for (int j = 0; j < this.outCounts[v]; j++) {
+                    int outArc = this.outArcs[v][j];
+                    int w = this.arcTargets[outArc];
+                    if (this.contracted[w] || w == u
+                        || !this.isCheapestArc(this.outArcs[v], this.outCounts[v], outArc, false))
+                        continue;
+                    double cost = this.arcCosts[inArc] + this.arcCosts[outArc];
+                    if (witness.distanceTo(w) <= cost)
+                        continue;
+                    result.shortcutCount++;
+                    if (collect)
+                        result.list.add(u, w, cost, inArc, outArc);
+                }
+            }
+            for (int j = 0; j < this.outCounts[v]; j++)
+                if (!this.contracted[this.arcTargets[this.outArcs[v][j]]])
+                    result.removedArcCount++;
+            return result;
+        }
+
+        // Returns true if no other arc of the given list joins the same
+        // vertices as arc with a lower cost (or the same cost and lower id)
+        private boolean isCheapestArc(int[] arcs, int count, int arc, boolean bySource) {
+            int end = bySource ? this.arcSources[arc] : this.arcTargets[arc];
+            for (int i = 0; i < count; i++) {
+                int other = arcs[i];
+                int otherEnd = bySource ? this.arcSources[other] : this.arcTargets[other];
+                if (other != arc && otherEnd == end
+                    && (this.arcCosts[other] < this.arcCosts[arc]
+                        || (this.arcCosts[other] == this.arcCosts[arc] && other < arc)))
+                    return false;
+            }
+            return true;
+        }
+
+        // Adds a shortcut made of the two given arcs
+        private void addShortcut(int u, int w, double cost, int first, int second) {
+            if (this.arcCount == this.arcSources.length) {
+                int capacity = 2 * this.arcCount;
+                this.arcSources = Arrays.copyOf(this.arcSources, capacity);
+                this.arcTargets = Arrays.copyOf(this.arcTargets, capacity);
+                this.arcCosts = Arrays.copyOf(this.arcCosts, capacity);
+                this.arcEdges = Arrays.copyOf(this.arcEdges, capacity);
+                this.arcFirsts = Arrays.copyOf(this.arcFirsts, capacity);
+                this.arcSeconds = Arrays.copyOf(this.arcSeconds, capacity);
+            }
+            int arc = this.arcCount++;
+            this.arcSources[arc] = u;
+            this.arcTargets[arc] = w;
+            this.arcCosts[arc] = cost;
+            this.arcEdges[arc] = NO_ARC;
+            this.arcFirsts[arc] = first;
+            this.arcSeconds[arc] = second;
+            this.link(arc);
+        }
+
+        // Adds arc to the adjacency lists of its extremities
+        private void link(int arc) {
+            int u = this.arcSources[arc];
+            int w = this.arcTargets[arc];
+            if (this.outCounts[u] == this.outArcs[u].length)
+                this.outArcs[u] = Arrays.copyOf(this.outArcs[u], 2 * this.outCounts[u]);
+            this.outArcs[u][this.outCounts[u]++] = arc;
+            if (this.inCounts[w] == this.inArcs[w].length)
+                this.inArcs[w] = Arrays.copyOf(this.inArcs[w], 2 * this.inCounts[w]);
+            this.inArcs[w][this.inCounts[w]++] = arc;
+        }
+    }
+
+    // The outcome of the simulated contraction of a vertex
+    private static final class Simulation {
+        private int shortcutCount;
+        private int removedArcCount;
+        private final ShortcutList list;
+
+        private Simulation(boolean collect) {
+            this.list = collect ? new ShortcutList() : null;
+        }
+    }
+
+    // The shortcuts needed to contract a vertex
+    private static final class ShortcutList {
+        private int size;
+        private int[] sources = new int[4];
+        private int[] targets = new int[4];
+        private double[] costs = new double[4];
+        private int[] firsts = new int[4];
+        private int[] seconds = new int[4];
+
+        private void add(int u, int w, double cost, int first, int second) {
+            if (this.size == this.sources.length) {
+                int capacity = 2 * this.size;
+                this.sources = Arrays.copyOf(this.sources, capacity);
+                this.targets = Arrays.copyOf(this.targets, capacity);
+                this.costs = Arrays.copyOf(this.costs, capacity);
+                this.firsts = Arrays.copyOf(this.firsts, capacity);
+                this.seconds = Arrays.copyOf(this.seconds, capacity);
+            }
+            this.sources[this.size] = u;
+            this.targets[this.size] = w;
+            this.costs[this.size] = cost;
+            this.firsts[this.size] = first;
+            this.seconds[this.size] = second;
+            this.size++;
+        }
+
+        private void addTo(Contractor contractor) {
+            for (int i = 0; i < this.size; i++)
+                contractor.addShortcut(this.sources[i], this.targets[i],
+                    this.costs[i], this.firsts[i], this.seconds[i]);
+        }
+    }
+
+    // A bounded Dijkstra search looking for routes avoiding a vertex
+    private static final class WitnessSearch {
+        private final IndexedMinHeap heap;
+        private final double[] distances;
+        private final int[] reachedIn;
+        private int generation;
+
+        private WitnessSearch(int vertexCount) {
+            this.heap = IndexedMinHeap.withCapacity(vertexCount);
+            this.distances = new double[vertexCount];
+            this.reachedIn = new int[vertexCount];
+        }
+
+        // Searches from src avoiding the vertex ignored, the contracted ones
+        // and the ones of the current round, up to maxCost
+        private void run(Contractor contractor, int src, int ignored, double maxCost) {
+            this.generation++;
+            this.heap.clear();
+            this.distances[src] = 0.0;
+            this.reachedIn[src] = this.generation;
+            this.heap.insertOrDecrease(src, 0.0);
+            int settled = 0;
+            while (!this.heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                if (this.heap.peekKey() > maxCost)
+                    return;
+                int u = this.heap.poll();
+                settled++;
+                double du = this.distances[u];
+                int[] arcs = contractor.outArcs[u];
+                for (int i = 0; i < contractor.outCounts[u]; i++) {
+                    int arc = arcs[i];
+                    int w = contractor.arcTargets[arc];
+                    if (w == ignored || contractor.contracted[w]
+                        || contractor.inRound[w])
+                        continue;
+                    double dw = du + contractor.arcCosts[arc];
+                    if (this.reachedIn[w] != this.generation
+                        || dw < this.distances[w]) {
+                        this.distances[w] = dw;
+                        this.reachedIn[w] = this.generation;
+                        this.heap.insertOrDecrease(w, dw);
+                    }
+                }
+            }
+        }
+
+        // Returns the cost of the witness found to w, infinite if none
+        private double distanceTo(int w) {
+            return this.reachedIn[w] == this.generation
+                ? this.distances[w]
+                : Double.POSITIVE_INFINITY;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds shortest routes with a ContractionHierarchy: a forward search from
+ * the source and a backward search from the destination only follow arcs
+ * towards higher ranked vertices, and the best route through a vertex reached
+ * by both is unpacked into edges of the graph.
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     ContractionHierarchyRouter is not thread-safe: each thread must use its
+ *     own. The ContractionHierarchy itself can be shared.
+ * </p>
+ */
+public final class ContractionHierarchyRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The preprocessed hierarchy
+    private final ContractionHierarchy hierarchy;
+
+    // The state of the search from the source over upward arcs
+    private final Side forward;
+
+    // The state of the search from the destination over downward arcs
+    private final Side backward;
+
+    // The arcs of the best route, then the edges they are unpacked into
+    private int[] arcBuffer;
+    private int[] edgeBuffer;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    // The cost of the best route found by the current search
+    private double bestCost;
+
+    // The vertex where the forward and backward parts of the best route meet
+    private int meetingVertex;
+
+    // The state of the search in one direction
+    private static final class Side {
+        private final IndexedMinHeap heap;
+        private final double[] distances;
+        private final int[] parentArcs;
+        private final int[] reachedIn;
+        private int settledCount;
+
+        private Side(int vertexCount) {
+            this.heap = IndexedMinHeap.withCapacity(vertexCount);
+            this.distances = new double[vertexCount];
+            this.parentArcs = new int[vertexCount];
+            this.reachedIn = new int[vertexCount];
+        }
+    }
+
+    private ContractionHierarchyRouter(ContractionHierarchy hierarchy) {
+        int vertexCount = hierarchy.getGraph().getVertexCount();
+        this.hierarchy = hierarchy;
+        this.forward = new Side(vertexCount);
+        this.backward = new Side(vertexCount);
+        this.arcBuffer = new int[vertexCount];
+        this.edgeBuffer = new int[vertexCount];
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new ContractionHierarchyRouter searching with the specified
+     * ContractionHierarchy}
+     * @param hierarchy the preprocessed hierarchy of a CompiledGraph
+     * @throws IllegalArgumentException if hierarchy is null
+     */
+    public static ContractionHierarchyRouter of(ContractionHierarchy hierarchy) {
+        if (hierarchy == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new ContractionHierarchyRouter(hierarchy);
+    }
+
+    /**
+     * {@return the number of vertices settled by both sides of the last
+     * search}
+     */
+    public int getSettledCount() {
+        return this.forward.settledCount + this.backward.settledCount;
+    }
+
+    /**
+     * Finds a shortest Route from src to dst.
+     * @param src the source Vertex
+     * @param dst the destination Vertex
+     * @return a shortest Route from src to dst, or null if dst can not be
+     *         reached from src
+     * @throws IllegalArgumentException if src or dst is null
+     * @throws NoSuchElementException if src or dst is not in the graph
+     */
+    public Route route(Vertex src, Vertex dst) {
+        if (src == null || dst == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = this.hierarchy.getGraph();
+        return this.route(graph.idOf(src), graph.idOf(dst));
+    }
+
+    /**
+     * Finds a shortest Route between the vertices whose ids are src and dst.
+     * @param src the id of the source Vertex
+     * @param dst the id of the destination Vertex
+     * @return a shortest Route from src to dst, or null if dst can not be
+     *         reached from src
+     */
+    public Route route(int src, int dst) {
+        this.search(src, dst);
+        if (this.meetingVertex < 0)
+            return null;
+        int arcCount = 0;
+        for (int v = this.meetingVertex; v != src; ) {
+            int arc = this.forward.parentArcs[v];
+            this.arcBuffer[arcCount++] = arc;
+            v = this.hierarchy.getArcSource(arc);
+        }
+        for (int i = 0, j = arcCount - 1; i < j; i++, j--) {
+            int tmp = this.arcBuffer[i];
+            this.arcBuffer[i] = this.arcBuffer[j];
+            this.arcBuffer[j] = tmp;
+        }
+        for (int v = this.meetingVertex; v != dst; ) {
+            int arc = this.backward.parentArcs[v];
+            this.arcBuffer[arcCount++] = arc;
+            v = this.hierarchy.getArcTarget(arc);
+        }
+        int edgeCount = this.unpack(arcCount);
+        return Route.from(this.hierarchy.getGraph(), this.edgeBuffer,
+                          edgeCount, this.bestCost);
+    }
+
+    // Replaces the shortcuts among the first arcCount arcs of arcBuffer by
+    // the edges they are made of, writes the edges in edgeBuffer and returns
+    // their number. arcBuffer is used as a stack of arcs to unpack.
+    private int unpack(int arcCount) {
+        for (int i = 0, j = arcCount - 1; i < j; i++, j--) {
+            int tmp = this.arcBuffer[i];
+            this.arcBuffer[i] = this.arcBuffer[j];
+            this.arcBuffer[j] = tmp;
+        }
+        int top = arcCount;
+        int edgeCount = 0;
+        while (top > 0) {
+            int arc = this.arcBuffer[--top];
+            int edge = this.hierarchy.getArcEdge(arc);
+            if (edge >= 0) {
+                if (edgeCount == this.edgeBuffer.length)
+                    this.edgeBuffer = Arrays.copyOf(this.edgeBuffer, 2 * edgeCount);
+                this.edgeBuffer[edgeCount++] = edge;
+            } else {
+                if (top + 2 > this.arcBuffer.length)
+                    this.arcBuffer = Arrays.copyOf(this.arcBuffer, 2 * (top + 2));
+                this.arcBuffer[top++] = this.hierarchy.getArcSecond(arc);
+                this.arcBuffer[top++] = this.hierarchy.getArcFirst(arc);
+            }
+        }
+        return edgeCount;
+    }
+
+    // Grows both upward searches alternately until neither can improve the
+    // best route found
+    private void search(int src, int dst) {
+        this.nextGeneration();
+        this.forward.heap.clear();
+        this.backward.heap.clear();
+        this.forward.settledCount = 0;
+        this.backward.settledCount = 0;
+        this.bestCost = Double.POSITIVE_INFINITY;
+        this.meetingVertex = -1;
+        this.reach(this.forward, this.backward, src, 0.0, -1);
+        this.reach(this.backward, this.forward, dst, 0.0, -1);
+        boolean forwardTurn = true;
+        while (true) {
+            boolean forwardDone = this.isDone(this.forward);
+            boolean backwardDone = this.isDone(this.backward);
+            if (forwardDone && backwardDone)
+                return;
+            if ((forwardTurn && !forwardDone) || backwardDone)
+                this.settleForward();
+            else
+                this.settleBackward();
+            forwardTurn = !forwardTurn;
+        }
+    }
+
+    // Returns true if side can not lead to a better route
+    private boolean isDone(Side side) {
+        return side.heap.isEmpty() || side.heap.peekKey() >= this.bestCost;
+    }
+
+    // Settles the closest vertex of the forward search and relaxes its
+    // upward arcs
+    private void settleForward() {
+        Side side = this.forward;
+        int u = side.heap.poll();
+        side.settledCount++;
+        double du = side.distances[u];
+        int end = this.hierarchy.endUpArcOf(u);
+        for (int i = this.hierarchy.firstUpArcOf(u); i < end; i++) {
+            int arc = this.hierarchy.getUpArc(i);
+            int v = this.hierarchy.getArcTarget(arc);
+            double dv = du + this.hierarchy.getArcCost(arc);
+            if (side.reachedIn[v] != this.generation || dv < side.distances[v])
+                this.reach(side, this.backward, v, dv, arc);
+        }
+    }
+
+    // Settles the closest vertex of the backward search and relaxes the arcs
+    // coming to it from higher ranked vertices
+    private void settleBackward() {
+        Side side = this.backward;
+        int u = side.heap.poll();
+        side.settledCount++;
+        double du = side.distances[u];
+        int end = this.hierarchy.endDownArcOf(u);
+        for (int i = this.hierarchy.firstDownArcOf(u); i < end; i++) {
+            int arc = this.hierarchy.getDownArc(i);
+            int v = this.hierarchy.getArcSource(arc);
+            double dv = du + this.hierarchy.getArcCost(arc);
+            if (side.reachedIn[v] != this.generation || dv < side.distances[v])
+                this.reach(side, this.forward, v, dv, arc);
+        }
+    }
+
+    // Records that v is reached by side with the given cost through the given
+    // arc, and updates the best route if other side has reached v too
+    private void reach(Side side, Side other, int v, double cost, int arc) {
+        side.distances[v] = cost;
+        side.parentArcs[v] = arc;
+        side.reachedIn[v] = this.generation;
+        side.heap.insertOrDecrease(v, cost);
+        if (other.reachedIn[v] == this.generation) {
+            double total = cost + other.distances[v];
+            if (total < this.bestCost) {
+                this.bestCost = total;
+                this.meetingVertex = v;
+            }
+        }
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.forward.reachedIn, 0);
+            Arrays.fill(this.backward.reachedIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
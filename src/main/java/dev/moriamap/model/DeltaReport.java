@@ -0,0 +1,58 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+
+/**
+ * Record of the application of a NetworkDelta to a TransportNetwork.
+ * @param added the number of transport segments and departures added
+ * @param removed the number of transport segments and departures removed
+ * @param changed the number of transport segments changed
+ * @param applyDuration the time taken to apply the delta and to link the
+ *        stops it adds with WalkingTransfers, if any
+ * @param rebuildDuration the time taken to rebuild the resulting network
+ *        from all its EdgeTuples and departures and to generate its
+ *        WalkingSegments, if any, or null if no rebuild was timed
+ */
+public record DeltaReport(
+  int added,
+  int removed,
+  int changed,
+  Duration applyDuration,
+  Duration rebuildDuration
+) {
+
+    /**
+     * Constructor of DeltaReport
+     * @param added the number of transport segments and departures added
+     * @param removed the number of transport segments and departures
+     *        removed
+     * @param changed the number of transport segments changed
+     * @param applyDuration the time taken to apply the delta
+     * @param rebuildDuration the time taken by a full rebuild, or null
+     * @throws IllegalArgumentException if applyDuration is null
+     */
+    public DeltaReport {
+        if (applyDuration == null)
+            throw new IllegalArgumentException(
+                "applyDuration can not be null");
+    }
+
+    /**
+     * {@return true if the time of a full rebuild was measured}
+     */
+    public boolean isCompared() {
+        return this.rebuildDuration != null;
+    }
+
+    /**
+     * {@return how many times faster applying the delta was than a full
+     * rebuild}
+     * @throws IllegalStateException if no rebuild was timed
+     */
+    public double speedup() {
+        if (!this.isCompared())
+            throw new IllegalStateException("No rebuild was timed");
+        long applyNanos = Math.max(1, this.applyDuration.toNanos());
+        return (double) this.rebuildDuration.toNanos() / applyNanos;
+    }
+}
@@ -0,0 +1,212 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds shortest routes in a CompiledGraph with Dijkstra's algorithm, using an
+ * IndexedMinHeap with decrease-key. A search stops as soon as the destination
+ * is settled.
+ * <p>
+ *     When a Heuristic is given, the search is goal-directed (A*): vertices
+ *     are settled by increasing cost from the source plus estimated cost to
+ *     the destination, which settles fewer vertices for the same routes.
+ * </p>
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     DijkstraRouter is not thread-safe: each thread must use its own.
+ * </p>
+ */
+public final class DijkstraRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The graph in which routes are searched
+    private final CompiledGraph graph;
+
+    // The cost of each edge of graph for the minimized metric
+    private final double[] costs;
+
+    // The lower bounds of the cost to the destination
+    private final Heuristic heuristic;
+
+    // The vertices reached but not settled yet, by tentative cost plus
+    // estimated cost to the destination
+    private final IndexedMinHeap heap;
+
+    // The tentative cost of each vertex, valid if reachedIn[v] == generation
+    private final double[] distances;
+
+    // The edge leading to each vertex, valid if reachedIn[v] == generation
+    private final int[] parentEdges;
+
+    // The generation in which each vertex was last reached
+    private final int[] reachedIn;
+
+    // The generation in which each vertex was last settled
+    private final int[] settledIn;
+
+    // Buffer used to rebuild routes from the destination
+    private final int[] routeBuffer;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    // The number of vertices settled by the last search
+    private int settledCount;
+
+    private DijkstraRouter(
+      CompiledGraph graph,
+      RouteMetric metric,
+      Heuristic heuristic
+    ) {
+        int vertexCount = graph.getVertexCount();
+        this.graph = graph;
+        this.costs = graph.getCosts(metric);
+        this.heuristic = heuristic;
+        this.heap = IndexedMinHeap.withCapacity(vertexCount);
+        this.distances = new double[vertexCount];
+        this.parentEdges = new int[vertexCount];
+        this.reachedIn = new int[vertexCount];
+        this.settledIn = new int[vertexCount];
+        this.routeBuffer = new int[vertexCount];
+        this.generation = 0;
+        this.settledCount = 0;
+    }
+
+    /**
+     * {@return a new DijkstraRouter minimizing the weight of the edges of the
+     * specified CompiledGraph}
+     * @param graph the CompiledGraph in which routes are searched
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static DijkstraRouter of(CompiledGraph graph) {
+        return of(graph, RouteMetric.WEIGHT);
+    }
+
+    /**
+     * {@return a new DijkstraRouter minimizing the specified metric in the
+     * specified CompiledGraph}
+     * @param graph the CompiledGraph in which routes are searched
+     * @param metric the quantity to minimize
+     * @throws IllegalArgumentException if graph or metric is null
+     */
+    public static DijkstraRouter of(CompiledGraph graph, RouteMetric metric) {
+        return of(graph, metric, Heuristic.NONE);
+    }
+
+    /**
+     * {@return a new DijkstraRouter minimizing the specified metric in the
+     * specified CompiledGraph with A*, directed by the specified Heuristic}
+     * @param graph the CompiledGraph in which routes are searched
+     * @param metric the quantity to minimize
+     * @param heuristic lower bounds of the metric between vertices of graph
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public static DijkstraRouter of(
+      CompiledGraph graph,
+      RouteMetric metric,
+      Heuristic heuristic
+    ) {
+        if (graph == null || metric == null || heuristic == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new DijkstraRouter(graph, metric, heuristic);
+    }
+
+    /**
+     * {@return the CompiledGraph in which this DijkstraRouter searches}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * {@return the number of vertices settled by the last search}
+     */
+    public int getSettledCount() {
+        return this.settledCount;
+    }
+
+    /**
+     * Finds a shortest Route from src to dst.
+     * @param src the source Vertex
+     * @param dst the destination Vertex
+     * @return a shortest Route from src to dst, or null if dst can not be
+     *         reached from src
+     * @throws IllegalArgumentException if src or dst is null
+     * @throws NoSuchElementException if src or dst is not in the graph
+     */
+    public Route route(Vertex src, Vertex dst) {
+        if (src == null || dst == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.route(this.graph.idOf(src), this.graph.idOf(dst));
+    }
+
+    /**
+     * Finds a shortest Route between the vertices whose ids are src and dst.
+     * @param src the id of the source Vertex
+     * @param dst the id of the destination Vertex
+     * @return a shortest Route from src to dst, or null if dst can not be
+     *         reached from src
+     */
+    public Route route(int src, int dst) {
+        this.search(src, dst);
+        if (this.settledIn[dst] != this.generation)
+            return null;
+        int count = 0;
+        for (int v = dst; v != src; v = this.graph.getSource(this.parentEdges[v]))
+            this.routeBuffer[count++] = this.parentEdges[v];
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int tmp = this.routeBuffer[i];
+            this.routeBuffer[i] = this.routeBuffer[j];
+            this.routeBuffer[j] = tmp;
+        }
+        return Route.from(
+            this.graph, this.routeBuffer, count, this.distances[dst]);
+    }
+
+    // Runs Dijkstra's algorithm from src until dst is settled or every
+    // reachable vertex is settled
+    private void search(int src, int dst) {
+        this.nextGeneration();
+        this.heap.clear();
+        this.settledCount = 0;
+        this.reach(src, 0.0, -1, dst);
+        while (!this.heap.isEmpty()) {
+            int u = this.heap.poll();
+            this.settledIn[u] = this.generation;
+            this.settledCount++;
+            if (u == dst)
+                return;
+            double du = this.distances[u];
+            int end = this.graph.endEdgeOf(u);
+            for (int e = this.graph.firstEdgeOf(u); e < end; e++) {
+                int v = this.graph.getTarget(e);
+                if (this.settledIn[v] == this.generation)
+                    continue;
+                double dv = du + this.costs[e];
+                if (this.reachedIn[v] != this.generation
+                    || dv < this.distances[v])
+                    this.reach(v, dv, e, dst);
+            }
+        }
+    }
+
+    // Records that v is reached with the given cost through the given edge
+    private void reach(int v, double cost, int edge, int dst) {
+        this.distances[v] = cost;
+        this.parentEdges[v] = edge;
+        this.reachedIn[v] = this.generation;
+        this.heap.insertOrDecrease(v, cost + this.heuristic.estimate(v, dst));
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.reachedIn, 0);
+            Arrays.fill(this.settledIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
@@ -0,0 +1,51 @@
+package dev.moriamap.model;
+
+/**
+ * Computes the distances of PositionArray several at a time. The only
+ * implementation, VectorDistances, is written with the Vector API of the
+ * jdk.incubator.vector module. It is built apart from the main classes, in
+ * the vector source set, so that the application does not depend on an
+ * incubator module, and PositionArray only loads it when it is on the class
+ * path and the module is present.
+ * <p>
+ *     Each kernel computes the distances of the positions from start on, as
+ *     many at a time as it can before end, and returns the index of the first
+ *     position left, whose distances PositionArray computes one by one.
+ * </p>
+ */
+interface DistanceKernels {
+    // Computes the EUCLIDEAN distances from the position to [start, end)
+    int euclidean(
+      double[] xs,
+      double[] ys,
+      double[] zs,
+      GeographicPosition from,
+      int start,
+      int end,
+      double[] into
+    );
+
+    // Computes the EQUIRECTANGULAR distances from the position to
+    // [start, end)
+    int equirectangular(
+      double[] latRads,
+      double[] lonRads,
+      double[] cosHalfLats,
+      double[] sinHalfLats,
+      GeographicPosition from,
+      int start,
+      int end,
+      double[] into
+    );
+
+    // Computes the HAVERSINE distances from the position to [start, end)
+    int haversine(
+      double[] xs,
+      double[] ys,
+      double[] zs,
+      GeographicPosition from,
+      int start,
+      int end,
+      double[] into
+    );
+}
@@ -0,0 +1,46 @@
+package dev.moriamap.model;
+
+/**
+ * The ways of measuring the distance in meters between two positions on the
+ * Earth, from the fastest and least accurate for long distances to the
+ * slowest and exact. See GeographicPosition for their trade-offs.
+ */
+public enum DistanceMetric {
+    /**
+     * The straight line through the Earth, as given by
+     * GeographicPosition.euclideanDistanceOnEarth and distanceFrom.
+     */
+    EUCLIDEAN {
+        @Override public double between(GeographicPosition p1, GeographicPosition p2) {
+            return p1.chordDistanceFrom(p2);
+        }
+    },
+
+    /**
+     * The distance on the plane tangent to the Earth at the mean latitude,
+     * as given by GeographicPosition.equirectangularDistanceFrom.
+     */
+    EQUIRECTANGULAR {
+        @Override public double between(GeographicPosition p1, GeographicPosition p2) {
+            return p1.equirectangularDistanceFrom(p2);
+        }
+    },
+
+    /**
+     * The great-circle distance, as given by
+     * GeographicPosition.haversineDistanceFrom.
+     */
+    HAVERSINE {
+        @Override public double between(GeographicPosition p1, GeographicPosition p2) {
+            return p1.haversineDistanceFrom(p2);
+        }
+    };
+
+    /**
+     * {@return the distance in meters between p1 and p2 with this metric}
+     * @param p1 a GeographicPosition
+     * @param p2 a GeographicPosition
+     * @throws IllegalArgumentException if p2 is null
+     */
+    public abstract double between(GeographicPosition p1, GeographicPosition p2);
+}
@@ -54,7 +54,7 @@ public record EdgeTuple(String fromName,
      * @param fields the field of the given line
      * @return an EdgeTuple represented by fields parameter
      */
-    private static EdgeTuple fromCSVLine(List<String> fields) {
+    static EdgeTuple fromCSVLine(List<String> fields) {
         String [] longitudeAndLatitude = fields.get(1).split(", ");
         double lon1 = Double.parseDouble(longitudeAndLatitude[0]);
         double lat1 = Double.parseDouble(longitudeAndLatitude[1]);
@@ -0,0 +1,103 @@
+package dev.moriamap.model;
+
+/**
+ * A Heuristic derived from the straight-line distance between the geographic
+ * positions of two vertices, divided by the maximum speed observed on the
+ * edges of the graph, the speed of an edge being the straight-line distance
+ * between its extremities per unit of cost.
+ * <p>
+ *     The Cartesian coordinates of every Vertex on the Earth sphere are
+ *     copied once from its GeographicPosition, so an estimate needs neither
+ *     allocation nor trigonometry. If some Vertex of the graph has no
+ *     geographic position, every estimate is 0.0.
+ * </p>
+ */
+public final class GeographicHeuristic implements Heuristic {
+
+    // Keeps estimates below the true cost despite floating point rounding
+    private static final double ROUNDING_MARGIN = 1.0 - 1e-9;
+
+    // The coordinates of each Vertex on the Earth sphere, in meters
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    // The lowest cost per meter of straight-line distance of the graph edges
+    private final double costPerMeter;
+
+    private GeographicHeuristic(
+      double[] xs,
+      double[] ys,
+      double[] zs,
+      double costPerMeter
+    ) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.costPerMeter = costPerMeter;
+    }
+
+    /**
+     * {@return a new GeographicHeuristic for the specified metric in the
+     * specified CompiledGraph}
+     * @param graph the CompiledGraph in which routes are searched
+     * @param metric the quantity minimized by the search
+     * @throws IllegalArgumentException if graph or metric is null
+     */
+    public static GeographicHeuristic of(CompiledGraph graph, RouteMetric metric) {
+        if (graph == null || metric == null)
+            throw new IllegalArgumentException("Argument can not be null");
+        int vertexCount = graph.getVertexCount();
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        double[] zs = new double[vertexCount];
+        for (int v = 0; v < vertexCount; v++) {
+            if (!(graph.getVertex(v) instanceof GeographicVertex vertex))
+                return new GeographicHeuristic(xs, ys, zs, 0.0);
+            GeographicPosition position = vertex.getGeographicPosition();
+            xs[v] = GeographicPosition.EARTH_RADIUS * position.getUnitX();
+            ys[v] = GeographicPosition.EARTH_RADIUS * position.getUnitY();
+            zs[v] = GeographicPosition.EARTH_RADIUS * position.getUnitZ();
+        }
+        double costPerMeter = Double.POSITIVE_INFINITY;
+        for (int e = 0; e < graph.getEdgeCount(); e++) {
+            double length = distance(
+                xs, ys, zs, graph.getSource(e), graph.getTarget(e));
+            if (length > 0.0)
+                costPerMeter = Math.min(
+                    costPerMeter, graph.getCost(e, metric) / length);
+        }
+        if (costPerMeter == Double.POSITIVE_INFINITY)
+            costPerMeter = 0.0;
+        return new GeographicHeuristic(
+            xs, ys, zs, costPerMeter * ROUNDING_MARGIN);
+    }
+
+    /**
+     * {@return the lowest cost per meter of straight-line distance observed on
+     * the edges of the graph, the inverse of their maximum speed}
+     */
+    public double getCostPerMeter() {
+        return this.costPerMeter;
+    }
+
+    @Override
+    public double estimate(int vertex, int target) {
+        return this.costPerMeter
+            * distance(this.xs, this.ys, this.zs, vertex, target);
+    }
+
+    // Returns the straight-line distance between the vertices u and v
+    private static double distance(
+      double[] xs,
+      double[] ys,
+      double[] zs,
+      int u,
+      int v
+    ) {
+        double dx = xs[u] - xs[v];
+        double dy = ys[u] - ys[v];
+        double dz = zs[u] - zs[v];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+}
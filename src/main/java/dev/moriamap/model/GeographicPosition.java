@@ -8,6 +8,31 @@ import java.math.RoundingMode;
 /**
  * A geographic position is a pair of angles that describe the offset to the
  * equator and to the prime meridian (without taking into account the altitude).
+ * <p>
+ *     The coordinates of a GeographicPosition on the unit sphere are computed
+ *     once when it is created, so that its distance methods need neither
+ *     allocation nor, for the chord distance, trigonometry. They trade
+ *     accuracy for speed as follows, the Earth being a sphere of radius
+ *     EARTH_RADIUS:
+ * </p>
+ * <ul>
+ *     <li>chordDistanceFrom, the straight line through the Earth, is the
+ *     fastest: three subtractions, three multiplications and a square root.
+ *     It is shorter than the great-circle distance by about d³/(24R²), that
+ *     is about 1.03 mm for 10 km and 1.03 m for 100 km.</li>
+ *     <li>equirectangularDistanceFrom projects both positions on a plane at
+ *     their mean latitude, which takes one cosine. Its error grows with the
+ *     distance and the latitude: below 70 degrees of latitude it is under
+ *     1 cm for 10 km but about 10 m for 100 km, so it is meant for positions
+ *     a few kilometers apart, like the stops of a city.</li>
+ *     <li>haversineDistanceFrom is the great-circle distance, exact on the
+ *     sphere for any two positions, and the slowest with two sines, an arc
+ *     sine and a square root.</li>
+ * </ul>
+ * <p>
+ *     distanceFrom is the chord distance too. Its only difference with
+ *     toCartesian is that the coordinates are not rounded.
+ * </p>
  */
 public final class GeographicPosition {
 
@@ -52,6 +77,14 @@ public final class GeographicPosition {
     // The angle between west and east poles on a sphere in Celsius degrees.
     private final double longitude;
 
+    // The coordinates of this GeographicPosition on the unit sphere
+    private final double unitX;
+    private final double unitY;
+    private final double unitZ;
+
+    // The cosine of the latitude
+    private final double cosLatitude;
+
     // Returns true if lat <= MAX_LATITUDE && lat >= MIN_LATITUDE
     private static boolean isValidLatitude(double lat) {
         return lat <= MAX_LATITUDE && lat >= MIN_LATITUDE;
@@ -77,8 +110,9 @@ public final class GeographicPosition {
     }
 
     /**
-     * Converts the specified GeographicPositions to cartesian representation
-     * and computes the euclidean distance between the obtained vectors.
+     * Computes the euclidean distance between the cartesian representations
+     * of the specified GeographicPositions on a sphere, from their cached
+     * coordinates on the unit sphere.
      * @param  p1 a GeographicPosition
      * @param  p2 a GeographicPosition
      * @param  radius the radius of the sphere on which p1 and p2 are
@@ -90,13 +124,12 @@ public final class GeographicPosition {
       GeographicPosition p2,
       double radius
     ) {
-        double[] p1Cart = p1.toCartesian(radius);
-        double[] p2Cart = p2.toCartesian(radius);
-        double res = 0.0;
-        for (int i = 0; i < p1Cart.length; i++) {
-            res += Math.pow(p2Cart[i] - p1Cart[i], 2);
-        }
-        return Math.sqrt(res);
+        if (radius <= 0.0)
+            throw new IllegalArgumentException("Radius must be positive");
+        double dx = p2.unitX - p1.unitX;
+        double dy = p2.unitY - p1.unitY;
+        double dz = p2.unitZ - p1.unitZ;
+        return radius * Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
 
     /**
@@ -123,10 +156,74 @@ public final class GeographicPosition {
         return GeographicPosition.euclideanDistanceOnEarth(this, other);
     }
 
+    /**
+     * Computes the length in meters of the straight line through the Earth
+     * from this GeographicPosition to the specified one.
+     * @param  other a GeographicPosition
+     * @return the chord distance between this and other
+     * @throws IllegalArgumentException if other is null
+     */
+    public double chordDistanceFrom(GeographicPosition other) {
+        if (other == null)
+            throw new IllegalArgumentException("Argument can not be null");
+        double dx = other.unitX - this.unitX;
+        double dy = other.unitY - this.unitY;
+        double dz = other.unitZ - this.unitZ;
+        return EARTH_RADIUS * Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * Computes the great-circle distance in meters on the Earth from this
+     * GeographicPosition to the specified one, with the haversine formula.
+     * @param  other a GeographicPosition
+     * @return the great-circle distance between this and other
+     * @throws IllegalArgumentException if other is null
+     */
+    public double haversineDistanceFrom(GeographicPosition other) {
+        if (other == null)
+            throw new IllegalArgumentException("Argument can not be null");
+        double sinHalfLat =
+            Math.sin(Math.toRadians(other.latitude - this.latitude) / 2);
+        double sinHalfLon =
+            Math.sin(Math.toRadians(other.longitude - this.longitude) / 2);
+        double a = sinHalfLat * sinHalfLat
+            + this.cosLatitude * other.cosLatitude * sinHalfLon * sinHalfLon;
+        return 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    /**
+     * Computes an approximation in meters of the great-circle distance from
+     * this GeographicPosition to the specified one, on the plane tangent to
+     * the Earth at their mean latitude. It is only accurate for close
+     * positions.
+     * @param  other a GeographicPosition
+     * @return the equirectangular distance between this and other
+     * @throws IllegalArgumentException if other is null
+     */
+    public double equirectangularDistanceFrom(GeographicPosition other) {
+        if (other == null)
+            throw new IllegalArgumentException("Argument can not be null");
+        double dLon = other.longitude - this.longitude;
+        if (dLon > 180.0)
+            dLon -= 360.0;
+        else if (dLon < -180.0)
+            dLon += 360.0;
+        double x = Math.toRadians(dLon)
+            * Math.cos(Math.toRadians(this.latitude + other.latitude) / 2);
+        double y = Math.toRadians(other.latitude - this.latitude);
+        return EARTH_RADIUS * Math.sqrt(x * x + y * y);
+    }
+
     // Class constructor specifying latitude and longitude coordinates.
     private GeographicPosition(double latitude, double longitude) {
         this.latitude = latitude;
         this.longitude = longitude;
+        double latRad = Math.toRadians(latitude);
+        double lonRad = Math.toRadians(longitude);
+        this.cosLatitude = Math.cos(latRad);
+        this.unitX = this.cosLatitude * Math.cos(lonRad);
+        this.unitY = this.cosLatitude * Math.sin(lonRad);
+        this.unitZ = Math.sin(latRad);
     }
 
     /**
@@ -147,6 +244,30 @@ public final class GeographicPosition {
         return this.longitude;
     }
 
+    /**
+     * {@return the X coordinate of this GeographicPosition on the unit
+     * sphere, cos(latitude) * cos(longitude)}
+     */
+    public double getUnitX() {
+        return this.unitX;
+    }
+
+    /**
+     * {@return the Y coordinate of this GeographicPosition on the unit
+     * sphere, cos(latitude) * sin(longitude)}
+     */
+    public double getUnitY() {
+        return this.unitY;
+    }
+
+    /**
+     * {@return the Z coordinate of this GeographicPosition on the unit
+     * sphere, sin(latitude)}
+     */
+    public double getUnitZ() {
+        return this.unitZ;
+    }
+
     /**
      * Returns an array that correspond to the cartesian representation of this
      * GeographicPosition on a sphere of specified radius. The projection is
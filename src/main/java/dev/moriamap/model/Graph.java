@@ -3,11 +3,14 @@ package dev.moriamap.model;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.NoSuchElementException;
 import java.util.Deque;
 import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.function.Consumer;
 
 /**
  * A graph is a set of vertices and a set of edges between those vertices.
@@ -20,11 +23,36 @@ public abstract class Graph {
     // A map that associates a Vertex to its outgoing edges
     private final Map<Vertex, List<Edge>> vertexToOutgoingEdges;
 
+    // A map that associates a Vertex to its incoming edges
+    private final Map<Vertex, List<Edge>> vertexToIncomingEdges;
+
+    // The number of changes made to this Graph, read by caches of results
+    // computed from it
+    private volatile int modificationCount;
+
     /**
      * Creates a new empty Graph.
      */
     protected Graph() {
         this.vertexToOutgoingEdges = new HashMap<>();
+        this.vertexToIncomingEdges = new HashMap<>();
+        this.modificationCount = 0;
+    }
+
+    /**
+     * {@return the number of changes made to this Graph so far}
+     * Results computed from this Graph are stale once this number changes.
+     */
+    public int getModificationCount() {
+        return this.modificationCount;
+    }
+
+    /**
+     * Records a change made to this Graph, or to the data attached to it by a
+     * subclass.
+     */
+    protected void modified() {
+        this.modificationCount++;
     }
 
     /**
@@ -56,7 +84,11 @@ public abstract class Graph {
     protected void addVertex(Vertex vertex) {
         if (vertex == null)
             throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
-        this.vertexToOutgoingEdges.putIfAbsent(vertex, null);
+        if (this.vertexToOutgoingEdges.containsKey(vertex))
+            return;
+        this.vertexToOutgoingEdges.put(vertex, null);
+        this.vertexToIncomingEdges.put(vertex, null);
+        this.modified();
     }
 
     /**
@@ -81,9 +113,57 @@ public abstract class Graph {
             outgoingEdges.add(edge);
             this.vertexToOutgoingEdges.replace(from, outgoingEdges);
         } else {
-            if (!outgoingEdges.contains(edge))
-                outgoingEdges.add(edge);
+            if (outgoingEdges.contains(edge))
+                return;
+            outgoingEdges.add(edge);
         }
+        List<Edge> incomingEdges = this.vertexToIncomingEdges.get(to);
+        if (incomingEdges == null) {
+            incomingEdges = new ArrayList<>();
+            this.vertexToIncomingEdges.replace(to, incomingEdges);
+        }
+        incomingEdges.add(edge);
+        this.modified();
+    }
+
+    /**
+     * Removes the specified edge from this Graph. Its source and destination
+     * stay in this Graph.
+     * @param edge the Edge to remove
+     * @return true if edge was in this Graph
+     * @throws IllegalArgumentException if the given edge is null
+     */
+    protected boolean removeEdge(Edge edge) {
+        if (edge == null)
+            throw new IllegalArgumentException("Edge can not be null");
+        List<Edge> outgoingEdges = this.vertexToOutgoingEdges.get(edge.getFrom());
+        if (outgoingEdges == null || !outgoingEdges.remove(edge))
+            return false;
+        this.vertexToIncomingEdges.get(edge.getTo()).remove(edge);
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Removes the specified vertex from this Graph, together with its
+     * outgoing and incoming edges.
+     * @param vertex the Vertex to remove
+     * @return true if vertex was in this Graph
+     * @throws IllegalArgumentException if the given vertex is null
+     */
+    protected boolean removeVertex(Vertex vertex) {
+        if (vertex == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!this.vertexToOutgoingEdges.containsKey(vertex))
+            return false;
+        for (Edge edge : this.getOutgoingEdgesOf(vertex))
+            this.removeEdge(edge);
+        for (Edge edge : this.getIncomingEdgesOf(vertex))
+            this.removeEdge(edge);
+        this.vertexToOutgoingEdges.remove(vertex);
+        this.vertexToIncomingEdges.remove(vertex);
+        this.modified();
+        return true;
     }
 
     /**
@@ -103,6 +183,65 @@ public abstract class Graph {
         return new ArrayList<>(edges); // Return a copy instead of the original
     }
 
+    /**
+     * {@return the list of incoming Edges of the specified Vertex}
+     * @param vertex some Vertex
+     * @throws IllegalArgumentException if vertex is null
+     * @throws NoSuchElementException if vertex is not in this Graph
+     */
+    public List<Edge> getIncomingEdgesOf(Vertex vertex) {
+        if (vertex == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!this.vertexToIncomingEdges.containsKey(vertex))
+            throw new NoSuchElementException(ABSENT_VERTEX_ERROR_MSG);
+        List<Edge> edges = this.vertexToIncomingEdges.get(vertex);
+        if (edges == null)
+            return new ArrayList<>();
+        return new ArrayList<>(edges);
+    }
+
+    /**
+     * Performs the given action for each outgoing Edge of the specified Vertex.
+     * Unlike getOutgoingEdgesOf, no copy of the outgoing edges is made, so the
+     * action must not modify this Graph.
+     * @param vertex some Vertex
+     * @param action the action to perform on each outgoing Edge of vertex
+     * @throws IllegalArgumentException if vertex or action is null
+     * @throws NoSuchElementException if vertex is not in this Graph
+     */
+    public void forEachOutgoingEdge(Vertex vertex, Consumer<? super Edge> action) {
+        if (vertex == null || action == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!this.vertexToOutgoingEdges.containsKey(vertex))
+            throw new NoSuchElementException(ABSENT_VERTEX_ERROR_MSG);
+        List<Edge> edges = this.vertexToOutgoingEdges.get(vertex);
+        if (edges == null)
+            return;
+        for (int i = 0; i < edges.size(); i++)
+            action.accept(edges.get(i));
+    }
+
+    /**
+     * Performs the given action for each incoming Edge of the specified Vertex,
+     * without copying the incoming edges. The action must not modify this
+     * Graph.
+     * @param vertex some Vertex
+     * @param action the action to perform on each incoming Edge of vertex
+     * @throws IllegalArgumentException if vertex or action is null
+     * @throws NoSuchElementException if vertex is not in this Graph
+     */
+    public void forEachIncomingEdge(Vertex vertex, Consumer<? super Edge> action) {
+        if (vertex == null || action == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!this.vertexToIncomingEdges.containsKey(vertex))
+            throw new NoSuchElementException(ABSENT_VERTEX_ERROR_MSG);
+        List<Edge> edges = this.vertexToIncomingEdges.get(vertex);
+        if (edges == null)
+            return;
+        for (int i = 0; i < edges.size(); i++)
+            action.accept(edges.get(i));
+    }
+
     /**
      * {@return true if vertex is not null and is in this Graph}
      * @param vertex some vertex that might be in this Graph
@@ -131,22 +270,19 @@ public abstract class Graph {
             throw new NoSuchElementException(ABSENT_VERTEX_ERROR_MSG);
         Deque<Vertex> stack = new ArrayDeque<>();
         Map<Vertex, Edge> parents = new HashMap<>();
-        List<Vertex> visited = new ArrayList<>();
-        Vertex tmp = null;
-        Vertex to = null;
+        Set<Vertex> visited = new HashSet<>();
+        // Created once per traversal rather than once per popped vertex
+        Consumer<Edge> visitOutgoingEdge = outgoingEdge -> {
+            Vertex to = outgoingEdge.getTo();
+            if (visited.add(to)) {
+                parents.put(to, outgoingEdge);
+                stack.push(to);
+            }
+        };
         stack.push(src);
         visited.add(src);
-        while (!stack.isEmpty()) {
-            tmp = stack.pop();
-            for (Edge outgoingEdge: this.getOutgoingEdgesOf(tmp)) {
-                to = outgoingEdge.getTo();
-                if (!visited.contains(to)) {
-                    visited.add(to);
-                    parents.put(to, outgoingEdge);
-                    stack.push(to);
-                }
-            }
-        }
+        while (!stack.isEmpty())
+            this.forEachOutgoingEdge(stack.pop(), visitOutgoingEdge);
         return parents;
     }
 
@@ -157,7 +293,8 @@ public abstract class Graph {
      * @param src the source Vertex
      * @param dst the destination Vertex
      * @throws IllegalArgumentException if parents, src or dst are null
-     * @throws NoSuchElementException if dst is not a key of parents
+     * @throws NoSuchElementException if dst is not a key of parents, or if
+     *         the parents of dst do not lead back to src
      */
     public static List<Edge> getRouteFromTraversal(
       Map<Vertex, Edge> parents,
@@ -168,33 +305,18 @@ public abstract class Graph {
             throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
         if (!parents.containsKey(dst))
             throw new NoSuchElementException("Destination is absent");
-        if (!isVertexSourceOfEdgeInTraversalMap(parents, src))
-            throw new NoSuchElementException("Source is absent");
+        // Follows the parents from dst, so that the cost is the length of the
+        // route; a route longer than parents means src is never reached
         List<Edge> route = new ArrayList<>();
-        route.add(parents.get(dst));
-        Vertex parent = parents.get(dst).getFrom();
-        Edge edgeToParent = null;
-        while (!parent.equals(src)) {
-            edgeToParent = parents.get(parent);
-            route.add(edgeToParent);
-            parent = edgeToParent.getFrom();
-        }
+        Vertex current = dst;
+        do {
+            Edge edgeToCurrent = parents.get(current);
+            if (edgeToCurrent == null || route.size() == parents.size())
+                throw new NoSuchElementException("Source is absent");
+            route.add(edgeToCurrent);
+            current = edgeToCurrent.getFrom();
+        } while (!current.equals(src));
         Collections.reverse(route); // as we start from destination
         return route;
     }
-
-    // Returns true if source is a source vertex in at least one of the edges of
-    // the given map
-    private static boolean isVertexSourceOfEdgeInTraversalMap(
-      Map<Vertex, Edge> parents,
-      Vertex source
-    ) {
-        Edge current = null;
-        for (Map.Entry<Vertex, Edge> entries: parents.entrySet()) {
-            current = entries.getValue();
-            if (current != null && current.getFrom().equals(source))
-                return true;
-        }
-        return false;
-    }
 }
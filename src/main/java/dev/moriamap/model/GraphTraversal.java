@@ -0,0 +1,257 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Traverses a CompiledGraph depth-first or breadth-first from a source
+ * vertex, or sorts its vertices in topological order.
+ * <p>
+ *     A Visitor is called on each vertex when it is first reached, with the
+ *     edge that led to it, and can stop the traversal early, e.g. once a
+ *     target is found. The visited vertices are marked with generation stamps
+ *     and the stack, queue and parent edges are arrays allocated once, so a
+ *     traversal allocates nothing and the state of the last one can be read
+ *     until the next one starts.
+ * </p>
+ * <p>
+ *     A GraphTraversal is not thread-safe: each thread must use its own.
+ * </p>
+ */
+public final class GraphTraversal {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    /**
+     * The value returned by a traversal that visited every reachable vertex,
+     * and the parent edge of the source vertex.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Callback of a traversal, called on each vertex when it is first
+     * reached.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Visits a vertex reached by a traversal.
+         * @param vertex the id of the vertex reached
+         * @param edge the id of the edge that led to vertex, NONE for the
+         *        source vertex
+         * @return true to continue the traversal, false to stop it
+         */
+        boolean visit(int vertex, int edge);
+    }
+
+    // The graph that is traversed
+    private final CompiledGraph graph;
+
+    // The edge that led to each vertex, valid if visitedIn[v] == generation
+    private final int[] parentEdges;
+    private final int[] visitedIn;
+
+    // The vertices of the stack or queue of a traversal
+    private final int[] vertices;
+
+    // The next edge to follow from each vertex of the depth-first stack, and
+    // the in-degrees of the vertices during a topological sort
+    private final int[] counters;
+
+    // The source of the last traversal
+    private int source;
+
+    // Incremented by each traversal so that stale entries need no clearing
+    private int generation;
+
+    private GraphTraversal(CompiledGraph graph) {
+        int vertexCount = graph.getVertexCount();
+        this.graph = graph;
+        this.parentEdges = new int[vertexCount];
+        this.visitedIn = new int[vertexCount];
+        this.vertices = new int[vertexCount];
+        this.counters = new int[vertexCount];
+        this.source = NONE;
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new GraphTraversal of the specified graph}
+     * @param graph the graph to traverse
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static GraphTraversal of(CompiledGraph graph) {
+        if (graph == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new GraphTraversal(graph);
+    }
+
+    /**
+     * {@return the graph traversed by this GraphTraversal}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Traverses the graph depth-first from the vertex whose id is src,
+     * following the outgoing edges of each vertex in order.
+     * @param src the id of the source vertex
+     * @param visitor the callback called on each vertex reached
+     * @return the id of the vertex on which visitor stopped the traversal, or
+     *         NONE if every vertex reachable from src was visited
+     * @throws IllegalArgumentException if visitor is null
+     * @throws NoSuchElementException if src is not a vertex id
+     */
+    public int depthFirst(int src, Visitor visitor) {
+        if (visitor == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        this.start(src);
+        if (!visitor.visit(src, NONE))
+            return src;
+        int top = 0;
+        this.vertices[0] = src;
+        this.counters[0] = this.graph.firstEdgeOf(src);
+        while (top >= 0) {
+            int u = this.vertices[top];
+            int e = this.counters[top];
+            if (e == this.graph.endEdgeOf(u)) {
+                top--;
+                continue;
+            }
+            this.counters[top] = e + 1;
+            int v = this.graph.getTarget(e);
+            if (this.visitedIn[v] == this.generation)
+                continue;
+            this.mark(v, e);
+            if (!visitor.visit(v, e))
+                return v;
+            top++;
+            this.vertices[top] = v;
+            this.counters[top] = this.graph.firstEdgeOf(v);
+        }
+        return NONE;
+    }
+
+    /**
+     * Traverses the graph breadth-first from the vertex whose id is src, so
+     * that vertices are visited by increasing number of edges from src.
+     * @param src the id of the source vertex
+     * @param visitor the callback called on each vertex reached
+     * @return the id of the vertex on which visitor stopped the traversal, or
+     *         NONE if every vertex reachable from src was visited
+     * @throws IllegalArgumentException if visitor is null
+     * @throws NoSuchElementException if src is not a vertex id
+     */
+    public int breadthFirst(int src, Visitor visitor) {
+        if (visitor == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        this.start(src);
+        if (!visitor.visit(src, NONE))
+            return src;
+        int head = 0;
+        int tail = 0;
+        this.vertices[tail++] = src;
+        while (head < tail) {
+            int u = this.vertices[head++];
+            int end = this.graph.endEdgeOf(u);
+            for (int e = this.graph.firstEdgeOf(u); e < end; e++) {
+                int v = this.graph.getTarget(e);
+                if (this.visitedIn[v] == this.generation)
+                    continue;
+                this.mark(v, e);
+                if (!visitor.visit(v, e))
+                    return v;
+                this.vertices[tail++] = v;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Sorts the vertices of the graph so that every edge goes from a vertex
+     * to a later one, with Kahn's algorithm.
+     * @param order the array receiving the vertex ids in topological order
+     * @return true if the graph has no cycle and order holds all its
+     *         vertices, false if it has a cycle and order holds the vertices
+     *         that are neither on a cycle nor after one, then NONE
+     * @throws IllegalArgumentException if order is null or shorter than the
+     *         number of vertices
+     */
+    public boolean topologicalOrder(int[] order) {
+        int vertexCount = this.graph.getVertexCount();
+        if (order == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (order.length < vertexCount)
+            throw new IllegalArgumentException(
+                "The order array is shorter than the number of vertices");
+        Arrays.fill(this.counters, 0);
+        for (int e = 0; e < this.graph.getEdgeCount(); e++)
+            this.counters[this.graph.getTarget(e)]++;
+        int tail = 0;
+        for (int v = 0; v < vertexCount; v++)
+            if (this.counters[v] == 0)
+                order[tail++] = v;
+        for (int head = 0; head < tail; head++) {
+            int u = order[head];
+            int end = this.graph.endEdgeOf(u);
+            for (int e = this.graph.firstEdgeOf(u); e < end; e++) {
+                int v = this.graph.getTarget(e);
+                if (--this.counters[v] == 0)
+                    order[tail++] = v;
+            }
+        }
+        if (tail < vertexCount)
+            Arrays.fill(order, tail, vertexCount, NONE);
+        return tail == vertexCount;
+    }
+
+    /**
+     * {@return the id of the source vertex of the last traversal, NONE if
+     * there was none}
+     */
+    public int getSource() {
+        return this.source;
+    }
+
+    /**
+     * {@return true if the vertex whose id is vertex was reached by the last
+     * traversal}
+     * @param vertex the id of a vertex
+     */
+    public boolean isVisited(int vertex) {
+        return this.source != NONE && this.visitedIn[vertex] == this.generation;
+    }
+
+    /**
+     * Returns the edge that led the last traversal to the specified vertex.
+     * @param vertex the id of a vertex
+     * @return the id of the edge that led to vertex, NONE for the source
+     * @throws NoSuchElementException if vertex was not reached by the last
+     *         traversal
+     */
+    public int getParentEdge(int vertex) {
+        if (!this.isVisited(vertex))
+            throw new NoSuchElementException("Vertex was not visited");
+        return this.parentEdges[vertex];
+    }
+
+    // Starts a new traversal from src, marking it visited
+    private void start(int src) {
+        if (src < 0 || src >= this.graph.getVertexCount())
+            throw new NoSuchElementException("No such vertex");
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.visitedIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+        this.source = src;
+        this.mark(src, NONE);
+    }
+
+    // Records that v is reached through edge
+    private void mark(int v, int edge) {
+        this.visitedIn[v] = this.generation;
+        this.parentEdges[v] = edge;
+    }
+}
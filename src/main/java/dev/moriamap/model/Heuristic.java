@@ -0,0 +1,27 @@
+package dev.moriamap.model;
+
+/**
+ * A lower bound of the cost of the routes between two vertices of a
+ * CompiledGraph, used to direct a route search towards its destination (A*).
+ * <p>
+ *     To keep routes optimal, an estimate must never exceed the cost of any
+ *     route between the two vertices, and must be consistent: the estimate
+ *     from u is at most the cost of an edge from u to v plus the estimate
+ *     from v.
+ * </p>
+ */
+@FunctionalInterface
+public interface Heuristic {
+    /**
+     * A Heuristic whose estimates are all 0.0, with which A* is Dijkstra's
+     * algorithm.
+     */
+    Heuristic NONE = (vertex, target) -> 0.0;
+
+    /**
+     * {@return a lower bound of the cost of the routes from vertex to target}
+     * @param vertex the id of some Vertex of a CompiledGraph
+     * @param target the id of the destination Vertex of the search
+     */
+    double estimate(int vertex, int target);
+}
@@ -0,0 +1,184 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of integer ids between 0 (inclusive) and a fixed capacity
+ * (exclusive), each associated to a double key. The position of each id in
+ * the heap is tracked so that the key of an id already in the heap can be
+ * decreased in logarithmic time. Only primitive arrays are used, so no
+ * allocation happens once the heap is created.
+ */
+public final class IndexedMinHeap {
+    private static final int ABSENT = -1;
+
+    // The ids in heap order, only the first size entries are meaningful
+    private final int[] heap;
+
+    // The key of each id, meaningful only for ids in the heap
+    private final double[] keys;
+
+    // The index of each id in heap, ABSENT if it is not in the heap
+    private final int[] positions;
+
+    // The number of ids in the heap
+    private int size;
+
+    private IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.positions = new int[capacity];
+        Arrays.fill(this.positions, ABSENT);
+        this.size = 0;
+    }
+
+    /**
+     * {@return a new empty IndexedMinHeap that can hold the ids between 0
+     * (inclusive) and capacity (exclusive)}
+     * @param capacity the number of ids the heap can hold
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public static IndexedMinHeap withCapacity(int capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("Capacity can not be negative");
+        return new IndexedMinHeap(capacity);
+    }
+
+    /**
+     * {@return the number of ids in this heap}
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * {@return true if this heap holds no id}
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * {@return true if the specified id is in this heap}
+     * @param id some id between 0 and the capacity of this heap
+     */
+    public boolean contains(int id) {
+        return this.positions[id] != ABSENT;
+    }
+
+    /**
+     * {@return the key of the specified id}
+     * @param id some id in this heap
+     * @throws NoSuchElementException if id is not in this heap
+     */
+    public double keyOf(int id) {
+        if (!this.contains(id))
+            throw new NoSuchElementException("Id is not in the heap");
+        return this.keys[id];
+    }
+
+    /**
+     * Inserts the specified id with the specified key, or decreases its key if
+     * it is already in this heap with a greater key. Does nothing if the id is
+     * already in this heap with a lower or equal key.
+     * @param id some id between 0 and the capacity of this heap
+     * @param key the key of id
+     * @return true if id was inserted or its key decreased
+     */
+    public boolean insertOrDecrease(int id, double key) {
+        int position = this.positions[id];
+        if (position == ABSENT) {
+            position = this.size++;
+            this.heap[position] = id;
+            this.positions[id] = position;
+        } else if (key >= this.keys[id]) {
+            return false;
+        }
+        this.keys[id] = key;
+        this.siftUp(position);
+        return true;
+    }
+
+    /**
+     * {@return the lowest key of this heap}
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public double peekKey() {
+        if (this.size == 0)
+            throw new NoSuchElementException("Heap is empty");
+        return this.keys[this.heap[0]];
+    }
+
+    /**
+     * Removes the id with the lowest key from this heap.
+     * @return the id with the lowest key
+     * @throws NoSuchElementException if this heap is empty
+     */
+    public int poll() {
+        if (this.size == 0)
+            throw new NoSuchElementException("Heap is empty");
+        int min = this.heap[0];
+        this.positions[min] = ABSENT;
+        this.size--;
+        if (this.size > 0) {
+            int last = this.heap[this.size];
+            this.heap[0] = last;
+            this.positions[last] = 0;
+            this.siftDown(0);
+        }
+        return min;
+    }
+
+    /**
+     * Removes all the ids from this heap, in time proportional to the number
+     * of ids it holds.
+     */
+    public void clear() {
+        for (int i = 0; i < this.size; i++)
+            this.positions[this.heap[i]] = ABSENT;
+        this.size = 0;
+    }
+
+    // Moves up the id at the given position until its parent has a lower key
+    private void siftUp(int position) {
+        int id = this.heap[position];
+        double key = this.keys[id];
+        while (position > 0) {
+            int parentPosition = (position - 1) >>> 1;
+            int parent = this.heap[parentPosition];
+            if (this.keys[parent] <= key)
+                break;
+            this.heap[position] = parent;
+            this.positions[parent] = position;
+            position = parentPosition;
+        }
+        this.heap[position] = id;
+        this.positions[id] = position;
+    }
+
+    // Moves down the id at the given position until its children have greater
+    // keys
+    private void siftDown(int position) {
+        int id = this.heap[position];
+        double key = this.keys[id];
+        int half = this.size >>> 1;
+        while (position < half) {
+            int childPosition = 2 * position + 1;
+            int child = this.heap[childPosition];
+            int rightPosition = childPosition + 1;
+            if (rightPosition < this.size
+                && this.keys[this.heap[rightPosition]] < this.keys[child]) {
+                childPosition = rightPosition;
+                child = this.heap[childPosition];
+            }
+            if (key <= this.keys[child])
+                break;
+            this.heap[position] = child;
+            this.positions[child] = position;
+            position = childPosition;
+        }
+        this.heap[position] = id;
+        this.positions[id] = position;
+    }
+}
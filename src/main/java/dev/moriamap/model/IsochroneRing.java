@@ -0,0 +1,61 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Record of the stops of an isochrone reached with a travel time greater than
+ * a lower bound and no greater than an upper bound. The lower bound of the
+ * first ring of an isochrone is zero and is included, so that this ring
+ * holds the source, which is reached in no time.
+ * @param lower the lower bound of the travel times, exclusive unless it is
+ *        zero
+ * @param upper the inclusive upper bound of the travel times
+ * @param stops the stops of the ring, by increasing travel time
+ */
+public record IsochroneRing(Duration lower, Duration upper, List<Stop> stops) {
+
+    /**
+     * Constructor of IsochroneRing
+     * @param lower the lower bound of the travel times, exclusive unless it
+     *        is zero
+     * @param upper the inclusive upper bound of the travel times
+     * @param stops the stops of the ring, by increasing travel time
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public IsochroneRing {
+        if (lower == null || upper == null || stops == null)
+            throw new IllegalArgumentException(
+                "No IsochroneRing values can be null");
+        stops = Collections.unmodifiableList(stops);
+    }
+
+    /**
+     * {@return true if the stops reached in travelTime belong to this ring}
+     * travelTime must be greater than lower, or equal to it if it is zero, and
+     * no greater than upper.
+     * @param travelTime a travel time from the source
+     * @throws IllegalArgumentException if travelTime is null
+     */
+    public boolean contains(Duration travelTime) {
+        if (travelTime == null)
+            throw new IllegalArgumentException(
+                "No IsochroneRing values can be null");
+        int fromLower = travelTime.compareTo(this.lower);
+        return (fromLower > 0 || fromLower == 0 && this.lower.isZero())
+            && travelTime.compareTo(this.upper) <= 0;
+    }
+
+    /**
+     * {@return the geographic positions of the stops of this ring, in the
+     * order of the stops}
+     */
+    public List<GeographicPosition> positions() {
+        List<GeographicPosition> positions = new ArrayList<>(this.stops.size());
+        for (Stop stop : this.stops)
+            positions.add(stop.getGeographicPosition());
+        return positions;
+    }
+}
@@ -0,0 +1,274 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Computes the earliest arrival times at all the stops of a Timetable from a
+ * source Stop within a travel time budget, with a one-to-all Connection Scan.
+ * The connections are scanned by increasing departure time from the
+ * departure, and the scan stops at the first connection leaving after the
+ * budget is spent. The footpaths of the Timetable are walked from the source,
+ * and from a stop whenever a connection reaches it earlier than the
+ * connections before.
+ * <p>
+ *     Arrival times are written into an int array indexed by stop id, which
+ *     is the only state of a search besides the trips boarded and the
+ *     arrivals by a connection. Those are kept in generation-stamped arrays
+ *     allocated once per thread, so an IsochroneRouter can be shared by
+ *     threads and a search allocates nothing when the caller supplies the
+ *     array.
+ * </p>
+ */
+public final class IsochroneRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    /**
+     * The arrival time of the stops that can not be reached within the
+     * budget.
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * The upper bounds of the default isochrone rings: 5, 10 and 15 minutes.
+     */
+    public static final List<Duration> DEFAULT_RINGS = List.of(
+        Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofMinutes(15));
+
+    // The search state of a thread: the generation in which each trip was
+    // boarded, the earliest arrival at each stop by a connection, valid if
+    // rodeIn[s] is the current generation, and the current generation
+    private static final class Workspace {
+        private final int[] boardedIn;
+        private final int[] rideArrivals;
+        private final int[] rodeIn;
+        private int generation;
+
+        private Workspace(int tripCount, int stopCount) {
+            this.boardedIn = new int[tripCount];
+            this.rideArrivals = new int[stopCount];
+            this.rodeIn = new int[stopCount];
+            this.generation = 0;
+        }
+
+        // Starts a new generation, clearing the stamps when the counter wraps
+        private int nextGeneration() {
+            if (this.generation == Integer.MAX_VALUE) {
+                Arrays.fill(this.boardedIn, 0);
+                Arrays.fill(this.rodeIn, 0);
+                this.generation = 0;
+            }
+            return ++this.generation;
+        }
+    }
+
+    // The timetable in which stops are reached
+    private final Timetable timetable;
+
+    // The search state of each thread using this IsochroneRouter
+    private final ThreadLocal<Workspace> workspaces;
+
+    private IsochroneRouter(Timetable timetable) {
+        this.timetable = timetable;
+        this.workspaces = ThreadLocal.withInitial(
+            () -> new Workspace(timetable.getTotalTripCount(),
+                                timetable.getGraph().getVertexCount()));
+    }
+
+    /**
+     * {@return a new IsochroneRouter reaching stops in the specified
+     * Timetable}
+     * @param timetable the Timetable in which stops are reached
+     * @throws IllegalArgumentException if timetable is null
+     */
+    public static IsochroneRouter of(Timetable timetable) {
+        if (timetable == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new IsochroneRouter(timetable);
+    }
+
+    /**
+     * {@return the Timetable in which stops are reached}
+     */
+    public Timetable getTimetable() {
+        return this.timetable;
+    }
+
+    /**
+     * Computes the earliest arrival times at all the stops leaving src at
+     * departure or later, within the specified budget.
+     * @param src the source Stop
+     * @param departure the earliest departure time from src
+     * @param budget the maximum travel time
+     * @return the arrival times in seconds since midnight indexed by stop id,
+     *         UNREACHABLE for the stops not reached within budget
+     * @throws IllegalArgumentException if an argument is null or budget is
+     *         negative
+     * @throws NoSuchElementException if src is not in the timetable
+     */
+    public int[] arrivals(Stop src, LocalTime departure, Duration budget) {
+        if (src == null || departure == null || budget == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = this.timetable.getGraph();
+        return this.arrivals(
+            graph.idOf(src), departure.toSecondOfDay(), secondsOf(budget),
+            new int[graph.getVertexCount()]
+        );
+    }
+
+    /**
+     * Computes the earliest arrival times at all the stops leaving the stop
+     * whose id is src at departure or later, within the specified budget, into
+     * the specified array.
+     * @param src the id of the source Stop
+     * @param departure the earliest departure time from src, in seconds since
+     *        midnight
+     * @param budget the maximum travel time in seconds
+     * @param arrivals the array receiving the arrival times in seconds since
+     *        midnight indexed by stop id, UNREACHABLE for the stops not
+     *        reached within budget
+     * @return arrivals
+     * @throws IllegalArgumentException if arrivals is null or shorter than the
+     *         number of stops, or if budget is negative
+     */
+    public int[] arrivals(int src, int departure, int budget, int[] arrivals) {
+        int stopCount = this.timetable.getGraph().getVertexCount();
+        if (arrivals == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (arrivals.length < stopCount)
+            throw new IllegalArgumentException(
+                "The arrivals array is shorter than the number of stops");
+        if (budget < 0)
+            throw new IllegalArgumentException("The budget can not be negative");
+        Workspace workspace = this.workspaces.get();
+        int generation = workspace.nextGeneration();
+        int[] boardedIn = workspace.boardedIn;
+        Arrays.fill(arrivals, 0, stopCount, UNREACHABLE);
+        arrivals[src] = departure;
+        long limit = Math.min((long) departure + budget, Integer.MAX_VALUE);
+        this.ride(workspace, src, departure, limit, arrivals);
+        int count = this.timetable.getConnectionCount();
+        for (int c = this.timetable.firstConnectionFrom(departure); c < count; c++) {
+            int time = this.timetable.getConnectionDeparture(c);
+            if (time > limit)
+                break;
+            int trip = this.timetable.getConnectionTrip(c);
+            if (boardedIn[trip] != generation) {
+                int reached = arrivals[this.timetable.getConnectionSource(c)];
+                if (reached == UNREACHABLE || reached > time)
+                    continue;
+                boardedIn[trip] = generation;
+            }
+            int arrival = this.timetable.getConnectionArrival(c);
+            int target = this.timetable.getConnectionTarget(c);
+            if (arrival <= limit && (workspace.rodeIn[target] != generation
+                                     || arrival < workspace.rideArrivals[target]))
+                this.ride(workspace, target, arrival, limit, arrivals);
+        }
+        return arrivals;
+    }
+
+    // Records that stop is reached by a connection at the given time or is
+    // the source, and improves the arrivals at stop and at the targets of its
+    // footpaths that are within limit
+    private void ride(
+      Workspace workspace,
+      int stop,
+      int arrival,
+      long limit,
+      int[] arrivals
+    ) {
+        workspace.rideArrivals[stop] = arrival;
+        workspace.rodeIn[stop] = workspace.generation;
+        if (arrivals[stop] == UNREACHABLE || arrival < arrivals[stop])
+            arrivals[stop] = arrival;
+        int end = this.timetable.endFootpathOf(stop);
+        for (int f = this.timetable.firstFootpathOf(stop); f < end; f++) {
+            int target = this.timetable.getFootpathTarget(f);
+            long time = (long) arrival + this.timetable.getFootpathDuration(f);
+            if (time <= limit
+                && (arrivals[target] == UNREACHABLE || time < arrivals[target]))
+                arrivals[target] = (int) time;
+        }
+    }
+
+    /**
+     * Groups the stops reached from src into the DEFAULT_RINGS of travel time.
+     * @param src the source Stop
+     * @param departure the earliest departure time from src
+     * @return the rings of stops, by increasing travel time
+     * @throws IllegalArgumentException if an argument is null
+     * @throws NoSuchElementException if src is not in the timetable
+     */
+    public List<IsochroneRing> rings(Stop src, LocalTime departure) {
+        return this.rings(src, departure, DEFAULT_RINGS);
+    }
+
+    /**
+     * Groups the stops reached from src into rings of travel time, the first
+     * one holding the stops reached within the first bound and each other one
+     * the stops reached within its bound but not within the previous one.
+     * @param src the source Stop
+     * @param departure the earliest departure time from src
+     * @param bounds the upper bounds of the rings, in increasing order
+     * @return the rings of stops, one per bound
+     * @throws IllegalArgumentException if an argument is null or if bounds is
+     *         empty, contains a negative duration or is not increasing
+     * @throws NoSuchElementException if src is not in the timetable
+     */
+    public List<IsochroneRing> rings(
+      Stop src,
+      LocalTime departure,
+      List<Duration> bounds
+    ) {
+        if (src == null || departure == null || bounds == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (bounds.isEmpty())
+            throw new IllegalArgumentException("Bounds can not be empty");
+        int[] limits = new int[bounds.size()];
+        for (int i = 0; i < limits.length; i++) {
+            if (bounds.get(i) == null)
+                throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+            limits[i] = secondsOf(bounds.get(i));
+            if (i > 0 && limits[i] <= limits[i - 1])
+                throw new IllegalArgumentException(
+                    "Bounds must be in increasing order");
+        }
+        CompiledGraph graph = this.timetable.getGraph();
+        int start = departure.toSecondOfDay();
+        int[] arrivals = this.arrivals(
+            graph.idOf(src), start, limits[limits.length - 1],
+            new int[graph.getVertexCount()]
+        );
+        // Sorts the reached stops by travel time, packed with their ids
+        long[] reached = new long[arrivals.length];
+        int reachedCount = 0;
+        for (int s = 0; s < arrivals.length; s++)
+            if (arrivals[s] != UNREACHABLE)
+                reached[reachedCount++] =
+                    ((long) (arrivals[s] - start) << 32) | s;
+        Arrays.sort(reached, 0, reachedCount);
+        List<IsochroneRing> rings = new ArrayList<>(limits.length);
+        int next = 0;
+        for (int i = 0; i < limits.length; i++) {
+            List<Stop> stops = new ArrayList<>();
+            while (next < reachedCount && (reached[next] >>> 32) <= limits[i])
+                stops.add((Stop) graph.getVertex((int) reached[next++]));
+            rings.add(new IsochroneRing(
+                i == 0 ? Duration.ZERO : bounds.get(i - 1), bounds.get(i), stops));
+        }
+        return rings;
+    }
+
+    // Returns the specified duration in seconds, capped to Integer.MAX_VALUE
+    private static int secondsOf(Duration duration) {
+        if (duration.isNegative())
+            throw new IllegalArgumentException("A duration can not be negative");
+        return (int) Math.min(duration.getSeconds(), Integer.MAX_VALUE);
+    }
+}
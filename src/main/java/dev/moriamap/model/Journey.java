@@ -0,0 +1,141 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Journey is a sequence of legs in the transports of a timetable and on
+ * foot between them, found by a timetable-based route search, from a
+ * departure time to an arrival time.
+ * <p>
+ *     Times are kept in seconds since midnight of the service day, so that a
+ *     Journey ending after midnight still has a positive travel duration.
+ * </p>
+ */
+public final class Journey {
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    // The legs of this Journey, in travel order
+    private final List<JourneyLeg> legs;
+
+    // The departure and arrival times of this Journey, in seconds
+    private final int departure;
+    private final int arrival;
+
+    // The total distance of the segments travelled
+    private final double distance;
+
+    private Journey(
+      List<JourneyLeg> legs,
+      int departure,
+      int arrival,
+      double distance
+    ) {
+        this.legs = Collections.unmodifiableList(legs);
+        this.departure = departure;
+        this.arrival = arrival;
+        this.distance = distance;
+    }
+
+    /**
+     * Builds the Journey made of the specified legs.
+     * @param legs the legs of the journey, in travel order
+     * @param departure the departure time in seconds since midnight
+     * @param arrival the arrival time in seconds since midnight
+     * @param distance the total distance of the segments travelled
+     * @return a new Journey
+     */
+    static Journey from(
+      List<JourneyLeg> legs,
+      int departure,
+      int arrival,
+      double distance
+    ) {
+        return new Journey(legs, departure, arrival, distance);
+    }
+
+    /**
+     * {@return the time of day corresponding to the specified number of
+     * seconds since midnight of the service day}
+     * @param seconds a time in seconds since midnight, maybe past a day
+     */
+    static LocalTime timeOf(int seconds) {
+        return LocalTime.ofSecondOfDay(seconds % SECONDS_PER_DAY);
+    }
+
+    /**
+     * {@return an unmodifiable list of the legs of this Journey, in travel
+     * order}
+     */
+    public List<JourneyLeg> getLegs() {
+        return this.legs;
+    }
+
+    /**
+     * {@return the departure time of this Journey}
+     */
+    public LocalTime getDeparture() {
+        return timeOf(this.departure);
+    }
+
+    /**
+     * {@return the arrival time of this Journey}
+     */
+    public LocalTime getArrival() {
+        return timeOf(this.arrival);
+    }
+
+    /**
+     * {@return the departure time of this Journey in seconds since midnight
+     * of the service day}
+     */
+    public int getDepartureSecond() {
+        return this.departure;
+    }
+
+    /**
+     * {@return the arrival time of this Journey in seconds since midnight of
+     * the service day}
+     */
+    public int getArrivalSecond() {
+        return this.arrival;
+    }
+
+    /**
+     * {@return the time between the departure and the arrival of this
+     * Journey}
+     */
+    public Duration getTravelDuration() {
+        return Duration.ofSeconds((long) this.arrival - this.departure);
+    }
+
+    /**
+     * {@return the total distance of the segments travelled during this
+     * Journey}
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * {@return the number of changes of transport during this Journey, the
+     * walks between transports not counting}
+     */
+    public int getTransferCount() {
+        int rides = 0;
+        for (JourneyLeg leg : this.legs)
+            if (!leg.isWalk())
+                rides++;
+        return Math.max(0, rides - 1);
+    }
+
+    /**
+     * {@return true if this Journey has no leg, i.e. source and destination
+     * are the same}
+     */
+    public boolean isEmpty() {
+        return this.legs.isEmpty();
+    }
+}
@@ -0,0 +1,63 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+
+/**
+ * Record of a part of a Journey spent in one transport of a Variant, from the
+ * Stop where it is boarded to the Stop where it is left, or walked between
+ * two stops along a WalkingSegment, in which case it has no Variant.
+ * @param variant the Variant of the transport, null for a walk
+ * @param from the Stop where the transport is boarded
+ * @param to the Stop where the transport is left
+ * @param departure the time at which the transport leaves from
+ * @param arrival the time at which the transport reaches to
+ */
+public record JourneyLeg(
+    Variant variant,
+    Stop from,
+    Stop to,
+    LocalTime departure,
+    LocalTime arrival
+) {
+
+    /**
+     * Constructor of JourneyLeg
+     * @param variant the Variant of the transport, null for a walk
+     * @param from the Stop where the transport is boarded
+     * @param to the Stop where the transport is left
+     * @param departure the time at which the transport leaves from
+     * @param arrival the time at which the transport reaches to
+     * @throws IllegalArgumentException if an argument other than variant is
+     *         null
+     */
+    public JourneyLeg {
+        if (from == null || to == null || departure == null || arrival == null)
+            throw new IllegalArgumentException(
+                "No JourneyLeg values other than variant can be null");
+    }
+
+    /**
+     * {@return a new JourneyLeg walked from a Stop to another}
+     * @param from the Stop the walk starts from
+     * @param to the Stop the walk ends at
+     * @param departure the time at which the walk starts
+     * @param arrival the time at which the walk ends
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public static JourneyLeg walk(
+      Stop from,
+      Stop to,
+      LocalTime departure,
+      LocalTime arrival
+    ) {
+        return new JourneyLeg(null, from, to, departure, arrival);
+    }
+
+    /**
+     * {@return true if this JourneyLeg is walked instead of travelled in a
+     * transport}
+     */
+    public boolean isWalk() {
+        return this.variant == null;
+    }
+}
@@ -0,0 +1,246 @@
+package dev.moriamap.model;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A Heuristic derived from the costs of the routes from and to a few
+ * landmark vertices (ALT). By the triangle inequality, the cost of a route
+ * from v to t is at least d(L, t) - d(L, v) and d(v, L) - d(t, L) for every
+ * landmark L, whatever the shape of the network between them.
+ * <p>
+ *     The costs from and to every landmark are computed once, for a given
+ *     RouteMetric, and stored in arrays indexed by the ids of the vertices in
+ *     the CompiledGraph, the landmarks of one Vertex being contiguous. A new
+ *     LandmarkHeuristic must be built when the edge costs change, which is
+ *     much cheaper than a new ContractionHierarchy.
+ * </p>
+ */
+public final class LandmarkHeuristic implements Heuristic {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // Keeps estimates below the true cost despite floating point rounding
+    private static final double ROUNDING_MARGIN = 1.0 - 1e-9;
+
+    // The ids of the landmarks
+    private final int[] landmarks;
+
+    // The cost from landmark i to vertex v, at index v * landmarks.length + i
+    private final double[] fromLandmarks;
+
+    // The cost from vertex v to landmark i, at index v * landmarks.length + i
+    private final double[] toLandmarks;
+
+    private LandmarkHeuristic(
+      int[] landmarks,
+      double[] fromLandmarks,
+      double[] toLandmarks
+    ) {
+        this.landmarks = landmarks;
+        this.fromLandmarks = fromLandmarks;
+        this.toLandmarks = toLandmarks;
+    }
+
+    /**
+     * Builds a LandmarkHeuristic for the specified metric in the specified
+     * CompiledGraph with landmarks chosen by farthest-point selection: each
+     * landmark is the Vertex whose round trip to the landmarks already chosen
+     * is the most expensive, vertices out of their reach coming first.
+     * @param graph the CompiledGraph in which routes are searched
+     * @param metric the quantity minimized by the search
+     * @param landmarkCount the number of landmarks, lowered to the number of
+     *        vertices of graph if greater
+     * @return a new LandmarkHeuristic
+     * @throws IllegalArgumentException if graph or metric is null, or if
+     *         landmarkCount is not positive
+     */
+    public static LandmarkHeuristic of(
+      CompiledGraph graph,
+      RouteMetric metric,
+      int landmarkCount
+    ) {
+        if (graph == null || metric == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (landmarkCount <= 0)
+            throw new IllegalArgumentException(
+                "The number of landmarks must be positive");
+        int vertexCount = graph.getVertexCount();
+        int count = Math.min(landmarkCount, vertexCount);
+        double[] costs = graph.getCosts(metric);
+        int[] landmarks = new int[count];
+        double[][] from = new double[count][];
+        double[][] to = new double[count][];
+        if (count > 0) {
+            // The first landmark is the farthest from an arbitrary vertex
+            double[][] start = costsFromAndTo(graph, costs, 0);
+            double[] roundTrips = new double[vertexCount];
+            Arrays.fill(roundTrips, Double.POSITIVE_INFINITY);
+            lowerRoundTrips(roundTrips, start[0], start[1]);
+            roundTrips[0] = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                int landmark = farthest(roundTrips);
+                double[][] tables = costsFromAndTo(graph, costs, landmark);
+                landmarks[i] = landmark;
+                from[i] = tables[0];
+                to[i] = tables[1];
+                if (i == 0)
+                    Arrays.fill(roundTrips, Double.POSITIVE_INFINITY);
+                lowerRoundTrips(roundTrips, from[i], to[i]);
+                roundTrips[landmark] = Double.NEGATIVE_INFINITY;
+            }
+        }
+        return new LandmarkHeuristic(
+            landmarks, interleave(from, vertexCount), interleave(to, vertexCount));
+    }
+
+    /**
+     * Builds a LandmarkHeuristic for the specified metric in the specified
+     * CompiledGraph with the specified landmarks. The costs from and to every
+     * landmark are computed in parallel on the common ForkJoinPool.
+     * @param graph the CompiledGraph in which routes are searched
+     * @param metric the quantity minimized by the search
+     * @param landmarks the ids of the landmark vertices
+     * @return a new LandmarkHeuristic
+     * @throws IllegalArgumentException if an argument is null, or if some
+     *         landmark is not the id of a Vertex of graph
+     */
+    public static LandmarkHeuristic withLandmarks(
+      CompiledGraph graph,
+      RouteMetric metric,
+      int[] landmarks
+    ) {
+        if (graph == null || metric == null || landmarks == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        int vertexCount = graph.getVertexCount();
+        for (int landmark : landmarks)
+            if (landmark < 0 || landmark >= vertexCount)
+                throw new IllegalArgumentException("No such vertex");
+        double[] costs = graph.getCosts(metric);
+        int count = landmarks.length;
+        double[][] tables = IntStream.range(0, 2 * count).parallel()
+            .mapToObj(i -> costsFrom(graph, costs, landmarks[i / 2], i % 2 == 1))
+            .toArray(double[][]::new);
+        double[][] from = new double[count][];
+        double[][] to = new double[count][];
+        for (int i = 0; i < count; i++) {
+            from[i] = tables[2 * i];
+            to[i] = tables[2 * i + 1];
+        }
+        return new LandmarkHeuristic(
+            landmarks.clone(),
+            interleave(from, vertexCount),
+            interleave(to, vertexCount)
+        );
+    }
+
+    /**
+     * {@return the number of landmarks of this heuristic}
+     */
+    public int getLandmarkCount() {
+        return this.landmarks.length;
+    }
+
+    /**
+     * {@return the id of the specified landmark}
+     * @param index the index of the landmark, from 0 to getLandmarkCount()
+     *        excluded
+     */
+    public int getLandmark(int index) {
+        return this.landmarks[index];
+    }
+
+    @Override
+    public double estimate(int vertex, int target) {
+        int count = this.landmarks.length;
+        int v = vertex * count;
+        int t = target * count;
+        double best = 0.0;
+        // A NaN bound, when both costs are infinite, is never greater than best
+        for (int i = 0; i < count; i++) {
+            double bound = this.fromLandmarks[t + i] - this.fromLandmarks[v + i];
+            if (bound > best)
+                best = bound;
+            bound = this.toLandmarks[v + i] - this.toLandmarks[t + i];
+            if (bound > best)
+                best = bound;
+        }
+        return best * ROUNDING_MARGIN;
+    }
+
+    // Returns the costs from and to src, computed in parallel
+    private static double[][] costsFromAndTo(
+      CompiledGraph graph,
+      double[] costs,
+      int src
+    ) {
+        return IntStream.range(0, 2).parallel()
+            .mapToObj(i -> costsFrom(graph, costs, src, i == 1))
+            .toArray(double[][]::new);
+    }
+
+    // Returns the cost of the cheapest route from src to every vertex, or
+    // from every vertex to src if backward is true, infinite if there is none
+    private static double[] costsFrom(
+      CompiledGraph graph,
+      double[] costs,
+      int src,
+      boolean backward
+    ) {
+        int vertexCount = graph.getVertexCount();
+        double[] distances = new double[vertexCount];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        boolean[] settled = new boolean[vertexCount];
+        IndexedMinHeap heap = IndexedMinHeap.withCapacity(vertexCount);
+        distances[src] = 0.0;
+        heap.insertOrDecrease(src, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled[u] = true;
+            double du = distances[u];
+            int first = backward ? graph.firstIncomingOf(u) : graph.firstEdgeOf(u);
+            int end = backward ? graph.endIncomingOf(u) : graph.endEdgeOf(u);
+            for (int i = first; i < end; i++) {
+                int e = backward ? graph.getIncomingEdge(i) : i;
+                int v = backward ? graph.getSource(e) : graph.getTarget(e);
+                double dv = du + costs[e];
+                if (!settled[v] && dv < distances[v]) {
+                    distances[v] = dv;
+                    heap.insertOrDecrease(v, dv);
+                }
+            }
+        }
+        return distances;
+    }
+
+    // Lowers the round trip cost of each vertex to the one through a new
+    // landmark, given the costs from and to it
+    private static void lowerRoundTrips(
+      double[] roundTrips,
+      double[] from,
+      double[] to
+    ) {
+        for (int v = 0; v < roundTrips.length; v++)
+            roundTrips[v] = Math.min(roundTrips[v], from[v] + to[v]);
+    }
+
+    // Returns the vertex with the greatest round trip cost, the lowest id
+    // among ties
+    private static int farthest(double[] roundTrips) {
+        int best = 0;
+        for (int v = 1; v < roundTrips.length; v++)
+            if (roundTrips[v] > roundTrips[best])
+                best = v;
+        return best;
+    }
+
+    // Returns the tables of each landmark, interleaved by vertex
+    private static double[] interleave(double[][] tables, int vertexCount) {
+        int count = tables.length;
+        double[] result = new double[vertexCount * count];
+        for (int i = 0; i < count; i++)
+            for (int v = 0; v < vertexCount; v++)
+                result[v * count + i] = tables[i][v];
+        return result;
+    }
+}
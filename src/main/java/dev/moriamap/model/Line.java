@@ -1,7 +1,10 @@
 package dev.moriamap.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Represents a line of a transport network.
@@ -14,6 +17,10 @@ public final class Line {
     // Variants of this line
     private final List<Variant> variants;
 
+    // The networks holding this line, told of its changes and of the
+    // changes of its variants
+    private final Set<TransportNetwork> owners;
+
     /**
      * Class constructor specifying name.
      *<p>
@@ -25,6 +32,7 @@ public final class Line {
     private Line(String name) {
         this.name = name;
         this.variants = new ArrayList<>();
+        this.owners = Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
     /**
@@ -88,7 +96,58 @@ public final class Line {
             return false;
         }
 
-        return this.variants.add(v);
+        this.variants.add(v);
+        v.addOwner(this);
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Removes the given variant.
+     *
+     * @param v variant to be removed
+     * @return true if the given variant was removed
+     * @throws IllegalArgumentException if the given variant is null
+     */
+    public boolean removeVariant(Variant v) {
+        if (v == null) {
+            throw new IllegalArgumentException("Null variant is not allowed");
+        }
+
+        int index = this.variants.indexOf(v);
+        if (index < 0) {
+            return false;
+        }
+
+        this.variants.remove(index).removeOwner(this);
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Registers a network holding this line, so that it sees the later
+     * changes of this line and of its variants.
+     * @param network the network holding this line
+     */
+    void addOwner(TransportNetwork network) {
+        this.owners.add(network);
+    }
+
+    /**
+     * Unregisters a network that no longer holds this line.
+     * @param network the network that held this line
+     */
+    void removeOwner(TransportNetwork network) {
+        this.owners.remove(network);
+    }
+
+    /**
+     * Tells the networks holding this line that it or one of its variants
+     * changed.
+     */
+    void modified() {
+        for (TransportNetwork network : this.owners)
+            network.modified();
     }
 
     /**
@@ -0,0 +1,511 @@
+package dev.moriamap.model;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ * A list of changes to the transport segments and the departures of a
+ * TransportNetwork, applied in place rather than by parsing the whole network
+ * again.
+ * <p>
+ *     A delta file has the format of a network CSV file with a first field
+ *     telling what to do with the segment of the row: + adds it, - removes
+ *     it and ~ changes its duration and distance. The segment removed or
+ *     changed is the one of the same line and variant between the same
+ *     stops, whatever its duration and distance. A row of four fields
+ *     "+;line;variant;HH:MM" or "-;line;variant;HH:MM" adds or removes a
+ *     departure of a variant, for instance one created by the delta.
+ * </p>
+ * <p>
+ *     Applying a delta updates the stops, the lines and the variants of the
+ *     network: a variant left without segments is removed from its line, a
+ *     line left without variants from the network, and a stop left without
+ *     segments from the network, with its WalkingSegments. Given the
+ *     WalkingTransfers of the network, the stops added are linked to their
+ *     nearby stops. Each change bumps the modification count of the network,
+ *     which empties a RouteCache of the network.
+ * </p>
+ * <p>
+ *     Only the network and the indices of its stops by name, by fuzzy name
+ *     and by position are updated in place. The CompiledGraph, the Timetable
+ *     and the indices of a NetworkSnapshot are built again in full by the
+ *     next snapshot(), so applyAndCompare times neither snapshot: it
+ *     compares the in-place update with the rebuild of the same network, its
+ *     WalkingSegments included.
+ * </p>
+ */
+public final class NetworkDelta {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The number of fields of a segment row, the operation included
+    private static final int FIELD_COUNT = 8;
+
+    // The number of fields of a departure row, the operation included
+    private static final int DEPARTURE_FIELD_COUNT = 4;
+
+    /**
+     * The operations of a delta.
+     */
+    public enum Operation {
+        /** Adds a transport segment or a departure. */
+        ADD('+'),
+        /** Removes a transport segment or a departure. */
+        REMOVE('-'),
+        /** Changes the duration and the distance of a transport segment. */
+        CHANGE('~');
+
+        // The symbol of the operation in a delta file
+        private final char symbol;
+
+        Operation(char symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * {@return the symbol of this operation in a delta file}
+         */
+        public char getSymbol() {
+            return this.symbol;
+        }
+    }
+
+    /**
+     * A change of a delta.
+     */
+    public sealed interface Change permits SegmentChange, DepartureChange {
+        /**
+         * {@return the operation of this change}
+         */
+        Operation operation();
+    }
+
+    /**
+     * Record of an operation on the transport segment described by a tuple.
+     * @param operation the operation
+     * @param tuple the EdgeTuple describing the transport segment
+     */
+    public record SegmentChange(Operation operation, EdgeTuple tuple)
+      implements Change {
+
+        /**
+         * Constructor of SegmentChange
+         * @param operation the operation
+         * @param tuple the EdgeTuple describing the transport segment
+         * @throws IllegalArgumentException if an argument is null
+         */
+        public SegmentChange {
+            if (operation == null || tuple == null)
+                throw new IllegalArgumentException(
+                    "No SegmentChange values can be null");
+        }
+    }
+
+    /**
+     * Record of the addition or the removal of a departure of a variant.
+     * @param operation ADD or REMOVE
+     * @param lineName the name of the line of the variant
+     * @param variantName the name of the variant
+     * @param departure the departure time from the first stop of the variant
+     */
+    public record DepartureChange(
+      Operation operation,
+      String lineName,
+      String variantName,
+      LocalTime departure
+    ) implements Change {
+
+        /**
+         * Constructor of DepartureChange
+         * @param operation ADD or REMOVE
+         * @param lineName the name of the line of the variant
+         * @param variantName the name of the variant
+         * @param departure the departure time
+         * @throws IllegalArgumentException if an argument is null or if
+         *         operation is CHANGE
+         */
+        public DepartureChange {
+            if (operation == null || lineName == null || variantName == null
+                || departure == null)
+                throw new IllegalArgumentException(
+                    "No DepartureChange values can be null");
+            if (operation == Operation.CHANGE)
+                throw new IllegalArgumentException(
+                    "A departure can only be added or removed");
+        }
+    }
+
+    // The changes, in the order they are applied
+    private final List<Change> changes;
+
+    private NetworkDelta(List<Change> changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * {@return a new NetworkDelta made of the specified changes}
+     * @param changes the changes, in the order they are applied
+     * @throws IllegalArgumentException if changes is or contains null
+     */
+    public static NetworkDelta of(List<Change> changes) {
+        if (changes == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Change> copy = new ArrayList<>(changes);
+        for (Change change : copy)
+            if (change == null)
+                throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new NetworkDelta(Collections.unmodifiableList(copy));
+    }
+
+    /**
+     * Parses a delta file. Blank lines are ignored.
+     * @param resource the stream of the delta file
+     * @return the NetworkDelta of the file
+     * @throws IllegalArgumentException if resource is null
+     * @throws InconsistentCSVException if a row does not have the number of
+     *         fields of a segment or a departure row, an unknown operation or
+     *         an invalid departure time
+     */
+    public static NetworkDelta from(InputStream resource)
+      throws InconsistentCSVException {
+        if (resource == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Change> changes = new ArrayList<>();
+        Scanner sc = new Scanner(resource);
+        while (sc.hasNextLine()) {
+            String line = sc.nextLine();
+            if (line.isBlank())
+                continue;
+            List<String> fields = CSVParser.parseCSVLine(line, ";");
+            Operation operation = operationOf(fields.get(0).trim());
+            if (fields.size() == FIELD_COUNT)
+                changes.add(new SegmentChange(
+                    operation, EdgeTuple.fromCSVLine(fields.subList(1, FIELD_COUNT))));
+            else if (fields.size() == DEPARTURE_FIELD_COUNT
+                     && operation != Operation.CHANGE)
+                changes.add(new DepartureChange(
+                    operation,
+                    fields.get(1).trim(),
+                    fields.get(2).trim(),
+                    departureOf(fields.get(3).trim())));
+            else
+                throw new InconsistentCSVException();
+        }
+        return new NetworkDelta(Collections.unmodifiableList(changes));
+    }
+
+    /**
+     * {@return the changes of this delta, in the order they are applied}
+     */
+    public List<Change> getChanges() {
+        return this.changes;
+    }
+
+    /**
+     * Applies the changes of this delta to the specified network, in order.
+     * If a change fails, the changes before it remain applied.
+     * @param network the TransportNetwork to update
+     * @return the report of the changes, timing only their application
+     * @throws IllegalArgumentException if network is null, or if a segment
+     *         or a departure added is already in the network
+     * @throws NoSuchElementException if a segment or a departure removed or
+     *         changed is not in the network
+     */
+    public DeltaReport applyTo(TransportNetwork network) {
+        if (network == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.applyTo(network, null, false);
+    }
+
+    /**
+     * Applies the changes of this delta to the specified network like
+     * applyTo(network), then links the stops they add to the network to
+     * their nearby stops with transfers, as a network loaded with transfers
+     * would have them.
+     * @param network the TransportNetwork to update
+     * @param transfers the WalkingTransfers the network was loaded with
+     * @return the report of the changes, timing their application and the
+     *         linking of the stops added
+     * @throws IllegalArgumentException if an argument is null, or if a
+     *         segment or a departure added is already in the network
+     * @throws NoSuchElementException if a segment or a departure removed or
+     *         changed is not in the network
+     */
+    public DeltaReport applyTo(TransportNetwork network, WalkingTransfers transfers) {
+        if (network == null || transfers == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.applyTo(network, transfers, false);
+    }
+
+    /**
+     * Applies the changes of this delta to a network loaded without
+     * WalkingTransfers like applyTo(network), then times a full rebuild of
+     * the updated network from its EdgeTuples and departures with
+     * TransportNetworkParser, to compare both. The rebuilt network is
+     * discarded.
+     * @param network the TransportNetwork to update
+     * @return the report of the changes, with rebuild time
+     * @throws IllegalArgumentException if network is null or has
+     *         WalkingSegments, or if a segment or a departure added is
+     *         already in the network
+     * @throws NoSuchElementException if a segment or a departure removed or
+     *         changed is not in the network
+     */
+    public DeltaReport applyAndCompare(TransportNetwork network) {
+        if (network == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!network.getWalkingSegments().isEmpty())
+            throw new IllegalArgumentException(
+                "A network with walking segments needs its WalkingTransfers");
+        return this.applyTo(network, null, true);
+    }
+
+    /**
+     * Applies the changes of this delta to a network loaded with transfers
+     * like applyTo(network, transfers), then times a full rebuild of the
+     * updated network from its EdgeTuples and departures with
+     * TransportNetworkParser, followed by the generation of its
+     * WalkingSegments by transfers, to compare both. The rebuilt network is
+     * discarded.
+     * @param network the TransportNetwork to update
+     * @param transfers the WalkingTransfers the network was loaded with
+     * @return the report of the changes, with rebuild time
+     * @throws IllegalArgumentException if an argument is null, or if a
+     *         segment or a departure added is already in the network
+     * @throws NoSuchElementException if a segment or a departure removed or
+     *         changed is not in the network
+     */
+    public DeltaReport applyAndCompare(
+      TransportNetwork network,
+      WalkingTransfers transfers
+    ) {
+        if (network == null || transfers == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.applyTo(network, transfers, true);
+    }
+
+    // Applies the changes to network, linking the stops added with transfers
+    // if it is not null, and times a full rebuild of the updated network if
+    // compare is true
+    private DeltaReport applyTo(
+      TransportNetwork network,
+      WalkingTransfers transfers,
+      boolean compare
+    ) {
+        long start = System.nanoTime();
+        int[] counts = this.apply(network, transfers);
+        Duration applyDuration = Duration.ofNanos(System.nanoTime() - start);
+        if (!compare)
+            return new DeltaReport(counts[0], counts[1], counts[2], applyDuration, null);
+        List<EdgeTuple> tuples = network.toEdgeTuples();
+        List<Variant> variants = network.getVariants();
+        start = System.nanoTime();
+        TransportNetwork rebuilt = TransportNetworkParser.generateFromEdgeTuple(tuples);
+        for (Variant variant : variants) {
+            Line line = rebuilt.findLine(variant.getLineName());
+            Variant copy = line == null ? null : findVariant(line, variant.getName());
+            if (copy != null)
+                for (LocalTime departure : variant.getDepartures())
+                    copy.addDeparture(departure);
+        }
+        if (transfers != null)
+            transfers.addTo(rebuilt);
+        Duration rebuildDuration = Duration.ofNanos(System.nanoTime() - start);
+        return new DeltaReport(
+            counts[0], counts[1], counts[2], applyDuration, rebuildDuration);
+    }
+
+    // Applies the changes to network, then links the stops they added to
+    // their nearby stops with transfers if it is not null, and returns the
+    // numbers of changes adding, removing and changing something
+    private int[] apply(TransportNetwork network, WalkingTransfers transfers) {
+        int[] counts = new int[3];
+        List<Stop> added = new ArrayList<>();
+        for (Change change : this.changes) {
+            if (change instanceof DepartureChange departureChange)
+                applyDeparture(network, departureChange);
+            else
+                applySegment(
+                    network, ((SegmentChange) change).tuple(), change.operation(), added);
+            counts[change.operation().ordinal()]++;
+        }
+        if (transfers != null)
+            for (Stop stop : added)
+                if (network.contains(stop))
+                    transfers.addAround(network, stop);
+        return counts;
+    }
+
+    // Applies the operation on the segment of tuple to network, adding the
+    // stops it adds to network to added
+    private static void applySegment(
+      TransportNetwork network,
+      EdgeTuple tuple,
+      Operation operation,
+      List<Stop> added
+    ) {
+        switch (operation) {
+            case ADD -> add(network, tuple, added);
+            case REMOVE -> remove(network, tuple);
+            case CHANGE -> replace(network, tuple);
+        }
+    }
+
+    // Adds or removes the departure of change in network
+    private static void applyDeparture(TransportNetwork network, DepartureChange change) {
+        Line line = network.findLine(change.lineName());
+        Variant variant = line == null ? null : findVariant(line, change.variantName());
+        if (variant == null)
+            throw new NoSuchElementException("No such variant");
+        if (change.operation() == Operation.ADD) {
+            if (!variant.addDeparture(change.departure()))
+                throw new IllegalArgumentException("Departure already present");
+        } else if (!variant.removeDeparture(change.departure())) {
+            throw new NoSuchElementException("No such departure");
+        }
+    }
+
+    // Returns the departure time written HH:MM in a delta file
+    private static LocalTime departureOf(String time)
+      throws InconsistentCSVException {
+        try {
+            return LocalTime.parse(time);
+        } catch (DateTimeParseException e) {
+            throw new InconsistentCSVException();
+        }
+    }
+
+    // Returns the operation whose symbol is symbol
+    private static Operation operationOf(String symbol)
+      throws InconsistentCSVException {
+        for (Operation operation : Operation.values())
+            if (symbol.length() == 1 && symbol.charAt(0) == operation.getSymbol())
+                return operation;
+        throw new InconsistentCSVException();
+    }
+
+    // Adds the segment of tuple, its stops, line and variant to network, and
+    // the stops it adds to network to added
+    private static void add(TransportNetwork network, EdgeTuple tuple, List<Stop> added) {
+        Stop from = fromStopOf(tuple);
+        boolean newFrom = !network.contains(from);
+        if (!newFrom && findSegment(network, from, tuple) != null)
+            throw new IllegalArgumentException("Transport segment already present");
+        boolean newTo = !network.contains(toStopOf(tuple));
+        TransportSegment segment = TransportNetworkParser.addEdgeTuple(network, tuple);
+        if (newFrom)
+            added.add((Stop) segment.getFrom());
+        if (newTo && segment.getTo() != segment.getFrom())
+            added.add((Stop) segment.getTo());
+    }
+
+    // Removes the segment of tuple from network and from its variant, then
+    // the variant, line and stops it leaves empty
+    private static void remove(TransportNetwork network, EdgeTuple tuple) {
+        TransportSegment segment = existingSegment(network, tuple);
+        network.removeTransportSegment(segment);
+        Line line = network.findLine(tuple.lineName());
+        Variant variant = line == null ? null : findVariant(line, tuple.variantName());
+        if (variant != null) {
+            variant.removeTransportSegment(segment);
+            if (variant.getTransportSegments().isEmpty()) {
+                line.removeVariant(variant);
+                if (line.getVariants().isEmpty())
+                    network.removeLine(line);
+            }
+        }
+        removeIfIsolated(network, (Stop) segment.getFrom());
+        removeIfIsolated(network, (Stop) segment.getTo());
+    }
+
+    // Replaces the segment of tuple by one with the duration and distance of
+    // tuple, in network and in its variant
+    private static void replace(TransportNetwork network, EdgeTuple tuple) {
+        TransportSegment old = existingSegment(network, tuple);
+        TransportSegment segment = TransportSegment.from(
+            (Stop) old.getFrom(),
+            (Stop) old.getTo(),
+            tuple.lineName(),
+            tuple.variantName(),
+            tuple.duration(),
+            tuple.distance());
+        network.removeTransportSegment(old);
+        network.addTransportSegment(segment);
+        Line line = network.findLine(tuple.lineName());
+        Variant variant = line == null ? null : findVariant(line, tuple.variantName());
+        if (variant != null && variant.removeTransportSegment(old))
+            variant.addTransportSegment(segment);
+    }
+
+    // Returns the segment of tuple in network
+    private static TransportSegment existingSegment(
+      TransportNetwork network,
+      EdgeTuple tuple
+    ) {
+        Stop from = fromStopOf(tuple);
+        TransportSegment segment =
+            network.contains(from) ? findSegment(network, from, tuple) : null;
+        if (segment == null)
+            throw new NoSuchElementException("No such transport segment");
+        return segment;
+    }
+
+    // Returns the segment from from with the stop, line and variant of
+    // tuple, or null
+    private static TransportSegment findSegment(
+      TransportNetwork network,
+      Stop from,
+      EdgeTuple tuple
+    ) {
+        Stop to = toStopOf(tuple);
+        for (Edge edge : network.getOutgoingEdgesOf(from)) {
+            if (edge instanceof TransportSegment segment
+                && segment.getTo().equals(to)
+                && segment.getLineName().equals(tuple.lineName())
+                && segment.getVariantName().equals(tuple.variantName()))
+                return segment;
+        }
+        return null;
+    }
+
+    // Returns the variant of line named name, or null
+    private static Variant findVariant(Line line, String name) {
+        for (Variant variant : line.getVariants())
+            if (variant.getName().equals(name))
+                return variant;
+        return null;
+    }
+
+    // Removes stop from network, with its walking segments, if no transport
+    // segment goes from or to it
+    private static void removeIfIsolated(TransportNetwork network, Stop stop) {
+        for (Edge edge : network.getOutgoingEdgesOf(stop))
+            if (edge instanceof TransportSegment)
+                return;
+        for (Edge edge : network.getIncomingEdgesOf(stop))
+            if (edge instanceof TransportSegment)
+                return;
+        network.removeStop(stop);
+    }
+
+    // Returns the first stop of tuple, as built by TransportNetworkParser
+    private static Stop fromStopOf(EdgeTuple tuple) {
+        return Stop.from(
+            tuple.fromName(),
+            GeographicPosition.at(tuple.fromLatitude(), tuple.fromLongitude()));
+    }
+
+    // Returns the second stop of tuple, as built by TransportNetworkParser
+    private static Stop toStopOf(EdgeTuple tuple) {
+        return Stop.from(
+            tuple.toName(),
+            GeographicPosition.at(tuple.toLatitude(), tuple.toLongitude()));
+    }
+}
@@ -0,0 +1,188 @@
+package dev.moriamap.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serves the current NetworkSnapshot of a transport network and replaces it
+ * without downtime when a new network is published.
+ * <p>
+ *     The current snapshot is held by an AtomicReference: readers get it with
+ *     a single volatile read and never take a lock. A reload builds the next
+ *     TransportNetwork and its snapshot on an Executor, then swaps it in
+ *     atomically. Queries that already hold the previous snapshot keep using
+ *     it until they end; it is garbage collected afterwards.
+ * </p>
+ * <p>
+ *     Each reload or swap is given a sequence number when it is requested.
+ *     When several reloads overlap, a snapshot is only installed if no later
+ *     request has been installed already, so the most recent request wins
+ *     whatever order the builds complete in.
+ * </p>
+ */
+public final class NetworkService {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // A snapshot with the sequence number of the request that produced it
+    private record Installed(long sequence, NetworkSnapshot snapshot) {}
+
+    // The snapshot served to readers
+    private final AtomicReference<Installed> current;
+
+    // The sequence number of the last request
+    private final AtomicLong requests;
+
+    // The executor building the snapshots of reloads
+    private final Executor executor;
+
+    private NetworkService(NetworkSnapshot initial, Executor executor) {
+        this.current = new AtomicReference<>(new Installed(0, initial));
+        this.requests = new AtomicLong();
+        this.executor = executor;
+    }
+
+    /**
+     * {@return a new NetworkService serving initial, which reloads on the
+     * common ForkJoinPool}
+     * @param initial the first snapshot served
+     * @throws IllegalArgumentException if initial is null
+     */
+    public static NetworkService of(NetworkSnapshot initial) {
+        return of(initial, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * {@return a new NetworkService serving initial, which reloads on the
+     * specified executor}
+     * @param initial the first snapshot served
+     * @param executor the executor building the snapshots of reloads
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public static NetworkService of(NetworkSnapshot initial, Executor executor) {
+        if (initial == null || executor == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new NetworkService(initial, executor);
+    }
+
+    /**
+     * {@return the current snapshot}
+     * A query should call this once and use the returned snapshot throughout,
+     * so that it sees a single state of the network.
+     */
+    public NetworkSnapshot current() {
+        return this.current.get().snapshot();
+    }
+
+    /**
+     * Runs the specified query on the current snapshot.
+     * @param <T> the type of the result of the query
+     * @param query the query to run
+     * @return the result of query
+     * @throws IllegalArgumentException if query is null
+     */
+    public <T> T query(Function<? super NetworkSnapshot, ? extends T> query) {
+        if (query == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return query.apply(this.current());
+    }
+
+    /**
+     * Replaces the current snapshot by the specified one, unless a later
+     * request was already installed.
+     * @param next the snapshot to serve
+     * @return true if next is now served
+     * @throws IllegalArgumentException if next is null
+     */
+    public boolean swap(NetworkSnapshot next) {
+        if (next == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.install(this.requests.incrementAndGet(), next);
+    }
+
+    /**
+     * Builds a new TransportNetwork with builder in the background, then
+     * swaps its snapshot in.
+     * @param builder the supplier of the new TransportNetwork
+     * @return a future completed with the new snapshot once it is served, or
+     *         with the snapshot served instead if a later request was
+     *         installed first, or completed exceptionally if builder failed
+     * @throws IllegalArgumentException if builder is null
+     */
+    public CompletableFuture<NetworkSnapshot> reload(
+      Supplier<? extends TransportNetwork> builder
+    ) {
+        if (builder == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        long sequence = this.requests.incrementAndGet();
+        return CompletableFuture
+            .supplyAsync(() -> builder.get().snapshot(), this.executor)
+            .thenApply(next -> {
+                this.install(sequence, next);
+                return this.current();
+            });
+    }
+
+    /**
+     * Parses the network CSV file at the specified path in the background,
+     * links its nearby stops with the WalkingSegments of WalkingTransfers.of(),
+     * then swaps its snapshot in.
+     * @param file the path of the network CSV file
+     * @return a future completed as by reload(Supplier), exceptionally with
+     *         an UncheckedIOException if file can not be read or with an
+     *         InconsistentCSVException if it is not a valid network
+     * @throws IllegalArgumentException if file is null
+     */
+    public CompletableFuture<NetworkSnapshot> reload(Path file) {
+        return this.reload(file, WalkingTransfers.of());
+    }
+
+    /**
+     * Parses the network CSV file at the specified path in the background,
+     * links its nearby stops with the WalkingSegments generated by transfers,
+     * then swaps its snapshot in.
+     * @param file the path of the network CSV file
+     * @param transfers the WalkingTransfers generating the WalkingSegments
+     * @return a future completed as by reload(Supplier), exceptionally with
+     *         an UncheckedIOException if file can not be read or with an
+     *         InconsistentCSVException if it is not a valid network
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public CompletableFuture<NetworkSnapshot> reload(
+      Path file,
+      WalkingTransfers transfers
+    ) {
+        if (file == null || transfers == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.reload(() -> {
+            try (InputStream in = Files.newInputStream(file)) {
+                return TransportNetworkParser.generateFrom(in, transfers);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InconsistentCSVException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // Serves snapshot unless a request later than sequence is served
+    private boolean install(long sequence, NetworkSnapshot snapshot) {
+        Installed next = new Installed(sequence, snapshot);
+        return this.current.accumulateAndGet(
+            next,
+            (served, candidate) ->
+                candidate.sequence() > served.sequence() ? candidate : served
+        ) == next;
+    }
+}
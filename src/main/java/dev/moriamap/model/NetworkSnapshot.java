@@ -0,0 +1,188 @@
+package dev.moriamap.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable state of a TransportNetwork, created by
+ * TransportNetwork.snapshot().
+ * <p>
+ *     A NetworkSnapshot owns a private copy of the network it was taken from,
+ *     together with its CompiledGraph, its Timetable, and indices of its
+ *     stops by exact name, by fuzzy name and by position, all built once
+ *     when the snapshot is taken. Nothing can change them afterwards, so a
+ *     NetworkSnapshot can be shared by any number of threads without
+ *     locking, and a query that started on a snapshot sees the same network
+ *     until it ends.
+ * </p>
+ */
+public final class NetworkSnapshot {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The copy of the network, never modified nor exposed
+    private final TransportNetwork network;
+
+    // The modification count of the network when the snapshot was taken
+    private final int version;
+
+    // The compiled forms of the network
+    private final CompiledGraph graph;
+    private final Timetable timetable;
+
+    // The stops and the transport segments of the network
+    private final List<Stop> stops;
+    private final List<TransportSegment> transportSegments;
+
+    // The stops by name, compacted so that reading it changes nothing
+    private final StopNameIndex stopNames;
+
+    // The fuzzy search index of the stops, searched with per-thread counters
+    private final StopSearchIndex stopSearch;
+
+    // The spatial index of the stops, only read once built
+    private final StopSpatialIndex stopPositions;
+
+    NetworkSnapshot(TransportNetwork network, int version) {
+        this.network = network;
+        this.version = version;
+        this.graph = CompiledGraph.of(network);
+        this.timetable = Timetable.of(network);
+        this.stops = Collections.unmodifiableList(network.getStops());
+        this.transportSegments =
+            Collections.unmodifiableList(network.getTransportSegments());
+        this.stopNames = StopNameIndex.empty();
+        for (Stop stop : this.stops)
+            this.stopNames.add(stop);
+        this.stopNames.compact();
+        this.stopSearch = StopSearchIndex.of(this.stops);
+        this.stopPositions = StopSpatialIndex.of(this.stops);
+    }
+
+    /**
+     * {@return the modification count of the TransportNetwork when this
+     * snapshot was taken}
+     */
+    public int getVersion() {
+        return this.version;
+    }
+
+    /**
+     * {@return the CompiledGraph of the network}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * {@return the Timetable of the network}
+     */
+    public Timetable getTimetable() {
+        return this.timetable;
+    }
+
+    /**
+     * {@return an unmodifiable list of the stops of the network}
+     */
+    public List<Stop> getStops() {
+        return this.stops;
+    }
+
+    /**
+     * {@return an unmodifiable list of the transport segments of the
+     * network}
+     */
+    public List<TransportSegment> getTransportSegments() {
+        return this.transportSegments;
+    }
+
+    /**
+     * {@return copies of the lines of the network}
+     * Changing them does not change this snapshot.
+     */
+    public List<Line> getLines() {
+        return this.network.copyLines();
+    }
+
+    /**
+     * {@return true if the specified stop is in the network}
+     * @param stop the Stop to look for
+     * @throws IllegalArgumentException if stop is null
+     */
+    public boolean contains(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.graph.contains(stop);
+    }
+
+    /**
+     * {@return a Stop which has the wanted name in the network, or null if
+     * it is not found}
+     * @param name the name of the wanted stop
+     * @throws IllegalArgumentException if name is null
+     */
+    public Stop getStopByName(String name) {
+        return this.stopNames.getFirstStopByName(name);
+    }
+
+    /**
+     * {@return all the stops which have the wanted name in the network, or
+     * an empty list if there is none}
+     * @param name the name of the wanted stops
+     * @throws IllegalArgumentException if name is null
+     */
+    public List<Stop> getStopsByName(String name) {
+        return this.stopNames.getStopsByName(name);
+    }
+
+    /**
+     * {@return the names of stops of the network starting with prefix, in
+     * increasing order and each once, at most limit of them}
+     * @param prefix the start of the wanted names
+     * @param limit the maximum number of names returned
+     * @throws IllegalArgumentException if prefix is null or limit is negative
+     */
+    public List<String> completeStopName(String prefix, int limit) {
+        return this.stopNames.complete(prefix, limit);
+    }
+
+    /**
+     * {@return the stops whose names are the most similar to query, by
+     * decreasing similarity, ignoring case, accents and punctuation}
+     * @param query the name searched
+     * @param k the maximum number of stops returned
+     * @throws IllegalArgumentException if query is null or k is negative
+     */
+    public List<StopMatch> searchStops(String query, int k) {
+        return this.stopSearch.search(query, k);
+    }
+
+    /**
+     * {@return the Stop at position gp in the network, or null if not found}
+     * @param gp the geographic position of the wanted stop
+     * @throws IllegalArgumentException if gp is null
+     */
+    public Stop getStopFromPosition(GeographicPosition gp) {
+        if (gp == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.stopPositions.findAt(gp);
+    }
+
+    /**
+     * {@return the spatial index of the stops of the network, for
+     * nearest-stop and bounding box queries}
+     */
+    public StopSpatialIndex getSpatialIndex() {
+        return this.stopPositions;
+    }
+
+    /**
+     * {@return a new mutable TransportNetwork with the content of this
+     * snapshot}
+     * It can be changed and snapshot again to build the next state of the
+     * network.
+     */
+    public TransportNetwork toNetwork() {
+        return this.network.copy();
+    }
+}
@@ -0,0 +1,585 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds the Pareto set of journeys in a Timetable over arrival time and
+ * number of transfers, and optionally travelled distance, with a
+ * multi-criteria variant of RAPTOR (McRAPTOR). A Journey is in the Pareto set
+ * if no other Journey is at least as good on every criterion.
+ * <p>
+ *     Round k keeps, for each stop, a bag of the labels reached with k trips
+ *     that no label of an earlier round and no label of the destination
+ *     dominates. After the trips of each round, and from the source before
+ *     the first one, the labels reached by a trip are carried along the
+ *     footpaths of the Timetable into the bags of the same round. The labels
+ *     reached by a trip are also kept in bags of their own, so that a label
+ *     dominated by a walk is still walked from. Labels live in a pool of
+ *     parallel primitive arrays and bags are linked lists of label indices
+ *     through that pool, so a search allocates nothing but the journeys it
+ *     returns. Without the distance criterion every bag holds at most one
+ *     label and a search costs about as much as a RaptorRouter search.
+ * </p>
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     ParetoRouter is not thread-safe: each thread must use its own. The
+ *     Timetable itself can be shared.
+ * </p>
+ */
+public final class ParetoRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // Marks the end of a bag, and labels that are not reached by a trip
+    private static final int NONE = -1;
+
+    // The timetable in which journeys are searched
+    private final Timetable timetable;
+
+    // The number of rounds of a search, one per trip of a journey
+    private final int roundCount;
+
+    // True if the distance travelled is a criterion
+    private final boolean withDistance;
+
+    // The pool of labels: arrival time, distance travelled, stop, parent
+    // label at the boarding stop, and the pattern, trip and boarding position
+    // of the trip taken from the parent, the pattern being NONE for a label
+    // walked from its parent
+    private int labelCount;
+    private int[] labelArrivals;
+    private double[] labelDistances;
+    private int[] labelStops;
+    private int[] labelParents;
+    private int[] labelPatterns;
+    private int[] labelTrips;
+    private int[] labelBoardPositions;
+
+    // The next label in the round bag and in the best bag of its stop, and
+    // in the round and best bags of the labels reached by a trip
+    private int[] nextInRound;
+    private int[] nextInBest;
+    private int[] nextInRideRound;
+    private int[] nextInRideBest;
+
+    // The first label of the bag of each stop in each round, valid if
+    // roundBagIn[k][s] == generation
+    private final int[][] roundBags;
+    private final int[][] roundBagIn;
+
+    // The first label of the bag of the non-dominated labels of each stop in
+    // all rounds, valid if bestBagIn[s] == generation
+    private final int[] bestBags;
+    private final int[] bestBagIn;
+
+    // The same bags for the labels reached by a trip only
+    private final int[][] rideRoundBags;
+    private final int[][] rideRoundBagIn;
+    private final int[] rideBestBags;
+    private final int[] rideBestBagIn;
+
+    // The stops improved in the last round
+    private final boolean[] marked;
+    private final int[] markedStops;
+    private int markedCount;
+
+    // The stops reached by a trip in the current round, to walk from
+    private final boolean[] rode;
+    private final int[] rodeStops;
+    private int rodeCount;
+
+    // The first position to scan each pattern from in the current round, -1
+    // if the pattern is not queued
+    private final int[] queuedFrom;
+    private final int[] queuedPatterns;
+
+    // The bag of the trips taken along the scanned pattern: trip, parent
+    // label, boarding position and distance offset of each entry
+    private int routeBagSize;
+    private int[] routeTrips;
+    private int[] routeParents;
+    private int[] routePositions;
+    private double[] routeOffsets;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    private ParetoRouter(Timetable timetable, int maxTransfers, boolean withDistance) {
+        int stopCount = timetable.getGraph().getVertexCount();
+        this.timetable = timetable;
+        this.roundCount = maxTransfers + 1;
+        this.withDistance = withDistance;
+        this.allocateLabels(Math.max(16, 2 * stopCount));
+        this.roundBags = new int[this.roundCount + 1][stopCount];
+        this.roundBagIn = new int[this.roundCount + 1][stopCount];
+        this.bestBags = new int[stopCount];
+        this.bestBagIn = new int[stopCount];
+        this.rideRoundBags = new int[this.roundCount + 1][stopCount];
+        this.rideRoundBagIn = new int[this.roundCount + 1][stopCount];
+        this.rideBestBags = new int[stopCount];
+        this.rideBestBagIn = new int[stopCount];
+        this.marked = new boolean[stopCount];
+        this.markedStops = new int[stopCount];
+        this.rode = new boolean[stopCount];
+        this.rodeStops = new int[stopCount];
+        this.queuedFrom = new int[timetable.getPatternCount()];
+        this.queuedPatterns = new int[timetable.getPatternCount()];
+        Arrays.fill(this.queuedFrom, -1);
+        this.routeTrips = new int[8];
+        this.routeParents = new int[8];
+        this.routePositions = new int[8];
+        this.routeOffsets = new double[8];
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new ParetoRouter over arrival time and number of transfers,
+     * up to RaptorRouter.DEFAULT_MAX_TRANSFERS, in the specified Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @throws IllegalArgumentException if timetable is null
+     */
+    public static ParetoRouter of(Timetable timetable) {
+        return of(timetable, RaptorRouter.DEFAULT_MAX_TRANSFERS, false);
+    }
+
+    /**
+     * {@return a new ParetoRouter over arrival time and number of transfers,
+     * up to maxTransfers, in the specified Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @param maxTransfers the maximum number of transfers of a journey
+     * @throws IllegalArgumentException if timetable is null or maxTransfers is
+     *         negative
+     */
+    public static ParetoRouter of(Timetable timetable, int maxTransfers) {
+        return of(timetable, maxTransfers, false);
+    }
+
+    /**
+     * {@return a new ParetoRouter over arrival time and number of transfers,
+     * and distance travelled if withDistance is true, in the specified
+     * Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @param maxTransfers the maximum number of transfers of a journey
+     * @param withDistance true if the distance travelled is a criterion
+     * @throws IllegalArgumentException if timetable is null or maxTransfers is
+     *         negative
+     */
+    public static ParetoRouter of(
+      Timetable timetable,
+      int maxTransfers,
+      boolean withDistance
+    ) {
+        if (timetable == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (maxTransfers < 0)
+            throw new IllegalArgumentException(
+                "The maximum number of transfers can not be negative");
+        return new ParetoRouter(timetable, maxTransfers, withDistance);
+    }
+
+    /**
+     * {@return the maximum number of transfers of the journeys found}
+     */
+    public int getMaxTransfers() {
+        return this.roundCount - 1;
+    }
+
+    /**
+     * {@return true if the distance travelled is a criterion of the journeys
+     * found}
+     */
+    public boolean isDistanceCriterion() {
+        return this.withDistance;
+    }
+
+    /**
+     * Finds the Pareto set of the journeys leaving src at departure or later
+     * to dst.
+     * @param src the source Stop
+     * @param dst the destination Stop
+     * @param departure the earliest departure time from src
+     * @return the journeys of the Pareto set, by increasing number of
+     *         transfers then arrival time, empty if dst can not be reached
+     * @throws IllegalArgumentException if an argument is null
+     * @throws NoSuchElementException if src or dst is not in the timetable
+     */
+    public List<Journey> route(Stop src, Stop dst, LocalTime departure) {
+        if (src == null || dst == null || departure == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = this.timetable.getGraph();
+        return this.route(
+            graph.idOf(src), graph.idOf(dst), departure.toSecondOfDay());
+    }
+
+    /**
+     * Finds the Pareto set of the journeys between the stops whose ids are src
+     * and dst leaving at the specified time or later.
+     * @param src the id of the source Stop
+     * @param dst the id of the destination Stop
+     * @param departure the earliest departure time from src, in seconds since
+     *        midnight
+     * @return the journeys of the Pareto set, by increasing number of
+     *         transfers then arrival time, empty if dst can not be reached
+     */
+    public List<Journey> route(int src, int dst, int departure) {
+        this.search(src, dst, departure);
+        List<Journey> journeys = new ArrayList<>();
+        for (int round = 0; round <= this.roundCount; round++) {
+            int first = journeys.size();
+            if (this.roundBagIn[round][dst] == this.generation)
+                for (int l = this.roundBags[round][dst]; l != NONE; l = this.nextInRound[l])
+                    journeys.add(this.journeyOf(l));
+            journeys.subList(first, journeys.size()).sort(
+                (a, b) -> Integer.compare(a.getArrivalSecond(), b.getArrivalSecond()));
+        }
+        return journeys;
+    }
+
+    // Builds the Journey ending with the given label
+    private Journey journeyOf(int label) {
+        CompiledGraph graph = this.timetable.getGraph();
+        List<JourneyLeg> legs = new ArrayList<>();
+        int first = this.labelArrivals[label];
+        for (int l = label; this.labelParents[l] != NONE; l = this.labelParents[l]) {
+            int pattern = this.labelPatterns[l];
+            if (pattern == NONE) {
+                int parent = this.labelParents[l];
+                first = this.labelArrivals[parent];
+                legs.add(JourneyLeg.walk(
+                    (Stop) graph.getVertex(this.labelStops[parent]),
+                    (Stop) graph.getVertex(this.labelStops[l]),
+                    Journey.timeOf(first),
+                    Journey.timeOf(this.labelArrivals[l])
+                ));
+                continue;
+            }
+            int boardPosition = this.labelBoardPositions[l];
+            first = this.timetable.getTime(pattern, this.labelTrips[l], boardPosition);
+            legs.add(new JourneyLeg(
+                this.timetable.getVariant(pattern),
+                (Stop) graph.getVertex(this.timetable.getStop(pattern, boardPosition)),
+                (Stop) graph.getVertex(this.labelStops[l]),
+                Journey.timeOf(first),
+                Journey.timeOf(this.labelArrivals[l])
+            ));
+        }
+        Collections.reverse(legs);
+        return Journey.from(
+            legs, first, this.labelArrivals[label], this.labelDistances[label]);
+    }
+
+    // Runs the rounds of McRAPTOR from src until no stop is improved or the
+    // maximum number of trips is reached
+    private void search(int src, int dst, int departure) {
+        this.nextGeneration();
+        this.labelCount = 0;
+        this.markedCount = 0;
+        this.ride(0, src, dst, departure, 0.0, NONE, NONE, NONE, NONE);
+        this.walk(0, dst);
+        for (int round = 1; round <= this.roundCount && this.markedCount > 0; round++) {
+            int queuedCount = this.queuePatterns();
+            for (int i = 0; i < queuedCount; i++) {
+                int pattern = this.queuedPatterns[i];
+                int from = this.queuedFrom[pattern];
+                this.queuedFrom[pattern] = -1;
+                this.scanPattern(round, pattern, from, dst);
+            }
+            this.walk(round, dst);
+        }
+        for (int i = 0; i < this.markedCount; i++)
+            this.marked[this.markedStops[i]] = false;
+    }
+
+    // Queues the patterns serving the marked stops, from the first marked
+    // stop of each, unmarks the stops and returns the number of patterns
+    private int queuePatterns() {
+        int queuedCount = 0;
+        for (int i = 0; i < this.markedCount; i++) {
+            int stop = this.markedStops[i];
+            this.marked[stop] = false;
+            int end = this.timetable.endPatternOf(stop);
+            for (int j = this.timetable.firstPatternOf(stop); j < end; j++) {
+                int pattern = this.timetable.getStopPattern(j);
+                int position = this.timetable.getStopPatternPosition(j);
+                if (this.queuedFrom[pattern] < 0)
+                    this.queuedPatterns[queuedCount++] = pattern;
+                else if (this.queuedFrom[pattern] <= position)
+                    continue;
+                this.queuedFrom[pattern] = position;
+            }
+        }
+        this.markedCount = 0;
+        return queuedCount;
+    }
+
+    // Travels along a pattern from the given position with the route bag,
+    // dropping its labels at each stop and merging the labels of round - 1
+    private void scanPattern(int round, int pattern, int from, int dst) {
+        int stopCount = this.timetable.getStopCount(pattern);
+        this.routeBagSize = 0;
+        for (int i = from; i < stopCount; i++) {
+            int stop = this.timetable.getStop(pattern, i);
+            double distance = this.timetable.getDistance(pattern, i);
+            for (int r = 0; r < this.routeBagSize; r++) {
+                int trip = this.routeTrips[r];
+                this.ride(round, stop, dst,
+                            this.timetable.getTime(pattern, trip, i),
+                            this.routeOffsets[r] + distance,
+                            this.routeParents[r], pattern, trip,
+                            this.routePositions[r]);
+            }
+            if (i + 1 < stopCount && this.roundBagIn[round - 1][stop] == this.generation) {
+                for (int l = this.roundBags[round - 1][stop]; l != NONE; l = this.nextInRound[l]) {
+                    int trip = this.timetable.findTrip(pattern, i, this.labelArrivals[l]);
+                    if (trip >= 0)
+                        this.mergeIntoRouteBag(
+                            trip, l, i, this.labelDistances[l] - distance);
+                }
+            }
+        }
+    }
+
+    // Carries the labels reached by a trip in the given round along the
+    // footpaths of their stops into the bags of the same round
+    private void walk(int round, int dst) {
+        for (int i = 0; i < this.rodeCount; i++) {
+            int stop = this.rodeStops[i];
+            this.rode[stop] = false;
+            int end = this.timetable.endFootpathOf(stop);
+            if (end == this.timetable.firstFootpathOf(stop))
+                continue;
+            for (int l = this.rideRoundBags[round][stop]; l != NONE; l = this.nextInRideRound[l])
+                for (int f = this.timetable.firstFootpathOf(stop); f < end; f++)
+                    this.insert(round, this.timetable.getFootpathTarget(f), dst,
+                                this.labelArrivals[l]
+                                    + this.timetable.getFootpathDuration(f),
+                                this.labelDistances[l]
+                                    + this.timetable.getFootpathDistance(f),
+                                l);
+        }
+        this.rodeCount = 0;
+    }
+
+    // Adds an entry to the route bag unless another one takes an earlier or
+    // the same trip with no greater distance offset, removing the entries it
+    // dominates
+    private void mergeIntoRouteBag(int trip, int parent, int position, double offset) {
+        int size = 0;
+        for (int r = 0; r < this.routeBagSize; r++) {
+            if (this.routeTrips[r] <= trip
+                && this.isShorter(this.routeOffsets[r], offset))
+                return;
+            if (trip <= this.routeTrips[r]
+                && this.isShorter(offset, this.routeOffsets[r]))
+                continue;
+            this.routeTrips[size] = this.routeTrips[r];
+            this.routeParents[size] = this.routeParents[r];
+            this.routePositions[size] = this.routePositions[r];
+            this.routeOffsets[size] = this.routeOffsets[r];
+            size++;
+        }
+        if (size == this.routeTrips.length) {
+            this.routeTrips = Arrays.copyOf(this.routeTrips, 2 * size);
+            this.routeParents = Arrays.copyOf(this.routeParents, 2 * size);
+            this.routePositions = Arrays.copyOf(this.routePositions, 2 * size);
+            this.routeOffsets = Arrays.copyOf(this.routeOffsets, 2 * size);
+        }
+        this.routeTrips[size] = trip;
+        this.routeParents[size] = parent;
+        this.routePositions[size] = position;
+        this.routeOffsets[size] = offset;
+        this.routeBagSize = size + 1;
+    }
+
+    // Adds a label reached by a trip, or the label of the source, to the bags
+    // of the labels reached by a trip of stop in the given round unless one
+    // of them or a label of dst dominates it, then to the bags of stop unless
+    // a label of stop dominates it. The distance is kept for the Journey even
+    // when it is not a criterion
+    private void ride(
+      int round,
+      int stop,
+      int dst,
+      int arrival,
+      double distance,
+      int parent,
+      int pattern,
+      int trip,
+      int boardPosition
+    ) {
+        if (this.isDominated(stop, arrival, distance, true)
+            || this.isDominated(dst, arrival, distance, false))
+            return;
+        int label = this.newLabel(
+            stop, arrival, distance, parent, pattern, trip, boardPosition);
+        this.link(round, label, true);
+        if (!this.rode[stop]) {
+            this.rode[stop] = true;
+            this.rodeStops[this.rodeCount++] = stop;
+        }
+        if (!this.isDominated(stop, arrival, distance, false))
+            this.link(round, label, false);
+    }
+
+    // Adds a label walked from parent to the bags of stop in the given round
+    // unless a label of stop or of dst dominates it
+    private void insert(
+      int round,
+      int stop,
+      int dst,
+      int arrival,
+      double distance,
+      int parent
+    ) {
+        if (this.isDominated(stop, arrival, distance, false)
+            || this.isDominated(dst, arrival, distance, false))
+            return;
+        this.link(round, this.newLabel(
+            stop, arrival, distance, parent, NONE, NONE, NONE), false);
+    }
+
+    // Returns a new label of the pool with the given values
+    private int newLabel(
+      int stop,
+      int arrival,
+      double distance,
+      int parent,
+      int pattern,
+      int trip,
+      int boardPosition
+    ) {
+        if (this.labelCount == this.labelArrivals.length)
+            this.allocateLabels(2 * this.labelCount);
+        int label = this.labelCount++;
+        this.labelArrivals[label] = arrival;
+        this.labelDistances[label] = distance;
+        this.labelStops[label] = stop;
+        this.labelParents[label] = parent;
+        this.labelPatterns[label] = pattern;
+        this.labelTrips[label] = trip;
+        this.labelBoardPositions[label] = boardPosition;
+        return label;
+    }
+
+    // Unlinks the labels of the same round and the best labels of the stop of
+    // label that it dominates, then links it at the head of both bags, the
+    // bags of the labels reached by a trip if rides is true. The stop is
+    // marked if label goes to its bags
+    private void link(int round, int label, boolean rides) {
+        int stop = this.labelStops[label];
+        int arrival = this.labelArrivals[label];
+        double distance = this.labelDistances[label];
+        int[] roundBags = rides ? this.rideRoundBags[round] : this.roundBags[round];
+        int[] roundBagIn = rides ? this.rideRoundBagIn[round] : this.roundBagIn[round];
+        int[] nextInRound = rides ? this.nextInRideRound : this.nextInRound;
+        int[] bestBags = rides ? this.rideBestBags : this.bestBags;
+        int[] bestBagIn = rides ? this.rideBestBagIn : this.bestBagIn;
+        int[] nextInBest = rides ? this.nextInRideBest : this.nextInBest;
+        if (roundBagIn[stop] != this.generation) {
+            roundBagIn[stop] = this.generation;
+            roundBags[stop] = NONE;
+        }
+        roundBags[stop] = this.removeDominated(
+            roundBags[stop], nextInRound, arrival, distance);
+        nextInRound[label] = roundBags[stop];
+        roundBags[stop] = label;
+        if (bestBagIn[stop] != this.generation) {
+            bestBagIn[stop] = this.generation;
+            bestBags[stop] = NONE;
+        }
+        bestBags[stop] = this.removeDominated(
+            bestBags[stop], nextInBest, arrival, distance);
+        nextInBest[label] = bestBags[stop];
+        bestBags[stop] = label;
+        if (!rides && !this.marked[stop]) {
+            this.marked[stop] = true;
+            this.markedStops[this.markedCount++] = stop;
+        }
+    }
+
+    // Returns true if a best label of stop, or a best label reached by a trip
+    // if rides is true, arrives no later with no greater distance
+    private boolean isDominated(int stop, int arrival, double distance, boolean rides) {
+        int[] bestBags = rides ? this.rideBestBags : this.bestBags;
+        int[] bestBagIn = rides ? this.rideBestBagIn : this.bestBagIn;
+        int[] nextInBest = rides ? this.nextInRideBest : this.nextInBest;
+        if (bestBagIn[stop] != this.generation)
+            return false;
+        for (int l = bestBags[stop]; l != NONE; l = nextInBest[l])
+            if (this.labelArrivals[l] <= arrival
+                && this.isShorter(this.labelDistances[l], distance))
+                return true;
+        return false;
+    }
+
+    // Unlinks from the bag starting at head the labels dominated by the
+    // given arrival and distance, and returns the new head
+    private int removeDominated(int head, int[] next, int arrival, double distance) {
+        while (head != NONE && arrival <= this.labelArrivals[head]
+               && this.isShorter(distance, this.labelDistances[head]))
+            head = next[head];
+        for (int l = head; l != NONE; ) {
+            int n = next[l];
+            if (n != NONE && arrival <= this.labelArrivals[n]
+                && this.isShorter(distance, this.labelDistances[n]))
+                next[l] = next[n];
+            else
+                l = n;
+        }
+        return head;
+    }
+
+    // Returns true if distance a is no greater than distance b, or if the
+    // distance travelled is not a criterion
+    private boolean isShorter(double a, double b) {
+        return !this.withDistance || a <= b;
+    }
+
+    // Grows the label pool to the given capacity
+    private void allocateLabels(int capacity) {
+        if (this.labelArrivals == null) {
+            this.labelArrivals = new int[capacity];
+            this.labelDistances = new double[capacity];
+            this.labelStops = new int[capacity];
+            this.labelParents = new int[capacity];
+            this.labelPatterns = new int[capacity];
+            this.labelTrips = new int[capacity];
+            this.labelBoardPositions = new int[capacity];
+            this.nextInRound = new int[capacity];
+            this.nextInBest = new int[capacity];
+            this.nextInRideRound = new int[capacity];
+            this.nextInRideBest = new int[capacity];
+            return;
+        }
+        this.labelArrivals = Arrays.copyOf(this.labelArrivals, capacity);
+        this.labelDistances = Arrays.copyOf(this.labelDistances, capacity);
+        this.labelStops = Arrays.copyOf(this.labelStops, capacity);
+        this.labelParents = Arrays.copyOf(this.labelParents, capacity);
+        this.labelPatterns = Arrays.copyOf(this.labelPatterns, capacity);
+        this.labelTrips = Arrays.copyOf(this.labelTrips, capacity);
+        this.labelBoardPositions = Arrays.copyOf(this.labelBoardPositions, capacity);
+        this.nextInRound = Arrays.copyOf(this.nextInRound, capacity);
+        this.nextInBest = Arrays.copyOf(this.nextInBest, capacity);
+        this.nextInRideRound = Arrays.copyOf(this.nextInRideRound, capacity);
+        this.nextInRideBest = Arrays.copyOf(this.nextInRideBest, capacity);
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            for (int[] stamps : this.roundBagIn)
+                Arrays.fill(stamps, 0);
+            for (int[] stamps : this.rideRoundBagIn)
+                Arrays.fill(stamps, 0);
+            Arrays.fill(this.bestBagIn, 0);
+            Arrays.fill(this.rideBestBagIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
@@ -0,0 +1,292 @@
+package dev.moriamap.model;
+
+import java.util.List;
+
+/**
+ * An immutable array of geographic positions stored as a structure of
+ * arrays, one per coordinate, to compute the distances from one position to
+ * all of them at once.
+ * <p>
+ *     By default the distances are computed one by one, by simple loops over
+ *     the arrays. When the classes of the vector source set are on the class
+ *     path and the JVM runs with "--add-modules jdk.incubator.vector", they
+ *     are computed several at a time with the SIMD instructions of the
+ *     processor instead. Both ways give the same distances, up to the last
+ *     bits of HAVERSINE and EQUIRECTANGULAR ones.
+ * </p>
+ * <p>
+ *     A PositionArray is thread-safe.
+ * </p>
+ */
+public final class PositionArray {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The kernels of the vector source set, or null if they are not on the
+    // class path or the jdk.incubator.vector module is absent
+    private static final DistanceKernels KERNELS = loadKernels();
+
+    // The latitudes and longitudes in degrees
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    // The coordinates on the unit sphere
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    // The longitudes in radians
+    private final double[] lonRads;
+
+    // The latitudes in radians, with the cosine and the sine of their halves
+    private final double[] latRads;
+    private final double[] cosHalfLats;
+    private final double[] sinHalfLats;
+
+    private PositionArray(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.xs = new double[n];
+        this.ys = new double[n];
+        this.zs = new double[n];
+        this.lonRads = new double[n];
+        this.latRads = new double[n];
+        this.cosHalfLats = new double[n];
+        this.sinHalfLats = new double[n];
+        for (int i = 0; i < n; i++) {
+            GeographicPosition position =
+                GeographicPosition.at(latitudes[i], longitudes[i]);
+            this.xs[i] = position.getUnitX();
+            this.ys[i] = position.getUnitY();
+            this.zs[i] = position.getUnitZ();
+            this.lonRads[i] = Math.toRadians(longitudes[i]);
+            this.latRads[i] = Math.toRadians(latitudes[i]);
+            this.cosHalfLats[i] = Math.cos(this.latRads[i] / 2);
+            this.sinHalfLats[i] = Math.sin(this.latRads[i] / 2);
+        }
+    }
+
+    /**
+     * {@return a new PositionArray of the specified positions, in the same
+     * order}
+     * @param positions the positions of the array
+     * @throws IllegalArgumentException if positions is or contains null
+     */
+    public static PositionArray of(List<GeographicPosition> positions) {
+        if (positions == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        int n = positions.size();
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        for (int i = 0; i < n; i++) {
+            GeographicPosition position = positions.get(i);
+            if (position == null)
+                throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+            latitudes[i] = position.getLatitude();
+            longitudes[i] = position.getLongitude();
+        }
+        return new PositionArray(latitudes, longitudes);
+    }
+
+    /**
+     * {@return a new PositionArray of the positions at the specified
+     * latitudes and longitudes}
+     * The arrays are copied.
+     * @param latitudes the latitudes in degrees
+     * @param longitudes the longitudes in degrees
+     * @throws IllegalArgumentException if an array is null, if they do not
+     *         have the same length or if a position is not valid
+     */
+    public static PositionArray of(double[] latitudes, double[] longitudes) {
+        if (latitudes == null || longitudes == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (latitudes.length != longitudes.length)
+            throw new IllegalArgumentException(
+                "Latitudes and longitudes must have the same length");
+        return new PositionArray(latitudes.clone(), longitudes.clone());
+    }
+
+    // Loads VectorDistances by name, which can only be done if the
+    // jdk.incubator.vector module is present
+    private static DistanceKernels loadKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty())
+            return null;
+        try {
+            return (DistanceKernels) Class.forName("dev.moriamap.model.VectorDistances")
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * {@return true if the distances are computed with the Vector API}
+     */
+    public static boolean isVectorized() {
+        return KERNELS != null;
+    }
+
+    /**
+     * {@return the number of positions of this array}
+     */
+    public int size() {
+        return this.latitudes.length;
+    }
+
+    /**
+     * {@return the latitude in degrees of the position at index i}
+     * @param i the index of the position
+     * @throws IndexOutOfBoundsException if i is not a valid index
+     */
+    public double getLatitude(int i) {
+        return this.latitudes[i];
+    }
+
+    /**
+     * {@return the longitude in degrees of the position at index i}
+     * @param i the index of the position
+     * @throws IndexOutOfBoundsException if i is not a valid index
+     */
+    public double getLongitude(int i) {
+        return this.longitudes[i];
+    }
+
+    /**
+     * Computes the distances in meters from the specified position to all
+     * the positions of this array, storing the distance to the position at
+     * index i in into[i].
+     * @param from the position the distances are computed from
+     * @param metric the way distances are measured
+     * @param into the array receiving the distances
+     * @throws IllegalArgumentException if an argument is null or if into is
+     *         shorter than this array
+     */
+    public void distancesFrom(GeographicPosition from, DistanceMetric metric, double[] into) {
+        this.distancesFrom(from, metric, 0, this.size(), into);
+    }
+
+    /**
+     * Computes the distances in meters from the specified position to the
+     * positions of this array at indexes start to end excluded, storing the
+     * distance to the position at index i in into[i].
+     * @param from the position the distances are computed from
+     * @param metric the way distances are measured
+     * @param start the index of the first position
+     * @param end the index following the last position
+     * @param into the array receiving the distances
+     * @throws IllegalArgumentException if an argument is null, if start and
+     *         end are not a range of this array or if into is shorter than
+     *         end
+     */
+    public void distancesFrom(
+      GeographicPosition from,
+      DistanceMetric metric,
+      int start,
+      int end,
+      double[] into
+    ) {
+        this.distancesFrom(from, metric, start, end, into, isVectorized());
+    }
+
+    /**
+     * Computes the distances like distancesFrom, with the Vector API only if
+     * vectorized is true, so that both ways can be compared.
+     * @param from the position the distances are computed from
+     * @param metric the way distances are measured
+     * @param start the index of the first position
+     * @param end the index following the last position
+     * @param into the array receiving the distances
+     * @param vectorized true to use the Vector API, ignored if it is not
+     *        present
+     */
+    void distancesFrom(
+      GeographicPosition from,
+      DistanceMetric metric,
+      int start,
+      int end,
+      double[] into,
+      boolean vectorized
+    ) {
+        if (from == null || metric == null || into == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (start < 0 || start > end || end > this.size())
+            throw new IllegalArgumentException("Invalid range of positions");
+        if (into.length < end)
+            throw new IllegalArgumentException("The array of distances is too short");
+        int i = start;
+        DistanceKernels kernels = vectorized ? KERNELS : null;
+        switch (metric) {
+            case EUCLIDEAN -> {
+                if (kernels != null)
+                    i = kernels.euclidean(
+                        this.xs, this.ys, this.zs, from, i, end, into);
+                this.euclidean(from, i, end, into);
+            }
+            case EQUIRECTANGULAR -> {
+                if (kernels != null)
+                    i = kernels.equirectangular(
+                        this.latRads, this.lonRads, this.cosHalfLats,
+                        this.sinHalfLats, from, i, end, into);
+                this.equirectangular(from, i, end, into);
+            }
+            case HAVERSINE -> {
+                if (kernels != null)
+                    i = kernels.haversine(
+                        this.xs, this.ys, this.zs, from, i, end, into);
+                this.haversine(from, i, end, into);
+            }
+        }
+    }
+
+    // Computes the EUCLIDEAN distances from the position to [start, end)
+    private void euclidean(GeographicPosition from, int start, int end, double[] into) {
+        double x = from.getUnitX();
+        double y = from.getUnitY();
+        double z = from.getUnitZ();
+        for (int i = start; i < end; i++) {
+            double dx = this.xs[i] - x;
+            double dy = this.ys[i] - y;
+            double dz = this.zs[i] - z;
+            into[i] = GeographicPosition.EARTH_RADIUS * Math.sqrt(dx * dx + dy * dy + dz * dz);
+        }
+    }
+
+    // Computes the EQUIRECTANGULAR distances from the position to
+    // [start, end), the cosine of the mean latitude being the cosine of the
+    // sum of the half latitudes
+    private void equirectangular(GeographicPosition from, int start, int end, double[] into) {
+        double lat = Math.toRadians(from.getLatitude());
+        double lon = Math.toRadians(from.getLongitude());
+        double cosHalfLat = Math.cos(lat / 2);
+        double sinHalfLat = Math.sin(lat / 2);
+        for (int i = start; i < end; i++) {
+            double dLon = this.lonRads[i] - lon;
+            if (dLon > Math.PI)
+                dLon -= 2 * Math.PI;
+            else if (dLon < -Math.PI)
+                dLon += 2 * Math.PI;
+            double cosMeanLat = this.cosHalfLats[i] * cosHalfLat
+                - this.sinHalfLats[i] * sinHalfLat;
+            double dx = dLon * cosMeanLat;
+            double dy = this.latRads[i] - lat;
+            into[i] = GeographicPosition.EARTH_RADIUS * Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    // Computes the HAVERSINE distances from the position to [start, end),
+    // from the chords, which are twice the square root of the haversines
+    private void haversine(GeographicPosition from, int start, int end, double[] into) {
+        double x = from.getUnitX();
+        double y = from.getUnitY();
+        double z = from.getUnitZ();
+        for (int i = start; i < end; i++) {
+            double dx = this.xs[i] - x;
+            double dy = this.ys[i] - y;
+            double dz = this.zs[i] - z;
+            double halfChord = Math.sqrt(dx * dx + dy * dy + dz * dz) / 2;
+            into[i] = 2 * GeographicPosition.EARTH_RADIUS * Math.asin(Math.min(1.0, halfChord));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.moriamap.model;
 
+import java.time.Duration;
 import java.util.List;
 
 
@@ -24,4 +25,16 @@ public class PrettyPrinter {
 		System.out.println();
 	}
 
+	/**
+	 * Method that print the path of a route followed by its travel duration
+	 * and distance
+	 * @param route the route to print
+	 */
+	public static void printRoute( Route route ) {
+		printEdgePath( route.getEdges() );
+		Duration duration = route.getTravelDuration();
+		System.out.println( "Travel duration: " + duration.toMinutes() + " min "
+							+ duration.toSecondsPart() + " s, distance: " + route.getDistance() );
+	}
+
 }
@@ -0,0 +1,397 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds all the journeys worth taking between two stops over a departure
+ * window with the profile variant of the Connection Scan Algorithm. A Journey
+ * is worth taking if no journey leaving at the same time or later arrives at
+ * the same time or earlier.
+ * <p>
+ *     The connections are scanned once by decreasing departure time. Each stop
+ *     keeps its profile, the (departure, arrival at the destination) pairs of
+ *     the journeys worth taking from it, and each trip keeps the earliest
+ *     arrival at the destination once boarded, so a connection is evaluated in
+ *     time proportional to the profile entries it skips. Only the connections
+ *     leaving before the earliest arrival from the end of the window can be
+ *     part of such a journey, so the scan starts there.
+ * </p>
+ * <p>
+ *     The footpaths of the Timetable are walked to reach the origin of a
+ *     connection, between two trips, and from the last trip to the
+ *     destination: an entry added to the profile of a stop is also added to
+ *     the profile of the stops with a footpath to it, leaving earlier by the
+ *     walking duration. Journeys made of a walk only are not searched.
+ * </p>
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     ProfileRouter is not thread-safe: each thread must use its own. The
+ *     Timetable itself can be shared.
+ * </p>
+ */
+public final class ProfileRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // Marks the end of a profile and the absence of an entry
+    private static final int NONE = -1;
+
+    // The timetable in which journeys are searched
+    private final Timetable timetable;
+
+    // Finds the earliest arrival from the end of the window
+    private final ConnectionScanRouter bounds;
+
+    // The pool of profile entries: departure from the stop, arrival at the
+    // destination, connections where the first leg is boarded and left,
+    // footpaths walked before boarding and to the destination after leaving,
+    // and next entry of the same stop, which leaves later
+    private int entryCount;
+    private int[] entryDepartures;
+    private int[] entryArrivals;
+    private int[] entryEnters;
+    private int[] entryExits;
+    private int[] entryWalks;
+    private int[] entryExitWalks;
+    private int[] entryNexts;
+
+    // The entry leaving first from each stop, valid if
+    // profileIn[s] == generation
+    private final int[] profiles;
+    private final int[] profileIn;
+
+    // The earliest arrival at the destination from each trip and the
+    // connection where to leave it for that, valid if
+    // tripIn[t] == generation
+    private final int[] tripArrivals;
+    private final int[] tripExits;
+    private final int[] tripExitWalks;
+    private final int[] tripIn;
+
+    // The shortest footpath from each stop to the destination, valid if
+    // dstFootpathIn[s] == generation
+    private final int[] dstFootpaths;
+    private final int[] dstFootpathIn;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    private ProfileRouter(Timetable timetable) {
+        int stopCount = timetable.getGraph().getVertexCount();
+        int tripCount = timetable.getTotalTripCount();
+        int capacity = Math.max(16, stopCount);
+        this.timetable = timetable;
+        this.bounds = ConnectionScanRouter.of(timetable);
+        this.entryDepartures = new int[capacity];
+        this.entryArrivals = new int[capacity];
+        this.entryEnters = new int[capacity];
+        this.entryExits = new int[capacity];
+        this.entryWalks = new int[capacity];
+        this.entryExitWalks = new int[capacity];
+        this.entryNexts = new int[capacity];
+        this.profiles = new int[stopCount];
+        this.profileIn = new int[stopCount];
+        this.tripArrivals = new int[tripCount];
+        this.tripExits = new int[tripCount];
+        this.tripExitWalks = new int[tripCount];
+        this.tripIn = new int[tripCount];
+        this.dstFootpaths = new int[stopCount];
+        this.dstFootpathIn = new int[stopCount];
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new ProfileRouter searching journeys in the specified
+     * Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @throws IllegalArgumentException if timetable is null
+     */
+    public static ProfileRouter of(Timetable timetable) {
+        if (timetable == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return new ProfileRouter(timetable);
+    }
+
+    /**
+     * Finds the journeys worth taking from src to dst that leave between
+     * earliest and latest.
+     * @param src the source Stop
+     * @param dst the destination Stop
+     * @param earliest the start of the departure window
+     * @param latest the end of the departure window
+     * @return the journeys worth taking, by increasing departure time, which
+     *         is a single empty Journey if src is dst
+     * @throws IllegalArgumentException if an argument is null or latest is
+     *         before earliest
+     * @throws NoSuchElementException if src or dst is not in the timetable
+     */
+    public List<Journey> route(
+      Stop src,
+      Stop dst,
+      LocalTime earliest,
+      LocalTime latest
+    ) {
+        if (src == null || dst == null || earliest == null || latest == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = this.timetable.getGraph();
+        return this.route(
+            graph.idOf(src), graph.idOf(dst),
+            earliest.toSecondOfDay(), latest.toSecondOfDay()
+        );
+    }
+
+    /**
+     * Finds the journeys worth taking between the stops whose ids are src and
+     * dst that leave between earliest and latest.
+     * @param src the id of the source Stop
+     * @param dst the id of the destination Stop
+     * @param earliest the start of the departure window, in seconds since
+     *        midnight
+     * @param latest the end of the departure window, in seconds since
+     *        midnight
+     * @return the journeys worth taking, by increasing departure time, which
+     *         is a single empty Journey if src is dst
+     * @throws IllegalArgumentException if latest is before earliest
+     */
+    public List<Journey> route(int src, int dst, int earliest, int latest) {
+        if (latest < earliest)
+            throw new IllegalArgumentException(
+                "The departure window can not end before it starts");
+        List<Journey> journeys = new ArrayList<>();
+        if (src == dst) {
+            journeys.add(Journey.from(new ArrayList<>(), earliest, earliest, 0.0));
+            return journeys;
+        }
+        this.search(src, dst, earliest, latest);
+        if (this.profileIn[src] != this.generation)
+            return journeys;
+        for (int e = this.profiles[src]; e != NONE && this.entryDepartures[e] <= latest;
+             e = this.entryNexts[e])
+            if (this.entryDepartures[e] >= earliest)
+                journeys.add(this.journeyOf(e, dst));
+        return journeys;
+    }
+
+    // Builds the Journey starting with the given profile entry
+    private Journey journeyOf(int entry, int dst) {
+        CompiledGraph graph = this.timetable.getGraph();
+        List<JourneyLeg> legs = new ArrayList<>();
+        double distance = 0.0;
+        // A walk from src leaves as late as the entry, later walks as soon as
+        // the previous trip arrives
+        int time = this.entryDepartures[entry];
+        for (int e = entry; ; ) {
+            int enter = this.entryEnters[e];
+            int exit = this.entryExits[e];
+            int walk = this.entryWalks[e];
+            if (walk != NONE) {
+                distance += this.timetable.getFootpathDistance(walk);
+                legs.add(JourneyLeg.walk(
+                    (Stop) graph.getVertex(this.timetable.getFootpathSource(walk)),
+                    (Stop) graph.getVertex(this.timetable.getConnectionSource(enter)),
+                    Journey.timeOf(time),
+                    Journey.timeOf(time + this.timetable.getFootpathDuration(walk))
+                ));
+            }
+            int pattern = this.timetable.getTripPattern(
+                this.timetable.getConnectionTrip(enter));
+            int stop = this.timetable.getConnectionTarget(exit);
+            int arrival = this.timetable.getConnectionArrival(exit);
+            distance += this.timetable.getDistance(
+                    pattern, this.timetable.getConnectionPosition(exit) + 1)
+                - this.timetable.getDistance(
+                    pattern, this.timetable.getConnectionPosition(enter));
+            legs.add(new JourneyLeg(
+                this.timetable.getVariant(pattern),
+                (Stop) graph.getVertex(this.timetable.getConnectionSource(enter)),
+                (Stop) graph.getVertex(stop),
+                Journey.timeOf(this.timetable.getConnectionDeparture(enter)),
+                Journey.timeOf(arrival)
+            ));
+            int exitWalk = this.entryExitWalks[e];
+            if (exitWalk != NONE) {
+                distance += this.timetable.getFootpathDistance(exitWalk);
+                legs.add(JourneyLeg.walk(
+                    (Stop) graph.getVertex(stop),
+                    (Stop) graph.getVertex(dst),
+                    Journey.timeOf(arrival),
+                    Journey.timeOf(
+                        arrival + this.timetable.getFootpathDuration(exitWalk))
+                ));
+                break;
+            }
+            if (stop == dst)
+                break;
+            e = this.firstEntryFrom(stop, arrival);
+            time = arrival;
+        }
+        return Journey.from(
+            legs, this.entryDepartures[entry], this.entryArrivals[entry], distance);
+    }
+
+    // Scans the connections leaving between earliest and the earliest arrival
+    // at dst from latest, by decreasing departure time
+    private void search(int src, int dst, int earliest, int latest) {
+        this.nextGeneration();
+        this.entryCount = 0;
+        int footpathEnd = this.timetable.endIncomingFootpathOf(dst);
+        for (int i = this.timetable.firstIncomingFootpathOf(dst); i < footpathEnd; i++) {
+            int footpath = this.timetable.getIncomingFootpath(i);
+            int stop = this.timetable.getFootpathSource(footpath);
+            if (this.footpathToDst(stop) == NONE
+                || this.timetable.getFootpathDuration(footpath)
+                   < this.timetable.getFootpathDuration(this.dstFootpaths[stop])) {
+                this.dstFootpaths[stop] = footpath;
+                this.dstFootpathIn[stop] = this.generation;
+            }
+        }
+        Journey last = this.bounds.route(src, dst, latest);
+        int end = last == null
+            ? this.timetable.getConnectionCount()
+            : this.timetable.firstConnectionFrom(last.getArrivalSecond());
+        int first = this.timetable.firstConnectionFrom(earliest);
+        for (int c = end - 1; c >= first; c--) {
+            int trip = this.timetable.getConnectionTrip(c);
+            int target = this.timetable.getConnectionTarget(c);
+            int arrival = this.timetable.getConnectionArrival(c);
+            // Staying on board is preferred to an equal arrival with a transfer
+            int best = this.tripIn[trip] == this.generation
+                ? this.tripArrivals[trip]
+                : Integer.MAX_VALUE;
+            int exit = best == Integer.MAX_VALUE ? NONE : this.tripExits[trip];
+            int exitWalk = best == Integer.MAX_VALUE ? NONE : this.tripExitWalks[trip];
+            int transfer = arrival;
+            int walk = NONE;
+            if (target != dst) {
+                transfer = this.arrivalFrom(target, arrival);
+                int footpath = this.footpathToDst(target);
+                if (footpath != NONE && arrival
+                    + this.timetable.getFootpathDuration(footpath) < transfer) {
+                    transfer = arrival + this.timetable.getFootpathDuration(footpath);
+                    walk = footpath;
+                }
+            }
+            if (transfer < best || (target == dst && transfer == best)) {
+                best = transfer;
+                exit = c;
+                exitWalk = walk;
+            }
+            if (exit == NONE)
+                continue;
+            this.tripArrivals[trip] = best;
+            this.tripExits[trip] = exit;
+            this.tripExitWalks[trip] = exitWalk;
+            this.tripIn[trip] = this.generation;
+            int source = this.timetable.getConnectionSource(c);
+            int departure = this.timetable.getConnectionDeparture(c);
+            this.push(source, departure, best, c, exit, NONE, exitWalk);
+            int incomingEnd = this.timetable.endIncomingFootpathOf(source);
+            for (int i = this.timetable.firstIncomingFootpathOf(source); i < incomingEnd; i++) {
+                int footpath = this.timetable.getIncomingFootpath(i);
+                this.push(this.timetable.getFootpathSource(footpath),
+                          departure - this.timetable.getFootpathDuration(footpath),
+                          best, c, exit, footpath, exitWalk);
+            }
+        }
+    }
+
+    // Returns the shortest footpath from stop to the destination, or NONE if
+    // there is none
+    private int footpathToDst(int stop) {
+        return this.dstFootpathIn[stop] == this.generation
+            ? this.dstFootpaths[stop]
+            : NONE;
+    }
+
+    // Adds an entry to the profile of stop unless an entry leaving at the same
+    // time or later arrives no later, removing the entries it dominates.
+    // Entries are mostly added by decreasing departure time, so the new entry
+    // usually goes first and the profile is not walked
+    private void push(
+      int stop,
+      int departure,
+      int arrival,
+      int enter,
+      int exit,
+      int walk,
+      int exitWalk
+    ) {
+        int previous = NONE;
+        int next = NONE;
+        if (this.profileIn[stop] == this.generation) {
+            next = this.profiles[stop];
+            while (next != NONE && this.entryDepartures[next] < departure) {
+                if (this.entryArrivals[next] >= arrival) {
+                    next = this.entryNexts[next];
+                    if (previous == NONE)
+                        this.profiles[stop] = next;
+                    else
+                        this.entryNexts[previous] = next;
+                    continue;
+                }
+                previous = next;
+                next = this.entryNexts[next];
+            }
+            if (next != NONE && this.entryArrivals[next] <= arrival)
+                return;
+            if (next != NONE && this.entryDepartures[next] == departure)
+                next = this.entryNexts[next];
+        }
+        if (this.entryCount == this.entryDepartures.length) {
+            int capacity = 2 * this.entryCount;
+            this.entryDepartures = Arrays.copyOf(this.entryDepartures, capacity);
+            this.entryArrivals = Arrays.copyOf(this.entryArrivals, capacity);
+            this.entryEnters = Arrays.copyOf(this.entryEnters, capacity);
+            this.entryExits = Arrays.copyOf(this.entryExits, capacity);
+            this.entryWalks = Arrays.copyOf(this.entryWalks, capacity);
+            this.entryExitWalks = Arrays.copyOf(this.entryExitWalks, capacity);
+            this.entryNexts = Arrays.copyOf(this.entryNexts, capacity);
+        }
+        int entry = this.entryCount++;
+        this.entryDepartures[entry] = departure;
+        this.entryArrivals[entry] = arrival;
+        this.entryEnters[entry] = enter;
+        this.entryExits[entry] = exit;
+        this.entryWalks[entry] = walk;
+        this.entryExitWalks[entry] = exitWalk;
+        this.entryNexts[entry] = next;
+        if (previous == NONE)
+            this.profiles[stop] = entry;
+        else
+            this.entryNexts[previous] = entry;
+        this.profileIn[stop] = this.generation;
+    }
+
+    // Returns the earliest arrival at the destination leaving stop at time or
+    // later, Integer.MAX_VALUE if there is none
+    private int arrivalFrom(int stop, int time) {
+        int entry = this.firstEntryFrom(stop, time);
+        return entry == NONE ? Integer.MAX_VALUE : this.entryArrivals[entry];
+    }
+
+    // Returns the first entry of the profile of stop leaving at time or
+    // later, which arrives earliest, or NONE if there is none
+    private int firstEntryFrom(int stop, int time) {
+        if (this.profileIn[stop] != this.generation)
+            return NONE;
+        int entry = this.profiles[stop];
+        while (entry != NONE && this.entryDepartures[entry] < time)
+            entry = this.entryNexts[entry];
+        return entry;
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            Arrays.fill(this.profileIn, 0);
+            Arrays.fill(this.tripIn, 0);
+            Arrays.fill(this.dstFootpathIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
@@ -0,0 +1,369 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Finds earliest arrival journeys in a Timetable with RAPTOR (Round-bAsed
+ * Public Transit Optimized Router). Round k finds the stops reached earlier
+ * with k trips: the patterns serving a stop improved in round k - 1 are
+ * scanned once, from the first such stop, hopping on the earliest trip that
+ * can be caught. A transfer is a change of trip, at a stop or after walking
+ * a footpath of the Timetable: after the trips of each round, and from the
+ * source before the first one, the stops reached by a trip are left on foot.
+ * A stop keeps the arrival by a trip apart from its earliest arrival, so
+ * that reaching it earlier on foot does not prevent walking on from a later
+ * trip.
+ * <p>
+ *     The search state is allocated once and reused by every query, so a
+ *     RaptorRouter is not thread-safe: each thread must use its own. The
+ *     Timetable itself can be shared.
+ * </p>
+ */
+public final class RaptorRouter {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    /**
+     * The maximum number of transfers of the journeys of a RaptorRouter built
+     * without one.
+     */
+    public static final int DEFAULT_MAX_TRANSFERS = 5;
+
+    // The timetable in which journeys are searched
+    private final Timetable timetable;
+
+    // The number of rounds of a search, one per trip of a journey
+    private final int roundCount;
+
+    // The arrival time at each stop in each round, valid if
+    // labelledIn[k][s] == generation, and the footpath walked to reach it,
+    // -1 if it is reached by a trip or is the source
+    private final int[][] arrivals;
+    private final int[][] labelledIn;
+    private final int[][] walkFootpaths;
+
+    // The arrival time at each stop by a trip in each round and the pattern,
+    // trip and positions of that trip, read only where a journey rides
+    private final int[][] rideArrivals;
+    private final int[][] boardPatterns;
+    private final int[][] boardTrips;
+    private final int[][] boardPositions;
+    private final int[][] alightPositions;
+
+    // The earliest arrival time at each stop in any round, valid if
+    // earliestIn[s] == generation
+    private final int[] earliest;
+    private final int[] earliestIn;
+
+    // The earliest arrival time at each stop by a trip in any round, valid if
+    // earliestRideIn[s] == generation
+    private final int[] earliestRide;
+    private final int[] earliestRideIn;
+
+    // The stops improved in the last round
+    private final boolean[] marked;
+    private final int[] markedStops;
+    private int markedCount;
+
+    // The stops reached by a trip in the current round, to walk from
+    private final boolean[] rode;
+    private final int[] rodeStops;
+    private int rodeCount;
+
+    // The first position to scan each pattern from in the current round, -1
+    // if the pattern is not queued
+    private final int[] queuedFrom;
+    private final int[] queuedPatterns;
+
+    // Incremented by each search so that stale entries need no clearing
+    private int generation;
+
+    private RaptorRouter(Timetable timetable, int maxTransfers) {
+        int stopCount = timetable.getGraph().getVertexCount();
+        this.timetable = timetable;
+        this.roundCount = maxTransfers + 1;
+        this.arrivals = new int[this.roundCount + 1][stopCount];
+        this.labelledIn = new int[this.roundCount + 1][stopCount];
+        this.walkFootpaths = new int[this.roundCount + 1][stopCount];
+        this.rideArrivals = new int[this.roundCount + 1][stopCount];
+        this.boardPatterns = new int[this.roundCount + 1][stopCount];
+        this.boardTrips = new int[this.roundCount + 1][stopCount];
+        this.boardPositions = new int[this.roundCount + 1][stopCount];
+        this.alightPositions = new int[this.roundCount + 1][stopCount];
+        this.earliest = new int[stopCount];
+        this.earliestIn = new int[stopCount];
+        this.earliestRide = new int[stopCount];
+        this.earliestRideIn = new int[stopCount];
+        this.marked = new boolean[stopCount];
+        this.markedStops = new int[stopCount];
+        this.rode = new boolean[stopCount];
+        this.rodeStops = new int[stopCount];
+        this.queuedFrom = new int[timetable.getPatternCount()];
+        this.queuedPatterns = new int[timetable.getPatternCount()];
+        Arrays.fill(this.queuedFrom, -1);
+        this.generation = 0;
+    }
+
+    /**
+     * {@return a new RaptorRouter searching journeys of at most
+     * DEFAULT_MAX_TRANSFERS transfers in the specified Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @throws IllegalArgumentException if timetable is null
+     */
+    public static RaptorRouter of(Timetable timetable) {
+        return of(timetable, DEFAULT_MAX_TRANSFERS);
+    }
+
+    /**
+     * {@return a new RaptorRouter searching journeys of at most the specified
+     * number of transfers in the specified Timetable}
+     * @param timetable the Timetable in which journeys are searched
+     * @param maxTransfers the maximum number of transfers of a journey
+     * @throws IllegalArgumentException if timetable is null or maxTransfers is
+     *         negative
+     */
+    public static RaptorRouter of(Timetable timetable, int maxTransfers) {
+        if (timetable == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (maxTransfers < 0)
+            throw new IllegalArgumentException(
+                "The maximum number of transfers can not be negative");
+        return new RaptorRouter(timetable, maxTransfers);
+    }
+
+    /**
+     * {@return the maximum number of transfers of the journeys found}
+     */
+    public int getMaxTransfers() {
+        return this.roundCount - 1;
+    }
+
+    /**
+     * Finds the Journey leaving src at departure or later that reaches dst as
+     * early as possible, with the fewest transfers among those.
+     * @param src the source Stop
+     * @param dst the destination Stop
+     * @param departure the earliest departure time from src
+     * @return an earliest arrival Journey from src to dst, or null if dst can
+     *         not be reached from src within the maximum number of transfers
+     * @throws IllegalArgumentException if an argument is null
+     * @throws NoSuchElementException if src or dst is not in the timetable
+     */
+    public Journey route(Stop src, Stop dst, LocalTime departure) {
+        if (src == null || dst == null || departure == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = this.timetable.getGraph();
+        return this.route(
+            graph.idOf(src), graph.idOf(dst), departure.toSecondOfDay());
+    }
+
+    /**
+     * Finds the Journey between the stops whose ids are src and dst leaving
+     * at the specified time or later that arrives as early as possible.
+     * @param src the id of the source Stop
+     * @param dst the id of the destination Stop
+     * @param departure the earliest departure time from src, in seconds since
+     *        midnight
+     * @return an earliest arrival Journey from src to dst, or null if dst can
+     *         not be reached from src within the maximum number of transfers
+     */
+    public Journey route(int src, int dst, int departure) {
+        this.search(src, dst, departure);
+        int round = this.roundCount;
+        while (round >= 0 && this.labelledIn[round][dst] != this.generation)
+            round--;
+        if (round < 0)
+            return null;
+        CompiledGraph graph = this.timetable.getGraph();
+        List<JourneyLeg> legs = new ArrayList<>(round);
+        int first = departure;
+        double distance = 0.0;
+        for (int stop = dst; ; round--) {
+            int footpath = this.walkFootpaths[round][stop];
+            if (footpath >= 0) {
+                int walkStop = this.timetable.getFootpathSource(footpath);
+                first = this.rideArrivals[round][walkStop];
+                distance += this.timetable.getFootpathDistance(footpath);
+                legs.add(JourneyLeg.walk(
+                    (Stop) graph.getVertex(walkStop),
+                    (Stop) graph.getVertex(stop),
+                    Journey.timeOf(first),
+                    Journey.timeOf(this.arrivals[round][stop])
+                ));
+                stop = walkStop;
+            }
+            if (round == 0)
+                break;
+            int pattern = this.boardPatterns[round][stop];
+            int trip = this.boardTrips[round][stop];
+            int boardPosition = this.boardPositions[round][stop];
+            int alightPosition = this.alightPositions[round][stop];
+            int boardStop = this.timetable.getStop(pattern, boardPosition);
+            first = this.timetable.getTime(pattern, trip, boardPosition);
+            distance += this.timetable.getDistance(pattern, alightPosition)
+                - this.timetable.getDistance(pattern, boardPosition);
+            legs.add(new JourneyLeg(
+                this.timetable.getVariant(pattern),
+                (Stop) graph.getVertex(boardStop),
+                (Stop) graph.getVertex(stop),
+                Journey.timeOf(first),
+                Journey.timeOf(this.rideArrivals[round][stop])
+            ));
+            stop = boardStop;
+        }
+        Collections.reverse(legs);
+        return Journey.from(legs, first, this.earliest[dst], distance);
+    }
+
+    // Runs the rounds of RAPTOR from src until no stop is improved or the
+    // maximum number of trips is reached
+    private void search(int src, int dst, int departure) {
+        this.nextGeneration();
+        this.markedCount = 0;
+        this.ride(0, src, departure);
+        this.walk(0, dst);
+        for (int round = 1; round <= this.roundCount && this.markedCount > 0; round++) {
+            int queuedCount = this.queuePatterns();
+            for (int i = 0; i < queuedCount; i++) {
+                int pattern = this.queuedPatterns[i];
+                int from = this.queuedFrom[pattern];
+                this.queuedFrom[pattern] = -1;
+                this.scanPattern(round, pattern, from, dst);
+            }
+            this.walk(round, dst);
+        }
+        for (int i = 0; i < this.markedCount; i++)
+            this.marked[this.markedStops[i]] = false;
+    }
+
+    // Queues the patterns serving the marked stops, from the first marked
+    // stop of each, unmarks the stops and returns the number of patterns
+    private int queuePatterns() {
+        int queuedCount = 0;
+        for (int i = 0; i < this.markedCount; i++) {
+            int stop = this.markedStops[i];
+            this.marked[stop] = false;
+            int end = this.timetable.endPatternOf(stop);
+            for (int j = this.timetable.firstPatternOf(stop); j < end; j++) {
+                int pattern = this.timetable.getStopPattern(j);
+                int position = this.timetable.getStopPatternPosition(j);
+                if (this.queuedFrom[pattern] < 0)
+                    this.queuedPatterns[queuedCount++] = pattern;
+                else if (this.queuedFrom[pattern] <= position)
+                    continue;
+                this.queuedFrom[pattern] = position;
+            }
+        }
+        this.markedCount = 0;
+        return queuedCount;
+    }
+
+    // Travels along a pattern from the given position, on the earliest trip
+    // that can be caught with round - 1 trips
+    private void scanPattern(int round, int pattern, int from, int dst) {
+        int stopCount = this.timetable.getStopCount(pattern);
+        int trip = -1;
+        int boardPosition = -1;
+        for (int i = from; i < stopCount; i++) {
+            int stop = this.timetable.getStop(pattern, i);
+            if (trip >= 0) {
+                int time = this.timetable.getTime(pattern, trip, i);
+                if (time < this.earliestRideAt(stop) && time < this.earliestAt(dst)) {
+                    this.ride(round, stop, time);
+                    this.boardPatterns[round][stop] = pattern;
+                    this.boardTrips[round][stop] = trip;
+                    this.boardPositions[round][stop] = boardPosition;
+                    this.alightPositions[round][stop] = i;
+                }
+            }
+            if (this.labelledIn[round - 1][stop] == this.generation
+                && (trip < 0 || this.arrivals[round - 1][stop]
+                                <= this.timetable.getTime(pattern, trip, i))) {
+                int earlier = this.timetable.findTrip(
+                    pattern, i, this.arrivals[round - 1][stop]);
+                if (earlier >= 0 && (trip < 0 || earlier < trip)) {
+                    trip = earlier;
+                    boardPosition = i;
+                }
+            }
+        }
+    }
+
+    // Records that stop is reached by a trip at the given time in the given
+    // round, and improves its arrival if that is earlier
+    private void ride(int round, int stop, int time) {
+        this.rideArrivals[round][stop] = time;
+        this.earliestRide[stop] = time;
+        this.earliestRideIn[stop] = this.generation;
+        if (!this.rode[stop]) {
+            this.rode[stop] = true;
+            this.rodeStops[this.rodeCount++] = stop;
+        }
+        if (time < this.earliestAt(stop))
+            this.improve(round, stop, time, -1);
+    }
+
+    // Walks the footpaths from the stops reached by a trip in the given
+    // round, improving the arrivals at their targets in the same round
+    private void walk(int round, int dst) {
+        for (int i = 0; i < this.rodeCount; i++) {
+            int stop = this.rodeStops[i];
+            this.rode[stop] = false;
+            int end = this.timetable.endFootpathOf(stop);
+            for (int f = this.timetable.firstFootpathOf(stop); f < end; f++) {
+                int target = this.timetable.getFootpathTarget(f);
+                int time = this.rideArrivals[round][stop]
+                    + this.timetable.getFootpathDuration(f);
+                if (time < this.earliestAt(target) && time < this.earliestAt(dst))
+                    this.improve(round, target, time, f);
+            }
+        }
+        this.rodeCount = 0;
+    }
+
+    // Records that stop is reached at the given time in the given round,
+    // walking the given footpath or -1 for none
+    private void improve(int round, int stop, int time, int footpath) {
+        this.arrivals[round][stop] = time;
+        this.labelledIn[round][stop] = this.generation;
+        this.walkFootpaths[round][stop] = footpath;
+        this.earliest[stop] = time;
+        this.earliestIn[stop] = this.generation;
+        if (!this.marked[stop]) {
+            this.marked[stop] = true;
+            this.markedStops[this.markedCount++] = stop;
+        }
+    }
+
+    // Returns the earliest arrival time at stop found by the current search
+    private int earliestAt(int stop) {
+        return this.earliestIn[stop] == this.generation
+            ? this.earliest[stop]
+            : Integer.MAX_VALUE;
+    }
+
+    // Returns the earliest arrival time at stop by a trip found by the current
+    // search
+    private int earliestRideAt(int stop) {
+        return this.earliestRideIn[stop] == this.generation
+            ? this.earliestRide[stop]
+            : Integer.MAX_VALUE;
+    }
+
+    // Starts a new generation, clearing the stamps when the counter wraps
+    private void nextGeneration() {
+        if (this.generation == Integer.MAX_VALUE) {
+            for (int[] stamps : this.labelledIn)
+                Arrays.fill(stamps, 0);
+            Arrays.fill(this.earliestIn, 0);
+            Arrays.fill(this.earliestRideIn, 0);
+            this.generation = 0;
+        }
+        this.generation++;
+    }
+}
@@ -0,0 +1,102 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Route is a sequence of edges from a source Vertex to a destination
+ * Vertex, found by a route search, with its total travel duration, distance
+ * and cost.
+ */
+public final class Route {
+
+    // The edges of this Route from source to destination
+    private final List<Edge> edges;
+
+    // The total travel duration of the edges of this Route
+    private final Duration travelDuration;
+
+    // The total distance of the edges of this Route
+    private final double distance;
+
+    // The total cost of this Route for the metric minimized by the search
+    private final double cost;
+
+    private Route(
+      List<Edge> edges,
+      Duration travelDuration,
+      double distance,
+      double cost
+    ) {
+        this.edges = Collections.unmodifiableList(edges);
+        this.travelDuration = travelDuration;
+        this.distance = distance;
+        this.cost = cost;
+    }
+
+    /**
+     * Builds the Route made of the specified edges of a CompiledGraph.
+     * @param graph the CompiledGraph the edges belong to
+     * @param edgeIds the ids of the edges of the route
+     * @param count the number of ids to read from edgeIds
+     * @param cost the total cost of the route
+     * @return a new Route made of the first count edges of edgeIds
+     */
+    static Route from(
+      CompiledGraph graph,
+      int[] edgeIds,
+      int count,
+      double cost
+    ) {
+        List<Edge> edges = new ArrayList<>(count);
+        long seconds = 0;
+        double distance = 0.0;
+        for (int i = 0; i < count; i++) {
+            int e = edgeIds[i];
+            edges.add(graph.getEdge(e));
+            seconds += graph.getDuration(e);
+            distance += graph.getDistance(e);
+        }
+        return new Route(edges, Duration.ofSeconds(seconds), distance, cost);
+    }
+
+    /**
+     * {@return an unmodifiable list of the edges of this Route, from source to
+     * destination}
+     */
+    public List<Edge> getEdges() {
+        return this.edges;
+    }
+
+    /**
+     * {@return the total travel duration of this Route}
+     */
+    public Duration getTravelDuration() {
+        return this.travelDuration;
+    }
+
+    /**
+     * {@return the total distance of this Route}
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * {@return the total cost of this Route for the metric minimized by the
+     * search that found it}
+     */
+    public double getCost() {
+        return this.cost;
+    }
+
+    /**
+     * {@return true if this Route has no edge, i.e. source and destination
+     * are the same}
+     */
+    public boolean isEmpty() {
+        return this.edges.isEmpty();
+    }
+}
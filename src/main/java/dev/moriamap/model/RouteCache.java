@@ -0,0 +1,477 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of the results of route searches in a TransportNetwork,
+ * such as journeys or routes, keyed by source, target, departure time bucket
+ * and routing profile.
+ * <p>
+ *     Keys are spread over stripes, each guarded by its own lock, so threads
+ *     working on different keys rarely wait for each other. Each stripe is a
+ *     segmented LRU: a key enters the probation segment and moves to the
+ *     protected segment when it is hit again, so that a burst of keys seen
+ *     once can not flush the keys seen often. When a stripe is full, a new key
+ *     is only admitted if a frequency sketch of the recent accesses of the
+ *     stripe (TinyLFU) finds it more popular than the key it would evict.
+ * </p>
+ * <p>
+ *     Cached values are tied to the modification count of the network: once
+ *     the network changes, they are no longer returned and the first access
+ *     that notices the change empties the cache. A null value, such as the
+ *     journey to an unreachable stop, is cached like any other.
+ * </p>
+ * @param <V> the type of the cached values
+ */
+public final class RouteCache<V> {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The number of stripes of a RouteCache built without one
+    private static final int DEFAULT_STRIPE_COUNT = 16;
+
+    // Stands for a cached null value
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * Record of the key of a cached route search result.
+     * @param source the Stop where the route starts
+     * @param target the Stop where the route ends
+     * @param departureBucket the index of the interval of departure times
+     *        holding the departure of the route
+     * @param profile the name of the routing profile of the search
+     */
+    public record Key(
+        Stop source,
+        Stop target,
+        int departureBucket,
+        String profile
+    ) {
+
+        /**
+         * Constructor of Key
+         * @param source the Stop where the route starts
+         * @param target the Stop where the route ends
+         * @param departureBucket the index of the interval of departure
+         *        times holding the departure of the route
+         * @param profile the name of the routing profile of the search
+         * @throws IllegalArgumentException if an argument is null
+         */
+        public Key {
+            if (source == null || target == null || profile == null)
+                throw new IllegalArgumentException(
+                    "No Key values can be null");
+        }
+
+        /**
+         * {@return the Key of the routes from source to target leaving in the
+         * same interval of width bucket as departure, with profile}
+         * @param source the Stop where the route starts
+         * @param target the Stop where the route ends
+         * @param departure the departure time of the route
+         * @param bucket the width of the intervals of departure times
+         * @param profile the name of the routing profile of the search
+         * @throws IllegalArgumentException if an argument is null or bucket is
+         *         not positive
+         */
+        public static Key of(
+          Stop source,
+          Stop target,
+          LocalTime departure,
+          Duration bucket,
+          String profile
+        ) {
+            if (departure == null || bucket == null)
+                throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+            if (bucket.isNegative() || bucket.isZero())
+                throw new IllegalArgumentException(
+                    "The bucket width must be positive");
+            long width = Math.max(1L, bucket.getSeconds());
+            return new Key(
+                source, target, (int) (departure.toSecondOfDay() / width), profile);
+        }
+    }
+
+    // A cached value and the modification count of the network it was
+    // computed from
+    private static final class Entry {
+        private final Object value;
+        private final int version;
+
+        private Entry(Object value, int version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    // A count-min sketch of the access frequencies of keys, with 4-bit
+    // counters packed 16 per long and halved when enough accesses were
+    // recorded, so that the frequencies follow recent accesses
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL,
+            0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+        };
+        private static final long HALF_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int capacity) {
+            int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+            this.table = new long[Math.max(4, length)];
+            this.sampleSize = 10 * Math.max(1, capacity);
+            this.additions = 0;
+        }
+
+        // Returns the index of the counter of hash in row i: the long index
+        // in the high bits, the nibble in the low 4 bits
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h ^= h >>> 32;
+            int slot = (int) h & (this.table.length - 1);
+            return (slot << 4) | (int) ((h >>> 40) & 15);
+        }
+
+        private int frequency(int hash) {
+            int frequency = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = this.indexOf(hash, i);
+                int shift = (index & 15) << 2;
+                frequency = Math.min(
+                    frequency, (int) ((this.table[index >>> 4] >>> shift) & 15));
+            }
+            return frequency;
+        }
+
+        private void increment(int hash) {
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = this.indexOf(hash, i);
+                int shift = (index & 15) << 2;
+                if (((this.table[index >>> 4] >>> shift) & 15) != 15) {
+                    this.table[index >>> 4] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++this.additions == this.sampleSize) {
+                for (int i = 0; i < this.table.length; i++)
+                    this.table[i] = (this.table[i] >>> 1) & HALF_MASK;
+                this.additions /= 2;
+            }
+        }
+    }
+
+    // A segmented LRU holding a part of the keys, guarded by its lock
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<Key, Entry> probation =
+            new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<Key, Entry> protectedEntries =
+            new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+        private final int protectedCapacity;
+        private final FrequencySketch sketch;
+        private final LongAdder evictions;
+
+        private Stripe(int capacity, LongAdder evictions) {
+            this.capacity = capacity;
+            this.evictions = evictions;
+            this.protectedCapacity = Math.max(1, capacity * 4 / 5);
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        // Returns the entry of key, promoting it to the protected segment if
+        // it is in the probation segment, or null if it is absent
+        private Entry get(Key key) {
+            this.sketch.increment(key.hashCode());
+            Entry entry = this.protectedEntries.get(key);
+            if (entry != null)
+                return entry;
+            entry = this.probation.remove(key);
+            if (entry == null)
+                return null;
+            this.protectedEntries.put(key, entry);
+            if (this.protectedEntries.size() > this.protectedCapacity) {
+                Iterator<Map.Entry<Key, Entry>> eldest =
+                    this.protectedEntries.entrySet().iterator();
+                Map.Entry<Key, Entry> demoted = eldest.next();
+                eldest.remove();
+                this.probation.put(demoted.getKey(), demoted.getValue());
+            }
+            return entry;
+        }
+
+        // Adds or replaces the entry of key, unless the stripe is full and
+        // key is less frequent than the key to evict
+        private void put(Key key, Entry entry) {
+            if (this.protectedEntries.containsKey(key)) {
+                this.protectedEntries.put(key, entry);
+                return;
+            }
+            if (this.probation.containsKey(key)
+                || this.probation.size() + this.protectedEntries.size() < this.capacity) {
+                this.probation.put(key, entry);
+                return;
+            }
+            LinkedHashMap<Key, Entry> victims = this.probation.isEmpty()
+                ? this.protectedEntries
+                : this.probation;
+            Iterator<Key> eldest = victims.keySet().iterator();
+            Key victim = eldest.next();
+            this.evictions.increment();
+            if (this.sketch.frequency(key.hashCode())
+                <= this.sketch.frequency(victim.hashCode()))
+                return;
+            eldest.remove();
+            this.probation.put(key, entry);
+        }
+
+        private void clear() {
+            this.probation.clear();
+            this.protectedEntries.clear();
+        }
+
+        private int size() {
+            return this.probation.size() + this.protectedEntries.size();
+        }
+    }
+
+    // The network whose changes invalidate the cached values
+    private final TransportNetwork network;
+
+    // The stripes of the cache, a power of two of them
+    private final Stripe[] stripes;
+
+    // The modification count of the network when the cache was last emptied
+    private volatile int version;
+
+    // The number of accesses finding their key, not finding it, and of keys
+    // evicted or not admitted
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+
+    private RouteCache(TransportNetwork network, int maximumSize, int stripeCount) {
+        this.network = network;
+        this.version = network.getModificationCount();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        int count = Integer.highestOneBit(Math.min(stripeCount, maximumSize));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++)
+            this.stripes[i] = new Stripe(
+                maximumSize / count + (i < maximumSize % count ? 1 : 0),
+                this.evictions);
+    }
+
+    /**
+     * {@return a new empty RouteCache of the results of route searches in
+     * network, holding at most maximumSize values}
+     * @param network the network whose changes invalidate the cached values
+     * @param maximumSize the maximum number of cached values
+     * @param <V> the type of the cached values
+     * @throws IllegalArgumentException if network is null or maximumSize is
+     *         not positive
+     */
+    public static <V> RouteCache<V> of(TransportNetwork network, int maximumSize) {
+        return of(network, maximumSize, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * {@return a new empty RouteCache of the results of route searches in
+     * network, holding at most maximumSize values in about stripeCount
+     * stripes}
+     * @param network the network whose changes invalidate the cached values
+     * @param maximumSize the maximum number of cached values
+     * @param stripeCount the number of stripes, rounded down to a power of two
+     *        no greater than maximumSize
+     * @param <V> the type of the cached values
+     * @throws IllegalArgumentException if network is null, or if maximumSize
+     *         or stripeCount is not positive
+     */
+    public static <V> RouteCache<V> of(
+      TransportNetwork network,
+      int maximumSize,
+      int stripeCount
+    ) {
+        if (network == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (maximumSize <= 0 || stripeCount <= 0)
+            throw new IllegalArgumentException(
+                "The size and stripe count must be positive");
+        return new RouteCache<>(network, maximumSize, stripeCount);
+    }
+
+    /**
+     * Returns the value of key if it is cached, or computes it with loader
+     * and caches it otherwise. The lock of the stripe of key is not held
+     * while loader runs, so two threads missing the same key at the same
+     * time may both run it.
+     * @param key the key of the value
+     * @param loader the function computing the value of a key, maybe null
+     * @return the value of key, maybe null
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public V get(Key key, Function<? super Key, ? extends V> loader) {
+        if (loader == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        int current = this.checkVersion();
+        Stripe stripe = this.stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.get(key);
+            if (entry != null && entry.version == current) {
+                this.hits.increment();
+                return this.valueOf(entry);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        this.misses.increment();
+        V value = loader.apply(key);
+        this.put(key, value, current, false);
+        return value;
+    }
+
+    /**
+     * Returns the value of key if it is cached.
+     * @param key the key of the value
+     * @param absent the value returned if key is not cached
+     * @return the value of key, or absent if it is not cached
+     * @throws IllegalArgumentException if key is null
+     */
+    public V getOrDefault(Key key, V absent) {
+        int current = this.checkVersion();
+        Stripe stripe = this.stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.get(key);
+            if (entry != null && entry.version == current) {
+                this.hits.increment();
+                return this.valueOf(entry);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        this.misses.increment();
+        return absent;
+    }
+
+    /**
+     * Caches the specified value of key, if the cache admits it.
+     * @param key the key of the value
+     * @param value the value of key, maybe null
+     * @throws IllegalArgumentException if key is null
+     */
+    public void put(Key key, V value) {
+        this.put(key, value, this.checkVersion(), true);
+    }
+
+    /**
+     * Removes all the values of this cache.
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : this.stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.clear();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * {@return the number of values in this cache, maybe including some values
+     * that went stale since the last change of the network}
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * {@return the number of accesses that found their key}
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * {@return the number of accesses that did not find their key}
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * {@return the number of values evicted, or not admitted, because the
+     * cache was full}
+     */
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    // Caches value for key if it was computed from the current network,
+    // recording an access to key unless the miss that led to value did
+    private void put(Key key, V value, int version, boolean access) {
+        Stripe stripe = this.stripeOf(key);
+        Entry entry = new Entry(value == null ? NULL_VALUE : value, version);
+        stripe.lock.lock();
+        try {
+            if (access)
+                stripe.sketch.increment(key.hashCode());
+            if (version == this.version)
+                stripe.put(key, entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    // Returns the modification count of the network, emptying the cache if
+    // it grew since the cache was last emptied
+    private int checkVersion() {
+        int current = this.network.getModificationCount();
+        if (current - this.version > 0) {
+            synchronized (this) {
+                if (current - this.version > 0) {
+                    this.version = current;
+                    this.invalidateAll();
+                }
+            }
+        }
+        return current;
+    }
+
+    // Returns the stripe of key
+    private Stripe stripeOf(Key key) {
+        if (key == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return this.stripes[hash & (this.stripes.length - 1)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueOf(Entry entry) {
+        return entry.value == NULL_VALUE ? null : (V) entry.value;
+    }
+}
@@ -0,0 +1,21 @@
+package dev.moriamap.model;
+
+/**
+ * The quantity minimized by a route search.
+ */
+public enum RouteMetric {
+    /**
+     * The weight of the edges, as given by Edge.getWeight().
+     */
+    WEIGHT,
+
+    /**
+     * The travel duration of the edges, in seconds.
+     */
+    TRAVEL_TIME,
+
+    /**
+     * The distance of the edges.
+     */
+    DISTANCE
+}
@@ -0,0 +1,26 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+
+/**
+ * Record of a request for a Journey from a source Stop to a target Stop
+ * leaving at a departure time or later.
+ * @param source the Stop where the journey starts
+ * @param target the Stop where the journey ends
+ * @param departure the earliest departure time from source
+ */
+public record RouteQuery(Stop source, Stop target, LocalTime departure) {
+
+    /**
+     * Constructor of RouteQuery
+     * @param source the Stop where the journey starts
+     * @param target the Stop where the journey ends
+     * @param departure the earliest departure time from source
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public RouteQuery {
+        if (source == null || target == null || departure == null)
+            throw new IllegalArgumentException(
+                "No RouteQuery values can be null");
+    }
+}
@@ -0,0 +1,26 @@
+package dev.moriamap.model;
+
+/**
+ * Record of a Stop found by a fuzzy search, with the similarity of its name
+ * to the query.
+ * @param stop the Stop found
+ * @param similarity the similarity of the name of stop to the query, from 0
+ *        for nothing in common to 1 for equal normalized names
+ */
+public record StopMatch(Stop stop, double similarity) {
+
+    /**
+     * Constructor of StopMatch
+     * @param stop the Stop found
+     * @param similarity the similarity of the name of stop to the query
+     * @throws IllegalArgumentException if stop is null or similarity is not
+     *         between 0 and 1
+     */
+    public StopMatch {
+        if (stop == null)
+            throw new IllegalArgumentException("No StopMatch values can be null");
+        if (!(similarity >= 0 && similarity <= 1))
+            throw new IllegalArgumentException(
+                "Similarity must be between 0 and 1");
+    }
+}
@@ -0,0 +1,193 @@
+package dev.moriamap.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of stops by name, answering exact lookups and name completion.
+ * <p>
+ *     Several stops may share a name, e.g. the two platforms of a station
+ *     placed at different positions: the index keeps all of them, in the
+ *     order they were added, and completion returns each name once so that
+ *     the caller can then choose among its stops.
+ * </p>
+ * <p>
+ *     Exact lookups go through a hash map. Completion binary searches a
+ *     sorted array of the distinct names for the first one not before the
+ *     prefix, then reads the following names while they start with it. The
+ *     array is sorted again on the first completion after a name was added or
+ *     removed, so bulk loading costs a single sort.
+ * </p>
+ * <p>
+ *     A StopNameIndex is not thread-safe, but once compacted it can be read
+ *     by several threads as long as it is no longer modified.
+ * </p>
+ */
+public final class StopNameIndex {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The stops of each name, in the order they were added
+    private final Map<String, List<Stop>> stopsByName;
+
+    // The distinct names in increasing order, null when a name was added or
+    // removed since they were sorted
+    private String[] sortedNames;
+
+    private StopNameIndex() {
+        this.stopsByName = new HashMap<>();
+        this.sortedNames = null;
+    }
+
+    /**
+     * {@return a new empty StopNameIndex}
+     */
+    public static StopNameIndex empty() {
+        return new StopNameIndex();
+    }
+
+    /**
+     * {@return a new StopNameIndex of the specified stops}
+     * @param stops the stops to index
+     * @throws IllegalArgumentException if stops is or contains null
+     */
+    public static StopNameIndex of(Collection<Stop> stops) {
+        if (stops == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        StopNameIndex index = new StopNameIndex();
+        for (Stop stop : stops)
+            index.add(stop);
+        return index;
+    }
+
+    /**
+     * Adds a stop to this index. If it is already present, does nothing.
+     * @param stop the Stop to add
+     * @return true if stop was added
+     * @throws IllegalArgumentException if stop is null
+     */
+    public boolean add(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Stop> stops = this.stopsByName.get(stop.getName());
+        if (stops == null) {
+            stops = new ArrayList<>(1);
+            this.stopsByName.put(stop.getName(), stops);
+            this.sortedNames = null;
+        } else if (stops.contains(stop)) {
+            return false;
+        }
+        stops.add(stop);
+        return true;
+    }
+
+    /**
+     * Removes a stop from this index.
+     * @param stop the Stop to remove
+     * @return true if stop was in this index
+     * @throws IllegalArgumentException if stop is null
+     */
+    public boolean remove(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Stop> stops = this.stopsByName.get(stop.getName());
+        if (stops == null || !stops.remove(stop))
+            return false;
+        if (stops.isEmpty()) {
+            this.stopsByName.remove(stop.getName());
+            this.sortedNames = null;
+        }
+        return true;
+    }
+
+    /**
+     * {@return the number of distinct names in this index}
+     */
+    public int getNameCount() {
+        return this.stopsByName.size();
+    }
+
+    /**
+     * {@return the stops which have the specified name, in the order they
+     * were added, or an empty list if there is none}
+     * @param name the name of the wanted stops
+     * @throws IllegalArgumentException if name is null
+     */
+    public List<Stop> getStopsByName(String name) {
+        if (name == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Stop> stops = this.stopsByName.get(name);
+        if (stops == null)
+            return Collections.emptyList();
+        return Collections.unmodifiableList(new ArrayList<>(stops));
+    }
+
+    /**
+     * {@return the first stop added with the specified name, or null if
+     * there is none}
+     * @param name the name of the wanted stop
+     * @throws IllegalArgumentException if name is null
+     */
+    public Stop getFirstStopByName(String name) {
+        if (name == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Stop> stops = this.stopsByName.get(name);
+        return stops == null ? null : stops.get(0);
+    }
+
+    /**
+     * Returns the names that start with the specified prefix, in increasing
+     * order. A name shared by several stops is returned once.
+     * @param prefix the start of the wanted names, the empty string for all
+     * @param limit the maximum number of names returned
+     * @return at most limit names starting with prefix
+     * @throws IllegalArgumentException if prefix is null or limit is negative
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (prefix == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (limit < 0)
+            throw new IllegalArgumentException("Limit can not be negative");
+        this.compact();
+        String[] names = this.sortedNames;
+        List<String> completions = new ArrayList<>(Math.min(limit, 16));
+        for (int i = firstNotBefore(names, prefix);
+             i < names.length && completions.size() < limit
+                 && names[i].startsWith(prefix);
+             i++)
+            completions.add(names[i]);
+        return completions;
+    }
+
+    /**
+     * Sorts the names for completion if a name was added or removed since
+     * they were last sorted. Until the next change, reading this index
+     * modifies nothing.
+     */
+    void compact() {
+        if (this.sortedNames == null) {
+            String[] names = this.stopsByName.keySet().toArray(new String[0]);
+            Arrays.sort(names);
+            this.sortedNames = names;
+        }
+    }
+
+    // Returns the index of the first name of names not before prefix
+    private static int firstNotBefore(String[] names, String prefix) {
+        int low = 0;
+        int high = names.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (names[middle].compareTo(prefix) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
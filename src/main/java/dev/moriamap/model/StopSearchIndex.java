@@ -0,0 +1,428 @@
+package dev.moriamap.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An index answering fuzzy searches of stops by name, insensitive to case,
+ * accents and punctuation.
+ * <p>
+ *     Names are normalized by decomposing them (Unicode NFD), dropping the
+ *     combining marks, folding the case and replacing every run of
+ *     characters that are neither letters nor digits by a single space, so
+ *     that "Château-de-Vincennes" and "chateau de vincennes" are the same.
+ *     A normalized name is then cut into the trigrams of its padded form,
+ *     and the index maps each trigram to the int array of the stops whose
+ *     name has it.
+ * </p>
+ * <p>
+ *     A search counts, for each stop, the trigrams its name shares with the
+ *     query by walking the posting lists of the trigrams of the query, and
+ *     ranks the stops by Dice coefficient: twice the number of shared
+ *     trigrams over the total number of trigrams of both. Only the stops
+ *     sharing a trigram with the query are looked at, and the counters are
+ *     arrays reset with generation stamps.
+ * </p>
+ * <p>
+ *     Stops are added in place by appending to the posting lists. Removed
+ *     stops are only marked removed, until they make up half of the index
+ *     and it is built again. A StopSearchIndex is not thread-safe when it is
+ *     modified, but once built it can be searched by several threads: each
+ *     one uses its own counters.
+ * </p>
+ */
+public final class StopSearchIndex {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The key of the empty slots of the trigram table
+    private static final long EMPTY = 0L;
+
+    // The initial capacities of the trigram table and of a posting list
+    private static final int INITIAL_TABLE_CAPACITY = 1 << 10;
+    private static final int INITIAL_POSTING_CAPACITY = 4;
+
+    // The per-thread counters of a search
+    private static final class Workspace {
+        private int[] countedIn;
+        private int[] counts;
+        private int[] touched;
+        private int[] heap;
+        private double[] heapScores;
+        private int generation;
+
+        private Workspace() {
+            this.countedIn = new int[0];
+            this.counts = new int[0];
+            this.touched = new int[0];
+            this.heap = new int[0];
+            this.heapScores = new double[0];
+            this.generation = 0;
+        }
+
+        // Makes room for a search over stopCount stops keeping k of them,
+        // and starts a new generation
+        private void prepare(int stopCount, int k) {
+            if (this.countedIn.length < stopCount) {
+                int capacity = Math.max(stopCount, this.countedIn.length * 2);
+                this.countedIn = new int[capacity];
+                this.counts = new int[capacity];
+                this.touched = new int[capacity];
+                this.generation = 0;
+            }
+            if (this.heap.length < k) {
+                this.heap = new int[k];
+                this.heapScores = new double[k];
+            }
+            if (this.generation == Integer.MAX_VALUE) {
+                Arrays.fill(this.countedIn, 0);
+                this.generation = 0;
+            }
+            this.generation++;
+        }
+    }
+
+    // The stops by id, and whether each was removed
+    private Stop[] stops;
+    private boolean[] removed;
+    private int stopCount;
+    private int removedCount;
+
+    // The id of each stop in the index and not removed
+    private final Map<Stop, Integer> ids;
+
+    // The number of distinct trigrams of the name of each stop
+    private int[] gramCounts;
+
+    // Open addressing table from trigrams to their posting lists, the ids
+    // of the stops whose name has the trigram in increasing order
+    private long[] grams;
+    private int[][] postings;
+    private int[] postingSizes;
+    private int gramCount;
+
+    // The counters of the searches of each thread
+    private final ThreadLocal<Workspace> workspaces;
+
+    private StopSearchIndex() {
+        this.ids = new HashMap<>();
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+        this.clear();
+    }
+
+    /**
+     * {@return a new empty StopSearchIndex}
+     */
+    public static StopSearchIndex empty() {
+        return new StopSearchIndex();
+    }
+
+    /**
+     * {@return a new StopSearchIndex of the specified stops}
+     * @param stops the stops to index
+     * @throws IllegalArgumentException if stops is or contains null
+     */
+    public static StopSearchIndex of(Collection<Stop> stops) {
+        if (stops == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        StopSearchIndex index = new StopSearchIndex();
+        for (Stop stop : stops)
+            index.add(stop);
+        return index;
+    }
+
+    /**
+     * Normalizes a name for searching: decomposes it (Unicode NFD), drops
+     * combining marks, folds its case and replaces each run of characters
+     * that are neither letters nor digits by a single space.
+     * @param name the name to normalize
+     * @return the normalized name, without leading or trailing space
+     * @throws IllegalArgumentException if name is null
+     */
+    public static String normalize(String name) {
+        if (name == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean afterSpace = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK)
+                continue;
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                afterSpace = false;
+            } else if (!afterSpace) {
+                normalized.append(' ');
+                afterSpace = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ')
+            normalized.setLength(length - 1);
+        // Upper then lower case folds e.g. the German sharp s to ss
+        return normalized.toString()
+            .toUpperCase(Locale.ROOT)
+            .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * {@return the number of stops in this index}
+     */
+    public int size() {
+        return this.stopCount - this.removedCount;
+    }
+
+    /**
+     * Adds a stop to this index. If it is already present, does nothing.
+     * @param stop the Stop to add
+     * @return true if stop was added
+     * @throws IllegalArgumentException if stop is null
+     */
+    public boolean add(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (this.ids.containsKey(stop))
+            return false;
+        int id = this.stopCount;
+        if (id == this.stops.length) {
+            int capacity = Math.max(16, id * 2);
+            this.stops = Arrays.copyOf(this.stops, capacity);
+            this.removed = Arrays.copyOf(this.removed, capacity);
+            this.gramCounts = Arrays.copyOf(this.gramCounts, capacity);
+        }
+        long[] nameGrams = trigramsOf(normalize(stop.getName()));
+        this.stops[id] = stop;
+        this.gramCounts[id] = nameGrams.length;
+        this.stopCount++;
+        this.ids.put(stop, id);
+        for (long gram : nameGrams)
+            this.addPosting(gram, id);
+        return true;
+    }
+
+    /**
+     * Removes a stop from this index.
+     * @param stop the Stop to remove
+     * @return true if stop was in this index
+     * @throws IllegalArgumentException if stop is null
+     */
+    public boolean remove(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        Integer id = this.ids.remove(stop);
+        if (id == null)
+            return false;
+        this.removed[id] = true;
+        this.removedCount++;
+        if (this.removedCount * 2 > this.stopCount)
+            this.rebuild();
+        return true;
+    }
+
+    /**
+     * Returns the stops whose names are the most similar to the query, by
+     * decreasing similarity, then in the order they were added. Stops whose
+     * name shares no trigram with the query are never returned.
+     * @param query the name searched, normalized like the names of stops
+     * @param k the maximum number of stops returned
+     * @return at most k matches, by decreasing similarity
+     * @throws IllegalArgumentException if query is null or k is negative
+     */
+    public List<StopMatch> search(String query, int k) {
+        if (query == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (k < 0)
+            throw new IllegalArgumentException("k can not be negative");
+        long[] queryGrams = trigramsOf(normalize(query));
+        if (k == 0 || queryGrams.length == 0)
+            return Collections.emptyList();
+        Workspace ws = this.workspaces.get();
+        ws.prepare(this.stopCount, k);
+        int generation = ws.generation;
+        int touchedCount = 0;
+        for (long gram : queryGrams) {
+            int slot = this.slotOf(gram);
+            if (this.grams[slot] == EMPTY)
+                continue;
+            int[] posting = this.postings[slot];
+            int size = this.postingSizes[slot];
+            for (int i = 0; i < size; i++) {
+                int id = posting[i];
+                if (ws.countedIn[id] != generation) {
+                    ws.countedIn[id] = generation;
+                    ws.counts[id] = 0;
+                    ws.touched[touchedCount++] = id;
+                }
+                ws.counts[id]++;
+            }
+        }
+        // Keeps the k best in a min-heap whose root is the worst kept
+        int heapSize = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int id = ws.touched[i];
+            if (this.removed[id])
+                continue;
+            double score = 2.0 * ws.counts[id]
+                           / (queryGrams.length + this.gramCounts[id]);
+            if (heapSize < k) {
+                siftUp(ws.heap, ws.heapScores, heapSize++, id, score);
+            } else if (isBetter(score, id, ws.heapScores[0], ws.heap[0])) {
+                siftDown(ws.heap, ws.heapScores, heapSize, id, score);
+            }
+        }
+        StopMatch[] matches = new StopMatch[heapSize];
+        for (int n = heapSize; n > 0; n--) {
+            int id = ws.heap[0];
+            double score = ws.heapScores[0];
+            matches[n - 1] = new StopMatch(this.stops[id], Math.min(1.0, score));
+            if (n > 1)
+                siftDown(ws.heap, ws.heapScores, n - 1,
+                         ws.heap[n - 1], ws.heapScores[n - 1]);
+        }
+        return List.of(matches);
+    }
+
+    // Returns the distinct trigrams of the normalized name, in increasing
+    // order, each packed in a long
+    private static long[] trigramsOf(String normalized) {
+        if (normalized.isEmpty())
+            return new long[0];
+        String padded = " " + normalized + " ";
+        long[] trigrams = new long[padded.length() - 2];
+        for (int i = 0; i < trigrams.length; i++)
+            trigrams[i] = ((long) padded.charAt(i) << 32)
+                          | ((long) padded.charAt(i + 1) << 16)
+                          | padded.charAt(i + 2);
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++)
+            if (i == 0 || trigrams[i] != trigrams[i - 1])
+                trigrams[distinct++] = trigrams[i];
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    // Returns true if the stop id with score ranks before the stop other
+    // with otherScore
+    private static boolean isBetter(double score, int id, double otherScore, int other) {
+        return score > otherScore || (score == otherScore && id < other);
+    }
+
+    // Inserts id at position i of the min-heap and moves it up
+    private static void siftUp(int[] heap, double[] scores, int i, int id, double score) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(scores[parent], heap[parent], score, id))
+                break;
+            heap[i] = heap[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        heap[i] = id;
+        scores[i] = score;
+    }
+
+    // Replaces the root of the min-heap of size entries by id and moves it
+    // down
+    private static void siftDown(int[] heap, double[] scores, int size, int id, double score) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size
+                && isBetter(scores[child], heap[child], scores[child + 1], heap[child + 1]))
+                child++;
+            if (!isBetter(score, id, scores[child], heap[child]))
+                break;
+            heap[i] = heap[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        heap[i] = id;
+        scores[i] = score;
+    }
+
+    // Appends id to the posting list of gram, creating it if needed
+    private void addPosting(long gram, int id) {
+        int slot = this.slotOf(gram);
+        if (this.grams[slot] == EMPTY) {
+            if ((this.gramCount + 1) * 2 > this.grams.length) {
+                this.growTable();
+                slot = this.slotOf(gram);
+            }
+            this.grams[slot] = gram;
+            this.postings[slot] = new int[INITIAL_POSTING_CAPACITY];
+            this.gramCount++;
+        }
+        int[] posting = this.postings[slot];
+        int size = this.postingSizes[slot];
+        if (size == posting.length) {
+            posting = Arrays.copyOf(posting, size * 2);
+            this.postings[slot] = posting;
+        }
+        posting[size] = id;
+        this.postingSizes[slot] = size + 1;
+    }
+
+    // Returns the slot of gram in the table, or the empty slot where it
+    // would go
+    private int slotOf(long gram) {
+        int mask = this.grams.length - 1;
+        long h = gram * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (this.grams[slot] != EMPTY && this.grams[slot] != gram)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    // Doubles the capacity of the trigram table
+    private void growTable() {
+        long[] oldGrams = this.grams;
+        int[][] oldPostings = this.postings;
+        int[] oldSizes = this.postingSizes;
+        this.grams = new long[oldGrams.length * 2];
+        this.postings = new int[oldGrams.length * 2][];
+        this.postingSizes = new int[oldGrams.length * 2];
+        for (int i = 0; i < oldGrams.length; i++) {
+            if (oldGrams[i] == EMPTY)
+                continue;
+            int slot = this.slotOf(oldGrams[i]);
+            this.grams[slot] = oldGrams[i];
+            this.postings[slot] = oldPostings[i];
+            this.postingSizes[slot] = oldSizes[i];
+        }
+    }
+
+    // Empties this index
+    private void clear() {
+        this.stops = new Stop[0];
+        this.removed = new boolean[0];
+        this.gramCounts = new int[0];
+        this.stopCount = 0;
+        this.removedCount = 0;
+        this.ids.clear();
+        this.grams = new long[INITIAL_TABLE_CAPACITY];
+        this.postings = new int[INITIAL_TABLE_CAPACITY][];
+        this.postingSizes = new int[INITIAL_TABLE_CAPACITY];
+        this.gramCount = 0;
+    }
+
+    // Builds this index again from the stops not removed
+    private void rebuild() {
+        List<Stop> kept = new ArrayList<>(this.size());
+        for (int id = 0; id < this.stopCount; id++)
+            if (!this.removed[id])
+                kept.add(this.stops[id]);
+        this.clear();
+        for (Stop stop : kept)
+            this.add(stop);
+    }
+}
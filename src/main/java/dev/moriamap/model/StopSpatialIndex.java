@@ -0,0 +1,771 @@
+package dev.moriamap.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A spatial index of stops answering nearest-stop, radius and bounding box
+ * queries.
+ * <p>
+ *     The stops are placed on the unit sphere and stored in a packed k-d
+ *     tree: their coordinates are in arrays ordered so that the median of
+ *     each range splits it on the X, Y or Z axis in turn, with no node
+ *     object. Distances are euclidean distances between the points of the
+ *     sphere of radius GeographicPosition.EARTH_RADIUS, like
+ *     GeographicPosition.distanceFrom, which is what the tree prunes on.
+ * </p>
+ * <p>
+ *     The queries allocate nothing: they write the ids of the stops found in
+ *     arrays supplied by the caller, and getStop(id) returns the Stop of an
+ *     id. Ids are only valid until the index is next modified. Stops added
+ *     after the tree was built go to a small buffer scanned by every query,
+ *     and removed stops are only marked removed, until either makes up a
+ *     large enough part of the index for the tree to be built again.
+ * </p>
+ * <p>
+ *     A StopSpatialIndex is not thread-safe when it is modified, but the
+ *     queries only read it, so it can be shared by threads once built.
+ * </p>
+ */
+public final class StopSpatialIndex {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The smallest size of the buffer of added stops that triggers a rebuild
+    private static final int MIN_PENDING_FOR_REBUILD = 64;
+
+    // The id of no stop
+    private static final int NONE = -1;
+
+    // The coordinates on the unit sphere, the geographic coordinates and the
+    // stops: first the treeSize stops of the tree, then the pending ones
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private double[] latitudes;
+    private double[] longitudes;
+    private Stop[] stops;
+    private boolean[] removed;
+
+    // The order in which each stop was added, the first being 0
+    private int[] ranks;
+    private int nextRank;
+
+    private int treeSize;
+    private int count;
+    private int removedCount;
+
+    // The id of each stop in the index and not removed
+    private final Map<Stop, Integer> ids;
+
+    private StopSpatialIndex() {
+        this.ids = new HashMap<>();
+        this.xs = new double[0];
+        this.ys = new double[0];
+        this.zs = new double[0];
+        this.latitudes = new double[0];
+        this.longitudes = new double[0];
+        this.stops = new Stop[0];
+        this.removed = new boolean[0];
+        this.ranks = new int[0];
+        this.nextRank = 0;
+        this.treeSize = 0;
+        this.count = 0;
+        this.removedCount = 0;
+    }
+
+    /**
+     * {@return a new StopSpatialIndex of the specified stops}
+     * @param stops the stops to index
+     * @throws IllegalArgumentException if stops is or contains null
+     */
+    public static StopSpatialIndex of(Collection<Stop> stops) {
+        if (stops == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        StopSpatialIndex index = new StopSpatialIndex();
+        List<Stop> distinct = new ArrayList<>(stops.size());
+        for (Stop stop : stops) {
+            if (stop == null)
+                throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+            if (index.ids.putIfAbsent(stop, distinct.size()) == null)
+                distinct.add(stop);
+        }
+        index.build(distinct);
+        return index;
+    }
+
+    /**
+     * {@return the number of stops in this index}
+     */
+    public int size() {
+        return this.count - this.removedCount;
+    }
+
+    /**
+     * {@return the Stop whose id is id}
+     * @param id an id returned by a query since the last modification
+     * @throws IndexOutOfBoundsException if id is not the id of a stop
+     */
+    public Stop getStop(int id) {
+        if (id < 0 || id >= this.count)
+            throw new IndexOutOfBoundsException(id);
+        return this.stops[id];
+    }
+
+    /**
+     * Finds the k stops nearest to the specified position. Fewer stops are
+     * found if the index holds fewer than k.
+     * @param position the position searched from
+     * @param k the number of stops wanted
+     * @param into the array receiving the ids of the stops found, by
+     *        increasing distance
+     * @param distances the array receiving the distances in meters to the
+     *        stops found
+     * @return the number of stops found
+     * @throws IllegalArgumentException if an array or position is null, if k
+     *         is negative or if an array is shorter than k
+     */
+    public int nearest(
+      GeographicPosition position,
+      int k,
+      int[] into,
+      double[] distances
+    ) {
+        if (position == null || into == null || distances == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (k < 0 || into.length < k || distances.length < k)
+            throw new IllegalArgumentException(
+                "k must be positive and fit in the arrays");
+        if (k == 0)
+            return 0;
+        double x = position.getUnitX();
+        double y = position.getUnitY();
+        double z = position.getUnitZ();
+        // into and distances are a max-heap of squared distances while
+        // searching, whose root is the farthest stop kept
+        int found = this.nearestInTree(0, this.treeSize, 0, x, y, z, k, into, distances, 0);
+        for (int id = this.treeSize; id < this.count; id++)
+            found = this.offer(id, x, y, z, k, into, distances, found);
+        // Sorts the heap by increasing distance
+        for (int n = found - 1; n > 0; n--) {
+            int farthest = into[0];
+            double farthestDistance = distances[0];
+            siftDown(into, distances, n, into[n], distances[n]);
+            into[n] = farthest;
+            distances[n] = farthestDistance;
+        }
+        for (int i = 0; i < found; i++)
+            distances[i] = Math.sqrt(distances[i]) * GeographicPosition.EARTH_RADIUS;
+        return found;
+    }
+
+    /**
+     * Finds the stops at most radius meters away from the specified
+     * position, in no particular order.
+     * @param position the center of the search
+     * @param radius the distance in meters
+     * @param into the array receiving the ids of the stops found
+     * @return the number of stops found, which may be greater than the
+     *         length of into, in which case only the first ones are stored
+     * @throws IllegalArgumentException if position or into is null, or if
+     *         radius is negative
+     */
+    public int withinRadius(GeographicPosition position, double radius, int[] into) {
+        if (into == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.withinRadius(position, radius, into, null, into.length);
+    }
+
+    /**
+     * Finds the stops at most radius meters away from the specified
+     * position, in no particular order, with their distances.
+     * @param position the center of the search
+     * @param radius the distance in meters
+     * @param into the array receiving the ids of the stops found
+     * @param distances the array receiving the distances in meters to the
+     *        stops found
+     * @return the number of stops found, which may be greater than the
+     *         length of into or distances, in which case only the first ones
+     *         are stored
+     * @throws IllegalArgumentException if an argument is null, or if radius
+     *         is negative
+     */
+    public int withinRadius(
+      GeographicPosition position,
+      double radius,
+      int[] into,
+      double[] distances
+    ) {
+        if (into == null || distances == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.withinRadius(
+            position, radius, into, distances,
+            Math.min(into.length, distances.length));
+    }
+
+    /**
+     * Finds the stops whose latitude and longitude are within the specified
+     * bounds, in no particular order. If minLongitude is greater than
+     * maxLongitude, the box crosses the antimeridian.
+     * @param minLatitude the southern bound in degrees
+     * @param minLongitude the western bound in degrees
+     * @param maxLatitude the northern bound in degrees
+     * @param maxLongitude the eastern bound in degrees
+     * @param into the array receiving the ids of the stops found
+     * @return the number of stops found, which may be greater than the
+     *         length of into, in which case only the first ones are stored
+     * @throws IllegalArgumentException if into is null, or if minLatitude is
+     *         greater than maxLatitude
+     */
+    public int withinBox(
+      double minLatitude,
+      double minLongitude,
+      double maxLatitude,
+      double maxLongitude,
+      int[] into
+    ) {
+        if (into == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!(minLatitude <= maxLatitude))
+            throw new IllegalArgumentException(
+                "minLatitude can not be greater than maxLatitude");
+        if (minLongitude > maxLongitude) {
+            int found = this.withinBox(minLatitude, minLongitude, maxLatitude, 180.0, into);
+            return this.withinBox(minLatitude, -180.0, maxLatitude, maxLongitude, into, found);
+        }
+        return this.withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude, into, 0);
+    }
+
+    /**
+     * {@return the first Stop added whose position equals the specified one,
+     * or null if there is none}
+     * @param position the position of the wanted stop
+     * @throws IllegalArgumentException if position is null
+     */
+    public Stop findAt(GeographicPosition position) {
+        if (position == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        double lat = position.getLatitude();
+        double lon = position.getLongitude();
+        double x = position.getUnitX();
+        double y = position.getUnitY();
+        double z = position.getUnitZ();
+        int first = this.findAtInTree(0, this.treeSize, 0, x, y, z, lat, lon, NONE);
+        for (int id = this.treeSize; id < this.count; id++)
+            first = this.earlierAt(id, lat, lon, first);
+        return first == NONE ? null : this.stops[first];
+    }
+
+    /**
+     * Adds a stop to this index. If it is already present, does nothing.
+     * @param stop the Stop to add
+     * @return true if stop was added
+     * @throws IllegalArgumentException if stop is null
+     */
+    boolean add(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (this.ids.containsKey(stop))
+            return false;
+        if (this.count == this.stops.length)
+            this.grow(Math.max(16, this.count * 2));
+        int id = this.count++;
+        this.set(id, stop, this.nextRank++);
+        this.ids.put(stop, id);
+        int pending = this.count - this.treeSize;
+        if (pending >= Math.max(MIN_PENDING_FOR_REBUILD, this.treeSize / 4))
+            this.rebuild();
+        return true;
+    }
+
+    /**
+     * Removes a stop from this index.
+     * @param stop the Stop to remove
+     * @return true if stop was in this index
+     * @throws IllegalArgumentException if stop is null
+     */
+    boolean remove(Stop stop) {
+        if (stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        Integer id = this.ids.remove(stop);
+        if (id == null)
+            return false;
+        this.removed[id] = true;
+        this.removedCount++;
+        if (this.removedCount * 2 > this.count)
+            this.rebuild();
+        return true;
+    }
+
+    // Finds the earliest added stop at (lat, lon) among the ids [lo, hi) of
+    // the subtree split on axis, given the earliest one found so far. Equal
+    // positions have equal coordinates on the unit sphere, so only the side
+    // of the query is searched, and both sides when it is on the split
+    private int findAtInTree(
+      int lo,
+      int hi,
+      int axis,
+      double x,
+      double y,
+      double z,
+      double lat,
+      double lon,
+      int first
+    ) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            first = this.earlierAt(mid, lat, lon, first);
+            double diff = coordinate(axis, x, y, z) - this.coordinate(axis, mid);
+            int next = axis == 2 ? 0 : axis + 1;
+            if (diff == 0)
+                first = this.findAtInTree(lo, mid, next, x, y, z, lat, lon, first);
+            if (diff < 0)
+                hi = mid;
+            else
+                lo = mid + 1;
+            axis = next;
+        }
+        return first;
+    }
+
+    // Returns id if it is not removed, is at (lat, lon) and was added before
+    // first, and first otherwise
+    private int earlierAt(int id, double lat, double lon, int first) {
+        if (this.removed[id]
+            || this.latitudes[id] != lat || this.longitudes[id] != lon)
+            return first;
+        return first == NONE || this.ranks[id] < this.ranks[first] ? id : first;
+    }
+
+    // Finds the k nearest stops among the ids [lo, hi) of the subtree split
+    // on axis, into the heap of found stops
+    private int nearestInTree(
+      int lo,
+      int hi,
+      int axis,
+      double x,
+      double y,
+      double z,
+      int k,
+      int[] into,
+      double[] distances,
+      int found
+    ) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            found = this.offer(mid, x, y, z, k, into, distances, found);
+            double diff = coordinate(axis, x, y, z) - this.coordinate(axis, mid);
+            int next = axis == 2 ? 0 : axis + 1;
+            boolean left = diff <= 0;
+            // Searches the side of the query first, then the other side if
+            // it can hold a nearer stop
+            found = left
+                ? this.nearestInTree(lo, mid, next, x, y, z, k, into, distances, found)
+                : this.nearestInTree(mid + 1, hi, next, x, y, z, k, into, distances, found);
+            if (found == k && diff * diff > distances[0])
+                return found;
+            if (left)
+                lo = mid + 1;
+            else
+                hi = mid;
+            axis = next;
+        }
+        return found;
+    }
+
+    // Adds id to the heap of found stops if it is among the k nearest
+    private int offer(
+      int id,
+      double x,
+      double y,
+      double z,
+      int k,
+      int[] into,
+      double[] distances,
+      int found
+    ) {
+        if (this.removed[id])
+            return found;
+        double d = this.squaredDistance(id, x, y, z);
+        if (found < k) {
+            siftUp(into, distances, found, id, d);
+            return found + 1;
+        }
+        if (d < distances[0])
+            siftDown(into, distances, found, id, d);
+        return found;
+    }
+
+    // Finds the stops at most radius meters away, storing at most capacity
+    // of them and their distances if distances is not null
+    private int withinRadius(
+      GeographicPosition position,
+      double radius,
+      int[] into,
+      double[] distances,
+      int capacity
+    ) {
+        if (position == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!(radius >= 0))
+            throw new IllegalArgumentException("Radius can not be negative");
+        double x = position.getUnitX();
+        double y = position.getUnitY();
+        double z = position.getUnitZ();
+        double r = radius / GeographicPosition.EARTH_RADIUS;
+        int found = this.withinRadiusInTree(
+            0, this.treeSize, 0, x, y, z, r * r, into, distances, capacity, 0);
+        for (int id = this.treeSize; id < this.count; id++) {
+            if (this.removed[id])
+                continue;
+            double d = this.squaredDistance(id, x, y, z);
+            if (d <= r * r)
+                found = store(into, distances, capacity, found, id, d);
+        }
+        if (distances != null)
+            for (int i = Math.min(found, capacity) - 1; i >= 0; i--)
+                distances[i] = Math.sqrt(distances[i]) * GeographicPosition.EARTH_RADIUS;
+        return found;
+    }
+
+    // Finds the stops at most the square root of r2 away among the ids
+    // [lo, hi) of the subtree split on axis
+    private int withinRadiusInTree(
+      int lo,
+      int hi,
+      int axis,
+      double x,
+      double y,
+      double z,
+      double r2,
+      int[] into,
+      double[] distances,
+      int capacity,
+      int found
+    ) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (!this.removed[mid]) {
+                double d = this.squaredDistance(mid, x, y, z);
+                if (d <= r2)
+                    found = store(into, distances, capacity, found, mid, d);
+            }
+            double diff = coordinate(axis, x, y, z) - this.coordinate(axis, mid);
+            int next = axis == 2 ? 0 : axis + 1;
+            if (diff <= 0) {
+                if (diff * diff <= r2)
+                    found = this.withinRadiusInTree(
+                        mid + 1, hi, next, x, y, z, r2, into, distances, capacity, found);
+                hi = mid;
+            } else {
+                if (diff * diff <= r2)
+                    found = this.withinRadiusInTree(
+                        lo, mid, next, x, y, z, r2, into, distances, capacity, found);
+                lo = mid + 1;
+            }
+            axis = next;
+        }
+        return found;
+    }
+
+    // Finds the stops in a box that does not cross the antimeridian
+    private int withinBox(
+      double minLatitude,
+      double minLongitude,
+      double maxLatitude,
+      double maxLongitude,
+      int[] into,
+      int found
+    ) {
+        // Bounds of the box on the unit sphere by interval arithmetic on
+        // cos(lat) * cos(lon), cos(lat) * sin(lon) and sin(lat)
+        double latLo = Math.toRadians(minLatitude);
+        double latHi = Math.toRadians(maxLatitude);
+        double lonLo = Math.toRadians(minLongitude);
+        double lonHi = Math.toRadians(maxLongitude);
+        double cosLatMin = Math.min(Math.cos(latLo), Math.cos(latHi));
+        double cosLatMax = latLo <= 0 && latHi >= 0
+            ? 1.0 : Math.max(Math.cos(latLo), Math.cos(latHi));
+        double cosLonMin = Math.min(Math.cos(lonLo), Math.cos(lonHi));
+        double cosLonMax = lonLo <= 0 && lonHi >= 0
+            ? 1.0 : Math.max(Math.cos(lonLo), Math.cos(lonHi));
+        double sinLonMin = lonLo <= -Math.PI / 2 && lonHi >= -Math.PI / 2
+            ? -1.0 : Math.min(Math.sin(lonLo), Math.sin(lonHi));
+        double sinLonMax = lonLo <= Math.PI / 2 && lonHi >= Math.PI / 2
+            ? 1.0 : Math.max(Math.sin(lonLo), Math.sin(lonHi));
+        // A small margin absorbs the rounding of the coordinates
+        final double margin = 1e-12;
+        double minX = productMin(cosLatMin, cosLatMax, cosLonMin, cosLonMax) - margin;
+        double minY = productMin(cosLatMin, cosLatMax, sinLonMin, sinLonMax) - margin;
+        double minZ = Math.sin(latLo) - margin;
+        double maxX = productMax(cosLatMin, cosLatMax, cosLonMin, cosLonMax) + margin;
+        double maxY = productMax(cosLatMin, cosLatMax, sinLonMin, sinLonMax) + margin;
+        double maxZ = Math.sin(latHi) + margin;
+        found = this.withinBoxInTree(
+            0, this.treeSize, 0, minX, minY, minZ, maxX, maxY, maxZ,
+            minLatitude, minLongitude, maxLatitude, maxLongitude, into, found);
+        for (int id = this.treeSize; id < this.count; id++)
+            if (this.isInBox(id, minLatitude, minLongitude, maxLatitude, maxLongitude))
+                found = store(into, found, id);
+        return found;
+    }
+
+    // Finds the stops in the box among the ids [lo, hi) of the subtree split
+    // on axis, pruning with the bounds of the box on the unit sphere
+    private int withinBoxInTree(
+      int lo,
+      int hi,
+      int axis,
+      double minX,
+      double minY,
+      double minZ,
+      double maxX,
+      double maxY,
+      double maxZ,
+      double minLatitude,
+      double minLongitude,
+      double maxLatitude,
+      double maxLongitude,
+      int[] into,
+      int found
+    ) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.isInBox(mid, minLatitude, minLongitude, maxLatitude, maxLongitude))
+                found = store(into, found, mid);
+            double split = this.coordinate(axis, mid);
+            int next = axis == 2 ? 0 : axis + 1;
+            boolean goLeft = coordinate(axis, minX, minY, minZ) <= split;
+            boolean goRight = coordinate(axis, maxX, maxY, maxZ) >= split;
+            if (goLeft && goRight)
+                found = this.withinBoxInTree(
+                    lo, mid, next, minX, minY, minZ, maxX, maxY, maxZ,
+                    minLatitude, minLongitude, maxLatitude, maxLongitude, into, found);
+            if (goRight)
+                lo = mid + 1;
+            else if (goLeft)
+                hi = mid;
+            else
+                break;
+            axis = next;
+        }
+        return found;
+    }
+
+    // Returns true if id is not removed and its position is in the box
+    private boolean isInBox(
+      int id,
+      double minLatitude,
+      double minLongitude,
+      double maxLatitude,
+      double maxLongitude
+    ) {
+        return !this.removed[id]
+            && this.latitudes[id] >= minLatitude && this.latitudes[id] <= maxLatitude
+            && this.longitudes[id] >= minLongitude && this.longitudes[id] <= maxLongitude;
+    }
+
+    // Stores id and its squared distance d at position found if it is below
+    // capacity, and returns the new number of stops found
+    private static int store(
+      int[] into,
+      double[] distances,
+      int capacity,
+      int found,
+      int id,
+      double d
+    ) {
+        if (found < capacity) {
+            into[found] = id;
+            if (distances != null)
+                distances[found] = d;
+        }
+        return found + 1;
+    }
+
+    // Returns the squared distance on the unit sphere from id to (x, y, z)
+    private double squaredDistance(int id, double x, double y, double z) {
+        double dx = this.xs[id] - x;
+        double dy = this.ys[id] - y;
+        double dz = this.zs[id] - z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    // Returns the coordinate of id on axis
+    private double coordinate(int axis, int id) {
+        return axis == 0 ? this.xs[id] : axis == 1 ? this.ys[id] : this.zs[id];
+    }
+
+    // Returns the coordinate of (x, y, z) on axis
+    private static double coordinate(int axis, double x, double y, double z) {
+        return axis == 0 ? x : axis == 1 ? y : z;
+    }
+
+    // Returns the smallest product of a value of [a, b] and one of [c, d]
+    private static double productMin(double a, double b, double c, double d) {
+        return Math.min(Math.min(a * c, a * d), Math.min(b * c, b * d));
+    }
+
+    // Returns the greatest product of a value of [a, b] and one of [c, d]
+    private static double productMax(double a, double b, double c, double d) {
+        return Math.max(Math.max(a * c, a * d), Math.max(b * c, b * d));
+    }
+
+    // Stores id at position found of into if it fits, and returns the new
+    // number of stops found
+    private static int store(int[] into, int found, int id) {
+        if (found < into.length)
+            into[found] = id;
+        return found + 1;
+    }
+
+    // Inserts id at position i of the max-heap and moves it up
+    private static void siftUp(int[] heap, double[] keys, int i, int id, double key) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] >= key)
+                break;
+            heap[i] = heap[parent];
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        heap[i] = id;
+        keys[i] = key;
+    }
+
+    // Replaces the root of the max-heap of size entries by id and moves it
+    // down
+    private static void siftDown(int[] heap, double[] keys, int size, int id, double key) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+            if (child + 1 < size && keys[child + 1] > keys[child])
+                child++;
+            if (keys[child] <= key)
+                break;
+            heap[i] = heap[child];
+            keys[i] = keys[child];
+            i = child;
+        }
+        heap[i] = id;
+        keys[i] = key;
+    }
+
+    // Stores stop, its coordinates and its rank at id
+    private void set(int id, Stop stop, int rank) {
+        GeographicPosition position = stop.getGeographicPosition();
+        this.xs[id] = position.getUnitX();
+        this.ys[id] = position.getUnitY();
+        this.zs[id] = position.getUnitZ();
+        this.latitudes[id] = position.getLatitude();
+        this.longitudes[id] = position.getLongitude();
+        this.stops[id] = stop;
+        this.removed[id] = false;
+        this.ranks[id] = rank;
+    }
+
+    // Sets the capacity of the arrays
+    private void grow(int capacity) {
+        this.xs = Arrays.copyOf(this.xs, capacity);
+        this.ys = Arrays.copyOf(this.ys, capacity);
+        this.zs = Arrays.copyOf(this.zs, capacity);
+        this.latitudes = Arrays.copyOf(this.latitudes, capacity);
+        this.longitudes = Arrays.copyOf(this.longitudes, capacity);
+        this.stops = Arrays.copyOf(this.stops, capacity);
+        this.removed = Arrays.copyOf(this.removed, capacity);
+        this.ranks = Arrays.copyOf(this.ranks, capacity);
+    }
+
+    // Builds the tree again from the stops not removed, keeping their ranks
+    private void rebuild() {
+        int n = 0;
+        for (int id = 0; id < this.count; id++) {
+            if (!this.removed[id]) {
+                this.set(n, this.stops[id], this.ranks[id]);
+                n++;
+            }
+        }
+        Arrays.fill(this.stops, n, this.count, null);
+        this.count = n;
+        this.grow(n);
+        this.arrangeTree();
+    }
+
+    // Builds the tree of the specified distinct stops
+    private void build(List<Stop> distinct) {
+        int n = distinct.size();
+        this.count = 0;
+        this.grow(n);
+        for (Stop stop : distinct)
+            this.set(this.count++, stop, this.nextRank++);
+        this.arrangeTree();
+    }
+
+    // Arranges all the stops in the tree and renumbers them
+    private void arrangeTree() {
+        int n = this.count;
+        this.removedCount = 0;
+        this.treeSize = n;
+        this.arrange(0, n, 0);
+        this.ids.clear();
+        for (int id = 0; id < n; id++)
+            this.ids.put(this.stops[id], id);
+    }
+
+    // Reorders the ids [lo, hi) so that their median on axis is in the
+    // middle, with smaller values before it and greater ones after it, then
+    // does the same on both halves with the next axis
+    private void arrange(int lo, int hi, int axis) {
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            this.select(lo, hi - 1, mid, axis);
+            int next = axis == 2 ? 0 : axis + 1;
+            this.arrange(lo, mid, next);
+            lo = mid + 1;
+            axis = next;
+        }
+    }
+
+    // Moves the id whose value on axis has rank target within [left, right]
+    // to target, with Hoare's selection
+    private void select(int left, int right, int target, int axis) {
+        while (left < right) {
+            double pivot = this.coordinate(axis, (left + right) >>> 1);
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (this.coordinate(axis, i) < pivot) i++;
+                while (this.coordinate(axis, j) > pivot) j--;
+                if (i <= j) {
+                    this.swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (target <= j)
+                right = j;
+            else if (target >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    // Swaps the stops at ids i and j
+    private void swap(int i, int j) {
+        double t = this.xs[i]; this.xs[i] = this.xs[j]; this.xs[j] = t;
+        t = this.ys[i]; this.ys[i] = this.ys[j]; this.ys[j] = t;
+        t = this.zs[i]; this.zs[i] = this.zs[j]; this.zs[j] = t;
+        t = this.latitudes[i]; this.latitudes[i] = this.latitudes[j]; this.latitudes[j] = t;
+        t = this.longitudes[i]; this.longitudes[i] = this.longitudes[j]; this.longitudes[j] = t;
+        Stop s = this.stops[i]; this.stops[i] = this.stops[j]; this.stops[j] = s;
+        boolean r = this.removed[i]; this.removed[i] = this.removed[j]; this.removed[j] = r;
+        int k = this.ranks[i]; this.ranks[i] = this.ranks[j]; this.ranks[j] = k;
+    }
+}
@@ -0,0 +1,567 @@
+package dev.moriamap.model;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The timetable of a TransportNetwork in flat arrays, for timetable-based
+ * routing. Every Variant with departures is a pattern: a sequence of stops
+ * served by trips, one trip per departure from the first Stop, each trip
+ * reaching the next stops after the travel durations of the segments.
+ * <p>
+ *     Stops are identified by their ids in the CompiledGraph of the network
+ *     and times are seconds since midnight of the service day, possibly past
+ *     midnight for trips that end the next day. The times of the trips of a
+ *     pattern are stored trip after trip, ordered by departure, so that a trip
+ *     is read sequentially and trips never overtake each other.
+ * </p>
+ * <p>
+ *     Each trip between two consecutive stops is also an elementary
+ *     connection. Connections are stored in arrays sorted by departure time,
+ *     for algorithms that scan them in a single pass. Trips are numbered
+ *     globally, those of pattern p coming before those of pattern p + 1.
+ * </p>
+ * <p>
+ *     The WalkingSegments of the network are the footpaths of the Timetable,
+ *     walked between two trips, before the first one or after the last one.
+ *     Footpaths are numbered by origin stop, those of stop s coming before
+ *     those of stop s + 1.
+ * </p>
+ * <p>
+ *     A Timetable is immutable: a new one must be built when the network or
+ *     its departures change.
+ * </p>
+ */
+public final class Timetable {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The compiled graph of the network, which gives the stop ids
+    private final CompiledGraph graph;
+
+    // The Variant of each pattern
+    private final Variant[] patternVariants;
+
+    // The stops of pattern p are patternStops[patternStopOffsets[p]] up to
+    // patternStops[patternStopOffsets[p + 1]] excluded
+    private final int[] patternStopOffsets;
+    private final int[] patternStops;
+
+    // The distance travelled from the first stop of its pattern to each
+    // stop, aligned with patternStops
+    private final double[] patternDistances;
+
+    // The number of trips of each pattern
+    private final int[] tripCounts;
+
+    // The times of pattern p start at tripTimes[tripTimeOffsets[p]], the time
+    // of trip t at position i being at offset t * stopCount + i
+    private final int[] tripTimeOffsets;
+    private final int[] tripTimes;
+
+    // The patterns serving stop s are stopPatterns[stopPatternOffsets[s]] up
+    // to stopPatterns[stopPatternOffsets[s + 1]] excluded, and s is at
+    // position stopPatternPositions[i] of stopPatterns[i]
+    private final int[] stopPatternOffsets;
+    private final int[] stopPatterns;
+    private final int[] stopPatternPositions;
+
+    // The global number of the first trip of each pattern, and the pattern of
+    // each trip
+    private final int[] patternFirstTrips;
+    private final int[] tripPatterns;
+
+    // The departure and arrival times, origin and destination stops and
+    // global trip number of each connection, by increasing departure time
+    private final int[] connectionDepartures;
+    private final int[] connectionArrivals;
+    private final int[] connectionSources;
+    private final int[] connectionTargets;
+    private final int[] connectionTrips;
+
+    // The position of the origin of each connection in its pattern
+    private final int[] connectionPositions;
+
+    // The footpaths from stop s are footpathEdges[footpathOffsets[s]] up to
+    // footpathEdges[footpathOffsets[s + 1]] excluded, by Edge id in graph
+    private final int[] footpathOffsets;
+    private final int[] footpathEdges;
+
+    // The footpaths to stop s are incomingFootpaths[incomingFootpathOffsets[s]]
+    // up to incomingFootpaths[incomingFootpathOffsets[s + 1]] excluded
+    private final int[] incomingFootpathOffsets;
+    private final int[] incomingFootpaths;
+
+    private Timetable(
+      CompiledGraph graph,
+      Variant[] patternVariants,
+      int[] patternStopOffsets,
+      int[] patternStops,
+      double[] patternDistances,
+      int[] tripCounts,
+      int[] tripTimeOffsets,
+      int[] tripTimes
+    ) {
+        this.graph = graph;
+        this.patternVariants = patternVariants;
+        this.patternStopOffsets = patternStopOffsets;
+        this.patternStops = patternStops;
+        this.patternDistances = patternDistances;
+        this.tripCounts = tripCounts;
+        this.tripTimeOffsets = tripTimeOffsets;
+        this.tripTimes = tripTimes;
+        int stopCount = graph.getVertexCount();
+        this.stopPatternOffsets = new int[stopCount + 1];
+        for (int stop : patternStops)
+            this.stopPatternOffsets[stop + 1]++;
+        for (int s = 0; s < stopCount; s++)
+            this.stopPatternOffsets[s + 1] += this.stopPatternOffsets[s];
+        this.stopPatterns = new int[patternStops.length];
+        this.stopPatternPositions = new int[patternStops.length];
+        int[] next = Arrays.copyOf(this.stopPatternOffsets, stopCount);
+        for (int p = 0; p < patternVariants.length; p++) {
+            int first = patternStopOffsets[p];
+            for (int i = first; i < patternStopOffsets[p + 1]; i++) {
+                int index = next[patternStops[i]]++;
+                this.stopPatterns[index] = p;
+                this.stopPatternPositions[index] = i - first;
+            }
+        }
+        int patternCount = patternVariants.length;
+        this.patternFirstTrips = new int[patternCount + 1];
+        int connectionCount = 0;
+        for (int p = 0; p < patternCount; p++) {
+            this.patternFirstTrips[p + 1] = this.patternFirstTrips[p] + tripCounts[p];
+            connectionCount += tripCounts[p] * (this.getStopCount(p) - 1);
+        }
+        this.tripPatterns = new int[this.patternFirstTrips[patternCount]];
+        for (int p = 0; p < patternCount; p++)
+            Arrays.fill(this.tripPatterns, this.patternFirstTrips[p],
+                        this.patternFirstTrips[p + 1], p);
+        // Sorts connections by departure, then by creation order, which keeps
+        // the connections of a trip in travel order
+        long[] keys = new long[connectionCount];
+        int[] sources = new int[connectionCount];
+        int[] targets = new int[connectionCount];
+        int[] arrivals = new int[connectionCount];
+        int[] trips = new int[connectionCount];
+        int[] positions = new int[connectionCount];
+        int c = 0;
+        for (int p = 0; p < patternCount; p++) {
+            for (int t = 0; t < tripCounts[p]; t++) {
+                for (int i = 0; i + 1 < this.getStopCount(p); i++) {
+                    keys[c] = ((long) this.getTime(p, t, i) << 32) | c;
+                    sources[c] = this.getStop(p, i);
+                    targets[c] = this.getStop(p, i + 1);
+                    arrivals[c] = this.getTime(p, t, i + 1);
+                    trips[c] = this.patternFirstTrips[p] + t;
+                    positions[c] = i;
+                    c++;
+                }
+            }
+        }
+        Arrays.sort(keys);
+        this.connectionDepartures = new int[connectionCount];
+        this.connectionArrivals = new int[connectionCount];
+        this.connectionSources = new int[connectionCount];
+        this.connectionTargets = new int[connectionCount];
+        this.connectionTrips = new int[connectionCount];
+        this.connectionPositions = new int[connectionCount];
+        for (int i = 0; i < connectionCount; i++) {
+            int index = (int) keys[i];
+            this.connectionDepartures[i] = (int) (keys[i] >>> 32);
+            this.connectionArrivals[i] = arrivals[index];
+            this.connectionSources[i] = sources[index];
+            this.connectionTargets[i] = targets[index];
+            this.connectionTrips[i] = trips[index];
+            this.connectionPositions[i] = positions[index];
+        }
+        this.footpathOffsets = new int[stopCount + 1];
+        int[] footpaths = new int[graph.getEdgeCount()];
+        int footpathCount = 0;
+        for (int s = 0; s < stopCount; s++) {
+            for (int e = graph.firstEdgeOf(s); e < graph.endEdgeOf(s); e++)
+                if (graph.getEdge(e) instanceof WalkingSegment)
+                    footpaths[footpathCount++] = e;
+            this.footpathOffsets[s + 1] = footpathCount;
+        }
+        this.footpathEdges = Arrays.copyOf(footpaths, footpathCount);
+        this.incomingFootpathOffsets = new int[stopCount + 1];
+        for (int edge : this.footpathEdges)
+            this.incomingFootpathOffsets[graph.getTarget(edge) + 1]++;
+        for (int s = 0; s < stopCount; s++)
+            this.incomingFootpathOffsets[s + 1] += this.incomingFootpathOffsets[s];
+        this.incomingFootpaths = new int[footpathCount];
+        next = Arrays.copyOf(this.incomingFootpathOffsets, stopCount);
+        for (int f = 0; f < footpathCount; f++)
+            this.incomingFootpaths[next[graph.getTarget(this.footpathEdges[f])]++] = f;
+    }
+
+    /**
+     * Builds the Timetable of the specified TransportNetwork from the
+     * departures of its variants and from its WalkingSegments. Variants
+     * without departures or segments are left out.
+     * @param network the TransportNetwork whose variants are compiled
+     * @return the Timetable of network
+     * @throws IllegalArgumentException if network is null
+     */
+    public static Timetable of(TransportNetwork network) {
+        if (network == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        CompiledGraph graph = CompiledGraph.of(network);
+        List<Variant> variants = network.getVariants();
+        variants.removeIf(v -> v.getDepartures().isEmpty()
+                               || v.getTransportSegments().isEmpty());
+        int patternCount = variants.size();
+        Variant[] patternVariants = variants.toArray(new Variant[0]);
+        int[] patternStopOffsets = new int[patternCount + 1];
+        int[] tripCounts = new int[patternCount];
+        int[] tripTimeOffsets = new int[patternCount + 1];
+        int[][] stopsOf = new int[patternCount][];
+        int[][] offsetsOf = new int[patternCount][];
+        double[][] distancesOf = new double[patternCount][];
+        for (int p = 0; p < patternCount; p++) {
+            Variant variant = patternVariants[p];
+            List<TransportSegment> segments = variant.getTransportSegments();
+            Map<Vertex, TransportSegment> outgoing = new HashMap<>();
+            for (TransportSegment segment : segments)
+                outgoing.put(segment.getFrom(), segment);
+            int[] stops = new int[segments.size() + 1];
+            int[] offsets = new int[segments.size() + 1];
+            double[] distances = new double[segments.size() + 1];
+            Stop current = variant.getStart();
+            int length = 0;
+            int offset = 0;
+            double distance = 0.0;
+            // Variants have no loop, the bound on length only guards the scan
+            while (length <= segments.size()) {
+                stops[length] = graph.idOf(current);
+                offsets[length] = offset;
+                distances[length++] = distance;
+                TransportSegment segment = outgoing.get(current);
+                if (segment == null)
+                    break;
+                offset += (int) segment.getTravelDuration().getSeconds();
+                distance += segment.getDistance();
+                current = (Stop) segment.getTo();
+            }
+            stopsOf[p] = Arrays.copyOf(stops, length);
+            offsetsOf[p] = offsets;
+            distancesOf[p] = distances;
+            tripCounts[p] = variant.getDepartures().size();
+            patternStopOffsets[p + 1] = patternStopOffsets[p] + length;
+            tripTimeOffsets[p + 1] = tripTimeOffsets[p] + tripCounts[p] * length;
+        }
+        int[] patternStops = new int[patternStopOffsets[patternCount]];
+        double[] patternDistances = new double[patternStops.length];
+        int[] tripTimes = new int[tripTimeOffsets[patternCount]];
+        for (int p = 0; p < patternCount; p++) {
+            int length = stopsOf[p].length;
+            System.arraycopy(stopsOf[p], 0, patternStops, patternStopOffsets[p], length);
+            System.arraycopy(distancesOf[p], 0, patternDistances, patternStopOffsets[p], length);
+            int[] departures = patternVariants[p].getDepartures().stream()
+                .mapToInt(LocalTime::toSecondOfDay)
+                .sorted()
+                .toArray();
+            int base = tripTimeOffsets[p];
+            for (int t = 0; t < departures.length; t++)
+                for (int i = 0; i < length; i++)
+                    tripTimes[base + t * length + i] = departures[t] + offsetsOf[p][i];
+        }
+        return new Timetable(
+            graph,
+            patternVariants,
+            patternStopOffsets,
+            patternStops,
+            patternDistances,
+            tripCounts,
+            tripTimeOffsets,
+            tripTimes
+        );
+    }
+
+    /**
+     * {@return the CompiledGraph of the network, whose vertex ids identify
+     * the stops of this Timetable}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * {@return the number of patterns of this Timetable}
+     */
+    public int getPatternCount() {
+        return this.patternVariants.length;
+    }
+
+    /**
+     * {@return the Variant of the specified pattern}
+     * @param pattern the index of some pattern
+     */
+    public Variant getVariant(int pattern) {
+        return this.patternVariants[pattern];
+    }
+
+    /**
+     * {@return the number of stops of the specified pattern}
+     * @param pattern the index of some pattern
+     */
+    public int getStopCount(int pattern) {
+        return this.patternStopOffsets[pattern + 1]
+            - this.patternStopOffsets[pattern];
+    }
+
+    /**
+     * {@return the id of the stop at the specified position of the specified
+     * pattern}
+     * @param pattern the index of some pattern
+     * @param position the position of the stop, from 0
+     */
+    public int getStop(int pattern, int position) {
+        return this.patternStops[this.patternStopOffsets[pattern] + position];
+    }
+
+    /**
+     * {@return the distance travelled from the first stop of the specified
+     * pattern to the stop at the specified position}
+     * @param pattern the index of some pattern
+     * @param position the position of the stop, from 0
+     */
+    public double getDistance(int pattern, int position) {
+        return this.patternDistances[this.patternStopOffsets[pattern] + position];
+    }
+
+    /**
+     * {@return the number of trips of the specified pattern}
+     * @param pattern the index of some pattern
+     */
+    public int getTripCount(int pattern) {
+        return this.tripCounts[pattern];
+    }
+
+    /**
+     * {@return the time, in seconds since midnight, at which the specified
+     * trip of the specified pattern is at the stop at the specified position}
+     * @param pattern the index of some pattern
+     * @param trip the index of some trip of pattern, by departure
+     * @param position the position of the stop, from 0
+     */
+    public int getTime(int pattern, int trip, int position) {
+        return this.tripTimes[this.tripTimeOffsets[pattern]
+                              + trip * this.getStopCount(pattern) + position];
+    }
+
+    /**
+     * Finds the first trip of the specified pattern that is at the stop at the
+     * specified position at the specified time or later.
+     * @param pattern the index of some pattern
+     * @param position the position of the stop, from 0
+     * @param time a time in seconds since midnight
+     * @return the index of the first trip at the stop at time or later, or -1
+     *         if every trip has left
+     */
+    public int findTrip(int pattern, int position, int time) {
+        int stopCount = this.getStopCount(pattern);
+        int base = this.tripTimeOffsets[pattern] + position;
+        int low = 0;
+        int high = this.tripCounts[pattern];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.tripTimes[base + middle * stopCount] < time)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low == this.tripCounts[pattern] ? -1 : low;
+    }
+
+    /**
+     * {@return the number of trips of all the patterns of this Timetable}
+     */
+    public int getTotalTripCount() {
+        return this.tripPatterns.length;
+    }
+
+    /**
+     * {@return the pattern of the specified trip}
+     * @param trip the global number of some trip
+     */
+    public int getTripPattern(int trip) {
+        return this.tripPatterns[trip];
+    }
+
+    /**
+     * {@return the global number of the specified trip of the specified
+     * pattern}
+     * @param pattern the index of some pattern
+     * @param trip the index of some trip of pattern, by departure
+     */
+    public int getGlobalTrip(int pattern, int trip) {
+        return this.patternFirstTrips[pattern] + trip;
+    }
+
+    /**
+     * {@return the number of connections of this Timetable}
+     */
+    public int getConnectionCount() {
+        return this.connectionDepartures.length;
+    }
+
+    /**
+     * {@return the departure time of the specified connection, in seconds
+     * since midnight}
+     * @param connection the index of some connection, by departure time
+     */
+    public int getConnectionDeparture(int connection) {
+        return this.connectionDepartures[connection];
+    }
+
+    /**
+     * {@return the arrival time of the specified connection, in seconds since
+     * midnight}
+     * @param connection the index of some connection, by departure time
+     */
+    public int getConnectionArrival(int connection) {
+        return this.connectionArrivals[connection];
+    }
+
+    /**
+     * {@return the id of the stop the specified connection leaves from}
+     * @param connection the index of some connection, by departure time
+     */
+    public int getConnectionSource(int connection) {
+        return this.connectionSources[connection];
+    }
+
+    /**
+     * {@return the id of the stop the specified connection goes to}
+     * @param connection the index of some connection, by departure time
+     */
+    public int getConnectionTarget(int connection) {
+        return this.connectionTargets[connection];
+    }
+
+    /**
+     * {@return the global number of the trip of the specified connection}
+     * @param connection the index of some connection, by departure time
+     */
+    public int getConnectionTrip(int connection) {
+        return this.connectionTrips[connection];
+    }
+
+    /**
+     * {@return the position of the stop the specified connection leaves from
+     * in the pattern of its trip}
+     * @param connection the index of some connection, by departure time
+     */
+    public int getConnectionPosition(int connection) {
+        return this.connectionPositions[connection];
+    }
+
+    /**
+     * {@return the index of the first connection leaving at the specified
+     * time or later, getConnectionCount() if there is none}
+     * @param time a time in seconds since midnight
+     */
+    public int firstConnectionFrom(int time) {
+        int low = 0;
+        int high = this.connectionDepartures.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.connectionDepartures[middle] < time)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * {@return the number of footpaths of this Timetable}
+     */
+    public int getFootpathCount() {
+        return this.footpathEdges.length;
+    }
+
+    /**
+     * {@return the WalkingSegment of the specified footpath}
+     * @param footpath the index of some footpath, by origin stop
+     */
+    public WalkingSegment getFootpath(int footpath) {
+        return (WalkingSegment) this.graph.getEdge(this.footpathEdges[footpath]);
+    }
+
+    /**
+     * {@return the id of the stop the specified footpath leaves from}
+     * @param footpath the index of some footpath, by origin stop
+     */
+    public int getFootpathSource(int footpath) {
+        return this.graph.getSource(this.footpathEdges[footpath]);
+    }
+
+    /**
+     * {@return the id of the stop the specified footpath goes to}
+     * @param footpath the index of some footpath, by origin stop
+     */
+    public int getFootpathTarget(int footpath) {
+        return this.graph.getTarget(this.footpathEdges[footpath]);
+    }
+
+    /**
+     * {@return the walking duration of the specified footpath, in seconds}
+     * @param footpath the index of some footpath, by origin stop
+     */
+    public int getFootpathDuration(int footpath) {
+        return this.graph.getDuration(this.footpathEdges[footpath]);
+    }
+
+    /**
+     * {@return the distance walked along the specified footpath}
+     * @param footpath the index of some footpath, by origin stop
+     */
+    public double getFootpathDistance(int footpath) {
+        return this.graph.getDistance(this.footpathEdges[footpath]);
+    }
+
+    // Accessors used by the timetable routers
+
+    int firstPatternOf(int stop) {
+        return this.stopPatternOffsets[stop];
+    }
+
+    int endPatternOf(int stop) {
+        return this.stopPatternOffsets[stop + 1];
+    }
+
+    int getStopPattern(int index) {
+        return this.stopPatterns[index];
+    }
+
+    int getStopPatternPosition(int index) {
+        return this.stopPatternPositions[index];
+    }
+
+    int firstFootpathOf(int stop) {
+        return this.footpathOffsets[stop];
+    }
+
+    int endFootpathOf(int stop) {
+        return this.footpathOffsets[stop + 1];
+    }
+
+    int firstIncomingFootpathOf(int stop) {
+        return this.incomingFootpathOffsets[stop];
+    }
+
+    int endIncomingFootpathOf(int stop) {
+        return this.incomingFootpathOffsets[stop + 1];
+    }
+
+    int getIncomingFootpath(int index) {
+        return this.incomingFootpaths[index];
+    }
+}
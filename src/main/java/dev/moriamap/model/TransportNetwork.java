@@ -1,21 +1,46 @@
 package dev.moriamap.model;
 
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Represents an arbitrary transport network. A TransportNetwork contains
  * Lines. It also contains Stops and TransportSegments which are used for
  * path calculations on the underlying Graph.
+ * <p>
+ *     A TransportNetwork is mutable and not thread-safe: it is meant to be
+ *     built by one thread, then frozen by snapshot() into a NetworkSnapshot
+ *     that any number of threads can query.
+ * </p>
  */
 public final class TransportNetwork extends Graph {
     private final List<Line> lines;
 
+    // The stops of this network by name, kept up to date as stops are added
+    // and removed
+    private final StopNameIndex stopNames;
+
+    // The fuzzy search index of the stops, built on the first search and
+    // then kept up to date
+    private StopSearchIndex stopSearch;
+
+    // The spatial index of the stops, built on the first spatial query and
+    // then kept up to date
+    private StopSpatialIndex stopPositions;
+
     private static final String ERR_NULL_ARG_MESSAGE = "Argument cannot be null";
 
     private TransportNetwork() {
         super();
         this.lines = new ArrayList<>();
+        this.stopNames = StopNameIndex.empty();
+        this.stopSearch = null;
+        this.stopPositions = null;
     }
 
     /**
@@ -33,26 +58,111 @@ public final class TransportNetwork extends Graph {
      */
     public Stop getStopFromPosition(GeographicPosition gp) {
         if (gp == null) throw new IllegalArgumentException(ERR_NULL_ARG_MESSAGE);
-        for (Stop s : this.getStops()) {
-            if (s.getGeographicPosition().equals(gp))
-                return s;
-        }
-        return null;
+        return this.getSpatialIndex().findAt(gp);
+    }
+
+    /**
+     * {@return the k stops nearest to position, by increasing distance}
+     * Fewer stops are returned if the network has fewer than k.
+     * @param position the position searched from
+     * @param k the maximum number of stops returned
+     * @throws IllegalArgumentException if position is null or k is negative
+     */
+    public List<Stop> getNearestStops(GeographicPosition position, int k) {
+        if (k < 0) throw new IllegalArgumentException("k can not be negative");
+        StopSpatialIndex index = this.getSpatialIndex();
+        int[] ids = new int[Math.min(k, index.size())];
+        int found = index.nearest(position, ids.length, ids, new double[ids.length]);
+        List<Stop> res = new ArrayList<>(found);
+        for (int i = 0; i < found; i++)
+            res.add(index.getStop(ids[i]));
+        return res;
+    }
+
+    /**
+     * {@return the stops whose positions are within the specified bounds, in
+     * no particular order}
+     * If minLongitude is greater than maxLongitude, the box crosses the
+     * antimeridian.
+     * @param minLatitude the southern bound in degrees
+     * @param minLongitude the western bound in degrees
+     * @param maxLatitude the northern bound in degrees
+     * @param maxLongitude the eastern bound in degrees
+     * @throws IllegalArgumentException if minLatitude is greater than
+     *         maxLatitude
+     */
+    public List<Stop> getStopsWithin(
+      double minLatitude,
+      double minLongitude,
+      double maxLatitude,
+      double maxLongitude
+    ) {
+        StopSpatialIndex index = this.getSpatialIndex();
+        int[] ids = new int[index.size()];
+        int found = index.withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude, ids);
+        List<Stop> res = new ArrayList<>(found);
+        for (int i = 0; i < found; i++)
+            res.add(index.getStop(ids[i]));
+        return res;
+    }
+
+    /**
+     * {@return the spatial index of the stops of this network}
+     * It is kept up to date as stops are added and removed, which may change
+     * the ids it returns.
+     */
+    public StopSpatialIndex getSpatialIndex() {
+        if (this.stopPositions == null)
+            this.stopPositions = StopSpatialIndex.of(this.getStops());
+        return this.stopPositions;
     }
 
     /**
      * {@return the Stop which has the wanted name in the network,
      * or null if it is not found}
+     * If several stops have this name, the first one added is returned.
      * @param name the name of the wanted stop
      * @throws IllegalArgumentException if name is null
      */
     public Stop getStopByName(String name) {
         if (name == null) throw new IllegalArgumentException(ERR_NULL_ARG_MESSAGE);
-        for (Stop s : this.getStops()) {
-            if (s.getName().equals(name))
-                return s;
-        }
-        return null;
+        return this.stopNames.getFirstStopByName(name);
+    }
+
+    /**
+     * {@return all the stops which have the wanted name in the network, in
+     * the order they were added, or an empty list if there is none}
+     * @param name the name of the wanted stops
+     * @throws IllegalArgumentException if name is null
+     */
+    public List<Stop> getStopsByName(String name) {
+        if (name == null) throw new IllegalArgumentException(ERR_NULL_ARG_MESSAGE);
+        return this.stopNames.getStopsByName(name);
+    }
+
+    /**
+     * {@return the names of stops of the network starting with prefix, in
+     * increasing order and each once, at most limit of them}
+     * @param prefix the start of the wanted names
+     * @param limit the maximum number of names returned
+     * @throws IllegalArgumentException if prefix is null or limit is negative
+     */
+    public List<String> completeStopName(String prefix, int limit) {
+        return this.stopNames.complete(prefix, limit);
+    }
+
+    /**
+     * {@return the stops whose names are the most similar to query, by
+     * decreasing similarity, ignoring case, accents and punctuation}
+     * See StopSearchIndex for how names are compared.
+     * @param query the name searched
+     * @param k the maximum number of stops returned
+     * @throws IllegalArgumentException if query is null or k is negative
+     */
+    public List<StopMatch> searchStops(String query, int k) {
+        if (this.stopSearch == null)
+            this.stopSearch = StopSearchIndex.of(this.getStops());
+        return this.stopSearch.search(query, k);
     }
 
     /**
@@ -95,6 +205,17 @@ public final class TransportNetwork extends Graph {
         return transportSegments;
     }
 
+    /**
+     * {@return all the walking segments of this TransportNetwork}
+     */
+    public List<WalkingSegment> getWalkingSegments() {
+        List<WalkingSegment> walkingSegments = new ArrayList<>();
+        for (Edge e : this.getEdges())
+            if (e instanceof WalkingSegment walkingSegment)
+                walkingSegments.add(walkingSegment);
+        return walkingSegments;
+    }
+
     /**
      * Add a line to the TransportNetwork.
      * @return true if added, false if already present
@@ -104,7 +225,10 @@ public final class TransportNetwork extends Graph {
     public boolean addLine(Line line) {
         if (line == null) throw new IllegalArgumentException(ERR_NULL_ARG_MESSAGE);
         if (lines.contains(line)) return false;
-        return lines.add(line);
+        lines.add(line);
+        line.addOwner(this);
+        this.modified();
+        return true;
     }
 
     /**
@@ -114,7 +238,7 @@ public final class TransportNetwork extends Graph {
      */
     public Stop findStop(Stop stop) {
         if (stop == null) throw new IllegalArgumentException(ERR_NULL_ARG_MESSAGE);
-        for (Stop s : this.getStops())
+        for (Stop s : this.stopNames.getStopsByName(stop.getName()))
             if (s.equals(stop))
                 return s;
         return null;
@@ -150,4 +274,180 @@ public final class TransportNetwork extends Graph {
     public void addTransportSegment(TransportSegment transportSegment) {
         this.addEdge(transportSegment);
     }
+
+    /**
+     * Add a WalkingSegment to this TransportNetwork. This will actually add
+     * an Edge to the Graph.
+     * @param walkingSegment the WalkingSegment to add
+     * @throws IllegalArgumentException if walkingSegment is null
+     */
+    public void addWalkingSegment(WalkingSegment walkingSegment) {
+        this.addEdge(walkingSegment);
+    }
+
+    /**
+     * Removes a WalkingSegment from this TransportNetwork.
+     * @return true if removed, false if absent
+     * @param walkingSegment the WalkingSegment to remove
+     * @throws IllegalArgumentException if walkingSegment is null
+     */
+    public boolean removeWalkingSegment(WalkingSegment walkingSegment) {
+        return this.removeEdge(walkingSegment);
+    }
+
+    @Override protected void addVertex(Vertex vertex) {
+        boolean isNewStop = vertex != null && vertex.getClass() == Stop.class
+                            && !this.contains(vertex);
+        super.addVertex(vertex);
+        if (isNewStop) {
+            this.stopNames.add((Stop) vertex);
+            if (this.stopSearch != null)
+                this.stopSearch.add((Stop) vertex);
+            if (this.stopPositions != null)
+                this.stopPositions.add((Stop) vertex);
+        }
+    }
+
+    @Override protected boolean removeVertex(Vertex vertex) {
+        if (!super.removeVertex(vertex))
+            return false;
+        if (vertex.getClass() == Stop.class) {
+            this.stopNames.remove((Stop) vertex);
+            if (this.stopSearch != null)
+                this.stopSearch.remove((Stop) vertex);
+            if (this.stopPositions != null)
+                this.stopPositions.remove((Stop) vertex);
+        }
+        return true;
+    }
+
+    /**
+     * Removes a Line from the TransportNetwork.
+     * @return true if removed, false if absent
+     * @param line the Line to remove
+     * @throws IllegalArgumentException if line is null
+     */
+    public boolean removeLine(Line line) {
+        if (line == null) throw new IllegalArgumentException(ERR_NULL_ARG_MESSAGE);
+        int index = lines.indexOf(line);
+        if (index < 0) return false;
+        lines.remove(index).removeOwner(this);
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Removes a Stop and the transport segments from and to it from this
+     * TransportNetwork. The variants of the lines are left unchanged.
+     * @return true if removed, false if absent
+     * @param stop the Stop to remove
+     * @throws IllegalArgumentException if stop is null
+     */
+    public boolean removeStop(Stop stop) {
+        return this.removeVertex(stop);
+    }
+
+    /**
+     * Removes a TransportSegment from this TransportNetwork. The variants of
+     * the lines are left unchanged.
+     * @return true if removed, false if absent
+     * @param transportSegment the TransportSegment to remove
+     * @throws IllegalArgumentException if transportSegment is null
+     */
+    public boolean removeTransportSegment(TransportSegment transportSegment) {
+        return this.removeEdge(transportSegment);
+    }
+
+    /**
+     * {@return the transport segments of the variants of this
+     * TransportNetwork as EdgeTuples, from which TransportNetworkParser
+     * rebuilds an equivalent network}
+     */
+    public List<EdgeTuple> toEdgeTuples() {
+        Set<Variant> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<EdgeTuple> tuples = new ArrayList<>();
+        for (Line line : this.lines) {
+            for (Variant variant : line.getVariants()) {
+                if (!seen.add(variant)) continue;
+                for (TransportSegment segment : variant.getTransportSegments())
+                    tuples.add(toEdgeTuple(segment));
+            }
+        }
+        return tuples;
+    }
+
+    // Returns the EdgeTuple describing segment
+    private static EdgeTuple toEdgeTuple(TransportSegment segment) {
+        Stop from = (Stop) segment.getFrom();
+        Stop to = (Stop) segment.getTo();
+        GeographicPosition fromPosition = from.getGeographicPosition();
+        GeographicPosition toPosition = to.getGeographicPosition();
+        return new EdgeTuple(
+            from.getName(),
+            fromPosition.getLongitude(),
+            fromPosition.getLatitude(),
+            to.getName(),
+            toPosition.getLongitude(),
+            toPosition.getLatitude(),
+            segment.getLineName(),
+            segment.getVariantName(),
+            segment.getTravelDuration(),
+            segment.getDistance());
+    }
+
+    /**
+     * {@return an immutable, thread-safe copy of the current state of this
+     * TransportNetwork}
+     * Later changes to this TransportNetwork do not affect the snapshot.
+     */
+    public NetworkSnapshot snapshot() {
+        return new NetworkSnapshot(this.copy(), this.getModificationCount());
+    }
+
+    /**
+     * {@return a new TransportNetwork with the same stops, transport segments
+     * and lines as this one}
+     * The lines and their variants are copied too, so that changes to either
+     * network do not affect the other.
+     */
+    TransportNetwork copy() {
+        TransportNetwork copy = new TransportNetwork();
+        for (Vertex v : this.getVertices())
+            copy.addVertex(v);
+        for (Edge e : this.getEdges())
+            copy.addEdge(e);
+        for (Line line : this.copyLines()) {
+            copy.lines.add(line);
+            line.addOwner(copy);
+        }
+        return copy;
+    }
+
+    /**
+     * {@return copies of the lines of this TransportNetwork and of their
+     * variants}
+     * A variant shared by several lines is copied once and stays shared.
+     */
+    List<Line> copyLines() {
+        Map<Variant, Variant> variantCopies = new IdentityHashMap<>();
+        List<Line> copies = new ArrayList<>(this.lines.size());
+        for (Line line : this.lines) {
+            Line copy = Line.of(line.getName());
+            for (Variant variant : line.getVariants())
+                copy.addVariant(variantCopies.computeIfAbsent(
+                    variant, TransportNetwork::copyOf));
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    // Returns a copy of variant with the same segments and departures
+    private static Variant copyOf(Variant variant) {
+        Variant copy = Variant.empty(variant.getName(), variant.getLineName());
+        for (TransportSegment segment : variant.getTransportSegments())
+            copy.addTransportSegment(segment);
+        for (LocalTime departure : variant.getDepartures())
+            copy.addDeparture(departure);
+        return copy;
+    }
 }
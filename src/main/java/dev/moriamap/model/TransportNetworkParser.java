@@ -19,22 +19,32 @@ public class TransportNetworkParser {
         TransportNetwork tn = TransportNetwork.empty();
 
         for(EdgeTuple t : tuples){
-            
-            Stop s1 = generateStop(tn,t.fromName(), t.fromLatitude(), t.fromLongitude());
-            Stop s2 = generateStop(tn,t.toName(), t.toLatitude(), t.toLongitude());
+            addEdgeTuple(tn, t);
+        }
 
-            Line l = generateLine(t,tn);
+        return tn;
+    }
 
-            Variant v = generateVariant(l, t);
+    /**
+     * Adds the transport segment described by an EdgeTuple to a TransportNetwork,
+     * with its stops, its Line and its Variant if they are not already present
+     * @param tn the TransportNetwork
+     * @param t the EdgeTuple to add
+     * @return the TransportSegment added
+     */
+    static TransportSegment addEdgeTuple(TransportNetwork tn, EdgeTuple t){
+        Stop s1 = generateStop(tn,t.fromName(), t.fromLatitude(), t.fromLongitude());
+        Stop s2 = generateStop(tn,t.toName(), t.toLatitude(), t.toLongitude());
 
+        Line l = generateLine(t,tn);
 
-            TransportSegment segment = TransportSegment.from(s1, s2, t.lineName(), t.variantName(), t.duration(),t.distance());
-            tn.addTransportSegment(segment);
-            v.addTransportSegment(segment);
+        Variant v = generateVariant(l, t);
 
-        }
 
-        return tn;
+        TransportSegment segment = TransportSegment.from(s1, s2, t.lineName(), t.variantName(), t.duration(),t.distance());
+        tn.addTransportSegment(segment);
+        v.addTransportSegment(segment);
+        return segment;
     }
 
     /**
@@ -47,6 +57,27 @@ public class TransportNetworkParser {
         List<EdgeTuple> tuples = EdgeTuple.fromTuples(CSVParser.extractLines(transportNetworkFileContent));
         return generateFromEdgeTuple(tuples);
     }
+
+    /**
+     * Produces the TransportNetwork of a csv file like generateFrom(InputStream), then adds
+     * the WalkingSegments generated by transfers between its nearby stops
+     * @param transportNetworkFileContent the stream to the data csv file
+     * @param transfers the WalkingTransfers generating the WalkingSegments
+     * @throws InconsistentCSVException if the csv file is not a valid network
+     * @throws IllegalArgumentException if transfers is null
+     * @return a TransportNetwork corrsponding to the network given in argument, with its WalkingSegments
+     */
+    public static TransportNetwork generateFrom(
+      InputStream transportNetworkFileContent,
+      WalkingTransfers transfers
+    ) throws InconsistentCSVException {
+        if (transfers == null)
+            throw new IllegalArgumentException("Argument can not be null");
+        TransportNetwork tn = generateFrom(transportNetworkFileContent);
+        transfers.addTo(tn);
+        return tn;
+    }
+
     /**
      * @param l the Line that contains the Variant
      * @param t the actual EdgeTuple that we are browsing
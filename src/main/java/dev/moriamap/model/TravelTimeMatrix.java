@@ -0,0 +1,323 @@
+package dev.moriamap.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The shortest travel times in seconds between all the pairs of vertices of a
+ * CompiledGraph, following the durations of its edges.
+ * <p>
+ *     Each row is filled by a one-to-all Dijkstra search from its vertex, and
+ *     the rows are spread over the threads of a ForkJoinPool. Each thread
+ *     reuses its own search state, so filling a row allocates nothing.
+ * </p>
+ * <p>
+ *     The matrix is stored outside of the heap, either in direct buffers or
+ *     in a memory-mapped file, as row-major big-endian 32-bit ints. That is
+ *     also the format of the raw binary export, which has no header: the
+ *     travel time from vertex i to vertex j is the int at index
+ *     i * size + j, UNREACHABLE if j can not be reached from i. Rows are
+ *     grouped in chunks of at most 1 GiB since a buffer can not hold more
+ *     than 2 GiB.
+ * </p>
+ */
+public final class TravelTimeMatrix {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    /**
+     * The travel time between two vertices when the second can not be
+     * reached from the first.
+     */
+    public static final int UNREACHABLE = -1;
+
+    // The maximum size in bytes of a chunk of rows
+    private static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    // The number of rows below which a task fills its rows itself
+    private static final int ROWS_PER_TASK = 8;
+
+    // The search state of a thread filling rows
+    private static final class Workspace {
+        private final int[] times;
+        private final int[] reachedIn;
+        private final IndexedMinHeap heap;
+        private int generation;
+
+        private Workspace(int vertexCount) {
+            this.times = new int[vertexCount];
+            this.reachedIn = new int[vertexCount];
+            this.heap = IndexedMinHeap.withCapacity(vertexCount);
+            this.generation = 0;
+        }
+    }
+
+    // The graph whose vertices are the rows and columns of this matrix
+    private final CompiledGraph graph;
+
+    // The number of rows and columns
+    private final int size;
+
+    // The number of rows of each chunk, the last one maybe excepted
+    private final int rowsPerChunk;
+
+    // The chunks of rows, as bytes for the export and as ints for access
+    private final ByteBuffer[] chunks;
+    private final IntBuffer[] intChunks;
+
+    private TravelTimeMatrix(
+      CompiledGraph graph,
+      FileChannel channel,
+      int rowsPerChunk
+    ) throws IOException {
+        this.graph = graph;
+        this.size = graph.getVertexCount();
+        this.rowsPerChunk = rowsPerChunk;
+        int chunkCount = (this.size + rowsPerChunk - 1) / rowsPerChunk;
+        this.chunks = new ByteBuffer[chunkCount];
+        this.intChunks = new IntBuffer[chunkCount];
+        long rowBytes = (long) this.size * Integer.BYTES;
+        for (int i = 0; i < chunkCount; i++) {
+            int rows = Math.min(rowsPerChunk, this.size - i * rowsPerChunk);
+            long bytes = rows * rowBytes;
+            this.chunks[i] = channel == null
+                ? ByteBuffer.allocateDirect((int) bytes)
+                : channel.map(FileChannel.MapMode.READ_WRITE,
+                              i * rowsPerChunk * rowBytes, bytes);
+            this.intChunks[i] = this.chunks[i].asIntBuffer();
+        }
+    }
+
+    /**
+     * Computes the travel time matrix of the specified graph in direct
+     * buffers with the common ForkJoinPool.
+     * @param graph the graph whose travel times are computed
+     * @return the travel time matrix of graph
+     * @throws IllegalArgumentException if graph is null
+     */
+    public static TravelTimeMatrix of(CompiledGraph graph) {
+        return of(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Computes the travel time matrix of the specified graph in direct
+     * buffers with the specified ForkJoinPool.
+     * @param graph the graph whose travel times are computed
+     * @param pool the pool whose threads fill the rows
+     * @return the travel time matrix of graph
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public static TravelTimeMatrix of(CompiledGraph graph, ForkJoinPool pool) {
+        if (graph == null || pool == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        try {
+            return compute(graph, pool, null, rowsPerChunkOf(graph));
+        } catch (IOException e) {
+            // Direct buffers do no I/O
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Computes the travel time matrix of the specified graph in a file mapped
+     * in memory, with the specified ForkJoinPool. The file is created or
+     * replaced, and holds the raw binary export of the matrix once computed.
+     * @param graph the graph whose travel times are computed
+     * @param pool the pool whose threads fill the rows
+     * @param file the file in which the matrix is stored
+     * @return the travel time matrix of graph
+     * @throws IllegalArgumentException if an argument is null
+     * @throws IOException if the file can not be created or mapped
+     */
+    public static TravelTimeMatrix mapped(
+      CompiledGraph graph,
+      ForkJoinPool pool,
+      Path file
+    ) throws IOException {
+        if (graph == null || pool == null || file == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        try (FileChannel channel = FileChannel.open(
+                 file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                 StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            return compute(graph, pool, channel, rowsPerChunkOf(graph));
+        }
+    }
+
+    // Allocates the matrix in direct buffers, or in the file of channel if it
+    // is not null, and fills its rows with the threads of pool. The search
+    // state of each thread lives only as long as the computation, so that it
+    // is not kept by the threads of pool afterwards
+    static TravelTimeMatrix compute(
+      CompiledGraph graph,
+      ForkJoinPool pool,
+      FileChannel channel,
+      int rowsPerChunk
+    ) throws IOException {
+        TravelTimeMatrix matrix = new TravelTimeMatrix(graph, channel, rowsPerChunk);
+        ThreadLocal<Workspace> workspaces =
+            ThreadLocal.withInitial(() -> new Workspace(matrix.size));
+        pool.invoke(matrix.new RowTask(workspaces, 0, matrix.size));
+        if (channel != null)
+            channel.force(false);
+        return matrix;
+    }
+
+    // Returns the number of rows of a chunk of the matrix of graph
+    private static int rowsPerChunkOf(CompiledGraph graph) {
+        long rowBytes = Math.max(1L, (long) graph.getVertexCount() * Integer.BYTES);
+        return (int) Math.max(1L, MAX_CHUNK_BYTES / rowBytes);
+    }
+
+    // Fills a range of rows, splitting it between subtasks if it is large
+    private final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // The search state of each thread filling rows
+        private final transient ThreadLocal<Workspace> workspaces;
+
+        private final int first;
+        private final int end;
+
+        private RowTask(ThreadLocal<Workspace> workspaces, int first, int end) {
+            this.workspaces = workspaces;
+            this.first = first;
+            this.end = end;
+        }
+
+        @Override protected void compute() {
+            if (this.end - this.first <= ROWS_PER_TASK) {
+                Workspace workspace = this.workspaces.get();
+                for (int row = this.first; row < this.end; row++)
+                    TravelTimeMatrix.this.fillRow(row, workspace);
+                return;
+            }
+            int middle = (this.first + this.end) >>> 1;
+            invokeAll(new RowTask(this.workspaces, this.first, middle),
+                      new RowTask(this.workspaces, middle, this.end));
+        }
+    }
+
+    // Runs Dijkstra's algorithm from src over every reachable vertex and
+    // writes the travel times to the row of src
+    private void fillRow(int src, Workspace workspace) {
+        if (workspace.generation == Integer.MAX_VALUE) {
+            Arrays.fill(workspace.reachedIn, 0);
+            workspace.generation = 0;
+        }
+        int generation = ++workspace.generation;
+        int[] times = workspace.times;
+        int[] reachedIn = workspace.reachedIn;
+        IndexedMinHeap heap = workspace.heap;
+        heap.clear();
+        times[src] = 0;
+        reachedIn[src] = generation;
+        heap.insertOrDecrease(src, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int end = this.graph.endEdgeOf(u);
+            for (int e = this.graph.firstEdgeOf(u); e < end; e++) {
+                int v = this.graph.getTarget(e);
+                int time = times[u] + this.graph.getDuration(e);
+                if (reachedIn[v] != generation || time < times[v]) {
+                    times[v] = time;
+                    reachedIn[v] = generation;
+                    heap.insertOrDecrease(v, time);
+                }
+            }
+        }
+        IntBuffer chunk = this.intChunks[src / this.rowsPerChunk];
+        int base = (src % this.rowsPerChunk) * this.size;
+        for (int v = 0; v < this.size; v++)
+            chunk.put(base + v, reachedIn[v] == generation ? times[v] : UNREACHABLE);
+    }
+
+    /**
+     * {@return the graph whose vertices are the rows and columns of this
+     * matrix}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * {@return the number of rows and columns of this matrix}
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the travel time between the vertices whose ids are src and dst.
+     * @param src the id of the source vertex
+     * @param dst the id of the destination vertex
+     * @return the travel time in seconds, UNREACHABLE if dst can not be
+     *         reached from src
+     * @throws IndexOutOfBoundsException if src or dst is not a vertex id
+     */
+    public int get(int src, int dst) {
+        if (src < 0 || src >= this.size)
+            throw new IndexOutOfBoundsException(src);
+        if (dst < 0 || dst >= this.size)
+            throw new IndexOutOfBoundsException(dst);
+        return this.intChunks[src / this.rowsPerChunk].get(
+            (src % this.rowsPerChunk) * this.size + dst);
+    }
+
+    /**
+     * Returns the travel time between the specified vertices.
+     * @param src the source vertex
+     * @param dst the destination vertex
+     * @return the travel time in seconds, UNREACHABLE if dst can not be
+     *         reached from src
+     * @throws IllegalArgumentException if src or dst is null
+     * @throws java.util.NoSuchElementException if src or dst is not in the
+     *         graph
+     */
+    public int get(Vertex src, Vertex dst) {
+        if (src == null || dst == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.get(this.graph.idOf(src), this.graph.idOf(dst));
+    }
+
+    /**
+     * Writes the raw binary export of this matrix to the specified file,
+     * which is created or replaced.
+     * @param file the file to write
+     * @throws IllegalArgumentException if file is null
+     * @throws IOException if the file can not be written
+     */
+    public void writeTo(Path file) throws IOException {
+        if (file == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        try (FileChannel channel = FileChannel.open(
+                 file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                 StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.writeTo(channel);
+        }
+    }
+
+    /**
+     * Writes the raw binary export of this matrix to the specified channel.
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if channel is null
+     * @throws IOException if the channel can not be written
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        if (channel == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        for (ByteBuffer chunk : this.chunks) {
+            ByteBuffer bytes = chunk.duplicate();
+            bytes.clear();
+            while (bytes.hasRemaining())
+                channel.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package dev.moriamap.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The outcome of a traversal of a CompiledGraph: its source and the edge that
+ * led to each vertex it reached, in an int array indexed by vertex id.
+ * <p>
+ *     A route from the source is rebuilt by following parent edges back from
+ *     its destination, in time proportional to its length. asMap() views the
+ *     parent edges as the map returned by Graph.depthFirstSearch, without
+ *     copying them.
+ * </p>
+ */
+public final class TraversalResult {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    // The parent edge of the vertices that were not reached
+    private static final int UNREACHED = -2;
+
+    // The graph that was traversed
+    private final CompiledGraph graph;
+
+    // The id of the source of the traversal
+    private final int source;
+
+    // The edge that led to each vertex, GraphTraversal.NONE for the source
+    // and UNREACHED for the vertices not reached
+    private final int[] parentEdges;
+
+    // The number of vertices reached, the source included
+    private final int reachedCount;
+
+    // The Map view of the parent edges, created on first use
+    private Map<Vertex, Edge> mapView;
+
+    private TraversalResult(
+      CompiledGraph graph,
+      int source,
+      int[] parentEdges,
+      int reachedCount
+    ) {
+        this.graph = graph;
+        this.source = source;
+        this.parentEdges = parentEdges;
+        this.reachedCount = reachedCount;
+        this.mapView = null;
+    }
+
+    /**
+     * {@return the result of the last traversal run by the specified
+     * GraphTraversal}
+     * @param traversal a GraphTraversal that ran at least one traversal
+     * @throws IllegalArgumentException if traversal is null or never ran
+     */
+    public static TraversalResult of(GraphTraversal traversal) {
+        if (traversal == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (traversal.getSource() == GraphTraversal.NONE)
+            throw new IllegalArgumentException("No traversal was run");
+        CompiledGraph graph = traversal.getGraph();
+        int[] parentEdges = new int[graph.getVertexCount()];
+        int reachedCount = 0;
+        for (int v = 0; v < parentEdges.length; v++) {
+            if (traversal.isVisited(v)) {
+                parentEdges[v] = traversal.getParentEdge(v);
+                reachedCount++;
+            } else {
+                parentEdges[v] = UNREACHED;
+            }
+        }
+        return new TraversalResult(
+            graph, traversal.getSource(), parentEdges, reachedCount);
+    }
+
+    /**
+     * {@return the graph that was traversed}
+     */
+    public CompiledGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * {@return the source Vertex of the traversal}
+     */
+    public Vertex getSource() {
+        return this.graph.getVertex(this.source);
+    }
+
+    /**
+     * {@return the number of vertices reached, the source included}
+     */
+    public int getReachedCount() {
+        return this.reachedCount;
+    }
+
+    /**
+     * {@return true if the vertex whose id is vertex was reached}
+     * @param vertex the id of a vertex of the graph
+     */
+    public boolean isReached(int vertex) {
+        return this.parentEdges[vertex] != UNREACHED;
+    }
+
+    /**
+     * {@return true if the specified vertex is in the graph and was reached}
+     * @param vertex a vertex
+     * @throws IllegalArgumentException if vertex is null
+     */
+    public boolean isReached(Vertex vertex) {
+        if (vertex == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        return this.graph.contains(vertex) && this.isReached(this.graph.idOf(vertex));
+    }
+
+    /**
+     * Returns the id of the edge that led to the vertex whose id is vertex.
+     * @param vertex the id of a vertex of the graph
+     * @return the id of the edge that led to vertex, GraphTraversal.NONE for
+     *         the source
+     * @throws NoSuchElementException if vertex was not reached
+     */
+    public int getParentEdge(int vertex) {
+        if (!this.isReached(vertex))
+            throw new NoSuchElementException("Vertex was not reached");
+        return this.parentEdges[vertex];
+    }
+
+    /**
+     * Returns the edges leading from the source to the specified vertex, in
+     * time proportional to their number.
+     * @param dst the destination Vertex
+     * @return the edges of the route from the source to dst, empty if dst is
+     *         the source
+     * @throws IllegalArgumentException if dst is null
+     * @throws NoSuchElementException if dst was not reached
+     */
+    public List<Edge> getRouteTo(Vertex dst) {
+        if (dst == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        if (!this.isReached(dst))
+            throw new NoSuchElementException("Destination was not reached");
+        List<Edge> route = new ArrayList<>();
+        for (int v = this.graph.idOf(dst); v != this.source; ) {
+            int edge = this.parentEdges[v];
+            route.add(this.graph.getEdge(edge));
+            v = this.graph.getSource(edge);
+        }
+        Collections.reverse(route);
+        return route;
+    }
+
+    /**
+     * {@return an unmodifiable view of the parent edges as a map associating
+     * each reached Vertex but the source to the Edge that led to it}
+     * Lookups take constant time and iteration scans the parent edges.
+     */
+    public Map<Vertex, Edge> asMap() {
+        if (this.mapView == null)
+            this.mapView = new ParentMap();
+        return this.mapView;
+    }
+
+    // The Map view of the parent edges
+    private final class ParentMap extends AbstractMap<Vertex, Edge> {
+        private Set<Map.Entry<Vertex, Edge>> entries;
+
+        @Override public int size() {
+            return TraversalResult.this.reachedCount - 1;
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return this.idOf(key) >= 0;
+        }
+
+        @Override public Edge get(Object key) {
+            int v = this.idOf(key);
+            return v < 0 ? null : graph.getEdge(parentEdges[v]);
+        }
+
+        @Override public Edge remove(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override public Set<Map.Entry<Vertex, Edge>> entrySet() {
+            if (this.entries == null)
+                this.entries = new AbstractSet<>() {
+                    @Override public int size() {
+                        return ParentMap.this.size();
+                    }
+
+                    @Override public Iterator<Map.Entry<Vertex, Edge>> iterator() {
+                        return new EntryIterator();
+                    }
+                };
+            return this.entries;
+        }
+
+        // Returns the id of key if it is a reached vertex but the source, -1
+        // otherwise
+        private int idOf(Object key) {
+            if (!(key instanceof Vertex vertex) || !graph.contains(vertex))
+                return -1;
+            int v = graph.idOf(vertex);
+            return v == source || parentEdges[v] == UNREACHED ? -1 : v;
+        }
+    }
+
+    // Iterates over the reached vertices but the source, by id
+    private final class EntryIterator implements Iterator<Map.Entry<Vertex, Edge>> {
+        private int next = this.advance(0);
+
+        // Returns the first reached vertex but the source from v
+        private int advance(int v) {
+            while (v < parentEdges.length
+                   && (v == source || parentEdges[v] == UNREACHED))
+                v++;
+            return v;
+        }
+
+        @Override public boolean hasNext() {
+            return this.next < parentEdges.length;
+        }
+
+        @Override public Map.Entry<Vertex, Edge> next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            int v = this.next;
+            this.next = this.advance(v + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(
+                graph.getVertex(v), graph.getEdge(parentEdges[v]));
+        }
+    }
+}
@@ -2,7 +2,10 @@ package dev.moriamap.model;
 
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.NoSuchElementException;
 import java.time.Duration;
 
@@ -34,6 +37,11 @@ public final class Variant {
      */
     private List<LocalTime> departures;
 
+    /**
+     * The Lines holding this Variant, told of its changes.
+     */
+    private final Set<Line> owners;
+
     /**
      * Class constructor specifying variant name and owner line name
      * @param name the name of this Variant
@@ -44,6 +52,7 @@ public final class Variant {
         this.lineName = lineName;
         this.transportSegments = new ArrayList<>();
         this.departures = new ArrayList<>();
+        this.owners = Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
     /**
@@ -117,7 +126,24 @@ public final class Variant {
             throw new IllegalArgumentException("Line name or Variant nane don't correspond");
         if (this.transportSegments.contains(ts))
             return false;
-        return this.transportSegments.add(ts);
+        this.transportSegments.add(ts);
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Removes the given TransportSegment from our TransportSegments list.
+     * @param ts TransportSegment to be removed
+     * @return true if the given transport segment was removed
+     * @throws IllegalArgumentException if the TransportSegment is Null
+     */
+    public boolean removeTransportSegment(TransportSegment ts){
+        if (ts == null)
+            throw new IllegalArgumentException("Null TransportSegment is not allowed");
+        if (!this.transportSegments.remove(ts))
+            return false;
+        this.modified();
+        return true;
     }
 
     /**
@@ -131,7 +157,47 @@ public final class Variant {
             throw new IllegalArgumentException(NULL_ARG_ERR_MSG);
         if (this.departures.contains(departure))
             return false;
-        return this.departures.add(departure);
+        this.departures.add(departure);
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Removes the given departure from this Variant.
+     * @param departure the departure to be removed
+     * @return true if the given departure was removed
+     * @throws IllegalArgumentException if departure is null
+     */
+    public boolean removeDeparture(LocalTime departure){
+        if (departure == null)
+            throw new IllegalArgumentException(NULL_ARG_ERR_MSG);
+        if (!this.departures.remove(departure))
+            return false;
+        this.modified();
+        return true;
+    }
+
+    /**
+     * Registers a Line holding this Variant, so that the networks of the
+     * Line see the later changes of this Variant.
+     * @param line the Line holding this Variant
+     */
+    void addOwner(Line line) {
+        this.owners.add(line);
+    }
+
+    /**
+     * Unregisters a Line that no longer holds this Variant.
+     * @param line the Line that held this Variant
+     */
+    void removeOwner(Line line) {
+        this.owners.remove(line);
+    }
+
+    // Tells the Lines holding this Variant that it changed
+    private void modified() {
+        for (Line line : this.owners)
+            line.modified();
     }
 
     /**
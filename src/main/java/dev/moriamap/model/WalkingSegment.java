@@ -0,0 +1,103 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+
+/**
+ * A WalkingSegment is an Edge of our Graph between two nearby stops, walked
+ * instead of traveled on a line. It lets routes transfer between stops
+ * that are not at the same position.
+ */
+public final class WalkingSegment extends Edge {
+
+    /** The walking duration of this WalkingSegment */
+    private final Duration walkingDuration;
+
+    /** The distance of this WalkingSegment */
+    private final double distance;
+
+    private WalkingSegment(Stop from, Stop to, Duration walkingDuration, double distance) {
+        super(from, to);
+        this.walkingDuration = walkingDuration;
+        this.distance = distance;
+    }
+
+    /**
+     * Static factory method returning a WalkingSegment
+     * @param from the origin of this WalkingSegment
+     * @param to the destination of this WalkingSegment
+     * @param walkingDuration the time it takes to walk this WalkingSegment
+     * @param distance the distance walked in meters
+     * @return a new WalkingSegment
+     * @throws IllegalArgumentException if an argument is null, if from
+     *         equals to, or if walkingDuration or distance is negative
+     */
+    public static WalkingSegment from(Stop from, Stop to, Duration walkingDuration, double distance) {
+        if (walkingDuration == null)
+            throw new IllegalArgumentException("Null parameters are not allowed");
+        if (walkingDuration.isNegative() || !(distance >= 0))
+            throw new IllegalArgumentException(
+                "Duration and distance can not be negative");
+        return new WalkingSegment(from, to, walkingDuration, distance);
+    }
+
+    /**
+     * Returns the weight of a WalkingSegment, computed like the weight of a
+     * TransportSegment.
+     * @return the weight of this WalkingSegment
+     */
+    @Override
+    public double getWeight() {
+        return this.walkingDuration.getSeconds() + this.distance;
+    }
+
+    /**
+     * {@return the walking duration of this WalkingSegment}
+     */
+    public Duration getWalkingDuration() {
+        return this.walkingDuration;
+    }
+
+    /**
+     * {@return the distance in meters of this WalkingSegment}
+     */
+    public double getDistance() {
+        return this.distance;
+    }
+
+    /**
+     * Check if this walking segment is equal to the given walking segment.
+     * <p>
+     *     Two walking segments are equal if they have the same from, the same
+     *     to, the same distance and the same walkingDuration
+     * </p>
+     * @param object to be compared to
+     * @return true if this is equal to object
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+        if (object == null || object.getClass() != this.getClass())
+            return false;
+        WalkingSegment other = (WalkingSegment) object;
+        return this.getFrom().equals(other.getFrom()) && this.getTo().equals(other.getTo())
+               && this.distance == other.distance
+               && this.walkingDuration.equals(other.walkingDuration);
+    }
+
+    /**
+     * Gets the hash code of this walking segment
+     * @return the hash code of this walking segment
+     */
+    @Override
+    public int hashCode() {
+        final int prime = 17;
+        int hash = 1;
+        hash *= prime;
+        hash += this.getFrom().hashCode();
+        hash += this.getTo().hashCode();
+        hash += this.walkingDuration.hashCode();
+        hash += Double.hashCode(this.distance);
+        return hash;
+    }
+}
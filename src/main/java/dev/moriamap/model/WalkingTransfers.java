@@ -0,0 +1,196 @@
+package dev.moriamap.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Generates the WalkingSegments between the stops of a TransportNetwork that
+ * are at most a walking radius apart, in both directions. The stops near
+ * each stop are found with the StopSpatialIndex of the network, in parallel
+ * on the common ForkJoinPool, so that generation takes O(n log n + m) for n
+ * stops and m WalkingSegments instead of comparing all pairs of stops.
+ * <p>
+ *     The distance of a WalkingSegment is the straight distance between its
+ *     stops, like GeographicPosition.distanceFrom, and its duration
+ *     is this distance walked at the walking speed, rounded up to the
+ *     second.
+ * </p>
+ * <p>
+ *     A WalkingTransfers is thread-safe.
+ * </p>
+ */
+public final class WalkingTransfers {
+    private static final String NULL_ARGUMENT_ERROR_MSG =
+        "Argument can not be null";
+
+    /** The default walking radius in meters */
+    public static final double DEFAULT_RADIUS = 400.0;
+
+    /** The default walking speed in meters per second, about 5 km/h */
+    public static final double DEFAULT_SPEED = 1.4;
+
+    // The greatest distance in meters between the stops of a WalkingSegment
+    private final double radius;
+
+    // The walking speed in meters per second
+    private final double speed;
+
+    // The buffers of each thread receiving the stops near a stop
+    private final ThreadLocal<Workspace> workspaces;
+
+    private WalkingTransfers(double radius, double speed) {
+        this.radius = radius;
+        this.speed = speed;
+        this.workspaces = ThreadLocal.withInitial(Workspace::new);
+    }
+
+    /**
+     * {@return a new WalkingTransfers with DEFAULT_RADIUS and DEFAULT_SPEED}
+     */
+    public static WalkingTransfers of() {
+        return of(DEFAULT_RADIUS, DEFAULT_SPEED);
+    }
+
+    /**
+     * {@return a new WalkingTransfers with the specified radius and speed}
+     * @param radius the greatest distance in meters between the stops of a
+     *        WalkingSegment
+     * @param speed the walking speed in meters per second
+     * @throws IllegalArgumentException if radius is negative or speed is not
+     *         positive
+     */
+    public static WalkingTransfers of(double radius, double speed) {
+        if (!(radius >= 0) || Double.isInfinite(radius))
+            throw new IllegalArgumentException("Radius must be positive and finite");
+        if (!(speed > 0) || Double.isInfinite(speed))
+            throw new IllegalArgumentException("Speed must be positive and finite");
+        return new WalkingTransfers(radius, speed);
+    }
+
+    /**
+     * {@return the greatest distance in meters between the stops of a
+     * WalkingSegment}
+     */
+    public double getRadius() {
+        return this.radius;
+    }
+
+    /**
+     * {@return the walking speed in meters per second}
+     */
+    public double getSpeed() {
+        return this.speed;
+    }
+
+    /**
+     * {@return the time it takes to walk distance meters, rounded up to the
+     * second}
+     * @param distance the distance walked in meters
+     * @throws IllegalArgumentException if distance is negative
+     */
+    public Duration walkingDurationOf(double distance) {
+        if (!(distance >= 0))
+            throw new IllegalArgumentException("Distance can not be negative");
+        return Duration.ofSeconds((long) Math.ceil(distance / this.speed));
+    }
+
+    /**
+     * Generates the WalkingSegments between the stops of network that are at
+     * most the walking radius apart. Stops at the same position are linked
+     * too. The network is not modified.
+     * @param network the TransportNetwork whose stops are linked
+     * @return an unmodifiable list of the WalkingSegments, in the order of
+     *         the stops they start from
+     * @throws IllegalArgumentException if network is null
+     */
+    public List<WalkingSegment> generate(TransportNetwork network) {
+        if (network == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<Stop> stops = network.getStops();
+        StopSpatialIndex index = network.getSpatialIndex();
+        return IntStream.range(0, stops.size()).parallel()
+            .mapToObj(i -> this.segmentsFrom(stops.get(i), index))
+            .flatMap(List::stream)
+            .toList();
+    }
+
+    /**
+     * Generates the WalkingSegments between the stops of network that are at
+     * most the walking radius apart and adds them to network. The
+     * WalkingSegments already in network are not added twice.
+     * @param network the TransportNetwork whose stops are linked
+     * @return the WalkingSegments generated
+     * @throws IllegalArgumentException if network is null
+     */
+    public List<WalkingSegment> addTo(TransportNetwork network) {
+        List<WalkingSegment> segments = this.generate(network);
+        for (WalkingSegment segment : segments)
+            network.addWalkingSegment(segment);
+        return segments;
+    }
+
+    /**
+     * Generates the WalkingSegments between stop and the stops of network
+     * that are at most the walking radius away from it, in both directions,
+     * and adds them to network. The WalkingSegments already in network are
+     * not added twice. This links a stop added to a network whose
+     * WalkingSegments were generated by this WalkingTransfers, without
+     * generating them all again.
+     * @param network the TransportNetwork containing stop
+     * @param stop the Stop to link to its nearby stops
+     * @return the WalkingSegments generated
+     * @throws IllegalArgumentException if an argument is null
+     */
+    public List<WalkingSegment> addAround(TransportNetwork network, Stop stop) {
+        if (network == null || stop == null)
+            throw new IllegalArgumentException(NULL_ARGUMENT_ERROR_MSG);
+        List<WalkingSegment> segments =
+            new ArrayList<>(this.segmentsFrom(stop, network.getSpatialIndex()));
+        int count = segments.size();
+        for (int i = 0; i < count; i++) {
+            WalkingSegment segment = segments.get(i);
+            segments.add(WalkingSegment.from(
+                (Stop) segment.getTo(), stop,
+                segment.getWalkingDuration(), segment.getDistance()));
+        }
+        for (WalkingSegment segment : segments)
+            network.addWalkingSegment(segment);
+        return segments;
+    }
+
+    // Returns the WalkingSegments from stop to the stops of index near it
+    private List<WalkingSegment> segmentsFrom(Stop stop, StopSpatialIndex index) {
+        Workspace workspace = this.workspaces.get();
+        GeographicPosition position = stop.getGeographicPosition();
+        int found = index.withinRadius(
+            position, this.radius, workspace.ids, workspace.distances);
+        if (found > workspace.ids.length) {
+            workspace.grow(found);
+            index.withinRadius(position, this.radius, workspace.ids, workspace.distances);
+        }
+        List<WalkingSegment> segments = new ArrayList<>();
+        for (int i = 0; i < found; i++) {
+            Stop other = index.getStop(workspace.ids[i]);
+            if (other.equals(stop))
+                continue;
+            double distance = workspace.distances[i];
+            segments.add(WalkingSegment.from(
+                stop, other, this.walkingDurationOf(distance), distance));
+        }
+        return segments;
+    }
+
+    // The buffers of a thread receiving the stops near a stop
+    private static final class Workspace {
+        private int[] ids = new int[64];
+        private double[] distances = new double[64];
+
+        // Makes the buffers hold at least capacity stops
+        private void grow(int capacity) {
+            this.ids = new int[capacity];
+            this.distances = new double[capacity];
+        }
+    }
+}
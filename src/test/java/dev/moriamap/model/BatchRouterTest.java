@@ -0,0 +1,106 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.moriamap.model.Fixtures.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+class BatchRouterTest {
+
+    @Test void invalidArgumentsThrowException() {
+        Timetable timetable = Timetable.of(smallNetwork());
+        assertThrows(IllegalArgumentException.class, () -> BatchRouter.of(null));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BatchRouter.of(timetable, null, 1)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BatchRouter.of(timetable, ForkJoinPool.commonPool(), -1)
+        );
+        BatchRouter sut = BatchRouter.of(timetable);
+        assertThrows(IllegalArgumentException.class, () -> sut.route(null));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(Arrays.asList((RouteQuery) null))
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(List.of(), null)
+        );
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.route(List.of(new RouteQuery(A, absent, LocalTime.NOON)))
+        );
+    }
+
+    @Test void journeysFollowQueryOrder() {
+        BatchRouter sut = BatchRouter.of(Timetable.of(smallNetwork()));
+        assertEquals(RaptorRouter.DEFAULT_MAX_TRANSFERS, sut.getMaxTransfers());
+        List<Journey> journeys = sut.route(List.of(
+            new RouteQuery(A, F, LocalTime.of(8, 0)),
+            new RouteQuery(D, A, LocalTime.of(8, 0)),
+            new RouteQuery(A, F, LocalTime.of(8, 1))
+        ));
+        assertEquals(3, journeys.size());
+        assertEquals(LocalTime.of(8, 4), journeys.get(0).getArrival());
+        assertNull(journeys.get(1));
+        assertEquals(LocalTime.of(8, 19), journeys.get(2).getArrival());
+        assertThrows(UnsupportedOperationException.class, () -> journeys.set(0, null));
+    }
+
+    @Test void parisBatchMatchesSequentialQueries()
+      throws InconsistentCSVException {
+        Timetable timetable = Timetable.of(parisNetworkWithDepartures());
+        CompiledGraph graph = timetable.getGraph();
+        int n = graph.getVertexCount();
+        List<RouteQuery> queries = new ArrayList<>();
+        for (int src = 0; src < n; src += 7)
+            for (int dst = 0; dst < n; dst += 4)
+                queries.add(new RouteQuery(
+                    (Stop) graph.getVertex(src), (Stop) graph.getVertex(dst),
+                    LocalTime.of(6 + (src + dst) % 3, (src * dst) % 60)));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BatchRouter sut = BatchRouter.of(timetable, pool, 4);
+            List<Journey> journeys = sut.route(queries);
+            Map<RouteQuery, Journey> streamed = new ConcurrentHashMap<>();
+            List<RouteQuery> unreachable = new ArrayList<>();
+            sut.route(queries, (query, journey) -> {
+                if (journey == null) {
+                    synchronized (unreachable) {
+                        unreachable.add(query);
+                    }
+                } else {
+                    streamed.put(query, journey);
+                }
+            });
+            RaptorRouter router = RaptorRouter.of(timetable, 4);
+            int unreachableCount = 0;
+            for (int i = 0; i < queries.size(); i++) {
+                RouteQuery query = queries.get(i);
+                Journey expected = router.route(
+                    query.source(), query.target(), query.departure());
+                if (expected == null) {
+                    assertNull(journeys.get(i));
+                    assertTrue(unreachable.contains(query));
+                    unreachableCount++;
+                    continue;
+                }
+                assertEquals(expected.getArrivalSecond(), journeys.get(i).getArrivalSecond());
+                assertEquals(expected.getArrivalSecond(), streamed.get(query).getArrivalSecond());
+            }
+            assertEquals(unreachableCount, unreachable.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class BidirectionalDijkstraRouterTest {
+    @Test void ofNullArgumentThrowsException() {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BidirectionalDijkstraRouter.of(null)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> BidirectionalDijkstraRouter.of(graph, null)
+        );
+    }
+
+    @Test void routeWithInvalidVertexThrowsException() {
+        BidirectionalDijkstraRouter sut =
+            BidirectionalDijkstraRouter.of(CompiledGraph.of(triangleNetwork()));
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(IllegalArgumentException.class, () -> sut.route(null, A));
+        assertThrows(NoSuchElementException.class, () -> sut.route(A, absent));
+    }
+
+    @Test void routeToUnreachableVertexIsNull() {
+        BidirectionalDijkstraRouter sut =
+            BidirectionalDijkstraRouter.of(CompiledGraph.of(triangleNetwork()));
+        assertNull(sut.route(A, D));
+        assertNull(sut.route(C, A));
+    }
+
+    @Test void routeFromVertexToItselfIsEmpty() {
+        BidirectionalDijkstraRouter sut =
+            BidirectionalDijkstraRouter.of(CompiledGraph.of(triangleNetwork()));
+        assertTrue(sut.route(B, B).isEmpty());
+    }
+
+    @Test void routeIsShortest() {
+        BidirectionalDijkstraRouter sut = BidirectionalDijkstraRouter.of(
+            CompiledGraph.of(triangleNetwork()), RouteMetric.TRAVEL_TIME);
+        Route route = sut.route(A, C);
+        assertEquals(120.0, route.getCost());
+        assertEquals(2, route.getEdges().size());
+        assertEquals(A, route.getEdges().get(0).getFrom());
+        assertEquals(C, route.getEdges().get(1).getTo());
+    }
+
+    @Test void routesInParisNetworkHaveSameCostsAsDijkstra()
+      throws InconsistentCSVException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        DijkstraRouter dijkstra = DijkstraRouter.of(graph);
+        BidirectionalDijkstraRouter sut = BidirectionalDijkstraRouter.of(graph);
+        int n = graph.getVertexCount();
+        for (int src = 0; src < n; src += 5) {
+            for (int dst = 0; dst < n; dst += 9) {
+                Route expected = dijkstra.route(src, dst);
+                Route actual = sut.route(src, dst);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.getCost(), actual.getCost(), 1e-9);
+                    List<Edge> edges = actual.getEdges();
+                    for (int i = 1; i < edges.size(); i++)
+                        assertEquals(edges.get(i - 1).getTo(), edges.get(i).getFrom());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+
+class CompiledGraphTest {
+    private static final Stop S1 = Stop.from("s1", GeographicPosition.at(0.0, 0.0));
+    private static final Stop S2 = Stop.from("s2", GeographicPosition.at(0.0, 1.0));
+    private static final Stop S3 = Stop.from("s3", GeographicPosition.at(1.0, 1.0));
+
+    private static TransportNetwork newNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(TransportSegment.from(
+            S1, S2, "1", "1", Duration.ofSeconds(60), 2.0));
+        tn.addTransportSegment(TransportSegment.from(
+            S1, S3, "1", "2", Duration.ofSeconds(90), 3.0));
+        tn.addTransportSegment(TransportSegment.from(
+            S2, S3, "1", "1", Duration.ofSeconds(30), 1.0));
+        return tn;
+    }
+
+    @Test void compileNullGraphThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> CompiledGraph.of(null));
+    }
+
+    @Test void compiledEmptyNetworkHasNoVertexAndNoEdge() {
+        CompiledGraph sut = CompiledGraph.of(TransportNetwork.empty());
+        assertEquals(0, sut.getVertexCount());
+        assertEquals(0, sut.getEdgeCount());
+    }
+
+    @Test void compiledNetworkHasSameNumberOfVerticesAndEdges() {
+        CompiledGraph sut = CompiledGraph.of(newNetwork());
+        assertEquals(3, sut.getVertexCount());
+        assertEquals(3, sut.getEdgeCount());
+    }
+
+    @Test void idsAreDenseAndMapBackToVertices() {
+        CompiledGraph sut = CompiledGraph.of(newNetwork());
+        for (Stop s : new Stop[]{S1, S2, S3}) {
+            int id = sut.idOf(s);
+            assertTrue(id >= 0 && id < sut.getVertexCount());
+            assertEquals(s, sut.getVertex(id));
+        }
+    }
+
+    @Test void idOfNullVertexThrowsException() {
+        CompiledGraph sut = CompiledGraph.of(newNetwork());
+        assertThrows(IllegalArgumentException.class, () -> sut.idOf(null));
+    }
+
+    @Test void idOfAbsentVertexThrowsException() {
+        CompiledGraph sut = CompiledGraph.of(newNetwork());
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(NoSuchElementException.class, () -> sut.idOf(absent));
+        assertFalse(sut.contains(absent));
+    }
+
+    @Test void containsNullVertexThrowsException() {
+        CompiledGraph sut = CompiledGraph.of(newNetwork());
+        assertThrows(IllegalArgumentException.class, () -> sut.contains(null));
+    }
+
+    @Test void outgoingEdgeRangesMatchGraph() {
+        TransportNetwork tn = newNetwork();
+        CompiledGraph sut = CompiledGraph.of(tn);
+        for (int v = 0; v < sut.getVertexCount(); v++) {
+            Vertex vertex = sut.getVertex(v);
+            assertEquals(
+                tn.getOutgoingEdgesOf(vertex).size(),
+                sut.endEdgeOf(v) - sut.firstEdgeOf(v)
+            );
+            for (int e = sut.firstEdgeOf(v); e < sut.endEdgeOf(v); e++) {
+                Edge edge = sut.getEdge(e);
+                assertTrue(tn.getOutgoingEdgesOf(vertex).contains(edge));
+                assertEquals(v, sut.getSource(e));
+                assertEquals(edge.getTo(), sut.getVertex(sut.getTarget(e)));
+            }
+        }
+    }
+
+    @Test void incomingEdgeRangesMatchGraph() {
+        TransportNetwork tn = newNetwork();
+        CompiledGraph sut = CompiledGraph.of(tn);
+        for (int v = 0; v < sut.getVertexCount(); v++) {
+            Vertex vertex = sut.getVertex(v);
+            assertEquals(
+                tn.getIncomingEdgesOf(vertex).size(),
+                sut.endIncomingOf(v) - sut.firstIncomingOf(v)
+            );
+            for (int i = sut.firstIncomingOf(v); i < sut.endIncomingOf(v); i++) {
+                int e = sut.getIncomingEdge(i);
+                assertEquals(v, sut.getTarget(e));
+                assertTrue(tn.getIncomingEdgesOf(vertex).contains(sut.getEdge(e)));
+            }
+        }
+    }
+
+    @Test void edgeArraysHoldSegmentValues() {
+        CompiledGraph sut = CompiledGraph.of(newNetwork());
+        int s2 = sut.idOf(S2);
+        int e = sut.firstEdgeOf(s2);
+        assertEquals(30, sut.getDuration(e));
+        assertEquals(1.0, sut.getDistance(e));
+        assertEquals(31.0, sut.getWeight(e));
+    }
+
+    @Test void edgeArraysHoldWalkingSegmentValues() {
+        TransportNetwork tn = newNetwork();
+        tn.addWalkingSegment(WalkingSegment.from(S3, S1, Duration.ofSeconds(80), 110.0));
+        CompiledGraph sut = CompiledGraph.of(tn);
+        int e = sut.firstEdgeOf(sut.idOf(S3));
+        assertEquals(1, sut.endEdgeOf(sut.idOf(S3)) - e);
+        assertEquals(80, sut.getDuration(e));
+        assertEquals(110.0, sut.getDistance(e));
+        assertEquals(190.0, sut.getWeight(e));
+    }
+
+    @Test void compiledParisNetworkHasAllSegments()
+      throws InconsistentCSVException {
+        InputStream resource =
+            CompiledGraphTest.class.getResourceAsStream("/test_map_data.csv");
+        TransportNetwork tn = TransportNetworkParser.generateFrom(resource);
+        CompiledGraph sut = CompiledGraph.of(tn);
+        assertEquals(tn.getStops().size(), sut.getVertexCount());
+        assertEquals(tn.getTransportSegments().size(), sut.getEdgeCount());
+    }
+}
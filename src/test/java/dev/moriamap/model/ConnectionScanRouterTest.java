@@ -0,0 +1,118 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.moriamap.model.Fixtures.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class ConnectionScanRouterTest {
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ConnectionScanRouter.of(null)
+        );
+        ConnectionScanRouter sut =
+            ConnectionScanRouter.of(Timetable.of(smallNetwork()));
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(A, null, LocalTime.NOON)
+        );
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.route(absent, A, LocalTime.NOON)
+        );
+    }
+
+    @Test void journeyToSourceIsEmpty() {
+        ConnectionScanRouter sut =
+            ConnectionScanRouter.of(Timetable.of(smallNetwork()));
+        Journey journey = sut.route(C, C, LocalTime.of(8, 0));
+        assertTrue(journey.isEmpty());
+        assertEquals(LocalTime.of(8, 0), journey.getArrival());
+    }
+
+    @Test void journeyWithTransferArrivesEarliest() {
+        ConnectionScanRouter sut =
+            ConnectionScanRouter.of(Timetable.of(smallNetwork()));
+        Journey journey = sut.route(A, F, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 4), journey.getArrival());
+        List<JourneyLeg> legs = journey.getLegs();
+        assertEquals(2, legs.size());
+        assertEquals(A, legs.get(0).from());
+        assertEquals(B, legs.get(0).to());
+        assertEquals(B, legs.get(1).from());
+        assertEquals(F, legs.get(1).to());
+        assertEquals(LocalTime.of(8, 2), legs.get(1).departure());
+    }
+
+    @Test void journeyStaysOnBoardThroughIntermediateStops() {
+        ConnectionScanRouter sut =
+            ConnectionScanRouter.of(Timetable.of(smallNetwork()));
+        Journey journey = sut.route(A, D, LocalTime.of(8, 5));
+        assertEquals(1, journey.getLegs().size());
+        assertEquals(LocalTime.of(8, 10), journey.getDeparture());
+        assertEquals(LocalTime.of(8, 13), journey.getArrival());
+    }
+
+    @Test void unreachableStopHasNoJourney() {
+        ConnectionScanRouter sut =
+            ConnectionScanRouter.of(Timetable.of(smallNetwork()));
+        assertNull(sut.route(A, D, LocalTime.of(8, 21)));
+        assertNull(sut.route(D, A, LocalTime.of(8, 0)));
+    }
+
+    @Test void journeyWalksBetweenConnections() {
+        ConnectionScanRouter sut =
+            ConnectionScanRouter.of(Timetable.of(walkNetwork()));
+        Journey journey = sut.route(A, D, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 7), journey.getArrival());
+        List<JourneyLeg> legs = journey.getLegs();
+        assertEquals(3, legs.size());
+        assertTrue(legs.get(1).isWalk());
+        assertEquals(C, legs.get(1).from());
+        assertEquals(G, legs.get(1).to());
+        assertEquals(LocalTime.of(8, 3, 20), legs.get(1).arrival());
+        assertEquals(LocalTime.of(8, 5), legs.get(2).departure());
+        Journey toG = sut.route(B, G, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 3, 20), toG.getArrival());
+        assertTrue(toG.getLegs().get(1).isWalk());
+        Journey walk = sut.route(C, G, LocalTime.of(7, 0));
+        assertEquals(LocalTime.of(7, 1, 20), walk.getArrival());
+        assertEquals(1, walk.getLegs().size());
+    }
+
+    @Test void parisJourneysMatchRaptor() throws InconsistentCSVException {
+        assertParisJourneysMatchRaptor(
+            Timetable.of(parisNetworkWithDepartures()));
+    }
+
+    @Test void parisJourneysWithWalksMatchRaptor()
+      throws InconsistentCSVException {
+        assertParisJourneysMatchRaptor(Timetable.of(parisNetworkWithWalks()));
+    }
+
+    private static void assertParisJourneysMatchRaptor(Timetable timetable) {
+        ConnectionScanRouter sut = ConnectionScanRouter.of(timetable);
+        int n = timetable.getGraph().getVertexCount();
+        int departure = LocalTime.of(6, 47).toSecondOfDay();
+        for (int src = 0; src < n; src += 13) {
+            int[] expected =
+                RaptorRouterTest.earliestArrivals(timetable, src, departure);
+            for (int dst = 0; dst < n; dst++) {
+                Journey journey = sut.route(src, dst, departure);
+                if (expected[dst] == Integer.MAX_VALUE) {
+                    assertNull(journey);
+                    continue;
+                }
+                assertEquals(expected[dst], journey.getArrivalSecond());
+                List<JourneyLeg> legs = journey.getLegs();
+                for (int i = 1; i < legs.size(); i++)
+                    assertEquals(legs.get(i - 1).to(), legs.get(i).from());
+            }
+        }
+    }
+}
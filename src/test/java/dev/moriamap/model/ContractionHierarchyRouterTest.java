@@ -0,0 +1,80 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class ContractionHierarchyRouterTest {
+    private static ContractionHierarchyRouter newRouter() {
+        return ContractionHierarchyRouter.of(ContractionHierarchy.of(
+            CompiledGraph.of(triangleNetwork()), RouteMetric.TRAVEL_TIME));
+    }
+
+    @Test void ofNullHierarchyThrowsException() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ContractionHierarchyRouter.of(null)
+        );
+    }
+
+    @Test void routeWithInvalidVertexThrowsException() {
+        ContractionHierarchyRouter sut = newRouter();
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(IllegalArgumentException.class, () -> sut.route(null, A));
+        assertThrows(NoSuchElementException.class, () -> sut.route(A, absent));
+    }
+
+    @Test void routeToUnreachableVertexIsNull() {
+        ContractionHierarchyRouter sut = newRouter();
+        assertNull(sut.route(A, D));
+        assertNull(sut.route(C, A));
+    }
+
+    @Test void routeFromVertexToItselfIsEmpty() {
+        assertTrue(newRouter().route(B, B).isEmpty());
+    }
+
+    @Test void routeIsShortest() {
+        Route route = newRouter().route(A, C);
+        assertEquals(120.0, route.getCost());
+        assertEquals(2, route.getEdges().size());
+        assertEquals(A, route.getEdges().get(0).getFrom());
+        assertEquals(C, route.getEdges().get(1).getTo());
+    }
+
+    @Test void routesInParisNetworkHaveSameCostsAsDijkstra()
+      throws InconsistentCSVException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        for (RouteMetric metric : RouteMetric.values()) {
+            DijkstraRouter dijkstra = DijkstraRouter.of(graph, metric);
+            ContractionHierarchyRouter sut = ContractionHierarchyRouter.of(
+                ContractionHierarchy.of(graph, metric));
+            int n = graph.getVertexCount();
+            for (int src = 0; src < n; src += 5) {
+                for (int dst = 0; dst < n; dst += 7) {
+                    Route expected = dijkstra.route(src, dst);
+                    Route actual = sut.route(src, dst);
+                    if (expected == null) {
+                        assertNull(actual);
+                        continue;
+                    }
+                    assertEquals(expected.getCost(), actual.getCost(), 1e-6);
+                    List<Edge> edges = actual.getEdges();
+                    double cost = 0.0;
+                    for (int i = 0; i < edges.size(); i++) {
+                        if (i > 0)
+                            assertEquals(edges.get(i - 1).getTo(), edges.get(i).getFrom());
+                        Edge edge = edges.get(i);
+                        int e = graph.firstEdgeOf(graph.idOf(edge.getFrom()));
+                        while (graph.getEdge(e) != edge)
+                            e++;
+                        cost += graph.getCost(e, metric);
+                    }
+                    assertEquals(expected.getCost(), cost, 1e-6);
+                }
+            }
+        }
+    }
+}
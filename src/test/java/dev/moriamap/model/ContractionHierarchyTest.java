@@ -0,0 +1,105 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class ContractionHierarchyTest {
+    @Test void ofNullArgumentThrowsException() {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ContractionHierarchy.of(null, RouteMetric.WEIGHT)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ContractionHierarchy.of(graph, null)
+        );
+    }
+
+    @Test void ranksArePermutationOfVertices() throws InconsistentCSVException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        ContractionHierarchy sut = ContractionHierarchy.of(graph, RouteMetric.WEIGHT);
+        boolean[] seen = new boolean[graph.getVertexCount()];
+        for (int v = 0; v < graph.getVertexCount(); v++) {
+            int rank = sut.getRank(v);
+            assertFalse(seen[rank]);
+            seen[rank] = true;
+        }
+    }
+
+    @Test void hierarchyKeepsEveryEdge() {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        ContractionHierarchy sut = ContractionHierarchy.of(graph, RouteMetric.TRAVEL_TIME);
+        assertEquals(graph, sut.getGraph());
+        assertEquals(RouteMetric.TRAVEL_TIME, sut.getMetric());
+        assertEquals(
+            graph.getEdgeCount() + sut.getShortcutCount(),
+            sut.getArcCount()
+        );
+        assertTrue(sut.getShortcutCount() >= 0);
+    }
+
+    @Test void pathForReplacesCsvSuffix() {
+        Path network = Path.of("data", "map_data.csv");
+        assertEquals(
+            Path.of("data", "map_data.ch"),
+            ContractionHierarchy.pathFor(network)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ContractionHierarchy.pathFor(null)
+        );
+    }
+
+    @Test void savedHierarchyIsLoadedBack()
+      throws InconsistentCSVException, IOException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        ContractionHierarchy saved =
+            ContractionHierarchy.of(graph, RouteMetric.DISTANCE);
+        Path file = Files.createTempFile("moriamap", ".ch");
+        try {
+            saved.save(file);
+            ContractionHierarchy loaded = ContractionHierarchy.load(file, graph);
+            assertEquals(RouteMetric.DISTANCE, loaded.getMetric());
+            assertEquals(saved.getArcCount(), loaded.getArcCount());
+            for (int v = 0; v < graph.getVertexCount(); v++)
+                assertEquals(saved.getRank(v), loaded.getRank(v));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test void loadForAnotherGraphThrowsException()
+      throws InconsistentCSVException, IOException {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        CompiledGraph other = CompiledGraph.of(parisNetwork());
+        Path file = Files.createTempFile("moriamap", ".ch");
+        try {
+            ContractionHierarchy.of(graph, RouteMetric.WEIGHT).save(file);
+            assertThrows(
+                IOException.class,
+                () -> ContractionHierarchy.load(file, other)
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test void loadFileOfAnotherFormatThrowsException() throws IOException {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        Path file = Files.createTempFile("moriamap", ".ch");
+        try {
+            Files.writeString(file, "not a hierarchy");
+            assertThrows(
+                IOException.class,
+                () -> ContractionHierarchy.load(file, graph)
+            );
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+
+class DeltaReportTest {
+    @Test void nullApplyDurationThrowsException() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DeltaReport(0, 0, 0, null, Duration.ZERO)
+        );
+    }
+
+    @Test void speedupComparesDurations() {
+        DeltaReport sut = new DeltaReport(
+            1, 0, 0, Duration.ofMillis(2), Duration.ofMillis(10));
+        assertTrue(sut.isCompared());
+        assertEquals(5.0, sut.speedup(), 1e-9);
+    }
+
+    @Test void speedupWithoutRebuildThrowsException() {
+        DeltaReport sut = new DeltaReport(1, 0, 0, Duration.ofMillis(2), null);
+        assertFalse(sut.isCompared());
+        assertThrows(IllegalStateException.class, sut::speedup);
+    }
+}
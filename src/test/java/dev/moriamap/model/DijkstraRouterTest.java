@@ -0,0 +1,133 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class DijkstraRouterTest {
+    // A -> B -> C is fast but long, A -> D -> C is slow but short
+    private static TransportNetwork newNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(segment(A, B, 60, 50.0));
+        tn.addTransportSegment(segment(B, C, 60, 50.0));
+        tn.addTransportSegment(segment(A, D, 200, 1.0));
+        tn.addTransportSegment(segment(D, C, 200, 1.0));
+        tn.addStop(E);
+        return tn;
+    }
+
+    @Test void ofNullGraphThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> DijkstraRouter.of(null));
+    }
+
+    @Test void ofNullMetricThrowsException() {
+        CompiledGraph graph = CompiledGraph.of(newNetwork());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> DijkstraRouter.of(graph, null)
+        );
+    }
+
+    @Test void ofNullHeuristicThrowsException() {
+        CompiledGraph graph = CompiledGraph.of(newNetwork());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> DijkstraRouter.of(graph, RouteMetric.WEIGHT, null)
+        );
+    }
+
+    @Test void routeWithNullVertexThrowsException() {
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(newNetwork()));
+        assertThrows(IllegalArgumentException.class, () -> sut.route(null, A));
+        assertThrows(IllegalArgumentException.class, () -> sut.route(A, null));
+    }
+
+    @Test void routeWithAbsentVertexThrowsException() {
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(newNetwork()));
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(NoSuchElementException.class, () -> sut.route(A, absent));
+    }
+
+    @Test void routeToUnreachableVertexIsNull() {
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(newNetwork()));
+        assertNull(sut.route(A, E));
+        assertNull(sut.route(C, A));
+    }
+
+    @Test void routeFromVertexToItselfIsEmpty() {
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(newNetwork()));
+        Route route = sut.route(A, A);
+        assertTrue(route.isEmpty());
+        assertEquals(Duration.ZERO, route.getTravelDuration());
+        assertEquals(0.0, route.getCost());
+    }
+
+    @Test void routeMinimizingTravelTimeTakesFastestEdges() {
+        DijkstraRouter sut = DijkstraRouter.of(
+            CompiledGraph.of(newNetwork()), RouteMetric.TRAVEL_TIME);
+        Route route = sut.route(A, C);
+        assertEquals(List.of(segment(A, B, 60, 50.0), segment(B, C, 60, 50.0)),
+                     route.getEdges());
+        assertEquals(Duration.ofMinutes(2), route.getTravelDuration());
+        assertEquals(100.0, route.getDistance());
+        assertEquals(120.0, route.getCost());
+    }
+
+    @Test void routeMinimizingDistanceTakesShortestEdges() {
+        DijkstraRouter sut = DijkstraRouter.of(
+            CompiledGraph.of(newNetwork()), RouteMetric.DISTANCE);
+        Route route = sut.route(A, C);
+        assertEquals(List.of(segment(A, D, 200, 1.0), segment(D, C, 200, 1.0)),
+                     route.getEdges());
+        assertEquals(2.0, route.getCost());
+    }
+
+    @Test void routeMinimizingWeightSumsTravelTimeAndDistance() {
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(newNetwork()));
+        assertEquals(220.0, sut.route(A, C).getCost());
+    }
+
+    @Test void routerCanBeReusedBetweenQueries() {
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(newNetwork()));
+        assertNotNull(sut.route(A, C));
+        assertNull(sut.route(A, E));
+        assertEquals(1, sut.route(A, B).getEdges().size());
+    }
+
+    @Test void routesInParisNetworkAreShortest() throws InconsistentCSVException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        DijkstraRouter sut = DijkstraRouter.of(graph, RouteMetric.TRAVEL_TIME);
+        int n = graph.getVertexCount();
+        for (int src = 0; src < n; src += 37) {
+            double[] expected = bellmanFord(graph, src, RouteMetric.TRAVEL_TIME);
+            for (int dst = 0; dst < n; dst += 11) {
+                Route route = sut.route(src, dst);
+                if (expected[dst] == Double.POSITIVE_INFINITY) {
+                    assertNull(route);
+                } else {
+                    assertEquals(expected[dst], route.getCost(), 1e-9);
+                    assertEquals(
+                        (long) expected[dst],
+                        route.getTravelDuration().getSeconds()
+                    );
+                }
+            }
+        }
+    }
+
+    @Test void routeEdgesFormAPathFromSourceToDestination()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        Stop lourmel = tn.getStopByName("Lourmel");
+        Stop pointe = tn.getStopByName("Pointe du Lac");
+        DijkstraRouter sut = DijkstraRouter.of(CompiledGraph.of(tn));
+        List<Edge> edges = sut.route(lourmel, pointe).getEdges();
+        assertEquals(lourmel, edges.get(0).getFrom());
+        assertEquals(pointe, edges.get(edges.size() - 1).getTo());
+        for (int i = 1; i < edges.size(); i++)
+            assertEquals(edges.get(i - 1).getTo(), edges.get(i).getFrom());
+    }
+}
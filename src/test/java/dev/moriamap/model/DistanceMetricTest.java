@@ -0,0 +1,23 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+class DistanceMetricTest {
+    private static final GeographicPosition P1 = GeographicPosition.at(48.8566, 2.3522);
+    private static final GeographicPosition P2 = GeographicPosition.at(48.8606, 2.3376);
+
+    @Test void metricsDelegateToGeographicPosition() {
+        assertEquals(P1.distanceFrom(P2), DistanceMetric.EUCLIDEAN.between(P1, P2));
+        assertEquals(GeographicPosition.euclideanDistanceOnEarth(P1, P2),
+                     DistanceMetric.EUCLIDEAN.between(P1, P2));
+        assertEquals(P1.equirectangularDistanceFrom(P2),
+                     DistanceMetric.EQUIRECTANGULAR.between(P1, P2));
+        assertEquals(P1.haversineDistanceFrom(P2), DistanceMetric.HAVERSINE.between(P1, P2));
+    }
+
+    @Test void nullPositionThrowsException() {
+        for (DistanceMetric metric : DistanceMetric.values())
+            assertThrows(IllegalArgumentException.class, () -> metric.between(P1, null));
+    }
+}
@@ -0,0 +1,154 @@
+package dev.moriamap.model;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+// The stops, segments and networks shared by the tests
+final class Fixtures {
+    // Stops about a kilometer apart, A to D on a row from west to east, E
+    // north of B and F south of B, and G about 110 m north of C
+    static final Stop A = Stop.from("A", GeographicPosition.at(0.0, 0.0));
+    static final Stop B = Stop.from("B", GeographicPosition.at(0.0, 0.01));
+    static final Stop C = Stop.from("C", GeographicPosition.at(0.0, 0.02));
+    static final Stop D = Stop.from("D", GeographicPosition.at(0.0, 0.03));
+    static final Stop E = Stop.from("E", GeographicPosition.at(0.01, 0.01));
+    static final Stop F = Stop.from("F", GeographicPosition.at(-0.01, 0.01));
+    static final Stop G = Stop.from("G", GeographicPosition.at(0.001, 0.02));
+
+    private Fixtures() {}
+
+    // A segment of variant 1 of line 1, in 60 s over 1 m
+    static TransportSegment segment(Stop from, Stop to) {
+        return segment(from, to, 60, 1.0);
+    }
+
+    // A segment of variant 1 of line 1
+    static TransportSegment segment(Stop from, Stop to, long seconds, double distance) {
+        return TransportSegment.from(from, to, "1", "1", Duration.ofSeconds(seconds), distance);
+    }
+
+    // A -> B -> C on line 1 in 120 s is faster than A -> C on line 2 in
+    // 150 s, and D is alone
+    static TransportNetwork triangleNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(segment(A, B, 60, 1.0));
+        tn.addTransportSegment(segment(B, C, 60, 1.0));
+        tn.addTransportSegment(TransportSegment.from(
+            A, C, "2", "1", Duration.ofSeconds(150), 1.0));
+        tn.addStop(D);
+        return tn;
+    }
+
+    static void addSegment(
+      TransportNetwork tn,
+      Variant variant,
+      Stop from,
+      Stop to,
+      long seconds
+    ) {
+        TransportSegment segment = TransportSegment.from(
+            from, to, variant.getLineName(), variant.getName(),
+            Duration.ofSeconds(seconds), 1.0);
+        tn.addTransportSegment(segment);
+        variant.addTransportSegment(segment);
+    }
+
+    static Variant addVariant(TransportNetwork tn, String lineName) {
+        Line line = Line.of(lineName);
+        Variant variant = Variant.empty("1", lineName);
+        line.addVariant(variant);
+        tn.addLine(line);
+        return variant;
+    }
+
+    /*
+     * Line 1 goes A -> B -> C -> D at 8:00, 8:10 and 8:20, one minute between
+     * stops. Line 2 goes E -> B -> F at 8:00, 8:05 and 8:15, two minutes
+     * between stops. Line 3 goes A -> F in 15 minutes at 8:00 only.
+     */
+    static TransportNetwork smallNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Variant one = addVariant(tn, "1");
+        addSegment(tn, one, C, D, 60);
+        addSegment(tn, one, A, B, 60);
+        addSegment(tn, one, B, C, 60);
+        one.addDeparture(LocalTime.of(8, 20));
+        one.addDeparture(LocalTime.of(8, 0));
+        one.addDeparture(LocalTime.of(8, 10));
+        Variant two = addVariant(tn, "2");
+        addSegment(tn, two, E, B, 120);
+        addSegment(tn, two, B, F, 120);
+        two.addDeparture(LocalTime.of(8, 0));
+        two.addDeparture(LocalTime.of(8, 5));
+        two.addDeparture(LocalTime.of(8, 15));
+        Variant three = addVariant(tn, "3");
+        addSegment(tn, three, A, F, 900);
+        three.addDeparture(LocalTime.of(8, 0));
+        return tn;
+    }
+
+    /*
+     * Line 1 goes A -> B -> C at 8:00, one minute between stops, and line 2
+     * goes G -> D in two minutes at 8:05. C and G are linked by the
+     * WalkingSegments of WalkingTransfers.of(), which take 80 s.
+     */
+    static TransportNetwork walkNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Variant one = addVariant(tn, "1");
+        addSegment(tn, one, A, B, 60);
+        addSegment(tn, one, B, C, 60);
+        one.addDeparture(LocalTime.of(8, 0));
+        Variant two = addVariant(tn, "2");
+        addSegment(tn, two, G, D, 120);
+        two.addDeparture(LocalTime.of(8, 5));
+        WalkingTransfers.of().addTo(tn);
+        return tn;
+    }
+
+    static TransportNetwork parisNetwork() throws InconsistentCSVException {
+        InputStream resource =
+            Fixtures.class.getResourceAsStream("/test_map_data.csv");
+        return TransportNetworkParser.generateFrom(resource);
+    }
+
+    // Reference shortest path costs from src computed with Bellman-Ford
+    static double[] bellmanFord(CompiledGraph graph, int src, RouteMetric metric) {
+        double[] dist = new double[graph.getVertexCount()];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[src] = 0.0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int e = 0; e < graph.getEdgeCount(); e++) {
+                double d = dist[graph.getSource(e)] + graph.getCost(e, metric);
+                if (d < dist[graph.getTarget(e)]) {
+                    dist[graph.getTarget(e)] = d;
+                    changed = true;
+                }
+            }
+        }
+        return dist;
+    }
+
+    // The Paris network with a departure every 10 minutes from 6:00 to 9:00 on
+    // each variant
+    static TransportNetwork parisNetworkWithDepartures()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        for (Variant variant : tn.getVariants())
+            for (int minute = 6 * 60; minute <= 9 * 60; minute += 10)
+                variant.addDeparture(LocalTime.of(minute / 60, minute % 60));
+        return tn;
+    }
+
+    // The Paris network with departures and the WalkingSegments of
+    // WalkingTransfers.of()
+    static TransportNetwork parisNetworkWithWalks()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetworkWithDepartures();
+        WalkingTransfers.of().addTo(tn);
+        return tn;
+    }
+}
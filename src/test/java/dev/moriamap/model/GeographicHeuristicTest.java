@@ -0,0 +1,103 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+
+class GeographicHeuristicTest {
+    static class DummyGraph extends Graph {
+        void add(Edge edge) { this.addEdge(edge); }
+    }
+    static class DummyVertex implements Vertex {}
+    static class DummyEdge extends Edge {
+        public DummyEdge(Vertex from, Vertex to) { super(from, to); }
+        public double getWeight() { return 1.0; }
+    }
+
+    @Test void ofNullArgumentThrowsException() {
+        CompiledGraph graph = CompiledGraph.of(TransportNetwork.empty());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> GeographicHeuristic.of(null, RouteMetric.WEIGHT)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> GeographicHeuristic.of(graph, null)
+        );
+    }
+
+    @Test void estimateIsZeroWithoutGeographicVertices() {
+        DummyGraph graph = new DummyGraph();
+        graph.add(new DummyEdge(new DummyVertex(), new DummyVertex()));
+        GeographicHeuristic sut =
+            GeographicHeuristic.of(CompiledGraph.of(graph), RouteMetric.WEIGHT);
+        assertEquals(0.0, sut.estimate(0, 1));
+        assertEquals(0.0, sut.getCostPerMeter());
+    }
+
+    @Test void estimateDividesDistanceByFastestSpeed() {
+        Stop a = Stop.from("a", GeographicPosition.at(0.0, 0.0));
+        Stop b = Stop.from("b", GeographicPosition.at(0.0, 0.01));
+        Stop c = Stop.from("c", GeographicPosition.at(0.0, 0.03));
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(TransportSegment.from(
+            a, b, "1", "1", Duration.ofSeconds(100), 0.0));
+        tn.addTransportSegment(TransportSegment.from(
+            b, c, "1", "1", Duration.ofSeconds(100), 0.0));
+        CompiledGraph graph = CompiledGraph.of(tn);
+        GeographicHeuristic sut =
+            GeographicHeuristic.of(graph, RouteMetric.TRAVEL_TIME);
+        // b -> c is twice as long as a -> b in the same time, so the fastest
+        double expected = 100.0 / b.getGeographicPosition()
+            .distanceFrom(c.getGeographicPosition());
+        assertEquals(expected, sut.getCostPerMeter(), 1e-6);
+        double estimate = sut.estimate(graph.idOf(a), graph.idOf(c));
+        assertTrue(estimate <= 200.0);
+        assertEquals(150.0, estimate, 1e-3);
+        assertEquals(0.0, sut.estimate(graph.idOf(c), graph.idOf(c)));
+    }
+
+    @Test void estimatesNeverExceedShortestRouteCosts()
+      throws InconsistentCSVException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        for (RouteMetric metric : RouteMetric.values()) {
+            GeographicHeuristic sut = GeographicHeuristic.of(graph, metric);
+            for (int src = 0; src < graph.getVertexCount(); src += 23) {
+                double[] costs = bellmanFord(graph, src, metric);
+                for (int dst = 0; dst < graph.getVertexCount(); dst++)
+                    assertTrue(sut.estimate(src, dst) <= costs[dst]);
+            }
+        }
+    }
+
+    @Test void aStarFindsSameRoutesAsDijkstraWithFewerSettledVertices()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        CompiledGraph graph = CompiledGraph.of(tn);
+        for (RouteMetric metric : RouteMetric.values()) {
+            DijkstraRouter dijkstra = DijkstraRouter.of(graph, metric);
+            DijkstraRouter aStar = DijkstraRouter.of(
+                graph, metric, GeographicHeuristic.of(graph, metric));
+            int n = graph.getVertexCount();
+            for (int src = 0; src < n; src += 7) {
+                for (int dst = 0; dst < n; dst += 13) {
+                    Route expected = dijkstra.route(src, dst);
+                    Route actual = aStar.route(src, dst);
+                    if (expected == null)
+                        assertNull(actual);
+                    else
+                        assertEquals(expected.getCost(), actual.getCost(), 1e-9);
+                }
+            }
+        }
+        Stop lourmel = tn.getStopByName("Lourmel");
+        Stop pointeDuLac = tn.getStopByName("Pointe du Lac");
+        DijkstraRouter dijkstra = DijkstraRouter.of(graph, RouteMetric.TRAVEL_TIME);
+        DijkstraRouter aStar = DijkstraRouter.of(graph, RouteMetric.TRAVEL_TIME,
+            GeographicHeuristic.of(graph, RouteMetric.TRAVEL_TIME));
+        dijkstra.route(lourmel, pointeDuLac);
+        aStar.route(lourmel, pointeDuLac);
+        assertTrue(aStar.getSettledCount() <= dijkstra.getSettledCount());
+    }
+}
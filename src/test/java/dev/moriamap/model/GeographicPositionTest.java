@@ -211,4 +211,54 @@ class GeographicPositionTest {
         );
     }
 
+    @Test void unitCoordinatesAreOnTheUnitSphere() {
+        GeographicPosition sut = GeographicPosition.at(48.85, 2.35);
+        double norm = sut.getUnitX() * sut.getUnitX() + sut.getUnitY() * sut.getUnitY()
+                      + sut.getUnitZ() * sut.getUnitZ();
+        assertEquals(1.0, norm, 1e-12);
+        assertEquals(1.0, GeographicPosition.NORTH_POLE.getUnitZ());
+        assertEquals(1.0, GeographicPosition.NULL_ISLAND.getUnitX());
+    }
+
+    @Test void distanceFromMatchesRoundedCartesianCoordinates() {
+        GeographicPosition p1 = GeographicPosition.at(48.8566, 2.3522);
+        GeographicPosition p2 = GeographicPosition.at(48.8606, 2.3376);
+        double[] c1 = p1.toCartesian(GeographicPosition.EARTH_RADIUS);
+        double[] c2 = p2.toCartesian(GeographicPosition.EARTH_RADIUS);
+        double expected = Math.sqrt(Math.pow(c1[0] - c2[0], 2) + Math.pow(c1[1] - c2[1], 2)
+                                    + Math.pow(c1[2] - c2[2], 2));
+        assertEquals(expected, p1.distanceFrom(p2), 1e-3);
+        assertEquals(p1.distanceFrom(p2), p1.chordDistanceFrom(p2));
+    }
+
+    @Test void distanceMethodsAgreeOnShortDistances() {
+        GeographicPosition p1 = GeographicPosition.at(48.8566, 2.3522);
+        GeographicPosition p2 = GeographicPosition.at(48.8606, 2.3376);
+        double haversine = p1.haversineDistanceFrom(p2);
+        assertEquals(1157.0, haversine, 1.0);
+        assertEquals(haversine, p1.chordDistanceFrom(p2), 1e-3);
+        assertEquals(haversine, p1.equirectangularDistanceFrom(p2), 1e-3);
+        assertEquals(0.0, p1.haversineDistanceFrom(p1));
+        assertEquals(0.0, p1.equirectangularDistanceFrom(p1));
+    }
+
+    @Test void haversineDistanceBetweenPolesIsHalfACircumference() {
+        assertEquals(Math.PI * GeographicPosition.EARTH_RADIUS,
+                     GeographicPosition.NORTH_POLE.haversineDistanceFrom(GeographicPosition.SOUTH_POLE),
+                     1e-6);
+    }
+
+    @Test void equirectangularDistanceCrossesAntimeridian() {
+        GeographicPosition p1 = GeographicPosition.at(0.0, 179.99);
+        GeographicPosition p2 = GeographicPosition.at(0.0, -179.99);
+        assertEquals(p1.haversineDistanceFrom(p2), p1.equirectangularDistanceFrom(p2), 1e-3);
+    }
+
+    @Test void distanceMethodsWithNullThrowException() {
+        GeographicPosition sut = GeographicPosition.NULL_ISLAND;
+        assertThrows(IllegalArgumentException.class, () -> sut.chordDistanceFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.haversineDistanceFrom(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.equirectangularDistanceFrom(null));
+    }
+
 }
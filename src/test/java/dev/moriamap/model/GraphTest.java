@@ -88,6 +88,117 @@ class GraphTest {
         assertEquals(outgoingEdges, sut.getOutgoingEdgesOf(from));
     }
 
+    @Test void forEachOutgoingEdgeOfNullVertexThrowsException() {
+        Graph sut = new DummyGraph();
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.forEachOutgoingEdge(null, e -> {})
+        );
+    }
+
+    @Test void forEachOutgoingEdgeWithNullActionThrowsException() {
+        Graph sut = new DummyGraph();
+        Vertex from = new DummyVertex();
+        sut.addVertex(from);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.forEachOutgoingEdge(from, null)
+        );
+    }
+
+    @Test void forEachOutgoingEdgeOfAbsentVertexThrowsException() {
+        Graph sut = new DummyGraph();
+        Vertex dummy = new DummyVertex();
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.forEachOutgoingEdge(dummy, e -> {})
+        );
+    }
+
+    @Test void forEachOutgoingEdgeOfVertexWithoutOutgoingEdgesDoesNothing() {
+        Graph sut = new DummyGraph();
+        Vertex from = new DummyVertex();
+        sut.addVertex(from);
+        List<Edge> visited = new ArrayList<>();
+        sut.forEachOutgoingEdge(from, visited::add);
+        assertTrue(visited.isEmpty());
+    }
+
+    @Test void forEachOutgoingEdgeVisitsOutgoingEdgesInOrder() {
+        Graph sut = new DummyGraph();
+        Vertex from = new DummyVertex();
+        Edge e1 = new DummyEdge(from, new DummyVertex());
+        Edge e2 = new DummyEdge(from, new DummyVertex());
+        sut.addEdge(e1);
+        sut.addEdge(e2);
+        sut.addEdge(new DummyEdge(new DummyVertex(), from));
+        List<Edge> visited = new ArrayList<>();
+        sut.forEachOutgoingEdge(from, visited::add);
+        assertEquals(sut.getOutgoingEdgesOf(from), visited);
+    }
+
+    @Test void getIncomingEdgesOfNullVertexThrowsException() {
+        Graph sut = new DummyGraph();
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.getIncomingEdgesOf(null)
+        );
+    }
+
+    @Test void getIncomingEdgesOfAbsentVertexThrowsException() {
+        Graph sut = new DummyGraph();
+        Vertex dummy = new DummyVertex();
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.getIncomingEdgesOf(dummy)
+        );
+    }
+
+    @Test void getIncomingEdgesOfVertexWithoutIncomingEdgesIsEmptyList() {
+        Graph sut = new DummyGraph();
+        Vertex from = new DummyVertex();
+        sut.addEdge(new DummyEdge(from, new DummyVertex()));
+        assertTrue(sut.getIncomingEdgesOf(from).isEmpty());
+    }
+
+    @Test void addEdgeUpdatesIncomingEdgesOfDestination() {
+        Graph sut = new DummyGraph();
+        Vertex to = new DummyVertex();
+        Edge e1 = new DummyEdge(new DummyVertex(), to);
+        Edge e2 = new DummyEdge(new DummyVertex(), to);
+        sut.addEdge(e1);
+        sut.addEdge(e2);
+        sut.addEdge(e1);
+        assertEquals(List.of(e1, e2), sut.getIncomingEdgesOf(to));
+    }
+
+    @Test void forEachIncomingEdgeVisitsIncomingEdges() {
+        Graph sut = new DummyGraph();
+        Vertex to = new DummyVertex();
+        Edge edge = new DummyEdge(new DummyVertex(), to);
+        sut.addEdge(edge);
+        List<Edge> visited = new ArrayList<>();
+        sut.forEachIncomingEdge(to, visited::add);
+        assertEquals(List.of(edge), visited);
+        Vertex isolated = new DummyVertex();
+        sut.addVertex(isolated);
+        sut.forEachIncomingEdge(isolated, visited::add);
+        assertEquals(1, visited.size());
+    }
+
+    @Test void forEachIncomingEdgeWithInvalidArgumentsThrowsException() {
+        Graph sut = new DummyGraph();
+        Vertex absent = new DummyVertex();
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.forEachIncomingEdge(null, e -> {})
+        );
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.forEachIncomingEdge(absent, e -> {})
+        );
+    }
+
     @Test void testIfVertexIsInGraphWithNullVertexThrowsException() {
         Graph sut = new DummyGraph();
         assertThrows(IllegalArgumentException.class, () -> sut.contains(null));
@@ -259,4 +370,35 @@ class GraphTest {
         route.add(e3);
         assertEquals(route, Graph.getRouteFromTraversal(parents, v1, v6));
     }
+
+    @Test void removeEdgeKeepsItsVertices() {
+        Graph sut = new DummyGraph();
+        Edge edge = new DummyEdge();
+        sut.addEdge(edge);
+        int count = sut.getModificationCount();
+        assertTrue(sut.removeEdge(edge));
+        assertTrue(sut.getModificationCount() > count);
+        assertFalse(sut.removeEdge(edge));
+        assertTrue(sut.getEdges().isEmpty());
+        assertTrue(sut.getIncomingEdgesOf(edge.getTo()).isEmpty());
+        assertEquals(2, sut.getVertices().size());
+        assertThrows(IllegalArgumentException.class, () -> sut.removeEdge(null));
+    }
+
+    @Test void removeVertexRemovesItsEdges() {
+        Graph sut = new DummyGraph();
+        Vertex a = new DummyVertex();
+        Vertex b = new DummyVertex();
+        Vertex c = new DummyVertex();
+        sut.addEdge(new DummyEdge(a, b));
+        sut.addEdge(new DummyEdge(b, c));
+        Edge ac = new DummyEdge(a, c);
+        sut.addEdge(ac);
+        assertTrue(sut.removeVertex(b));
+        assertFalse(sut.contains(b));
+        assertFalse(sut.removeVertex(b));
+        assertEquals(List.of(ac), sut.getEdges());
+        assertEquals(List.of(ac), sut.getIncomingEdgesOf(c));
+        assertThrows(IllegalArgumentException.class, () -> sut.removeVertex(null));
+    }
 }
@@ -0,0 +1,108 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+class GraphTraversalTest {
+    // A -> B -> D, A -> C -> D, and E alone
+    private static TransportNetwork newNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(segment(A, B));
+        tn.addTransportSegment(segment(A, C));
+        tn.addTransportSegment(segment(B, D));
+        tn.addTransportSegment(segment(C, D));
+        tn.addStop(E);
+        return tn;
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> GraphTraversal.of(null));
+        GraphTraversal sut = GraphTraversal.of(CompiledGraph.of(newNetwork()));
+        assertThrows(IllegalArgumentException.class, () -> sut.depthFirst(0, null));
+        assertThrows(NoSuchElementException.class, () -> sut.breadthFirst(5, (v, e) -> true));
+        assertThrows(IllegalArgumentException.class, () -> sut.topologicalOrder(new int[2]));
+        assertThrows(NoSuchElementException.class, () -> sut.getParentEdge(0));
+    }
+
+    @Test void traversalsVisitReachableVerticesOnce() {
+        CompiledGraph graph = CompiledGraph.of(newNetwork());
+        GraphTraversal sut = GraphTraversal.of(graph);
+        int a = graph.idOf(A);
+        List<Integer> visited = new ArrayList<>();
+        assertEquals(GraphTraversal.NONE, sut.depthFirst(a, (v, e) -> visited.add(v)));
+        assertEquals(4, visited.size());
+        assertEquals(a, (int) visited.get(0));
+        assertFalse(sut.isVisited(graph.idOf(E)));
+        assertEquals(GraphTraversal.NONE, sut.getParentEdge(a));
+        int d = graph.idOf(D);
+        assertEquals(d, graph.getTarget(sut.getParentEdge(d)));
+
+        visited.clear();
+        assertEquals(GraphTraversal.NONE, sut.breadthFirst(a, (v, e) -> visited.add(v)));
+        assertEquals(d, (int) visited.get(3));
+        assertEquals(a, sut.getSource());
+    }
+
+    @Test void depthFirstGoesDeepBeforeWide() {
+        CompiledGraph graph = CompiledGraph.of(newNetwork());
+        GraphTraversal sut = GraphTraversal.of(graph);
+        List<Integer> visited = new ArrayList<>();
+        sut.depthFirst(graph.idOf(A), (v, e) -> visited.add(v));
+        // D is reached right after the first child of A
+        assertEquals(graph.idOf(D), (int) visited.get(2));
+    }
+
+    @Test void visitorStopsTraversalEarly() {
+        CompiledGraph graph = CompiledGraph.of(newNetwork());
+        GraphTraversal sut = GraphTraversal.of(graph);
+        int d = graph.idOf(D);
+        assertEquals(d, sut.breadthFirst(graph.idOf(A), (v, e) -> v != d));
+        assertTrue(sut.isVisited(d));
+        int a = graph.idOf(A);
+        assertEquals(a, sut.depthFirst(a, (v, e) -> false));
+        assertFalse(sut.isVisited(d));
+    }
+
+    @Test void topologicalOrderFollowsEdges() {
+        CompiledGraph graph = CompiledGraph.of(newNetwork());
+        GraphTraversal sut = GraphTraversal.of(graph);
+        int[] order = new int[graph.getVertexCount()];
+        assertTrue(sut.topologicalOrder(order));
+        int[] rank = new int[order.length];
+        for (int i = 0; i < order.length; i++)
+            rank[order[i]] = i;
+        for (int e = 0; e < graph.getEdgeCount(); e++)
+            assertTrue(rank[graph.getSource(e)] < rank[graph.getTarget(e)]);
+
+        TransportNetwork cyclic = newNetwork();
+        cyclic.addTransportSegment(segment(D, A));
+        GraphTraversal other = GraphTraversal.of(CompiledGraph.of(cyclic));
+        int[] partial = new int[order.length];
+        assertFalse(other.topologicalOrder(partial));
+        assertEquals(GraphTraversal.NONE, partial[1]);
+    }
+
+    @Test void parisTraversalsMatchDepthFirstSearch()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        CompiledGraph graph = CompiledGraph.of(tn);
+        GraphTraversal sut = GraphTraversal.of(graph);
+        for (int src = 0; src < graph.getVertexCount(); src += 29) {
+            Map<Vertex, Edge> parents = tn.depthFirstSearch(graph.getVertex(src));
+            int[] count = {0};
+            sut.depthFirst(src, (v, e) -> count[0]++ >= 0);
+            // The source is visited but has no parent edge
+            assertEquals(parents.size() + 1, count[0]);
+            for (Vertex v : parents.keySet())
+                assertTrue(sut.isVisited(graph.idOf(v)));
+            sut.breadthFirst(src, (v, e) -> true);
+            for (Vertex v : parents.keySet())
+                assertTrue(sut.isVisited(graph.idOf(v)));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.NoSuchElementException;
+
+class IndexedMinHeapTest {
+    @Test void negativeCapacityThrowsException() {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> IndexedMinHeap.withCapacity(-1)
+        );
+    }
+
+    @Test void newHeapIsEmpty() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(4);
+        assertTrue(sut.isEmpty());
+        assertEquals(0, sut.size());
+        assertFalse(sut.contains(2));
+    }
+
+    @Test void pollEmptyHeapThrowsException() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(4);
+        assertThrows(NoSuchElementException.class, sut::poll);
+        assertThrows(NoSuchElementException.class, sut::peekKey);
+    }
+
+    @Test void keyOfAbsentIdThrowsException() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(4);
+        assertThrows(NoSuchElementException.class, () -> sut.keyOf(1));
+    }
+
+    @Test void pollReturnsIdsByIncreasingKey() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(6);
+        double[] keys = {5.0, 3.0, 4.0, 0.5, 9.0, 1.0};
+        for (int i = 0; i < keys.length; i++)
+            sut.insertOrDecrease(i, keys[i]);
+        int[] expected = {3, 5, 1, 2, 0, 4};
+        for (int id : expected) {
+            assertEquals(keys[id], sut.peekKey());
+            assertEquals(id, sut.poll());
+        }
+        assertTrue(sut.isEmpty());
+    }
+
+    @Test void decreaseKeyMovesIdToFront() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(3);
+        sut.insertOrDecrease(0, 1.0);
+        sut.insertOrDecrease(1, 2.0);
+        sut.insertOrDecrease(2, 3.0);
+        assertTrue(sut.insertOrDecrease(2, 0.5));
+        assertEquals(0.5, sut.keyOf(2));
+        assertEquals(3, sut.size());
+        assertEquals(2, sut.poll());
+    }
+
+    @Test void insertWithGreaterKeyDoesNothing() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(2);
+        sut.insertOrDecrease(0, 1.0);
+        assertFalse(sut.insertOrDecrease(0, 2.0));
+        assertEquals(1.0, sut.keyOf(0));
+    }
+
+    @Test void clearRemovesAllIds() {
+        IndexedMinHeap sut = IndexedMinHeap.withCapacity(3);
+        sut.insertOrDecrease(0, 1.0);
+        sut.insertOrDecrease(2, 2.0);
+        sut.clear();
+        assertTrue(sut.isEmpty());
+        assertFalse(sut.contains(0));
+        assertFalse(sut.contains(2));
+        sut.insertOrDecrease(2, 4.0);
+        assertEquals(2, sut.poll());
+    }
+}
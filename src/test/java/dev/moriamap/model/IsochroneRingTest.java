@@ -0,0 +1,54 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+class IsochroneRingTest {
+    private static final Stop STOP = Stop.from("stop", GeographicPosition.at(1.0, 2.0));
+
+    @Test void constructorPassingNullArgumentThrowsException() {
+        Duration bound = Duration.ofMinutes(5);
+        List<Stop> stops = List.of();
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new IsochroneRing(null, bound, stops)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new IsochroneRing(bound, null, stops)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new IsochroneRing(bound, bound, null)
+        );
+    }
+
+    @Test void stopsAreUnmodifiable() {
+        List<Stop> stops = new ArrayList<>(List.of(STOP));
+        IsochroneRing sut = new IsochroneRing(Duration.ZERO, Duration.ofMinutes(5), stops);
+        assertThrows(UnsupportedOperationException.class, () -> sut.stops().add(STOP));
+    }
+
+    @Test void positionsFollowStops() {
+        IsochroneRing sut = new IsochroneRing(
+            Duration.ZERO, Duration.ofMinutes(5), List.of(STOP));
+        assertEquals(List.of(GeographicPosition.at(1.0, 2.0)), sut.positions());
+    }
+
+    @Test void lowerBoundIsIncludedOnlyIfZero() {
+        IsochroneRing first = new IsochroneRing(
+            Duration.ZERO, Duration.ofMinutes(5), List.of(STOP));
+        assertTrue(first.contains(Duration.ZERO));
+        assertTrue(first.contains(Duration.ofMinutes(5)));
+        assertFalse(first.contains(Duration.ofSeconds(301)));
+        IsochroneRing second = new IsochroneRing(
+            Duration.ofMinutes(5), Duration.ofMinutes(10), List.of());
+        assertFalse(second.contains(Duration.ofMinutes(5)));
+        assertTrue(second.contains(Duration.ofSeconds(301)));
+        assertTrue(second.contains(Duration.ofMinutes(10)));
+        assertThrows(IllegalArgumentException.class, () -> second.contains(null));
+    }
+}
@@ -0,0 +1,132 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.moriamap.model.Fixtures.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+class IsochroneRouterTest {
+
+    private static int seconds(int hour, int minute) {
+        return LocalTime.of(hour, minute).toSecondOfDay();
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> IsochroneRouter.of(null));
+        IsochroneRouter sut = IsochroneRouter.of(Timetable.of(smallNetwork()));
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.arrivals(A, LocalTime.NOON, Duration.ofMinutes(-1))
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.arrivals(0, 0, 60, new int[1])
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.rings(A, LocalTime.NOON,
+                            List.of(Duration.ofMinutes(5), Duration.ofMinutes(5)))
+        );
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.rings(absent, LocalTime.NOON)
+        );
+    }
+
+    @Test void budgetBoundsReachedStops() {
+        Timetable timetable = Timetable.of(smallNetwork());
+        CompiledGraph graph = timetable.getGraph();
+        IsochroneRouter sut = IsochroneRouter.of(timetable);
+        int[] arrivals = sut.arrivals(A, LocalTime.of(8, 0), Duration.ofMinutes(5));
+        assertEquals(seconds(8, 0), arrivals[graph.idOf(A)]);
+        assertEquals(seconds(8, 1), arrivals[graph.idOf(B)]);
+        assertEquals(seconds(8, 3), arrivals[graph.idOf(D)]);
+        assertEquals(seconds(8, 4), arrivals[graph.idOf(F)]);
+        assertEquals(IsochroneRouter.UNREACHABLE, arrivals[graph.idOf(E)]);
+        arrivals = sut.arrivals(A, LocalTime.of(8, 0), Duration.ofMinutes(3));
+        assertEquals(seconds(8, 3), arrivals[graph.idOf(D)]);
+        assertEquals(IsochroneRouter.UNREACHABLE, arrivals[graph.idOf(F)]);
+    }
+
+    @Test void ringsGroupStopsByTravelTime() {
+        IsochroneRouter sut = IsochroneRouter.of(Timetable.of(smallNetwork()));
+        List<IsochroneRing> rings = sut.rings(
+            A, LocalTime.of(8, 0),
+            List.of(Duration.ofMinutes(2), Duration.ofMinutes(4)));
+        assertEquals(2, rings.size());
+        assertEquals(List.of(A, B, C), rings.get(0).stops());
+        assertEquals(Duration.ZERO, rings.get(0).lower());
+        assertEquals(List.of(D, F), rings.get(1).stops());
+        assertEquals(Duration.ofMinutes(2), rings.get(1).lower());
+        assertEquals(
+            List.of(D.getGeographicPosition(), F.getGeographicPosition()),
+            rings.get(1).positions()
+        );
+        rings = sut.rings(E, LocalTime.of(8, 0));
+        assertEquals(3, rings.size());
+        assertEquals(List.of(E, B, F), rings.get(0).stops());
+        assertTrue(rings.get(1).stops().isEmpty());
+        assertEquals(List.of(C, D), rings.get(2).stops());
+    }
+
+    @Test void firstRingHoldsSource() {
+        IsochroneRouter sut = IsochroneRouter.of(Timetable.of(smallNetwork()));
+        List<IsochroneRing> rings = sut.rings(B, LocalTime.of(8, 0));
+        assertEquals(B, rings.get(0).stops().get(0));
+        assertTrue(rings.get(0).contains(Duration.ZERO));
+        for (int i = 1; i < rings.size(); i++) {
+            assertFalse(rings.get(i).stops().contains(B));
+            assertFalse(rings.get(i).contains(Duration.ZERO));
+        }
+    }
+
+    @Test void footpathsReachNearbyStops() {
+        Timetable timetable = Timetable.of(walkNetwork());
+        CompiledGraph graph = timetable.getGraph();
+        IsochroneRouter sut = IsochroneRouter.of(timetable);
+        int[] arrivals = sut.arrivals(A, LocalTime.of(8, 0), Duration.ofMinutes(10));
+        assertEquals(seconds(8, 2) + 80, arrivals[graph.idOf(G)]);
+        assertEquals(seconds(8, 7), arrivals[graph.idOf(D)]);
+        arrivals = sut.arrivals(A, LocalTime.of(8, 0), Duration.ofMinutes(3));
+        assertEquals(IsochroneRouter.UNREACHABLE, arrivals[graph.idOf(G)]);
+        arrivals = sut.arrivals(G, LocalTime.of(9, 0), Duration.ofMinutes(2));
+        assertEquals(seconds(9, 0) + 80, arrivals[graph.idOf(C)]);
+    }
+
+    @Test void parisArrivalsMatchEarliestArrivals()
+      throws InconsistentCSVException {
+        assertParisArrivalsMatchEarliestArrivals(
+            Timetable.of(parisNetworkWithDepartures()));
+    }
+
+    @Test void parisArrivalsWithWalksMatchEarliestArrivals()
+      throws InconsistentCSVException {
+        assertParisArrivalsMatchEarliestArrivals(
+            Timetable.of(parisNetworkWithWalks()));
+    }
+
+    private static void assertParisArrivalsMatchEarliestArrivals(
+      Timetable timetable
+    ) {
+        IsochroneRouter sut = IsochroneRouter.of(timetable);
+        int n = timetable.getGraph().getVertexCount();
+        int departure = seconds(7, 3);
+        int budget = 20 * 60;
+        // Runs the searches from several threads sharing the router
+        IntStream.range(0, n).filter(src -> src % 7 == 0).parallel().forEach(src -> {
+            int[] expected = RaptorRouterTest.earliestArrivals(timetable, src, departure);
+            int[] arrivals = sut.arrivals(src, departure, budget, new int[n]);
+            for (int s = 0; s < n; s++) {
+                if (expected[s] <= departure + budget)
+                    assertEquals(expected[s], arrivals[s]);
+                else
+                    assertEquals(IsochroneRouter.UNREACHABLE, arrivals[s]);
+            }
+        });
+    }
+}
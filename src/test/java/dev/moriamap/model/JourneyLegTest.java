@@ -0,0 +1,55 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+
+class JourneyLegTest {
+    private static final Variant VARIANT = Variant.empty("1", "8");
+    private static final Stop FROM = Stop.from("from", GeographicPosition.at(0.0, 0.0));
+    private static final Stop TO = Stop.from("to", GeographicPosition.at(0.0, 1.0));
+
+    @Test void constructorPassingNullArgumentThrowsException() {
+        LocalTime time = LocalTime.NOON;
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new JourneyLeg(VARIANT, null, TO, time, time)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new JourneyLeg(VARIANT, FROM, null, time, time)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new JourneyLeg(VARIANT, FROM, TO, null, time)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new JourneyLeg(VARIANT, FROM, TO, time, null)
+        );
+    }
+
+    @Test void accessorsReturnConstructorValues() {
+        JourneyLeg sut = new JourneyLeg(
+            VARIANT, FROM, TO, LocalTime.of(8, 0), LocalTime.of(8, 5));
+        assertEquals(VARIANT, sut.variant());
+        assertEquals(FROM, sut.from());
+        assertEquals(TO, sut.to());
+        assertEquals(LocalTime.of(8, 0), sut.departure());
+        assertEquals(LocalTime.of(8, 5), sut.arrival());
+        assertFalse(sut.isWalk());
+    }
+
+    @Test void walkHasNoVariant() {
+        JourneyLeg sut = JourneyLeg.walk(
+            FROM, TO, LocalTime.of(8, 0), LocalTime.of(8, 5));
+        assertTrue(sut.isWalk());
+        assertNull(sut.variant());
+        assertEquals(sut, new JourneyLeg(
+            null, FROM, TO, LocalTime.of(8, 0), LocalTime.of(8, 5)));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> JourneyLeg.walk(FROM, TO, null, LocalTime.NOON)
+        );
+    }
+}
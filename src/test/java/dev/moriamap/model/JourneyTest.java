@@ -0,0 +1,68 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class JourneyTest {
+    private static final Variant VARIANT = Variant.empty("1", "8");
+
+    @Test void emptyJourneyHasNoTransfer() {
+        Journey sut = Journey.from(new ArrayList<>(), 100, 100, 0.0);
+        assertTrue(sut.isEmpty());
+        assertEquals(0, sut.getTransferCount());
+        assertEquals(Duration.ZERO, sut.getTravelDuration());
+    }
+
+    @Test void journeyCountsTransfersBetweenLegs() {
+        List<JourneyLeg> legs = new ArrayList<>();
+        legs.add(new JourneyLeg(
+            VARIANT, A, B, LocalTime.of(8, 0), LocalTime.of(8, 5)));
+        legs.add(new JourneyLeg(
+            VARIANT, B, C, LocalTime.of(8, 7), LocalTime.of(8, 9)));
+        Journey sut = Journey.from(
+            legs,
+            LocalTime.of(8, 0).toSecondOfDay(),
+            LocalTime.of(8, 9).toSecondOfDay(),
+            12.5
+        );
+        assertEquals(1, sut.getTransferCount());
+        assertEquals(12.5, sut.getDistance());
+        assertEquals(legs, sut.getLegs());
+        assertEquals(LocalTime.of(8, 0), sut.getDeparture());
+        assertEquals(LocalTime.of(8, 9), sut.getArrival());
+        assertEquals(Duration.ofMinutes(9), sut.getTravelDuration());
+        assertThrows(
+            UnsupportedOperationException.class,
+            () -> sut.getLegs().clear()
+        );
+    }
+
+    @Test void walksAreNotTransfers() {
+        List<JourneyLeg> legs = new ArrayList<>();
+        legs.add(JourneyLeg.walk(A, B, LocalTime.of(8, 0), LocalTime.of(8, 5)));
+        legs.add(new JourneyLeg(
+            VARIANT, B, C, LocalTime.of(8, 7), LocalTime.of(8, 9)));
+        legs.add(JourneyLeg.walk(C, D, LocalTime.of(8, 9), LocalTime.of(8, 12)));
+        Journey sut = Journey.from(
+            legs,
+            LocalTime.of(8, 0).toSecondOfDay(),
+            LocalTime.of(8, 12).toSecondOfDay(),
+            2.0
+        );
+        assertEquals(0, sut.getTransferCount());
+    }
+
+    @Test void journeyPastMidnightKeepsPositiveDuration() {
+        int departure = LocalTime.of(23, 50).toSecondOfDay();
+        Journey sut = Journey.from(new ArrayList<>(), departure, departure + 1200, 0.0);
+        assertEquals(LocalTime.of(0, 10), sut.getArrival());
+        assertEquals(Duration.ofMinutes(20), sut.getTravelDuration());
+        assertEquals(departure + 1200, sut.getArrivalSecond());
+        assertEquals(departure, sut.getDepartureSecond());
+    }
+}
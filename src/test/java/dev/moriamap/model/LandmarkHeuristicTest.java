@@ -0,0 +1,99 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+class LandmarkHeuristicTest {
+    @Test void invalidArgumentsThrowException() {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LandmarkHeuristic.of(null, RouteMetric.WEIGHT, 2)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LandmarkHeuristic.of(graph, null, 2)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LandmarkHeuristic.of(graph, RouteMetric.WEIGHT, 0)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LandmarkHeuristic.withLandmarks(graph, RouteMetric.WEIGHT, null)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> LandmarkHeuristic.withLandmarks(
+                graph, RouteMetric.WEIGHT, new int[]{graph.getVertexCount()})
+        );
+    }
+
+    @Test void landmarkCountIsLoweredToVertexCount() {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        LandmarkHeuristic sut = LandmarkHeuristic.of(graph, RouteMetric.WEIGHT, 8);
+        assertEquals(graph.getVertexCount(), sut.getLandmarkCount());
+        boolean[] seen = new boolean[graph.getVertexCount()];
+        for (int i = 0; i < graph.getVertexCount(); i++) {
+            assertFalse(seen[sut.getLandmark(i)]);
+            seen[sut.getLandmark(i)] = true;
+        }
+    }
+
+    @Test void landmarkAGivesExactEstimates() {
+        CompiledGraph graph = CompiledGraph.of(triangleNetwork());
+        LandmarkHeuristic sut = LandmarkHeuristic.withLandmarks(
+            graph, RouteMetric.TRAVEL_TIME, new int[]{graph.idOf(A)});
+        assertEquals(1, sut.getLandmarkCount());
+        assertEquals(graph.idOf(A), sut.getLandmark(0));
+        assertEquals(
+            120.0, sut.estimate(graph.idOf(A), graph.idOf(C)), 1e-6);
+        assertEquals(
+            60.0, sut.estimate(graph.idOf(B), graph.idOf(C)), 1e-6);
+        assertEquals(0.0, sut.estimate(graph.idOf(C), graph.idOf(C)));
+    }
+
+    @Test void estimatesNeverExceedShortestRouteCosts()
+      throws InconsistentCSVException {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        for (RouteMetric metric : RouteMetric.values()) {
+            LandmarkHeuristic sut = LandmarkHeuristic.of(graph, metric, 8);
+            for (int src = 0; src < graph.getVertexCount(); src += 23) {
+                double[] costs = bellmanFord(graph, src, metric);
+                for (int dst = 0; dst < graph.getVertexCount(); dst++)
+                    assertTrue(sut.estimate(src, dst) <= costs[dst]);
+            }
+        }
+    }
+
+    @Test void aStarFindsSameRoutesAsDijkstraWithFewerSettledVertices()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        CompiledGraph graph = CompiledGraph.of(tn);
+        for (RouteMetric metric : RouteMetric.values()) {
+            DijkstraRouter dijkstra = DijkstraRouter.of(graph, metric);
+            DijkstraRouter alt = DijkstraRouter.of(
+                graph, metric, LandmarkHeuristic.of(graph, metric, 8));
+            int n = graph.getVertexCount();
+            for (int src = 0; src < n; src += 7) {
+                for (int dst = 0; dst < n; dst += 13) {
+                    Route expected = dijkstra.route(src, dst);
+                    Route actual = alt.route(src, dst);
+                    if (expected == null)
+                        assertNull(actual);
+                    else
+                        assertEquals(expected.getCost(), actual.getCost(), 1e-9);
+                }
+            }
+        }
+        Stop lourmel = tn.getStopByName("Lourmel");
+        Stop pointeDuLac = tn.getStopByName("Pointe du Lac");
+        DijkstraRouter dijkstra = DijkstraRouter.of(graph, RouteMetric.TRAVEL_TIME);
+        DijkstraRouter alt = DijkstraRouter.of(graph, RouteMetric.TRAVEL_TIME,
+            LandmarkHeuristic.of(graph, RouteMetric.TRAVEL_TIME, 8));
+        dijkstra.route(lourmel, pointeDuLac);
+        alt.route(lourmel, pointeDuLac);
+        assertTrue(alt.getSettledCount() <= dijkstra.getSettledCount());
+    }
+}
@@ -98,4 +98,14 @@ class LineTest {
         l1.addVariant(v);
         assertEquals(l.hashCode(), l1.hashCode());
     }
+
+    @Test void removeVariantRemovesIt() {
+        Line l = Line.of("14");
+        Variant v = Variant.empty("1","14");
+        l.addVariant(v);
+        assertTrue(l.removeVariant(v));
+        assertFalse(l.removeVariant(v));
+        assertFalse(l.containsVariant(v));
+        assertThrows(IllegalArgumentException.class, () -> l.removeVariant(null));
+    }
 }
@@ -0,0 +1,230 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+import java.util.Set;
+
+class NetworkDeltaTest {
+    private static final String NEW_ROW =
+        "Alpha;2.0, 48.0;Beta;2.1, 48.1;99 variant 1;1:00;5.0";
+
+    private static List<String> networkRows() {
+        InputStream resource = NetworkDeltaTest.class
+            .getResourceAsStream("/test_data_transportNetwork.csv");
+        List<String> rows = new ArrayList<>();
+        Scanner sc = new Scanner(resource, StandardCharsets.UTF_8);
+        while (sc.hasNextLine())
+            rows.add(sc.nextLine());
+        return rows;
+    }
+
+    private static TransportNetwork networkOf(List<String> rows)
+      throws InconsistentCSVException {
+        return TransportNetworkParser.generateFrom(streamOf(String.join("\n", rows)));
+    }
+
+    private static InputStream streamOf(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Replaces the duration of row by duration
+    private static String withDuration(String row, String duration) {
+        String[] fields = row.split(";");
+        fields[5] = duration;
+        return String.join(";", fields);
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> NetworkDelta.of(null));
+        assertThrows(IllegalArgumentException.class, () -> NetworkDelta.from(null));
+        List<NetworkDelta.Change> withNull = new ArrayList<>();
+        withNull.add(null);
+        assertThrows(IllegalArgumentException.class, () -> NetworkDelta.of(withNull));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new NetworkDelta.SegmentChange(NetworkDelta.Operation.ADD, null)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new NetworkDelta.DepartureChange(
+                NetworkDelta.Operation.CHANGE, "99", "1", LocalTime.NOON)
+        );
+        NetworkDelta sut = NetworkDelta.of(List.of());
+        assertThrows(IllegalArgumentException.class, () -> sut.applyTo(null));
+    }
+
+    @Test void malformedRowsThrowInconsistentCSVException() {
+        assertThrows(
+            InconsistentCSVException.class,
+            () -> NetworkDelta.from(streamOf("*;" + NEW_ROW))
+        );
+        assertThrows(
+            InconsistentCSVException.class,
+            () -> NetworkDelta.from(streamOf(NEW_ROW))
+        );
+        assertThrows(
+            InconsistentCSVException.class,
+            () -> NetworkDelta.from(streamOf("~;99;1;08:30"))
+        );
+        assertThrows(
+            InconsistentCSVException.class,
+            () -> NetworkDelta.from(streamOf("+;99;1;8h30"))
+        );
+    }
+
+    @Test void parsesOperationsInOrder() throws InconsistentCSVException {
+        NetworkDelta sut = NetworkDelta.from(
+            streamOf("+;" + NEW_ROW + "\n\n-;" + NEW_ROW + "\n~;" + NEW_ROW + "\n"));
+        List<NetworkDelta.Change> changes = sut.getChanges();
+        assertEquals(3, changes.size());
+        assertEquals(NetworkDelta.Operation.ADD, changes.get(0).operation());
+        assertEquals(NetworkDelta.Operation.REMOVE, changes.get(1).operation());
+        assertEquals(NetworkDelta.Operation.CHANGE, changes.get(2).operation());
+        EdgeTuple tuple = ((NetworkDelta.SegmentChange) changes.get(0)).tuple();
+        assertEquals("Alpha", tuple.fromName());
+        assertEquals(Duration.ofMinutes(1), tuple.duration());
+    }
+
+    @Test void deltaMatchesRebuildOfEditedFile() throws InconsistentCSVException {
+        List<String> rows = networkRows();
+        String changed = rows.get(0);
+        String balard = rows.get(36);
+        String lastOfVariant = rows.get(rows.size() - 1);
+        String delta = String.join("\n",
+            "~;" + withDuration(changed, "5:00"),
+            "-;" + balard,
+            "-;" + lastOfVariant,
+            "+;" + NEW_ROW);
+        TransportNetwork sut = networkOf(rows);
+
+        DeltaReport report = NetworkDelta.from(streamOf(delta)).applyAndCompare(sut);
+        assertEquals(1, report.added());
+        assertEquals(2, report.removed());
+        assertEquals(1, report.changed());
+        assertTrue(report.isCompared());
+        assertTrue(report.speedup() > 0);
+
+        List<String> edited = new ArrayList<>(rows);
+        edited.set(0, withDuration(changed, "5:00"));
+        edited.remove(balard);
+        edited.remove(lastOfVariant);
+        edited.add(NEW_ROW);
+        TransportNetwork expected = networkOf(edited);
+        assertEquals(Set.copyOf(expected.getStops()), Set.copyOf(sut.getStops()));
+        assertEquals(Set.copyOf(expected.getTransportSegments()),
+                     Set.copyOf(sut.getTransportSegments()));
+        assertEquals(Set.copyOf(expected.toEdgeTuples()), Set.copyOf(sut.toEdgeTuples()));
+        assertEquals(3, sut.getLines().size());
+        assertEquals(2, sut.findLine("4").getVariants().size());
+        assertNull(sut.getStopByName("Balard"));
+        Stop lourmel = sut.getStopByName("Lourmel");
+        for (Edge edge : sut.getOutgoingEdgesOf(lourmel)) {
+            TransportSegment segment = (TransportSegment) edge;
+            if (segment.getVariantName().equals("1"))
+                assertEquals(Duration.ofMinutes(5), segment.getTravelDuration());
+        }
+    }
+
+    @Test void deltaWithTransfersMatchesRebuildWithTransfers()
+      throws InconsistentCSVException {
+        List<String> rows = networkRows();
+        String balard = rows.get(36);
+        String nearby = "Gamma;2.2825, 48.8390;Delta;2.2880, 48.8412;99 variant 1;1:00;5.0";
+        WalkingTransfers transfers = WalkingTransfers.of();
+        TransportNetwork sut = networkOf(rows);
+        transfers.addTo(sut);
+        NetworkDelta delta = NetworkDelta.from(streamOf("-;" + balard + "\n+;" + nearby));
+        assertThrows(IllegalArgumentException.class, () -> delta.applyAndCompare(sut));
+        assertThrows(IllegalArgumentException.class, () -> delta.applyTo(sut, null));
+
+        DeltaReport report = delta.applyAndCompare(sut, transfers);
+        assertTrue(report.isCompared());
+        List<String> edited = new ArrayList<>(rows);
+        edited.remove(balard);
+        edited.add(nearby);
+        TransportNetwork expected = networkOf(edited);
+        transfers.addTo(expected);
+        assertEquals(Set.copyOf(expected.getWalkingSegments()),
+                     Set.copyOf(sut.getWalkingSegments()));
+        Stop gamma = sut.getStopByName("Gamma");
+        assertTrue(sut.getOutgoingEdgesOf(gamma).stream()
+                   .anyMatch(WalkingSegment.class::isInstance));
+    }
+
+    @Test void removingLastSegmentRemovesLine() throws InconsistentCSVException {
+        TransportNetwork sut = networkOf(List.of(NEW_ROW));
+        DeltaReport report = NetworkDelta.from(streamOf("-;" + NEW_ROW)).applyTo(sut);
+        assertFalse(report.isCompared());
+        assertTrue(sut.getLines().isEmpty());
+        assertTrue(sut.getStops().isEmpty());
+    }
+
+    @Test void missingOrDuplicateSegmentsThrowException() throws InconsistentCSVException {
+        TransportNetwork sut = networkOf(List.of(NEW_ROW));
+        NetworkDelta duplicate = NetworkDelta.from(streamOf("+;" + NEW_ROW));
+        assertThrows(IllegalArgumentException.class, () -> duplicate.applyTo(sut));
+        String other = NEW_ROW.replace("99", "98");
+        NetworkDelta missing = NetworkDelta.from(streamOf("~;" + other));
+        assertThrows(NoSuchElementException.class, () -> missing.applyTo(sut));
+        assertEquals(1, sut.getTransportSegments().size());
+    }
+
+    @Test void modificationCountTracksDelta() throws InconsistentCSVException {
+        TransportNetwork sut = networkOf(List.of(NEW_ROW));
+        int count = sut.getModificationCount();
+        NetworkDelta.from(streamOf("~;" + withDuration(NEW_ROW, "2:00"))).applyTo(sut);
+        assertTrue(sut.getModificationCount() > count);
+    }
+
+    @Test void parsesDepartureRows() throws InconsistentCSVException {
+        NetworkDelta sut = NetworkDelta.from(streamOf("+;99;1;08:30\n-;99;1;09:00"));
+        assertEquals(
+            List.of(
+                new NetworkDelta.DepartureChange(
+                    NetworkDelta.Operation.ADD, "99", "1", LocalTime.of(8, 30)),
+                new NetworkDelta.DepartureChange(
+                    NetworkDelta.Operation.REMOVE, "99", "1", LocalTime.of(9, 0))),
+            sut.getChanges()
+        );
+    }
+
+    @Test void departuresOfNewVariantAreRouted() throws InconsistentCSVException {
+        TransportNetwork sut = networkOf(networkRows());
+        Stop alpha = Stop.from("Alpha", GeographicPosition.at(48.0, 2.0));
+        Stop beta = Stop.from("Beta", GeographicPosition.at(48.1, 2.1));
+        DeltaReport report = NetworkDelta.from(streamOf(String.join("\n",
+            "+;" + NEW_ROW,
+            "+;99;1;08:30",
+            "+;99;1;09:00",
+            "-;99;1;09:00"))).applyAndCompare(sut);
+        assertEquals(3, report.added());
+        assertEquals(1, report.removed());
+        assertEquals(
+            List.of(LocalTime.of(8, 30)),
+            sut.findLine("99").getVariants().get(0).getDepartures());
+        Journey journey = RaptorRouter.of(Timetable.of(sut))
+            .route(alpha, beta, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 31), journey.getArrival());
+    }
+
+    @Test void missingOrDuplicateDeparturesThrowException()
+      throws InconsistentCSVException {
+        TransportNetwork sut = networkOf(List.of(NEW_ROW));
+        NetworkDelta.from(streamOf("+;99;1;08:30")).applyTo(sut);
+        NetworkDelta duplicate = NetworkDelta.from(streamOf("+;99;1;08:30"));
+        assertThrows(IllegalArgumentException.class, () -> duplicate.applyTo(sut));
+        NetworkDelta missing = NetworkDelta.from(streamOf("-;99;1;09:00"));
+        assertThrows(NoSuchElementException.class, () -> missing.applyTo(sut));
+        NetworkDelta noVariant = NetworkDelta.from(streamOf("+;98;1;08:30"));
+        assertThrows(NoSuchElementException.class, () -> noVariant.applyTo(sut));
+    }
+}
@@ -0,0 +1,142 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+class NetworkServiceTest {
+    private static NetworkSnapshot snapshotOf(Stop from, Stop to) {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(segment(from, to));
+        return tn.snapshot();
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        NetworkSnapshot initial = snapshotOf(A, B);
+        assertThrows(IllegalArgumentException.class, () -> NetworkService.of(null));
+        assertThrows(IllegalArgumentException.class, () -> NetworkService.of(initial, null));
+        NetworkService sut = NetworkService.of(initial);
+        assertThrows(IllegalArgumentException.class, () -> sut.swap(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.query(null));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.reload((Supplier<TransportNetwork>) null));
+        assertThrows(IllegalArgumentException.class, () -> sut.reload((Path) null));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.reload(Path.of("network.csv"), null));
+    }
+
+    @Test void swapReplacesCurrentSnapshot() {
+        NetworkSnapshot first = snapshotOf(A, B);
+        NetworkSnapshot second = snapshotOf(B, C);
+        NetworkService sut = NetworkService.of(first);
+        assertSame(first, sut.current());
+        assertTrue(sut.swap(second));
+        assertSame(second, sut.current());
+        boolean found = sut.query(s -> s.contains(C));
+        assertTrue(found);
+    }
+
+    @Test void reloadSwapsInBackground() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            NetworkSnapshot first = snapshotOf(A, B);
+            NetworkService sut = NetworkService.of(first, executor);
+            CountDownLatch building = new CountDownLatch(1);
+            CompletableFuture<NetworkSnapshot> reload = sut.reload(() -> {
+                try {
+                    building.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return snapshotOf(B, C).toNetwork();
+            });
+            // Readers keep the first snapshot while the next one is built
+            assertSame(first, sut.current());
+            building.countDown();
+            NetworkSnapshot next = reload.get(10, TimeUnit.SECONDS);
+            assertSame(next, sut.current());
+            assertTrue(next.contains(C));
+            assertFalse(first.contains(C));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void laterRequestWinsOverSlowerReload() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            NetworkService sut = NetworkService.of(snapshotOf(A, B), executor);
+            CountDownLatch building = new CountDownLatch(1);
+            CompletableFuture<NetworkSnapshot> slow = sut.reload(() -> {
+                try {
+                    building.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return TransportNetwork.empty();
+            });
+            NetworkSnapshot latest = snapshotOf(B, C);
+            assertTrue(sut.swap(latest));
+            building.countDown();
+            assertSame(latest, slow.get(10, TimeUnit.SECONDS));
+            assertSame(latest, sut.current());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test void failedReloadKeepsCurrentSnapshot() throws Exception {
+        NetworkSnapshot first = snapshotOf(A, B);
+        NetworkService sut = NetworkService.of(first);
+        CompletableFuture<NetworkSnapshot> reload =
+            sut.reload(Path.of("does", "not", "exist.csv"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> reload.get());
+        assertTrue(e.getCause() instanceof UncheckedIOException);
+        assertSame(first, sut.current());
+    }
+
+    @Test void reloadParsesNetworkFile() throws Exception {
+        Path file = Files.createTempFile("network", ".csv");
+        try {
+            try (InputStream in = NetworkServiceTest.class
+                     .getResourceAsStream("/test_data_transportNetwork.csv")) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            NetworkService sut = NetworkService.of(snapshotOf(A, B));
+            NetworkSnapshot next = sut.reload(file).get(10, TimeUnit.SECONDS);
+            assertSame(next, sut.current());
+            assertNotNull(next.getStopByName("Lourmel"));
+            assertTrue(next.getTimetable().getFootpathCount() > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test void inconsistentFileFailsReload() throws IOException {
+        Path file = Files.createTempFile("network", ".csv");
+        try {
+            Files.writeString(file, "1;1;3\n3;3\n");
+            NetworkSnapshot first = snapshotOf(A, B);
+            NetworkService sut = NetworkService.of(first);
+            ExecutionException e = assertThrows(
+                ExecutionException.class, () -> sut.reload(file).get(10, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof InconsistentCSVException);
+            assertSame(first, sut.current());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+import java.util.List;
+
+class NetworkSnapshotTest {
+    // Line 1 from A to B, with one departure
+    private static TransportNetwork newNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Line line = Line.of("1");
+        Variant variant = Variant.empty("1", "1");
+        TransportSegment ab = segment(A, B);
+        variant.addTransportSegment(ab);
+        variant.addDeparture(LocalTime.of(8, 0));
+        line.addVariant(variant);
+        tn.addLine(line);
+        tn.addTransportSegment(ab);
+        return tn;
+    }
+
+    @Test void snapshotHasNetworkContent() {
+        TransportNetwork tn = newNetwork();
+        NetworkSnapshot sut = tn.snapshot();
+        assertEquals(tn.getModificationCount(), sut.getVersion());
+        assertEquals(2, sut.getGraph().getVertexCount());
+        assertEquals(1, sut.getTimetable().getPatternCount());
+        assertEquals(List.of(segment(A, B)), sut.getTransportSegments());
+        assertEquals(tn.getLines(), sut.getLines());
+        assertTrue(sut.contains(A));
+        assertFalse(sut.contains(C));
+        assertEquals(B, sut.getStopByName("B"));
+        assertNull(sut.getStopByName("C"));
+        assertEquals(A, sut.getStopFromPosition(GeographicPosition.at(0.0, 0.0)));
+        assertNull(sut.getStopFromPosition(GeographicPosition.NORTH_POLE));
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        NetworkSnapshot sut = newNetwork().snapshot();
+        assertThrows(IllegalArgumentException.class, () -> sut.contains(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.getStopByName(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.getStopFromPosition(null));
+    }
+
+    @Test void snapshotIgnoresLaterChanges() {
+        TransportNetwork tn = newNetwork();
+        NetworkSnapshot sut = tn.snapshot();
+        tn.addTransportSegment(segment(B, C));
+        tn.getLines().get(0).getVariants().get(0).addDeparture(LocalTime.of(9, 0));
+        tn.addLine(Line.of("2"));
+        assertFalse(sut.contains(C));
+        assertEquals(1, sut.getTransportSegments().size());
+        assertEquals(1, sut.getLines().size());
+        assertEquals(1, sut.getLines().get(0).getVariants().get(0).getDepartures().size());
+        assertThrows(UnsupportedOperationException.class, () -> sut.getStops().clear());
+
+        sut.getLines().get(0).addVariant(Variant.empty("2", "1"));
+        assertEquals(1, sut.getLines().get(0).getVariants().size());
+    }
+
+    @Test void toNetworkStartsTheNextState() {
+        NetworkSnapshot sut = newNetwork().snapshot();
+        TransportNetwork next = sut.toNetwork();
+        assertEquals(sut.getLines(), next.getLines());
+        next.addTransportSegment(segment(B, C));
+        assertTrue(next.snapshot().contains(C));
+        assertFalse(sut.contains(C));
+        assertFalse(sut.toNetwork().getStops().contains(C));
+    }
+
+    @Test void sharedVariantsStayShared() {
+        TransportNetwork tn = newNetwork();
+        Line other = Line.of("2");
+        other.addVariant(tn.getLines().get(0).getVariants().get(0));
+        tn.addLine(other);
+        List<Line> lines = tn.snapshot().getLines();
+        assertSame(lines.get(0).getVariants().get(0), lines.get(1).getVariants().get(0));
+    }
+
+    @Test void parisSnapshotRoutesLikeTheNetwork() throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        NetworkSnapshot sut = tn.snapshot();
+        assertEquals(tn.getStops().size(), sut.getStops().size());
+        assertEquals(tn.getTransportSegments().size(), sut.getTransportSegments().size());
+        CompiledGraph expected = CompiledGraph.of(tn);
+        assertEquals(expected.getEdgeCount(), sut.getGraph().getEdgeCount());
+        for (Stop stop : tn.getStops())
+            assertEquals(tn.getStopByName(stop.getName()).getName(),
+                         sut.getStopByName(stop.getName()).getName());
+    }
+
+    @Test void snapshotCompletesStopNames() {
+        TransportNetwork tn = newNetwork();
+        Stop otherA = Stop.from("A", GeographicPosition.at(5.0, 5.0));
+        tn.addStop(otherA);
+        NetworkSnapshot sut = tn.snapshot();
+        tn.addStop(C);
+        assertEquals(List.of("A", "B"), sut.completeStopName("", 5));
+        assertEquals(2, sut.getStopsByName("A").size());
+        assertTrue(sut.getStopsByName("C").isEmpty());
+    }
+
+    @Test void snapshotSearchesStops() {
+        NetworkSnapshot sut = newNetwork().snapshot();
+        assertEquals(B, sut.searchStops("b", 1).get(0).stop());
+        assertThrows(IllegalArgumentException.class, () -> sut.searchStops(null, 1));
+    }
+}
@@ -0,0 +1,170 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.moriamap.model.Fixtures.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class ParetoRouterTest {
+
+    @Test void invalidArgumentsThrowException() {
+        Timetable timetable = Timetable.of(smallNetwork());
+        assertThrows(IllegalArgumentException.class, () -> ParetoRouter.of(null));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ParetoRouter.of(timetable, -1)
+        );
+        ParetoRouter sut = ParetoRouter.of(timetable);
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(null, B, LocalTime.NOON)
+        );
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.route(absent, B, LocalTime.NOON)
+        );
+    }
+
+    @Test void paretoSetTradesTransfersForArrival() {
+        ParetoRouter sut = ParetoRouter.of(Timetable.of(smallNetwork()));
+        assertEquals(RaptorRouter.DEFAULT_MAX_TRANSFERS, sut.getMaxTransfers());
+        List<Journey> journeys = sut.route(A, F, LocalTime.of(8, 0));
+        assertEquals(2, journeys.size());
+        Journey direct = journeys.get(0);
+        assertEquals(0, direct.getTransferCount());
+        assertEquals(LocalTime.of(8, 15), direct.getArrival());
+        assertEquals("3", direct.getLegs().get(0).variant().getLineName());
+        Journey fastest = journeys.get(1);
+        assertEquals(1, fastest.getTransferCount());
+        assertEquals(LocalTime.of(8, 4), fastest.getArrival());
+        assertEquals(B, fastest.getLegs().get(0).to());
+        assertEquals(2.0, fastest.getDistance(), 1e-9);
+    }
+
+    @Test void unreachableDestinationGivesEmptySet() {
+        ParetoRouter sut = ParetoRouter.of(Timetable.of(smallNetwork()));
+        assertTrue(sut.route(D, A, LocalTime.of(8, 0)).isEmpty());
+        assertTrue(sut.route(A, D, LocalTime.of(8, 21)).isEmpty());
+        List<Journey> journeys = sut.route(C, C, LocalTime.of(8, 0));
+        assertEquals(1, journeys.size());
+        assertTrue(journeys.get(0).isEmpty());
+    }
+
+    @Test void distanceCriterionKeepsShorterJourneys() {
+        TransportNetwork tn = TransportNetwork.empty();
+        // A fast and long line and a slow and short line from A to C
+        Variant fast = Variant.empty("1", "fast");
+        Line fastLine = Line.of("fast");
+        fastLine.addVariant(fast);
+        tn.addLine(fastLine);
+        TransportSegment ab = TransportSegment.from(
+            A, B, "fast", "1", Duration.ofSeconds(60), 5.0);
+        TransportSegment bc = TransportSegment.from(
+            B, C, "fast", "1", Duration.ofSeconds(60), 5.0);
+        for (TransportSegment segment : List.of(ab, bc)) {
+            tn.addTransportSegment(segment);
+            fast.addTransportSegment(segment);
+        }
+        fast.addDeparture(LocalTime.of(8, 0));
+        Variant slow = Variant.empty("1", "slow");
+        Line slowLine = Line.of("slow");
+        slowLine.addVariant(slow);
+        tn.addLine(slowLine);
+        TransportSegment ac = TransportSegment.from(
+            A, C, "slow", "1", Duration.ofSeconds(600), 2.0);
+        tn.addTransportSegment(ac);
+        slow.addTransportSegment(ac);
+        slow.addDeparture(LocalTime.of(8, 0));
+        Timetable timetable = Timetable.of(tn);
+
+        List<Journey> timeOnly =
+            ParetoRouter.of(timetable).route(A, C, LocalTime.of(8, 0));
+        assertEquals(1, timeOnly.size());
+        assertEquals(LocalTime.of(8, 2), timeOnly.get(0).getArrival());
+        assertEquals(10.0, timeOnly.get(0).getDistance(), 1e-9);
+
+        ParetoRouter sut = ParetoRouter.of(timetable, 2, true);
+        assertTrue(sut.isDistanceCriterion());
+        List<Journey> journeys = sut.route(A, C, LocalTime.of(8, 0));
+        assertEquals(2, journeys.size());
+        assertEquals(LocalTime.of(8, 2), journeys.get(0).getArrival());
+        assertEquals(10.0, journeys.get(0).getDistance(), 1e-9);
+        assertEquals(LocalTime.of(8, 10), journeys.get(1).getArrival());
+        assertEquals(2.0, journeys.get(1).getDistance(), 1e-9);
+    }
+
+    @Test void journeysWalkBetweenTrips() {
+        ParetoRouter sut = ParetoRouter.of(Timetable.of(walkNetwork()), 1, true);
+        List<Journey> journeys = sut.route(A, D, LocalTime.of(8, 0));
+        assertEquals(1, journeys.size());
+        Journey journey = journeys.get(0);
+        assertEquals(LocalTime.of(8, 7), journey.getArrival());
+        assertEquals(1, journey.getTransferCount());
+        List<JourneyLeg> legs = journey.getLegs();
+        assertEquals(3, legs.size());
+        assertTrue(legs.get(1).isWalk());
+        assertEquals(G, legs.get(1).to());
+        assertEquals(3.0 + C.getGeographicPosition().distanceFrom(
+            G.getGeographicPosition()), journey.getDistance(), 1e-9);
+        journeys = sut.route(C, D, LocalTime.of(8, 0));
+        assertEquals(1, journeys.size());
+        assertTrue(journeys.get(0).getLegs().get(0).isWalk());
+        assertEquals(0, journeys.get(0).getTransferCount());
+    }
+
+    @Test void parisParetoSetsMatchBoundedRaptorSearches()
+      throws InconsistentCSVException {
+        assertParisParetoSetsMatchBoundedRaptorSearches(
+            Timetable.of(parisNetworkWithDepartures()));
+    }
+
+    @Test void parisParetoSetsWithWalksMatchBoundedRaptorSearches()
+      throws InconsistentCSVException {
+        assertParisParetoSetsMatchBoundedRaptorSearches(
+            Timetable.of(parisNetworkWithWalks()));
+    }
+
+    // Pareto sets are ordered by rides, as a walk only journey and a
+    // journey on one trip both have no transfer
+    private static long rideCount(Journey journey) {
+        return journey.getLegs().stream().filter(leg -> !leg.isWalk()).count();
+    }
+
+    private static void assertParisParetoSetsMatchBoundedRaptorSearches(
+      Timetable timetable
+    ) {
+        int maxTransfers = 3;
+        ParetoRouter sut = ParetoRouter.of(timetable, maxTransfers);
+        RaptorRouter[] raptors = new RaptorRouter[maxTransfers + 1];
+        for (int k = 0; k <= maxTransfers; k++)
+            raptors[k] = RaptorRouter.of(timetable, k);
+        int n = timetable.getGraph().getVertexCount();
+        int departure = LocalTime.of(7, 3).toSecondOfDay();
+        for (int src = 0; src < n; src += 13) {
+            for (int dst = 0; dst < n; dst += 3) {
+                List<Journey> journeys = sut.route(src, dst, departure);
+                for (int i = 1; i < journeys.size(); i++) {
+                    Journey previous = journeys.get(i - 1);
+                    Journey journey = journeys.get(i);
+                    assertTrue(rideCount(previous) < rideCount(journey));
+                    assertTrue(previous.getArrivalSecond() > journey.getArrivalSecond());
+                }
+                for (int k = 0; k <= maxTransfers; k++) {
+                    Journey expected = raptors[k].route(src, dst, departure);
+                    int best = Integer.MAX_VALUE;
+                    for (Journey journey : journeys)
+                        if (journey.getTransferCount() <= k)
+                            best = Math.min(best, journey.getArrivalSecond());
+                    if (expected == null)
+                        assertEquals(Integer.MAX_VALUE, best);
+                    else
+                        assertEquals(expected.getArrivalSecond(), best);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class PositionArrayTest {
+    private static final GeographicPosition PARIS = GeographicPosition.at(48.8566, 2.3522);
+
+    // Positions all over the Earth, then around Paris, in a number that is
+    // not a multiple of any vector length
+    private static List<GeographicPosition> randomPositions() {
+        Random random = new Random(13);
+        List<GeographicPosition> positions = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            positions.add(GeographicPosition.at(
+                random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        for (int i = 0; i < 503; i++)
+            positions.add(GeographicPosition.at(
+                48.8 + random.nextDouble() * 0.1, 2.25 + random.nextDouble() * 0.15));
+        return positions;
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> PositionArray.of(null));
+        List<GeographicPosition> withNull = new ArrayList<>();
+        withNull.add(null);
+        assertThrows(IllegalArgumentException.class, () -> PositionArray.of(withNull));
+        assertThrows(IllegalArgumentException.class, () -> PositionArray.of(null, new double[0]));
+        assertThrows(IllegalArgumentException.class,
+                     () -> PositionArray.of(new double[1], new double[2]));
+        assertThrows(IllegalArgumentException.class,
+                     () -> PositionArray.of(new double[]{91.0}, new double[]{0.0}));
+        PositionArray sut = PositionArray.of(List.of(PARIS, PARIS));
+        double[] into = new double[2];
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.distancesFrom(null, DistanceMetric.EUCLIDEAN, into));
+        assertThrows(IllegalArgumentException.class, () -> sut.distancesFrom(PARIS, null, into));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.distancesFrom(PARIS, DistanceMetric.EUCLIDEAN, null));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.distancesFrom(PARIS, DistanceMetric.EUCLIDEAN, new double[1]));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.distancesFrom(PARIS, DistanceMetric.EUCLIDEAN, 1, 0, into));
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.distancesFrom(PARIS, DistanceMetric.EUCLIDEAN, 0, 3, new double[3]));
+    }
+
+    @Test void accessorsReturnCoordinates() {
+        PositionArray sut = PositionArray.of(new double[]{48.85, -33.9}, new double[]{2.35, 151.2});
+        assertEquals(2, sut.size());
+        assertEquals(-33.9, sut.getLatitude(1));
+        assertEquals(151.2, sut.getLongitude(1));
+        assertEquals(0, PositionArray.of(List.of()).size());
+    }
+
+    @Test void euclideanDistancesEqualDistanceFrom() {
+        List<GeographicPosition> positions = randomPositions();
+        PositionArray sut = PositionArray.of(positions);
+        double[] into = new double[positions.size()];
+        sut.distancesFrom(PARIS, DistanceMetric.EUCLIDEAN, into);
+        for (int i = 0; i < positions.size(); i++)
+            assertEquals(PARIS.distanceFrom(positions.get(i)), into[i]);
+    }
+
+    @Test void distancesMatchGeographicPositionMethods() {
+        List<GeographicPosition> positions = randomPositions();
+        PositionArray sut = PositionArray.of(positions);
+        double[] into = new double[positions.size()];
+        for (DistanceMetric metric : DistanceMetric.values()) {
+            sut.distancesFrom(PARIS, metric, into);
+            for (int i = 0; i < positions.size(); i++) {
+                double expected = metric.between(PARIS, positions.get(i));
+                assertEquals(expected, into[i], 1e-6 * Math.max(1.0, expected));
+            }
+        }
+    }
+
+    // Only run by the vectorTest task, which puts the Vector API kernels on
+    // the class path
+    @Test void vectorAndScalarComputationsAgree() {
+        assumeTrue(PositionArray.isVectorized());
+        List<GeographicPosition> positions = randomPositions();
+        PositionArray sut = PositionArray.of(positions);
+        double[] vector = new double[positions.size()];
+        double[] scalar = new double[positions.size()];
+        for (DistanceMetric metric : DistanceMetric.values()) {
+            sut.distancesFrom(PARIS, metric, 0, sut.size(), vector, true);
+            sut.distancesFrom(PARIS, metric, 0, sut.size(), scalar, false);
+            for (int i = 0; i < positions.size(); i++)
+                assertEquals(scalar[i], vector[i], 1e-9 * Math.max(1.0, scalar[i]));
+        }
+    }
+
+    @Test void rangeOnlyWritesItsIndexes() {
+        List<GeographicPosition> positions = randomPositions();
+        PositionArray sut = PositionArray.of(positions);
+        double[] into = new double[positions.size()];
+        sut.distancesFrom(PARIS, DistanceMetric.HAVERSINE, 3, 17, into);
+        for (int i = 0; i < positions.size(); i++) {
+            if (i >= 3 && i < 17)
+                assertEquals(PARIS.haversineDistanceFrom(positions.get(i)), into[i], 1e-6);
+            else
+                assertEquals(0.0, into[i]);
+        }
+    }
+
+    @Test void equirectangularDistancesCrossAntimeridian() {
+        GeographicPosition east = GeographicPosition.at(10.0, 179.99);
+        PositionArray sut = PositionArray.of(new double[]{10.0}, new double[]{-179.99});
+        double[] into = new double[1];
+        sut.distancesFrom(east, DistanceMetric.EQUIRECTANGULAR, into);
+        assertEquals(east.equirectangularDistanceFrom(GeographicPosition.at(10.0, -179.99)),
+                     into[0], 1e-6);
+    }
+}
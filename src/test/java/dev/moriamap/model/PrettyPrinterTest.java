@@ -31,4 +31,15 @@ class PrettyPrinterTest {
 						  );
 	}
 
+	@Test
+	void routeTest() throws InconsistentCSVException {
+		TransportNetwork tn = TransportNetworkParser.generateFrom(
+				  PrettyPrinterTest.class.getResourceAsStream( "/test_map_data.csv" ) );
+		DijkstraRouter router = DijkstraRouter.of( CompiledGraph.of( tn ) );
+		Route route = router.route( tn.getStopByName( "Lourmel" ), tn.getStopByName( "Commerce" ) );
+		assertDoesNotThrow(
+				  () -> PrettyPrinter.printRoute( route )
+						  );
+	}
+
 }
@@ -0,0 +1,145 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.moriamap.model.Fixtures.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class ProfileRouterTest {
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> ProfileRouter.of(null));
+        ProfileRouter sut = ProfileRouter.of(Timetable.of(smallNetwork()));
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(A, B, LocalTime.NOON, null)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(A, B, LocalTime.NOON, LocalTime.MIDNIGHT)
+        );
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.route(A, absent, LocalTime.MIDNIGHT, LocalTime.NOON)
+        );
+    }
+
+    @Test void profileKeepsJourneysWorthTaking() {
+        ProfileRouter sut = ProfileRouter.of(Timetable.of(smallNetwork()));
+        List<Journey> journeys =
+            sut.route(A, F, LocalTime.of(8, 0), LocalTime.of(8, 30));
+        assertEquals(2, journeys.size());
+        assertEquals(LocalTime.of(8, 0), journeys.get(0).getDeparture());
+        assertEquals(LocalTime.of(8, 4), journeys.get(0).getArrival());
+        assertEquals(1, journeys.get(0).getTransferCount());
+        assertEquals(2.0, journeys.get(0).getDistance(), 1e-9);
+        assertEquals(LocalTime.of(8, 10), journeys.get(1).getDeparture());
+        assertEquals(LocalTime.of(8, 19), journeys.get(1).getArrival());
+        List<JourneyLeg> legs = journeys.get(1).getLegs();
+        assertEquals(B, legs.get(0).to());
+        assertEquals(LocalTime.of(8, 17), legs.get(1).departure());
+    }
+
+    @Test void windowBoundsDepartures() {
+        ProfileRouter sut = ProfileRouter.of(Timetable.of(smallNetwork()));
+        List<Journey> journeys =
+            sut.route(A, F, LocalTime.of(8, 1), LocalTime.of(8, 9));
+        assertTrue(journeys.isEmpty());
+        journeys = sut.route(A, D, LocalTime.of(8, 5), LocalTime.of(8, 20));
+        assertEquals(2, journeys.size());
+        assertEquals(LocalTime.of(8, 13), journeys.get(0).getArrival());
+        assertEquals(LocalTime.of(8, 23), journeys.get(1).getArrival());
+        assertTrue(sut.route(D, A, LocalTime.MIDNIGHT, LocalTime.NOON).isEmpty());
+        journeys = sut.route(C, C, LocalTime.MIDNIGHT, LocalTime.NOON);
+        assertEquals(1, journeys.size());
+        assertTrue(journeys.get(0).isEmpty());
+    }
+
+    @Test void profileWalksToBoardBetweenTripsAndToDestination() {
+        ProfileRouter sut = ProfileRouter.of(Timetable.of(walkNetwork()));
+        List<Journey> journeys =
+            sut.route(A, D, LocalTime.of(7, 0), LocalTime.of(9, 0));
+        assertEquals(1, journeys.size());
+        List<JourneyLeg> legs = journeys.get(0).getLegs();
+        assertEquals(3, legs.size());
+        assertTrue(legs.get(1).isWalk());
+        assertEquals(LocalTime.of(8, 3, 20), legs.get(1).arrival());
+        assertEquals(LocalTime.of(8, 7), journeys.get(0).getArrival());
+        journeys = sut.route(C, D, LocalTime.of(7, 0), LocalTime.of(9, 0));
+        assertEquals(1, journeys.size());
+        assertEquals(LocalTime.of(8, 3, 40), journeys.get(0).getDeparture());
+        assertTrue(journeys.get(0).getLegs().get(0).isWalk());
+        assertEquals(G, journeys.get(0).getLegs().get(1).from());
+        assertTrue(sut.route(C, D, LocalTime.of(8, 4), LocalTime.of(9, 0)).isEmpty());
+        journeys = sut.route(A, G, LocalTime.of(7, 0), LocalTime.of(9, 0));
+        assertEquals(1, journeys.size());
+        assertEquals(LocalTime.of(8, 3, 20), journeys.get(0).getArrival());
+        legs = journeys.get(0).getLegs();
+        assertEquals(G, legs.get(legs.size() - 1).to());
+        assertTrue(legs.get(legs.size() - 1).isWalk());
+    }
+
+    @Test void parisProfilesMatchEarliestArrivals()
+      throws InconsistentCSVException {
+        assertParisProfilesMatchEarliestArrivals(
+            Timetable.of(parisNetworkWithDepartures()));
+    }
+
+    @Test void parisProfilesWithWalksMatchEarliestArrivals()
+      throws InconsistentCSVException {
+        assertParisProfilesMatchEarliestArrivals(
+            Timetable.of(parisNetworkWithWalks()));
+    }
+
+    // Journeys made of a walk only are not in profiles, so they are not
+    // compared
+    private static void assertParisProfilesMatchEarliestArrivals(
+      Timetable timetable
+    ) {
+        ProfileRouter sut = ProfileRouter.of(timetable);
+        ConnectionScanRouter earliest = ConnectionScanRouter.of(timetable);
+        int n = timetable.getGraph().getVertexCount();
+        int from = LocalTime.of(7, 0).toSecondOfDay();
+        int to = LocalTime.of(8, 0).toSecondOfDay();
+        for (int src = 0; src < n; src += 17) {
+            for (int dst = 0; dst < n; dst += 5) {
+                if (src == dst)
+                    continue;
+                List<Journey> journeys = sut.route(src, dst, from, to);
+                for (int i = 0; i < journeys.size(); i++) {
+                    Journey journey = journeys.get(i);
+                    assertTrue(journey.getDepartureSecond() >= from);
+                    assertTrue(journey.getDepartureSecond() <= to);
+                    if (i > 0) {
+                        Journey previous = journeys.get(i - 1);
+                        assertTrue(previous.getDepartureSecond() < journey.getDepartureSecond());
+                        assertTrue(previous.getArrivalSecond() < journey.getArrivalSecond());
+                    }
+                    List<JourneyLeg> legs = journey.getLegs();
+                    assertEquals(dst, timetable.getGraph().idOf(legs.get(legs.size() - 1).to()));
+                    for (int l = 1; l < legs.size(); l++)
+                        assertFalse(legs.get(l).departure()
+                            .isBefore(legs.get(l - 1).arrival()));
+                }
+                for (int departure = from; departure <= to; departure += 420) {
+                    Journey expected = earliest.route(src, dst, departure);
+                    Journey next = null;
+                    for (Journey journey : journeys)
+                        if (next == null && journey.getDepartureSecond() >= departure)
+                            next = journey;
+                    if (expected == null)
+                        assertNull(next);
+                    else if (next != null && !isWalk(expected))
+                        assertEquals(expected.getArrivalSecond(), next.getArrivalSecond());
+                }
+            }
+        }
+    }
+
+    private static boolean isWalk(Journey journey) {
+        return journey.getLegs().stream().allMatch(JourneyLeg::isWalk);
+    }
+}
@@ -0,0 +1,193 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static dev.moriamap.model.Fixtures.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+class RaptorRouterTest {
+
+    // Reference earliest arrival times from src with any number of
+    // transfers, computed by relaxing every pattern until nothing changes.
+    // A footpath is walked from the source or right after a trip
+    static int[] earliestArrivals(Timetable timetable, int src, int departure) {
+        int[] rides = new int[timetable.getGraph().getVertexCount()];
+        Arrays.fill(rides, Integer.MAX_VALUE);
+        rides[src] = departure;
+        int[] arrivals = walkFrom(timetable, rides);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int p = 0; p < timetable.getPatternCount(); p++) {
+                for (int t = 0; t < timetable.getTripCount(p); t++) {
+                    boolean onBoard = false;
+                    for (int i = 0; i < timetable.getStopCount(p); i++) {
+                        int stop = timetable.getStop(p, i);
+                        int time = timetable.getTime(p, t, i);
+                        if (onBoard && time < rides[stop]) {
+                            rides[stop] = time;
+                            changed = true;
+                        }
+                        onBoard |= arrivals[stop] <= time;
+                    }
+                }
+            }
+            arrivals = walkFrom(timetable, rides);
+        }
+        return arrivals;
+    }
+
+    // The earliest arrivals at each stop given the arrivals by a trip, when
+    // walking one footpath at most
+    private static int[] walkFrom(Timetable timetable, int[] rides) {
+        int[] arrivals = rides.clone();
+        for (int f = 0; f < timetable.getFootpathCount(); f++) {
+            int from = rides[timetable.getFootpathSource(f)];
+            int to = timetable.getFootpathTarget(f);
+            if (from != Integer.MAX_VALUE)
+                arrivals[to] = Math.min(
+                    arrivals[to], from + timetable.getFootpathDuration(f));
+        }
+        return arrivals;
+    }
+
+    private static int seconds(int hour, int minute) {
+        return LocalTime.of(hour, minute).toSecondOfDay();
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        Timetable timetable = Timetable.of(smallNetwork());
+        assertThrows(IllegalArgumentException.class, () -> RaptorRouter.of(null));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> RaptorRouter.of(timetable, -1)
+        );
+        RaptorRouter sut = RaptorRouter.of(timetable);
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.route(A, B, null)
+        );
+        assertThrows(
+            NoSuchElementException.class,
+            () -> sut.route(A, absent, LocalTime.NOON)
+        );
+    }
+
+    @Test void journeyToSourceIsEmpty() {
+        RaptorRouter sut = RaptorRouter.of(Timetable.of(smallNetwork()));
+        Journey journey = sut.route(B, B, LocalTime.of(8, 0));
+        assertTrue(journey.isEmpty());
+        assertEquals(Duration.ZERO, journey.getTravelDuration());
+    }
+
+    @Test void journeyWithTransferArrivesEarliest() {
+        RaptorRouter sut = RaptorRouter.of(Timetable.of(smallNetwork()));
+        Journey journey = sut.route(A, F, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 4), journey.getArrival());
+        assertEquals(LocalTime.of(8, 0), journey.getDeparture());
+        assertEquals(1, journey.getTransferCount());
+        List<JourneyLeg> legs = journey.getLegs();
+        assertEquals(A, legs.get(0).from());
+        assertEquals(B, legs.get(0).to());
+        assertEquals(LocalTime.of(8, 1), legs.get(0).arrival());
+        assertEquals("2", legs.get(1).variant().getLineName());
+        assertEquals(LocalTime.of(8, 2), legs.get(1).departure());
+        assertEquals(F, legs.get(1).to());
+    }
+
+    @Test void maxTransfersBoundsJourneys() {
+        RaptorRouter sut = RaptorRouter.of(Timetable.of(smallNetwork()), 0);
+        assertEquals(0, sut.getMaxTransfers());
+        Journey journey = sut.route(A, F, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 15), journey.getArrival());
+        assertEquals(0, journey.getTransferCount());
+        assertNull(sut.route(E, D, LocalTime.of(8, 0)));
+    }
+
+    @Test void missedTripsAreNotTaken() {
+        RaptorRouter sut = RaptorRouter.of(Timetable.of(smallNetwork()));
+        Journey journey = sut.route(A, F, LocalTime.of(8, 1));
+        assertEquals(LocalTime.of(8, 19), journey.getArrival());
+        assertEquals(LocalTime.of(8, 10), journey.getDeparture());
+        assertNull(sut.route(A, D, LocalTime.of(8, 21)));
+        assertNull(sut.route(D, A, LocalTime.of(8, 0)));
+    }
+
+    @Test void journeyWalksBetweenTrips() {
+        RaptorRouter sut = RaptorRouter.of(Timetable.of(walkNetwork()));
+        Journey journey = sut.route(A, D, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 7), journey.getArrival());
+        assertEquals(1, journey.getTransferCount());
+        List<JourneyLeg> legs = journey.getLegs();
+        assertEquals(3, legs.size());
+        assertEquals(C, legs.get(0).to());
+        assertTrue(legs.get(1).isWalk());
+        assertEquals(C, legs.get(1).from());
+        assertEquals(G, legs.get(1).to());
+        assertEquals(LocalTime.of(8, 2), legs.get(1).departure());
+        assertEquals(LocalTime.of(8, 3, 20), legs.get(1).arrival());
+        assertEquals("2", legs.get(2).variant().getLineName());
+        assertEquals(G, legs.get(2).from());
+        assertEquals(3.0 + C.getGeographicPosition().distanceFrom(
+            G.getGeographicPosition()), journey.getDistance(), 1e-9);
+    }
+
+    @Test void journeyWalksFromSourceAndToDestination() {
+        RaptorRouter sut = RaptorRouter.of(Timetable.of(walkNetwork()), 0);
+        Journey toG = sut.route(A, G, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 3, 20), toG.getArrival());
+        assertTrue(toG.getLegs().get(1).isWalk());
+        Journey fromC = sut.route(C, D, LocalTime.of(8, 0));
+        assertEquals(LocalTime.of(8, 7), fromC.getArrival());
+        assertEquals(LocalTime.of(8, 0), fromC.getDeparture());
+        assertTrue(fromC.getLegs().get(0).isWalk());
+        Journey walk = sut.route(G, C, LocalTime.of(9, 0));
+        assertEquals(LocalTime.of(9, 1, 20), walk.getArrival());
+        assertEquals(1, walk.getLegs().size());
+        assertNull(sut.route(D, C, LocalTime.of(8, 0)));
+    }
+
+    @Test void parisJourneysArriveAtEarliestTimes()
+      throws InconsistentCSVException {
+        Timetable timetable = Timetable.of(parisNetworkWithDepartures());
+        assertParisJourneysArriveAtEarliestTimes(timetable);
+    }
+
+    @Test void parisJourneysWithWalksArriveAtEarliestTimes()
+      throws InconsistentCSVException {
+        Timetable timetable = Timetable.of(parisNetworkWithWalks());
+        assertTrue(timetable.getFootpathCount() > 0);
+        assertParisJourneysArriveAtEarliestTimes(timetable);
+    }
+
+    private static void assertParisJourneysArriveAtEarliestTimes(
+      Timetable timetable
+    ) {
+        RaptorRouter sut = RaptorRouter.of(timetable, 30);
+        int n = timetable.getGraph().getVertexCount();
+        int departure = seconds(7, 3);
+        for (int src = 0; src < n; src += 11) {
+            int[] expected = earliestArrivals(timetable, src, departure);
+            for (int dst = 0; dst < n; dst++) {
+                Journey journey = sut.route(src, dst, departure);
+                if (expected[dst] == Integer.MAX_VALUE) {
+                    assertNull(journey);
+                    continue;
+                }
+                assertEquals(expected[dst], journey.getArrivalSecond());
+                assertTrue(journey.getDepartureSecond() >= departure);
+                List<JourneyLeg> legs = journey.getLegs();
+                for (int i = 1; i < legs.size(); i++) {
+                    assertEquals(legs.get(i - 1).to(), legs.get(i).from());
+                    assertFalse(legs.get(i).departure()
+                        .isBefore(legs.get(i - 1).arrival()));
+                }
+            }
+        }
+    }
+}
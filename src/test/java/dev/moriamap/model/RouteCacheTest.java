@@ -0,0 +1,118 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class RouteCacheTest {
+    private static RouteCache.Key key(int bucket) {
+        return new RouteCache.Key(A, B, bucket, "raptor");
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        TransportNetwork tn = TransportNetwork.empty();
+        assertThrows(IllegalArgumentException.class, () -> RouteCache.of(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> RouteCache.of(tn, 0));
+        assertThrows(IllegalArgumentException.class, () -> RouteCache.of(tn, 10, 0));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new RouteCache.Key(A, null, 0, "raptor")
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> RouteCache.Key.of(A, B, LocalTime.NOON, Duration.ZERO, "raptor")
+        );
+        RouteCache<String> sut = RouteCache.of(tn, 10);
+        assertThrows(IllegalArgumentException.class, () -> sut.get(null, k -> "x"));
+        assertThrows(IllegalArgumentException.class, () -> sut.get(key(0), null));
+    }
+
+    @Test void keysOfTheSameBucketAreEqual() {
+        Duration bucket = Duration.ofMinutes(5);
+        RouteCache.Key key = RouteCache.Key.of(A, B, LocalTime.of(8, 1), bucket, "raptor");
+        assertEquals(key, RouteCache.Key.of(A, B, LocalTime.of(8, 4, 59), bucket, "raptor"));
+        assertNotEquals(key, RouteCache.Key.of(A, B, LocalTime.of(8, 5), bucket, "raptor"));
+        assertNotEquals(key, RouteCache.Key.of(A, B, LocalTime.of(8, 1), bucket, "csa"));
+    }
+
+    @Test void loaderRunsOnMissOnly() {
+        RouteCache<String> sut = RouteCache.of(TransportNetwork.empty(), 10);
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("0", sut.get(key(0), k -> "" + loads.getAndIncrement()));
+        assertEquals("0", sut.get(key(0), k -> "" + loads.getAndIncrement()));
+        assertEquals(1, loads.get());
+        assertEquals(1, sut.getHitCount());
+        assertEquals(1, sut.getMissCount());
+        assertNull(sut.get(key(1), k -> null));
+        assertNull(sut.get(key(1), k -> "loaded"));
+        assertEquals("absent", sut.getOrDefault(key(2), "absent"));
+        sut.put(key(2), "put");
+        assertEquals("put", sut.getOrDefault(key(2), "absent"));
+        assertEquals(3, sut.size());
+    }
+
+    @Test void sizeIsBounded() {
+        RouteCache<Integer> sut = RouteCache.of(TransportNetwork.empty(), 64, 4);
+        for (int i = 0; i < 1000; i++)
+            sut.get(key(i), RouteCache.Key::departureBucket);
+        assertTrue(sut.size() <= 64);
+        assertTrue(sut.getEvictionCount() >= 1000 - 64);
+    }
+
+    @Test void frequentKeysSurviveScans() {
+        RouteCache<Integer> sut = RouteCache.of(TransportNetwork.empty(), 32, 1);
+        for (int round = 0; round < 5; round++)
+            for (int i = 0; i < 8; i++)
+                sut.get(key(i), RouteCache.Key::departureBucket);
+        for (int i = 100; i < 1100; i++)
+            sut.get(key(i), RouteCache.Key::departureBucket);
+        for (int i = 0; i < 8; i++)
+            assertEquals(Integer.valueOf(i), sut.getOrDefault(key(i), -1));
+    }
+
+    @Test void networkChangesInvalidateValues() {
+        TransportNetwork tn = TransportNetwork.empty();
+        RouteCache<String> sut = RouteCache.of(tn, 10);
+        sut.put(key(0), "before");
+        assertEquals("before", sut.getOrDefault(key(0), "absent"));
+        tn.addStop(A);
+        assertEquals("absent", sut.getOrDefault(key(0), "absent"));
+        assertEquals(0, sut.size());
+        assertEquals("after", sut.get(key(0), k -> "after"));
+        tn.addStop(A);
+        assertEquals("after", sut.getOrDefault(key(0), "absent"));
+        sut.invalidateAll();
+        assertEquals(0, sut.size());
+    }
+
+    @Test void newDeparturesInvalidateValues() {
+        TransportNetwork tn = smallNetwork();
+        RouteCache<Journey> sut = RouteCache.of(tn, 10);
+        RouteCache.Key key = RouteCache.Key.of(
+            A, C, LocalTime.of(8, 25), Duration.ofMinutes(1), "raptor");
+        assertNull(sut.get(key, k -> RaptorRouter.of(Timetable.of(tn))
+            .route(A, C, LocalTime.of(8, 25))));
+        Variant one = tn.getLines().get(0).getVariants().get(0);
+        int count = tn.getModificationCount();
+        one.addDeparture(LocalTime.of(8, 30));
+        assertNotEquals(count, tn.getModificationCount());
+        Journey journey = sut.get(key, k -> RaptorRouter.of(Timetable.of(tn))
+            .route(A, C, LocalTime.of(8, 25)));
+        assertEquals(LocalTime.of(8, 32), journey.getArrival());
+        assertEquals(2, sut.getMissCount());
+    }
+
+    @Test void concurrentAccessesGetLoadedValues() {
+        RouteCache<Integer> sut = RouteCache.of(TransportNetwork.empty(), 128);
+        IntStream.range(0, 20000).parallel().forEach(i -> {
+            int bucket = i % 300;
+            assertEquals(Integer.valueOf(bucket), sut.get(key(bucket), RouteCache.Key::departureBucket));
+        });
+        assertEquals(20000, sut.getHitCount() + sut.getMissCount());
+        assertTrue(sut.size() <= 128);
+    }
+}
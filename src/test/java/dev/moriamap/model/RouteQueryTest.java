@@ -0,0 +1,34 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+
+class RouteQueryTest {
+    private static final Stop FROM = Stop.from("from", GeographicPosition.at(0.0, 0.0));
+    private static final Stop TO = Stop.from("to", GeographicPosition.at(0.0, 1.0));
+
+    @Test void constructorPassingNullArgumentThrowsException() {
+        LocalTime time = LocalTime.NOON;
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new RouteQuery(null, TO, time)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new RouteQuery(FROM, null, time)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new RouteQuery(FROM, TO, null)
+        );
+    }
+
+    @Test void equalQueriesHaveEqualHashCodes() {
+        RouteQuery query = new RouteQuery(FROM, TO, LocalTime.NOON);
+        RouteQuery same = new RouteQuery(FROM, TO, LocalTime.NOON);
+        assertEquals(query, same);
+        assertEquals(query.hashCode(), same.hashCode());
+        assertNotEquals(query, new RouteQuery(TO, FROM, LocalTime.NOON));
+    }
+}
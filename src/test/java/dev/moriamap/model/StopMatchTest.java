@@ -0,0 +1,21 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+
+class StopMatchTest {
+    private static final Stop STOP = Stop.from("A", GeographicPosition.at(0.0, 0.0));
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new StopMatch(null, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> new StopMatch(STOP, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> new StopMatch(STOP, 1.1));
+        assertThrows(IllegalArgumentException.class, () -> new StopMatch(STOP, Double.NaN));
+    }
+
+    @Test void accessorsReturnValues() {
+        StopMatch sut = new StopMatch(STOP, 0.75);
+        assertEquals(STOP, sut.stop());
+        assertEquals(0.75, sut.similarity());
+    }
+}
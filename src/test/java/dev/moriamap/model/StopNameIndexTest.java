@@ -0,0 +1,78 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+class StopNameIndexTest {
+    private static final Stop FELIX = Stop.from("Félix Faure", GeographicPosition.at(48.84, 2.29));
+    private static final Stop FILLES = Stop.from("Filles du Calvaire", GeographicPosition.at(48.86, 2.36));
+    private static final Stop FAIDHERBE = Stop.from("Faidherbe - Chaligny", GeographicPosition.at(48.85, 2.38));
+    private static final Stop FELIX_OTHER = Stop.from("Félix Faure", GeographicPosition.at(43.70, 7.27));
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> StopNameIndex.of(null));
+        StopNameIndex sut = StopNameIndex.empty();
+        assertThrows(IllegalArgumentException.class, () -> sut.add(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.remove(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.getStopsByName(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.getFirstStopByName(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.complete(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> sut.complete("F", -1));
+    }
+
+    @Test void duplicateNamesKeepAllStops() {
+        StopNameIndex sut = StopNameIndex.of(List.of(FELIX, FILLES, FELIX_OTHER));
+        assertFalse(sut.add(FELIX));
+        assertEquals(2, sut.getNameCount());
+        assertEquals(List.of(FELIX, FELIX_OTHER), sut.getStopsByName("Félix Faure"));
+        assertEquals(FELIX, sut.getFirstStopByName("Félix Faure"));
+        assertTrue(sut.getStopsByName("Balard").isEmpty());
+        assertNull(sut.getFirstStopByName("Balard"));
+        assertEquals(List.of("Félix Faure"), sut.complete("Félix", 10));
+    }
+
+    @Test void completionReturnsSortedNamesWithPrefix() {
+        StopNameIndex sut = StopNameIndex.of(List.of(FELIX, FILLES, FAIDHERBE));
+        assertEquals(
+            List.of("Faidherbe - Chaligny", "Filles du Calvaire", "Félix Faure"),
+            sut.complete("F", 10)
+        );
+        assertEquals(List.of("Faidherbe - Chaligny"), sut.complete("F", 1));
+        assertEquals(List.of("Félix Faure"), sut.complete("Félix", 10));
+        assertTrue(sut.complete("Félix", 0).isEmpty());
+        assertTrue(sut.complete("Z", 10).isEmpty());
+        assertEquals(3, sut.complete("", 10).size());
+    }
+
+    @Test void removalsAndAdditionsUpdateCompletion() {
+        StopNameIndex sut = StopNameIndex.of(List.of(FELIX, FELIX_OTHER, FILLES));
+        assertEquals(2, sut.complete("F", 10).size());
+        assertTrue(sut.remove(FELIX));
+        assertEquals(List.of(FELIX_OTHER), sut.getStopsByName("Félix Faure"));
+        assertEquals(2, sut.complete("F", 10).size());
+        assertTrue(sut.remove(FELIX_OTHER));
+        assertFalse(sut.remove(FELIX_OTHER));
+        assertEquals(List.of("Filles du Calvaire"), sut.complete("F", 10));
+        sut.add(FAIDHERBE);
+        assertEquals(List.of("Faidherbe - Chaligny", "Filles du Calvaire"), sut.complete("F", 10));
+    }
+
+    @Test void parisCompletionMatchesLinearScan() throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        StopNameIndex sut = StopNameIndex.of(tn.getStops());
+        TreeSet<String> names = new TreeSet<>();
+        for (Stop stop : tn.getStops())
+            names.add(stop.getName());
+        for (String prefix : List.of("", "F", "Félix", "Porte d", "Ch", "Gare", "zzz")) {
+            List<String> expected = new ArrayList<>();
+            for (String name : names)
+                if (name.startsWith(prefix))
+                    expected.add(name);
+            assertEquals(expected, sut.complete(prefix, Integer.MAX_VALUE));
+        }
+    }
+}
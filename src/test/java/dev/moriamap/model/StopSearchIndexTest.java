@@ -0,0 +1,109 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.List;
+
+class StopSearchIndexTest {
+    private static final Stop FELIX = Stop.from("Félix Faure", GeographicPosition.at(48.84, 2.29));
+    private static final Stop FILLES = Stop.from("Filles du Calvaire", GeographicPosition.at(48.86, 2.36));
+    private static final Stop FAIDHERBE = Stop.from("Faidherbe - Chaligny", GeographicPosition.at(48.85, 2.38));
+    private static final Stop VINCENNES = Stop.from("Château de Vincennes", GeographicPosition.at(48.84, 2.44));
+
+    private static List<Stop> stopsOf(List<StopMatch> matches) {
+        List<Stop> stops = new ArrayList<>();
+        for (StopMatch match : matches)
+            stops.add(match.stop());
+        return stops;
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> StopSearchIndex.of(null));
+        assertThrows(IllegalArgumentException.class, () -> StopSearchIndex.normalize(null));
+        StopSearchIndex sut = StopSearchIndex.empty();
+        assertThrows(IllegalArgumentException.class, () -> sut.add(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.remove(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.search(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> sut.search("a", -1));
+    }
+
+    @Test void normalizeFoldsCaseAccentsAndPunctuation() {
+        assertEquals("felix faure", StopSearchIndex.normalize("Félix Faure"));
+        assertEquals("chateau de vincennes",
+                     StopSearchIndex.normalize("  Château-de--Vincennes! "));
+        assertEquals("strasse", StopSearchIndex.normalize("Straße"));
+        assertEquals("", StopSearchIndex.normalize(" - "));
+    }
+
+    @Test void searchIgnoresCaseAndAccents() {
+        StopSearchIndex sut = StopSearchIndex.of(List.of(FELIX, FILLES, FAIDHERBE, VINCENNES));
+        List<StopMatch> matches = sut.search("Felix Faure", 2);
+        assertEquals(FELIX, matches.get(0).stop());
+        assertEquals(1.0, matches.get(0).similarity(), 1e-9);
+        assertEquals(VINCENNES, sut.search("chateau de vincennes", 1).get(0).stop());
+        assertEquals(FAIDHERBE, sut.search("faidherb chaligni", 1).get(0).stop());
+    }
+
+    @Test void resultsAreRankedAndLimited() {
+        StopSearchIndex sut = StopSearchIndex.of(List.of(FELIX, FILLES, FAIDHERBE, VINCENNES));
+        List<StopMatch> matches = sut.search("Fel", 10);
+        assertEquals(FELIX, matches.get(0).stop());
+        for (int i = 1; i < matches.size(); i++)
+            assertTrue(matches.get(i - 1).similarity() >= matches.get(i).similarity());
+        assertEquals(1, sut.search("Fel", 1).size());
+        assertTrue(sut.search("Fel", 0).isEmpty());
+        assertTrue(sut.search("xyz", 5).isEmpty());
+        assertTrue(sut.search("", 5).isEmpty());
+    }
+
+    @Test void additionsAndRemovalsUpdateResults() {
+        StopSearchIndex sut = StopSearchIndex.of(List.of(FILLES));
+        assertTrue(sut.search("Felix", 1).isEmpty() || sut.search("Felix", 1).get(0).stop() != FELIX);
+        assertTrue(sut.add(FELIX));
+        assertFalse(sut.add(FELIX));
+        assertEquals(FELIX, sut.search("Felix", 1).get(0).stop());
+        assertEquals(2, sut.size());
+        assertTrue(sut.remove(FELIX));
+        assertFalse(sut.remove(FELIX));
+        assertEquals(1, sut.size());
+        assertFalse(stopsOf(sut.search("Felix", 5)).contains(FELIX));
+        assertTrue(sut.add(FELIX));
+        assertEquals(FELIX, sut.search("Felix", 1).get(0).stop());
+    }
+
+    @Test void equalScoresKeepInsertionOrder() {
+        Stop other = Stop.from("Félix Faure", GeographicPosition.at(43.70, 7.27));
+        StopSearchIndex sut = StopSearchIndex.of(List.of(FELIX, other, FILLES));
+        assertEquals(List.of(FELIX, other), stopsOf(sut.search("felix faure", 2)));
+    }
+
+    @Test void searchFindsNamesAmongManyStops() {
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < 20000; i++)
+            stops.add(Stop.from("Station " + Integer.toString(i * 7919, 36),
+                                GeographicPosition.at(i % 90, i % 180)));
+        stops.add(VINCENNES);
+        StopSearchIndex sut = StopSearchIndex.of(stops);
+        for (int i = 1; i < stops.size(); i += 1000)
+            sut.remove(stops.get(i));
+        assertEquals(stops.size() - 20, sut.size());
+        assertEquals(VINCENNES, sut.search("Chateau Vincenes", 3).get(0).stop());
+        Stop target = stops.get(12345);
+        List<StopMatch> matches = sut.search(target.getName(), 5);
+        assertEquals(target, matches.get(0).stop());
+        assertEquals(1.0, matches.get(0).similarity(), 1e-9);
+        assertEquals(5, matches.size());
+    }
+
+    @Test void parisSearchFindsStopsByRoughName() throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        StopSearchIndex sut = StopSearchIndex.of(tn.getStops());
+        for (Stop stop : tn.getStops()) {
+            String query = StopSearchIndex.normalize(stop.getName()).toUpperCase();
+            StopMatch best = sut.search(query, 1).get(0);
+            assertEquals(stop.getName(), best.stop().getName());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+class StopSpatialIndexTest {
+    private static final Stop A = Stop.from("A", GeographicPosition.at(48.84, 2.29));
+    private static final Stop B = Stop.from("B", GeographicPosition.at(48.86, 2.36));
+    private static final Stop C = Stop.from("C", GeographicPosition.at(48.85, 2.38));
+    private static final Stop D = Stop.from("D", GeographicPosition.at(0.0, 179.9));
+    private static final Stop E = Stop.from("E", GeographicPosition.at(0.0, -179.9));
+
+    private static List<Stop> randomStops(int n, long seed) {
+        Random random = new Random(seed);
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            stops.add(Stop.from("S" + i, GeographicPosition.at(
+                random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180)));
+        return stops;
+    }
+
+    private static Set<Stop> stopsOf(StopSpatialIndex index, int[] ids, int found) {
+        Set<Stop> stops = new HashSet<>();
+        for (int i = 0; i < found; i++)
+            stops.add(index.getStop(ids[i]));
+        return stops;
+    }
+
+    private static boolean isInBox(Stop stop, double minLat, double minLon, double maxLat, double maxLon) {
+        GeographicPosition p = stop.getGeographicPosition();
+        return p.getLatitude() >= minLat && p.getLatitude() <= maxLat
+            && p.getLongitude() >= minLon && p.getLongitude() <= maxLon;
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> StopSpatialIndex.of(null));
+        List<Stop> withNull = new ArrayList<>();
+        withNull.add(null);
+        assertThrows(IllegalArgumentException.class, () -> StopSpatialIndex.of(withNull));
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of(A));
+        GeographicPosition p = A.getGeographicPosition();
+        assertThrows(IllegalArgumentException.class, () -> sut.add(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.remove(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.findAt(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.nearest(null, 1, new int[1], new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> sut.nearest(p, 2, new int[1], new double[2]));
+        assertThrows(IllegalArgumentException.class, () -> sut.nearest(p, -1, new int[1], new double[1]));
+        assertThrows(IllegalArgumentException.class, () -> sut.withinRadius(p, -1, new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> sut.withinRadius(p, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> sut.withinBox(1, 0, 0, 1, new int[1]));
+        assertThrows(IndexOutOfBoundsException.class, () -> sut.getStop(1));
+    }
+
+    @Test void nearestReturnsStopsByIncreasingDistance() {
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of(A, B, C, D));
+        int[] ids = new int[3];
+        double[] distances = new double[3];
+        GeographicPosition from = GeographicPosition.at(48.851, 2.379);
+        assertEquals(3, sut.nearest(from, 3, ids, distances));
+        assertEquals(C, sut.getStop(ids[0]));
+        assertEquals(B, sut.getStop(ids[1]));
+        assertEquals(A, sut.getStop(ids[2]));
+        assertEquals(from.distanceFrom(C.getGeographicPosition()), distances[0], 1e-3);
+        assertEquals(from.distanceFrom(A.getGeographicPosition()), distances[2], 1e-3);
+        assertEquals(0, sut.nearest(from, 0, ids, distances));
+    }
+
+    @Test void nearestReturnsAllStopsWhenFewerThanK() {
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of(A, B));
+        assertEquals(2, sut.nearest(A.getGeographicPosition(), 5, new int[5], new double[5]));
+        assertEquals(0, StopSpatialIndex.of(List.of()).nearest(
+            A.getGeographicPosition(), 1, new int[1], new double[1]));
+    }
+
+    @Test void nearestMatchesBruteForce() {
+        List<Stop> stops = randomStops(5000, 42);
+        StopSpatialIndex sut = StopSpatialIndex.of(stops);
+        int[] ids = new int[10];
+        double[] distances = new double[10];
+        Random random = new Random(7);
+        for (int q = 0; q < 100; q++) {
+            GeographicPosition from = GeographicPosition.at(
+                random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180);
+            List<Stop> expected = new ArrayList<>(stops);
+            expected.sort(Comparator.comparingDouble(s -> from.distanceFrom(s.getGeographicPosition())));
+            assertEquals(10, sut.nearest(from, 10, ids, distances));
+            for (int i = 0; i < 10; i++)
+                assertEquals(from.distanceFrom(expected.get(i).getGeographicPosition()),
+                             distances[i], 1e-2);
+        }
+    }
+
+    @Test void withinRadiusMatchesBruteForce() {
+        List<Stop> stops = randomStops(5000, 3);
+        StopSpatialIndex sut = StopSpatialIndex.of(stops);
+        int[] ids = new int[stops.size()];
+        GeographicPosition from = GeographicPosition.at(10.0, 20.0);
+        double radius = 1500000;
+        Set<Stop> expected = new HashSet<>();
+        for (Stop stop : stops)
+            if (from.distanceFrom(stop.getGeographicPosition()) <= radius)
+                expected.add(stop);
+        int found = sut.withinRadius(from, radius, ids);
+        assertEquals(expected, stopsOf(sut, ids, found));
+    }
+
+    @Test void withinBoxMatchesBruteForce() {
+        List<Stop> stops = randomStops(5000, 5);
+        StopSpatialIndex sut = StopSpatialIndex.of(stops);
+        int[] ids = new int[stops.size()];
+        double[][] boxes = {
+            {-10, -20, 15, 30}, {60, 100, 89, 179}, {-90, -180, 90, 180}, {-5, 170, 5, 175}
+        };
+        for (double[] box : boxes) {
+            Set<Stop> expected = new HashSet<>();
+            for (Stop stop : stops)
+                if (isInBox(stop, box[0], box[1], box[2], box[3]))
+                    expected.add(stop);
+            int found = sut.withinBox(box[0], box[1], box[2], box[3], ids);
+            assertEquals(expected, stopsOf(sut, ids, found));
+        }
+    }
+
+    @Test void withinBoxCrossesAntimeridian() {
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of(A, D, E));
+        int[] ids = new int[3];
+        int found = sut.withinBox(-1, 179, 1, -179, ids);
+        assertEquals(Set.of(D, E), stopsOf(sut, ids, found));
+    }
+
+    @Test void withinBoxCountsStopsBeyondArrayLength() {
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of(A, B, C));
+        int[] ids = new int[1];
+        assertEquals(3, sut.withinBox(48, 2, 49, 3, ids));
+    }
+
+    @Test void findAtReturnsFirstStopAdded() {
+        Stop other = Stop.from("Other", A.getGeographicPosition());
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of(B, A, other));
+        assertEquals(A, sut.findAt(A.getGeographicPosition()));
+        assertNull(sut.findAt(GeographicPosition.NORTH_POLE));
+        sut.remove(A);
+        assertEquals(other, sut.findAt(A.getGeographicPosition()));
+    }
+
+    @Test void findAtReturnsFirstStopAddedAmongManySharingPositions() {
+        List<Stop> positions = randomStops(50, 13);
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            stops.add(Stop.from("T" + i, positions.get(i % 50).getGeographicPosition()));
+        StopSpatialIndex sut = StopSpatialIndex.of(stops.subList(0, 500));
+        for (Stop stop : stops.subList(500, 1000))
+            sut.add(stop);
+        for (int i = 0; i < 50; i++)
+            assertEquals(stops.get(i), sut.findAt(positions.get(i).getGeographicPosition()));
+        for (int i = 0; i < 50; i++)
+            sut.remove(stops.get(i));
+        for (int i = 0; i < 50; i++)
+            assertEquals(stops.get(50 + i), sut.findAt(positions.get(i).getGeographicPosition()));
+    }
+
+    @Test void additionsAndRemovalsUpdateResults() {
+        List<Stop> stops = randomStops(1000, 11);
+        StopSpatialIndex sut = StopSpatialIndex.of(List.of());
+        for (Stop stop : stops)
+            assertTrue(sut.add(stop));
+        assertFalse(sut.add(stops.get(0)));
+        assertEquals(1000, sut.size());
+        for (int i = 0; i < 1000; i += 2)
+            assertTrue(sut.remove(stops.get(i)));
+        assertFalse(sut.remove(stops.get(0)));
+        assertEquals(500, sut.size());
+        int[] ids = new int[1000];
+        int found = sut.withinBox(-90, -180, 90, 180, ids);
+        Set<Stop> expected = new HashSet<>();
+        for (int i = 1; i < 1000; i += 2)
+            expected.add(stops.get(i));
+        assertEquals(expected, stopsOf(sut, ids, found));
+        for (Stop stop : expected)
+            assertEquals(stop, sut.findAt(stop.getGeographicPosition()));
+        Stop removed = stops.get(0);
+        int[] nearest = new int[1];
+        sut.nearest(removed.getGeographicPosition(), 1, nearest, new double[1]);
+        assertNotEquals(removed, sut.getStop(nearest[0]));
+    }
+
+    @Test void parisNetworkStopsAreFoundAtTheirPositions() throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        for (Stop stop : tn.getStops())
+            assertEquals(stop.getGeographicPosition(),
+                         tn.getStopFromPosition(stop.getGeographicPosition()).getGeographicPosition());
+        Stop stop = tn.getStops().get(0);
+        List<Stop> nearest = tn.getNearestStops(stop.getGeographicPosition(), 3);
+        assertEquals(3, nearest.size());
+        assertEquals(stop.getGeographicPosition(), nearest.get(0).getGeographicPosition());
+        assertEquals(tn.getStops().size(), tn.getStopsWithin(48, 2, 49, 3).size());
+    }
+}
@@ -0,0 +1,115 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.LocalTime;
+
+class TimetableTest {
+    @Test void ofNullNetworkThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> Timetable.of(null));
+    }
+
+    @Test void networkWithoutDeparturesHasNoPattern() {
+        TransportNetwork tn = TransportNetwork.empty();
+        addSegment(tn, addVariant(tn, "1"), A, B, 60);
+        Timetable sut = Timetable.of(tn);
+        assertEquals(0, sut.getPatternCount());
+        assertEquals(2, sut.getGraph().getVertexCount());
+    }
+
+    @Test void patternsFollowVariantsInTravelOrder() {
+        Timetable sut = Timetable.of(smallNetwork());
+        CompiledGraph graph = sut.getGraph();
+        assertEquals(3, sut.getPatternCount());
+        int one = 0;
+        while (!sut.getVariant(one).getLineName().equals("1"))
+            one++;
+        assertEquals(4, sut.getStopCount(one));
+        Stop[] expected = {A, B, C, D};
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(graph.idOf(expected[i]), sut.getStop(one, i));
+    }
+
+    @Test void tripsAreOrderedByDeparture() {
+        Timetable sut = Timetable.of(smallNetwork());
+        int one = 0;
+        while (!sut.getVariant(one).getLineName().equals("1"))
+            one++;
+        assertEquals(3, sut.getTripCount(one));
+        assertEquals(LocalTime.of(8, 0).toSecondOfDay(), sut.getTime(one, 0, 0));
+        assertEquals(LocalTime.of(8, 13).toSecondOfDay(), sut.getTime(one, 1, 3));
+        assertEquals(LocalTime.of(8, 21).toSecondOfDay(), sut.getTime(one, 2, 1));
+    }
+
+    @Test void findTripReturnsFirstTripNotGone() {
+        Timetable sut = Timetable.of(smallNetwork());
+        int one = 0;
+        while (!sut.getVariant(one).getLineName().equals("1"))
+            one++;
+        int b = LocalTime.of(8, 1).toSecondOfDay();
+        assertEquals(0, sut.findTrip(one, 1, b));
+        assertEquals(1, sut.findTrip(one, 1, b + 1));
+        assertEquals(2, sut.findTrip(one, 1, b + 600 + 1));
+        assertEquals(-1, sut.findTrip(one, 1, b + 1200 + 1));
+    }
+
+    @Test void connectionsAreSortedByDeparture() {
+        Timetable sut = Timetable.of(smallNetwork());
+        // 3 trips of 3 connections, 3 trips of 2 connections and 1 of 1
+        assertEquals(16, sut.getConnectionCount());
+        assertEquals(7, sut.getTotalTripCount());
+        for (int c = 1; c < sut.getConnectionCount(); c++)
+            assertTrue(sut.getConnectionDeparture(c - 1)
+                       <= sut.getConnectionDeparture(c));
+        for (int c = 0; c < sut.getConnectionCount(); c++) {
+            int trip = sut.getConnectionTrip(c);
+            int pattern = sut.getTripPattern(trip);
+            assertTrue(sut.getConnectionArrival(c) > sut.getConnectionDeparture(c));
+            assertTrue(sut.getVariant(pattern).hasStop(
+                (Stop) sut.getGraph().getVertex(sut.getConnectionSource(c))));
+        }
+    }
+
+    @Test void firstConnectionFromSkipsEarlierConnections() {
+        Timetable sut = Timetable.of(smallNetwork());
+        int c = sut.firstConnectionFrom(LocalTime.of(8, 14).toSecondOfDay());
+        assertTrue(sut.getConnectionDeparture(c - 1)
+                   < LocalTime.of(8, 14).toSecondOfDay());
+        assertEquals(LocalTime.of(8, 15).toSecondOfDay(),
+                     sut.getConnectionDeparture(c));
+        assertEquals(sut.getConnectionCount(),
+                     sut.firstConnectionFrom(LocalTime.of(9, 0).toSecondOfDay()));
+    }
+
+    @Test void walkingSegmentsAreFootpaths() {
+        Timetable sut = Timetable.of(walkNetwork());
+        assertEquals(2, sut.getFootpathCount());
+        for (int f = 0; f < sut.getFootpathCount(); f++) {
+            WalkingSegment segment = sut.getFootpath(f);
+            assertEquals(segment.getFrom(),
+                         sut.getGraph().getVertex(sut.getFootpathSource(f)));
+            assertEquals(segment.getTo(),
+                         sut.getGraph().getVertex(sut.getFootpathTarget(f)));
+            assertTrue(segment.getFrom() == C || segment.getFrom() == G);
+            assertEquals(80, sut.getFootpathDuration(f));
+            assertEquals(segment.getDistance(), sut.getFootpathDistance(f));
+        }
+        assertNotEquals(sut.getFootpathSource(0), sut.getFootpathSource(1));
+        assertEquals(0, Timetable.of(smallNetwork()).getFootpathCount());
+    }
+
+    @Test void parisTimetableHasOnePatternPerVariant()
+      throws InconsistentCSVException {
+        TransportNetwork tn = parisNetworkWithDepartures();
+        Timetable sut = Timetable.of(tn);
+        assertEquals(tn.getVariants().size(), sut.getPatternCount());
+        for (int p = 0; p < sut.getPatternCount(); p++) {
+            assertEquals(
+                sut.getVariant(p).getTransportSegments().size() + 1,
+                sut.getStopCount(p)
+            );
+            assertEquals(19, sut.getTripCount(p));
+        }
+    }
+}
@@ -54,4 +54,18 @@ class TransportNetworkParserTest {
        assertEquals(tn.getStopByName("Faidherbe - Chaligny"),stop) ;
     }
 
+
+    @Test void generateFromAddsWalkingTransfers() throws InconsistentCSVException {
+        InputStream resource = CSVParserTest.class.getResourceAsStream("/test_data_transportNetwork.csv");
+        TransportNetwork tn = TransportNetworkParser.generateFrom(resource, WalkingTransfers.of());
+        assertFalse(tn.getWalkingSegments().isEmpty());
+        for (WalkingSegment segment : tn.getWalkingSegments())
+            assertTrue(segment.getDistance() <= WalkingTransfers.DEFAULT_RADIUS);
+    }
+
+    @Test void generateFromNullTransfersThrowsException() {
+        InputStream resource = CSVParserTest.class.getResourceAsStream("/test_data_transportNetwork.csv");
+        assertThrows(IllegalArgumentException.class,
+                     () -> TransportNetworkParser.generateFrom(resource, null));
+    }
 }
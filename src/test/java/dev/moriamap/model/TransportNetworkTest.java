@@ -3,8 +3,11 @@ package dev.moriamap.model;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Set;
 
+import static dev.moriamap.model.Fixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class TransportNetworkTest {
@@ -220,4 +223,129 @@ class TransportNetworkTest {
         tn.addTransportSegment(ts1);
         assertTrue(tn.getTransportSegments().contains(ts1));
     }
+
+    @Test
+    void changesIncrementModificationCount() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Stop s1 = Stop.from("s1", GeographicPosition.at(0.0, 0.0));
+        Stop s2 = Stop.from("s2", GeographicPosition.at(0.0, 1.0));
+        int count = tn.getModificationCount();
+        tn.addStop(s1);
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        tn.addStop(s1);
+        assertEquals(count, tn.getModificationCount());
+        tn.addTransportSegment(TransportSegment.from(
+                s1, s2, "1", "1", Duration.ofSeconds(60), 1.0));
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        tn.addLine(Line.of("1"));
+        assertTrue(tn.getModificationCount() > count);
+    }
+
+    @Test
+    void lineAndVariantChangesIncrementModificationCount() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Stop s1 = Stop.from("s1", GeographicPosition.at(0.0, 0.0));
+        Stop s2 = Stop.from("s2", GeographicPosition.at(0.0, 1.0));
+        TransportSegment ts = TransportSegment.from(
+                s1, s2, "1", "1", Duration.ofSeconds(60), 1.0);
+        Line line = Line.of("1");
+        Variant variant = Variant.empty("1", "1");
+        tn.addLine(line);
+        int count = tn.getModificationCount();
+        line.addVariant(variant);
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        variant.addTransportSegment(ts);
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        variant.addDeparture(LocalTime.of(8, 0));
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        variant.addDeparture(LocalTime.of(8, 0));
+        assertEquals(count, tn.getModificationCount());
+        variant.removeTransportSegment(ts);
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        line.removeVariant(variant);
+        assertTrue(tn.getModificationCount() > count);
+        count = tn.getModificationCount();
+        variant.addDeparture(LocalTime.of(9, 0));
+        assertEquals(count, tn.getModificationCount());
+        tn.removeLine(line);
+        count = tn.getModificationCount();
+        line.addVariant(variant);
+        assertEquals(count, tn.getModificationCount());
+    }
+
+    @Test
+    void removalsUpdateNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Stop s1 = Stop.from("s1", GeographicPosition.at(0.0, 0.0));
+        Stop s2 = Stop.from("s2", GeographicPosition.at(0.0, 1.0));
+        TransportSegment ts = TransportSegment.from(
+                s1, s2, "1", "1", Duration.ofSeconds(60), 1.0);
+        Line line = Line.of("1");
+        tn.addTransportSegment(ts);
+        tn.addLine(line);
+        assertTrue(tn.removeTransportSegment(ts));
+        assertTrue(tn.getTransportSegments().isEmpty());
+        assertTrue(tn.removeStop(s1));
+        assertNull(tn.findStop(s1));
+        assertFalse(tn.removeStop(s1));
+        int count = tn.getModificationCount();
+        assertTrue(tn.removeLine(line));
+        assertTrue(tn.getModificationCount() > count);
+        assertFalse(tn.removeLine(line));
+        assertThrows(IllegalArgumentException.class, () -> tn.removeLine(null));
+    }
+
+    @Test
+    void edgeTuplesRebuildEquivalentNetwork() throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        List<EdgeTuple> tuples = tn.toEdgeTuples();
+        assertEquals(tn.getTransportSegments().size(), tuples.size());
+        TransportNetwork rebuilt = TransportNetworkParser.generateFromEdgeTuple(tuples);
+        assertEquals(Set.copyOf(tn.getStops()), Set.copyOf(rebuilt.getStops()));
+        assertEquals(Set.copyOf(tn.getTransportSegments()),
+                     Set.copyOf(rebuilt.getTransportSegments()));
+        assertEquals(tn.getVariants().size(), rebuilt.getVariants().size());
+    }
+
+    @Test
+    void stopNameIndexFollowsNetworkChanges() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Stop paris = Stop.from("Félix Faure", GeographicPosition.at(48.84, 2.29));
+        Stop nice = Stop.from("Félix Faure", GeographicPosition.at(43.70, 7.27));
+        Stop other = Stop.from("Filles du Calvaire", GeographicPosition.at(48.86, 2.36));
+        tn.addStop(paris);
+        tn.addTransportSegment(TransportSegment.from(
+                nice, other, "1", "1", Duration.ofSeconds(60), 1.0));
+        assertEquals(List.of(paris, nice), tn.getStopsByName("Félix Faure"));
+        assertEquals(paris, tn.getStopByName("Félix Faure"));
+        assertEquals(nice, tn.findStop(Stop.from("Félix Faure", GeographicPosition.at(43.70, 7.27))));
+        assertEquals(List.of("Filles du Calvaire", "Félix Faure"), tn.completeStopName("F", 5));
+        tn.removeStop(paris);
+        assertEquals(nice, tn.getStopByName("Félix Faure"));
+        tn.removeStop(nice);
+        assertNull(tn.getStopByName("Félix Faure"));
+        assertEquals(List.of("Filles du Calvaire"), tn.completeStopName("F", 5));
+        assertThrows(IllegalArgumentException.class, () -> tn.getStopsByName(null));
+    }
+
+    @Test
+    void searchStopsFollowsNetworkChanges() {
+        TransportNetwork tn = TransportNetwork.empty();
+        Stop felix = Stop.from("Félix Faure", GeographicPosition.at(48.84, 2.29));
+        Stop vincennes = Stop.from("Château de Vincennes", GeographicPosition.at(48.84, 2.44));
+        tn.addStop(felix);
+        assertEquals(felix, tn.searchStops("felix faure", 1).get(0).stop());
+        tn.addTransportSegment(TransportSegment.from(
+                felix, vincennes, "1", "1", Duration.ofSeconds(60), 1.0));
+        assertEquals(vincennes, tn.searchStops("chateau de vincennes", 1).get(0).stop());
+        tn.removeStop(vincennes);
+        for (StopMatch match : tn.searchStops("chateau de vincennes", 5))
+            assertNotEquals(vincennes, match.stop());
+    }
 }
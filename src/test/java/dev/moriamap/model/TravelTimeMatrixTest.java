@@ -0,0 +1,119 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+
+class TravelTimeMatrixTest {
+    // A -> B in 60 s, B -> C in 30 s and A -> C in 120 s
+    private static CompiledGraph newGraph() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(TransportSegment.from(
+            A, B, "1", "1", Duration.ofSeconds(60), 1.0));
+        tn.addTransportSegment(TransportSegment.from(
+            B, C, "1", "1", Duration.ofSeconds(30), 1.0));
+        tn.addTransportSegment(TransportSegment.from(
+            A, C, "2", "1", Duration.ofSeconds(120), 1.0));
+        return CompiledGraph.of(tn);
+    }
+
+    // Checks that the ints read from in are the rows of matrix
+    private static void assertExport(TravelTimeMatrix matrix, InputStream in)
+      throws IOException {
+        try (DataInputStream data = new DataInputStream(in)) {
+            for (int i = 0; i < matrix.getSize(); i++)
+                for (int j = 0; j < matrix.getSize(); j++)
+                    assertEquals(matrix.get(i, j), data.readInt());
+            assertEquals(-1, data.read());
+        }
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        CompiledGraph graph = newGraph();
+        assertThrows(IllegalArgumentException.class, () -> TravelTimeMatrix.of(null));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> TravelTimeMatrix.of(graph, null)
+        );
+        TravelTimeMatrix sut = TravelTimeMatrix.of(graph);
+        Stop absent = Stop.from("absent", GeographicPosition.NORTH_POLE);
+        assertThrows(IllegalArgumentException.class, () -> sut.get(A, null));
+        assertThrows(NoSuchElementException.class, () -> sut.get(A, absent));
+        assertThrows(IndexOutOfBoundsException.class, () -> sut.get(0, 3));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> sut.writeTo((Path) null)
+        );
+    }
+
+    @Test void matrixHoldsShortestTravelTimes() {
+        TravelTimeMatrix sut = TravelTimeMatrix.of(newGraph());
+        assertEquals(3, sut.getSize());
+        assertEquals(0, sut.get(A, A));
+        assertEquals(60, sut.get(A, B));
+        assertEquals(90, sut.get(A, C));
+        assertEquals(TravelTimeMatrix.UNREACHABLE, sut.get(C, A));
+        assertEquals(TravelTimeMatrix.UNREACHABLE, sut.get(B, A));
+    }
+
+    @Test void parisMatrixMatchesBellmanFord() throws Exception {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            TravelTimeMatrix sut = TravelTimeMatrix.compute(graph, pool, null, 7);
+            int n = graph.getVertexCount();
+            assertEquals(n, sut.getSize());
+            for (int src = 0; src < n; src += 9) {
+                double[] expected = bellmanFord(
+                    graph, src, RouteMetric.TRAVEL_TIME);
+                for (int dst = 0; dst < n; dst++) {
+                    int time = sut.get(src, dst);
+                    if (expected[dst] == Double.POSITIVE_INFINITY)
+                        assertEquals(TravelTimeMatrix.UNREACHABLE, time);
+                    else
+                        assertEquals(expected[dst], time, 1e-9);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test void exportIsRowMajorBigEndian() throws IOException {
+        TravelTimeMatrix sut = TravelTimeMatrix.of(newGraph());
+        Path file = Files.createTempFile("matrix", ".bin");
+        try {
+            sut.writeTo(file);
+            assertEquals(9L * Integer.BYTES, Files.size(file));
+            assertExport(sut, Files.newInputStream(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test void mappedMatrixIsItsOwnExport() throws Exception {
+        CompiledGraph graph = CompiledGraph.of(parisNetwork());
+        TravelTimeMatrix expected = TravelTimeMatrix.of(graph);
+        Path file = Files.createTempFile("matrix", ".bin");
+        try {
+            TravelTimeMatrix sut =
+                TravelTimeMatrix.mapped(graph, ForkJoinPool.commonPool(), file);
+            int n = graph.getVertexCount();
+            assertEquals((long) n * n * Integer.BYTES, Files.size(file));
+            for (int src = 0; src < n; src += 5)
+                for (int dst = 0; dst < n; dst += 3)
+                    assertEquals(expected.get(src, dst), sut.get(src, dst));
+            assertExport(sut, Files.newInputStream(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
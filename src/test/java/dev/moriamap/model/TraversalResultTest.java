@@ -0,0 +1,84 @@
+package dev.moriamap.model;
+
+import static dev.moriamap.model.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+class TraversalResultTest {
+    // A -> B -> C, and D alone
+    private static CompiledGraph newGraph() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(segment(A, B));
+        tn.addTransportSegment(segment(B, C));
+        tn.addStop(D);
+        return CompiledGraph.of(tn);
+    }
+
+    private static TraversalResult traverseFrom(CompiledGraph graph, Stop src) {
+        GraphTraversal traversal = GraphTraversal.of(graph);
+        traversal.depthFirst(graph.idOf(src), (v, e) -> true);
+        return TraversalResult.of(traversal);
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        CompiledGraph graph = newGraph();
+        assertThrows(IllegalArgumentException.class, () -> TraversalResult.of(null));
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> TraversalResult.of(GraphTraversal.of(graph))
+        );
+        TraversalResult sut = traverseFrom(graph, A);
+        assertThrows(IllegalArgumentException.class, () -> sut.getRouteTo(null));
+        assertThrows(NoSuchElementException.class, () -> sut.getRouteTo(D));
+        assertThrows(NoSuchElementException.class, () -> sut.getParentEdge(graph.idOf(D)));
+    }
+
+    @Test void routesFollowParentEdges() {
+        CompiledGraph graph = newGraph();
+        TraversalResult sut = traverseFrom(graph, A);
+        assertEquals(A, sut.getSource());
+        assertEquals(3, sut.getReachedCount());
+        assertTrue(sut.isReached(C));
+        assertFalse(sut.isReached(D));
+        assertFalse(sut.isReached(Stop.from("absent", GeographicPosition.NORTH_POLE)));
+        assertEquals(List.of(segment(A, B), segment(B, C)), sut.getRouteTo(C));
+        assertTrue(sut.getRouteTo(A).isEmpty());
+        assertEquals(GraphTraversal.NONE, sut.getParentEdge(graph.idOf(A)));
+    }
+
+    @Test void resultOutlivesNextTraversal() {
+        CompiledGraph graph = newGraph();
+        GraphTraversal traversal = GraphTraversal.of(graph);
+        traversal.depthFirst(graph.idOf(A), (v, e) -> true);
+        TraversalResult sut = TraversalResult.of(traversal);
+        traversal.depthFirst(graph.idOf(D), (v, e) -> true);
+        assertTrue(sut.isReached(C));
+        assertFalse(sut.isReached(D));
+    }
+
+    @Test void mapViewMatchesDepthFirstSearch() throws InconsistentCSVException {
+        TransportNetwork tn = parisNetwork();
+        CompiledGraph graph = CompiledGraph.of(tn);
+        for (int src = 0; src < graph.getVertexCount(); src += 31) {
+            Vertex source = graph.getVertex(src);
+            Map<Vertex, Edge> expected = tn.depthFirstSearch(source);
+            Map<Vertex, Edge> parents = traverseFrom(graph, (Stop) source).asMap();
+            assertEquals(expected.keySet(), parents.keySet());
+            assertEquals(expected.size(), parents.size());
+            assertFalse(parents.containsKey(source));
+            assertNull(parents.get("not a vertex"));
+            Map<Vertex, Edge> copy = new HashMap<>(parents);
+            assertEquals(parents, copy);
+            for (Vertex dst : parents.keySet()) {
+                List<Edge> route = Graph.getRouteFromTraversal(parents, source, dst);
+                assertEquals(source, route.get(0).getFrom());
+                assertEquals(dst, route.get(route.size() - 1).getTo());
+            }
+            assertThrows(UnsupportedOperationException.class, () -> parents.clear());
+        }
+    }
+}
@@ -417,4 +417,25 @@ class VariantTest {
         sut.addTransportSegment(ts7);
         assertEquals(Duration.ofMinutes(28), sut.getTravelTimeTo(s8));
     }
+
+    @Test void removeTransportSegmentRemovesIt() {
+        Variant sut = Variant.empty("v", "l");
+        Stop s1 = Stop.from("d", GeographicPosition.at(32, 42));
+        Stop s2 = Stop.from("i", GeographicPosition.at(65, 123));
+        TransportSegment ts = TransportSegment.from(s1, s2, "l", "v", Duration.ofMinutes(1), 42.0);
+        sut.addTransportSegment(ts);
+        assertTrue(sut.removeTransportSegment(ts));
+        assertFalse(sut.removeTransportSegment(ts));
+        assertTrue(sut.getTransportSegments().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> sut.removeTransportSegment(null));
+    }
+
+    @Test void removeDepartureRemovesIt() {
+        Variant sut = Variant.empty("v", "l");
+        sut.addDeparture(LocalTime.NOON);
+        assertTrue(sut.removeDeparture(LocalTime.NOON));
+        assertFalse(sut.removeDeparture(LocalTime.NOON));
+        assertTrue(sut.getDepartures().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> sut.removeDeparture(null));
+    }
 }
@@ -0,0 +1,43 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+
+class WalkingSegmentTest {
+    private static final Stop A = Stop.from("A", GeographicPosition.at(48.84, 2.29));
+    private static final Stop B = Stop.from("B", GeographicPosition.at(48.841, 2.29));
+
+    @Test void invalidArgumentsThrowException() {
+        Duration d = Duration.ofSeconds(10);
+        assertThrows(IllegalArgumentException.class, () -> WalkingSegment.from(null, B, d, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> WalkingSegment.from(A, null, d, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> WalkingSegment.from(A, B, null, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> WalkingSegment.from(A, A, d, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> WalkingSegment.from(A, B, d, -1.0));
+        assertThrows(IllegalArgumentException.class,
+                     () -> WalkingSegment.from(A, B, Duration.ofSeconds(-1), 1.0));
+    }
+
+    @Test void accessorsReturnValues() {
+        WalkingSegment sut = WalkingSegment.from(A, B, Duration.ofSeconds(80), 111.2);
+        assertEquals(A, sut.getFrom());
+        assertEquals(B, sut.getTo());
+        assertEquals(Duration.ofSeconds(80), sut.getWalkingDuration());
+        assertEquals(111.2, sut.getDistance());
+        assertEquals(191.2, sut.getWeight(), 1e-9);
+    }
+
+    @Test void equalsAndHashCode() {
+        WalkingSegment sut = WalkingSegment.from(A, B, Duration.ofSeconds(80), 111.2);
+        WalkingSegment same = WalkingSegment.from(A, B, Duration.ofSeconds(80), 111.2);
+        assertEquals(sut, sut);
+        assertEquals(sut, same);
+        assertEquals(sut.hashCode(), same.hashCode());
+        assertNotEquals(sut, WalkingSegment.from(B, A, Duration.ofSeconds(80), 111.2));
+        assertNotEquals(sut, WalkingSegment.from(A, B, Duration.ofSeconds(81), 111.2));
+        assertNotEquals(sut, WalkingSegment.from(A, B, Duration.ofSeconds(80), 111.3));
+        assertNotEquals(sut, TransportSegment.from(A, B, "1", "1", Duration.ofSeconds(80), 111.2));
+        assertNotEquals(sut, null);
+    }
+}
@@ -0,0 +1,117 @@
+package dev.moriamap.model;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.*;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+class WalkingTransfersTest {
+    // A and B are about 111 m apart, C is about 7 km away from both
+    private static final Stop A = Stop.from("A", GeographicPosition.at(48.840, 2.29));
+    private static final Stop B = Stop.from("B", GeographicPosition.at(48.841, 2.29));
+    private static final Stop C = Stop.from("C", GeographicPosition.at(48.840, 2.39));
+    private static final Stop D = Stop.from("D", GeographicPosition.at(48.900, 2.39));
+
+    // Line 1 from A to C and line 2 from B to D
+    private static TransportNetwork newNetwork() {
+        TransportNetwork tn = TransportNetwork.empty();
+        tn.addTransportSegment(TransportSegment.from(A, C, "1", "1", Duration.ofSeconds(600), 7300));
+        tn.addTransportSegment(TransportSegment.from(B, D, "2", "1", Duration.ofSeconds(600), 8900));
+        return tn;
+    }
+
+    @Test void invalidArgumentsThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> WalkingTransfers.of(-1, 1.4));
+        assertThrows(IllegalArgumentException.class, () -> WalkingTransfers.of(Double.NaN, 1.4));
+        assertThrows(IllegalArgumentException.class, () -> WalkingTransfers.of(400, 0));
+        assertThrows(IllegalArgumentException.class,
+                     () -> WalkingTransfers.of(400, Double.POSITIVE_INFINITY));
+        WalkingTransfers sut = WalkingTransfers.of();
+        assertThrows(IllegalArgumentException.class, () -> sut.generate(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.addTo(null));
+        assertThrows(IllegalArgumentException.class, () -> sut.walkingDurationOf(-1));
+    }
+
+    @Test void defaultsAndDurations() {
+        WalkingTransfers sut = WalkingTransfers.of();
+        assertEquals(WalkingTransfers.DEFAULT_RADIUS, sut.getRadius());
+        assertEquals(WalkingTransfers.DEFAULT_SPEED, sut.getSpeed());
+        WalkingTransfers other = WalkingTransfers.of(500, 2.0);
+        assertEquals(Duration.ofSeconds(50), other.walkingDurationOf(100));
+        assertEquals(Duration.ofSeconds(51), other.walkingDurationOf(100.5));
+        assertEquals(Duration.ZERO, other.walkingDurationOf(0));
+    }
+
+    @Test void generateLinksNearbyStopsBothWays() {
+        TransportNetwork tn = newNetwork();
+        WalkingTransfers sut = WalkingTransfers.of(200, 1.4);
+        List<WalkingSegment> segments = sut.generate(tn);
+        assertEquals(2, segments.size());
+        double distance = A.getGeographicPosition().distanceFrom(B.getGeographicPosition());
+        Set<List<Vertex>> ends = new HashSet<>();
+        for (WalkingSegment segment : segments) {
+            ends.add(List.of(segment.getFrom(), segment.getTo()));
+            assertEquals(distance, segment.getDistance(), 1e-2);
+            assertEquals(sut.walkingDurationOf(segment.getDistance()),
+                         segment.getWalkingDuration());
+        }
+        assertEquals(Set.of(List.of(A, B), List.of(B, A)), ends);
+        assertTrue(tn.getWalkingSegments().isEmpty());
+    }
+
+    @Test void addToAddsSegmentsOnce() {
+        TransportNetwork tn = newNetwork();
+        WalkingTransfers sut = WalkingTransfers.of(200, 1.4);
+        sut.addTo(tn);
+        sut.addTo(tn);
+        assertEquals(2, tn.getWalkingSegments().size());
+        assertEquals(2, tn.getTransportSegments().size());
+        assertEquals(2, tn.snapshot().getTransportSegments().size());
+    }
+
+    @Test void walkingSegmentsMakeTransfersPossible() {
+        TransportNetwork tn = newNetwork();
+        CompiledGraph before = CompiledGraph.of(tn);
+        assertNull(DijkstraRouter.of(before).route(A, D));
+        WalkingTransfers.of().addTo(tn);
+        Route route = DijkstraRouter.of(CompiledGraph.of(tn)).route(A, D);
+        assertEquals(2, route.getEdges().size());
+        assertTrue(route.getEdges().get(0) instanceof WalkingSegment);
+    }
+
+    @Test void generateMatchesBruteForce() {
+        Random random = new Random(17);
+        TransportNetwork tn = TransportNetwork.empty();
+        Stop previous = null;
+        for (int i = 0; i < 2000; i++) {
+            Stop stop = Stop.from("S" + i, GeographicPosition.at(
+                48.8 + random.nextDouble() * 0.1, 2.3 + random.nextDouble() * 0.1));
+            if (previous != null)
+                tn.addTransportSegment(TransportSegment.from(
+                    previous, stop, "1", "1", Duration.ofSeconds(60), 1));
+            previous = stop;
+        }
+        List<Stop> stops = tn.getStops();
+        double radius = 300;
+        Set<List<Stop>> expected = new HashSet<>();
+        for (Stop from : stops)
+            for (Stop to : stops)
+                if (from != to && from.getGeographicPosition().distanceFrom(
+                        to.getGeographicPosition()) <= radius)
+                    expected.add(List.of(from, to));
+        Set<List<Stop>> actual = new HashSet<>();
+        for (WalkingSegment segment : WalkingTransfers.of(radius, 1.4).generate(tn))
+            actual.add(List.of((Stop) segment.getFrom(), (Stop) segment.getTo()));
+        assertEquals(expected, actual);
+    }
+
+    @Test void removedStopsLoseTheirWalkingSegments() {
+        TransportNetwork tn = newNetwork();
+        WalkingTransfers.of().addTo(tn);
+        tn.removeStop(B);
+        assertTrue(tn.getWalkingSegments().isEmpty());
+    }
+}
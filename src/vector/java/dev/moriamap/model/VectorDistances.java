@@ -0,0 +1,121 @@
+package dev.moriamap.model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD kernels of PositionArray, written with the Vector API. This class
+ * can only be loaded if the jdk.incubator.vector module is present, so
+ * PositionArray checks it before loading it by name.
+ * <p>
+ *     Each kernel computes as many vectors of distances at a time as fit
+ *     before end. The operations are those of the scalar loops of
+ *     PositionArray, in the same order.
+ * </p>
+ */
+final class VectorDistances implements DistanceKernels {
+
+    // The widest vectors of doubles of the processor
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // Called by PositionArray through reflection
+    VectorDistances() {}
+
+    // Computes the EUCLIDEAN distances from the position to [start, end)
+    @Override
+    public int euclidean(
+      double[] xs,
+      double[] ys,
+      double[] zs,
+      GeographicPosition from,
+      int start,
+      int end,
+      double[] into
+    ) {
+        double x = from.getUnitX();
+        double y = from.getUnitY();
+        double z = from.getUnitZ();
+        int step = SPECIES.length();
+        int i = start;
+        for (; i + step <= end; i += step) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, i).sub(x);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, i).sub(y);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, zs, i).sub(z);
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz))
+                .sqrt()
+                .mul(GeographicPosition.EARTH_RADIUS)
+                .intoArray(into, i);
+        }
+        return i;
+    }
+
+    // Computes the EQUIRECTANGULAR distances from the position to
+    // [start, end)
+    @Override
+    public int equirectangular(
+      double[] latRads,
+      double[] lonRads,
+      double[] cosHalfLats,
+      double[] sinHalfLats,
+      GeographicPosition from,
+      int start,
+      int end,
+      double[] into
+    ) {
+        double lat = Math.toRadians(from.getLatitude());
+        double lon = Math.toRadians(from.getLongitude());
+        double cosHalfLat = Math.cos(lat / 2);
+        double sinHalfLat = Math.sin(lat / 2);
+        int step = SPECIES.length();
+        int i = start;
+        for (; i + step <= end; i += step) {
+            DoubleVector dLon = DoubleVector.fromArray(SPECIES, lonRads, i).sub(lon);
+            VectorMask<Double> east = dLon.compare(VectorOperators.GT, Math.PI);
+            VectorMask<Double> west = dLon.compare(VectorOperators.LT, -Math.PI);
+            dLon = dLon.sub(2 * Math.PI, east).add(2 * Math.PI, west);
+            DoubleVector cosMeanLat = DoubleVector.fromArray(SPECIES, cosHalfLats, i)
+                .mul(cosHalfLat)
+                .sub(DoubleVector.fromArray(SPECIES, sinHalfLats, i).mul(sinHalfLat));
+            DoubleVector dx = dLon.mul(cosMeanLat);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, latRads, i).sub(lat);
+            dx.mul(dx).add(dy.mul(dy))
+                .sqrt()
+                .mul(GeographicPosition.EARTH_RADIUS)
+                .intoArray(into, i);
+        }
+        return i;
+    }
+
+    // Computes the HAVERSINE distances from the position to [start, end)
+    @Override
+    public int haversine(
+      double[] xs,
+      double[] ys,
+      double[] zs,
+      GeographicPosition from,
+      int start,
+      int end,
+      double[] into
+    ) {
+        double x = from.getUnitX();
+        double y = from.getUnitY();
+        double z = from.getUnitZ();
+        int step = SPECIES.length();
+        int i = start;
+        for (; i + step <= end; i += step) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, i).sub(x);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, i).sub(y);
+            DoubleVector dz = DoubleVector.fromArray(SPECIES, zs, i).sub(z);
+            dx.mul(dx).add(dy.mul(dy)).add(dz.mul(dz))
+                .sqrt()
+                .div(2)
+                .min(1.0)
+                .lanewise(VectorOperators.ASIN)
+                .mul(2 * GeographicPosition.EARTH_RADIUS)
+                .intoArray(into, i);
+        }
+        return i;
+    }
+}